@@ -0,0 +1,261 @@
+package com.pyiapa.seatallocator.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.ArrangementFormatter;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A long-running server that performs seat allocations over HTTP, so that allocations do not pay
+ * the JVM startup cost and run on warmed-up code. Manifests are posted to the allocation endpoint
+ * in the same format as input files, and the response holds the sitting arrangement in the same
+ * format as the output of the application.
+ * 
+ * @author pyiapa
+ *
+ */
+public class AllocationServer {
+	
+	//the path of the allocation endpoint
+	public static final String ALLOCATION_PATH = "/allocate";
+	
+	//largest manifest (in bytes) accepted unless another limit is given
+	public static final int DEFAULT_MAX_REQUEST_BYTES = 64 * 1024 * 1024;
+	
+	//HTTP status codes used by the server
+	private static final int HTTP_OK = 200;
+	private static final int HTTP_BAD_REQUEST = 400;
+	private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+	private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+	private static final int HTTP_INTERNAL_ERROR = 500;
+	
+	//property of the built-in server that disables Nagle's algorithm on accepted connections
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+	
+	//a small manifest allocated repeatedly on startup so that allocation code is compiled before serving requests
+	private static final String WARM_UP_MANIFEST = "4 4\n1W 2 3\n4 5 6 7\n8\n9 10 11W\n12W\n13 14\n15 16 17 18 19W\n";
+	
+	//the embedded HTTP server
+	private HttpServer httpServer;
+	
+	//the executor that handles the requests
+	private ExecutorService executor;
+	
+	/**
+	 * Creates a server that performs seat allocations on the given port, accepting manifests of up to
+	 * the default size.
+	 * 
+	 * @param port The port to listen to (0 picks any free port)
+	 * 
+	 * @throws IOException Exception thrown when the server cannot bind to the port
+	 */
+	public AllocationServer(int port) throws IOException {
+		this(port, DEFAULT_MAX_REQUEST_BYTES);
+	}
+	
+	/**
+	 * Creates a server that performs seat allocations on the given port. Larger manifests are
+	 * rejected without being read into memory.
+	 * 
+	 * @param port The port to listen to (0 picks any free port)
+	 * @param maxRequestBytes Largest manifest (in bytes) accepted
+	 * 
+	 * @throws IOException Exception thrown when the server cannot bind to the port
+	 */
+	public AllocationServer(int port, int maxRequestBytes) throws IOException {
+		
+		if(maxRequestBytes < 1) {
+			throw new IllegalArgumentException("Maximum request size must be >= 1");
+		}
+		
+		//send small responses straight away rather than waiting on delayed acknowledgements (must be set
+		//before the first server is created)
+		if(System.getProperty(NO_DELAY_PROPERTY) == null) {
+			System.setProperty(NO_DELAY_PROPERTY, "true");
+		}
+		
+		httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+		httpServer.createContext(ALLOCATION_PATH, new AllocationHandler(maxRequestBytes));
+		
+		executor = createRequestExecutor();
+		httpServer.setExecutor(executor);
+	}
+	
+	/**
+	 * Starts serving allocation requests, after warming up the allocation code with the given 
+	 * number of allocations.
+	 * 
+	 * @param warmUpIterations Number of allocations to perform before serving requests
+	 */
+	public void start(int warmUpIterations) {
+		
+		for(int iteration = 0; iteration < warmUpIterations; iteration++) {
+			allocate(WARM_UP_MANIFEST.getBytes(StandardCharsets.UTF_8));
+		}
+		
+		httpServer.start();
+	}
+	
+	/**
+	 * Stops the server, waiting at most the given number of seconds for ongoing requests to complete.
+	 * 
+	 * @param delaySeconds Maximum time to wait for ongoing requests
+	 */
+	public void stop(int delaySeconds) {
+		httpServer.stop(delaySeconds);
+		executor.shutdown();
+	}
+	
+	/**
+	 * Gets the port the server listens to.
+	 * 
+	 * @return The port of the server
+	 */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+	
+	/*
+	 * Parses a manifest and performs the seat allocation. Returns the formatted sitting arrangement.
+	 * Throws an IllegalArgumentException on invalid manifests.
+	 */
+	private static String allocate(byte[] manifest) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		SittingArrangement sittingArrangement;
+		
+		inputParser.parseInput(new ByteArrayInputStream(manifest));
+		
+		sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+											   inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+											   inputParser.getNumWindowsInPlane()).allocateSeats();
+		
+		return ArrangementFormatter.format(sittingArrangement);
+	}
+	
+	/*
+	 * Creates a virtual-thread-per-request executor when the runtime supports virtual threads. Otherwise,
+	 * falls back to a pool of platform threads that grows with the number of concurrent requests.
+	 */
+	private static ExecutorService createRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+	
+	/*
+	 * Reads the whole body of a request, unless it is larger than the given number of bytes (as declared
+	 * by its length or found while reading it), in which case null is returned and reading stops
+	 */
+	private static byte[] readRequestBody(HttpExchange exchange, int maxRequestBytes) throws IOException {
+		
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int bytesRead;
+		
+		//the length declared by the client, if any
+		String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+		
+		try {
+			if(contentLength != null && Long.parseLong(contentLength.trim()) > maxRequestBytes) {
+				return null;
+			}
+		}catch(NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid Content-Length: " + contentLength);
+		}
+		
+		while((bytesRead = exchange.getRequestBody().read(buffer)) != -1) {
+			
+			if(body.size() + bytesRead > maxRequestBytes) {
+				return null;
+			}
+			
+			body.write(buffer, 0, bytesRead);
+		}
+		
+		return body.toByteArray();
+	}
+	
+	/*
+	 * Sends a plain text response with the given status code
+	 */
+	private static void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+		
+		byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+		
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(statusCode, responseBytes.length);
+		
+		try(OutputStream responseBody = exchange.getResponseBody()) {
+			responseBody.write(responseBytes);
+		}
+	}
+	
+	/*
+	 * Handles allocation requests. The body of a POST request holds the manifest to allocate.
+	 */
+	private static class AllocationHandler implements HttpHandler {
+		
+		//largest manifest (in bytes) accepted
+		private int maxRequestBytes;
+		
+		/*
+		 * Creates a handler that accepts manifests of up to the given size
+		 */
+		private AllocationHandler(int maxRequestBytes) {
+			this.maxRequestBytes = maxRequestBytes;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			
+			try {
+				if(!"POST".equals(exchange.getRequestMethod())) {
+					sendResponse(exchange, HTTP_METHOD_NOT_ALLOWED, "Please POST a passenger manifest" + System.lineSeparator());
+					return;
+				}
+				
+				try {
+					
+					byte[] manifest = readRequestBody(exchange, maxRequestBytes);
+					
+					if(manifest == null) {
+						sendResponse(exchange, HTTP_PAYLOAD_TOO_LARGE, "Manifest larger than " + maxRequestBytes + " bytes" + 
+									 System.lineSeparator());
+						return;
+					}
+					
+					sendResponse(exchange, HTTP_OK, allocate(manifest));
+				}
+				
+				//triggered when the manifest is missing or invalid
+				catch(IllegalArgumentException e) {
+					sendResponse(exchange, HTTP_BAD_REQUEST, e.getMessage() + System.lineSeparator());
+				}
+				
+				//any other failure of the allocation still gets a response
+				catch(RuntimeException e) {
+					sendResponse(exchange, HTTP_INTERNAL_ERROR, "Allocation failed: " + e + System.lineSeparator());
+				}
+				
+			}finally {
+				exchange.close();
+			}
+		}
+	}
+
+}
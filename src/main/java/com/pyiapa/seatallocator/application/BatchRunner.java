@@ -0,0 +1,346 @@
+package com.pyiapa.seatallocator.application;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.ArrangementFormatter;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ * Parses and allocates many input files in a single run. Files are processed in parallel on a 
+ * work-stealing pool, while the number of parsed manifests held in memory at any time is bounded.
+ * One output file is written per input file (with the same content as the output of the application) 
+ * together with a summary of the timings and satisfaction of every file.
+ * 
+ * @author pyiapa
+ *
+ */
+public class BatchRunner {
+	
+	//suffix of the output file written for each input file
+	public static final String OUTPUT_SUFFIX = ".out";
+	
+	//name of the summary file written in the output directory
+	public static final String SUMMARY_FILE = "summary.txt";
+	
+	//number of worker threads
+	private int parallelism;
+	
+	//maximum number of manifests that are parsed (or being allocated) at the same time
+	private int maxManifestsInFlight;
+	
+	/**
+	 * Creates a runner that processes input files in parallel.
+	 * 
+	 * @param parallelism Number of worker threads
+	 * @param maxManifestsInFlight Maximum number of parsed manifests held in memory at any time
+	 */
+	public BatchRunner(int parallelism, int maxManifestsInFlight) {
+		
+		if(parallelism < 1 || maxManifestsInFlight < 1) {
+			throw new IllegalArgumentException("Parallelism and manifests in flight must be >= 1");
+		}
+		
+		this.parallelism = parallelism;
+		this.maxManifestsInFlight = maxManifestsInFlight;
+	}
+	
+	/**
+	 * Finds the input files described by a directory (all regular files in it) or a glob pattern
+	 * in the file name (e.g. manifests/Input.*). Files are returned in name order.
+	 * 
+	 * @param directoryOrGlob A directory or a glob pattern
+	 * 
+	 * @return The input files
+	 * 
+	 * @throws IOException Exception thrown when the directory cannot be read
+	 */
+	public static List<Path> findInputFiles(String directoryOrGlob) throws IOException {
+		
+		//the input files found
+		List<Path> inputFiles = new ArrayList<Path>();
+		
+		Path path = Paths.get(directoryOrGlob);
+		Path directory;
+		PathMatcher fileNameMatcher;
+		
+		if(Files.isDirectory(path)) { //all files in the directory
+			directory = path;
+			fileNameMatcher = FileSystems.getDefault().getPathMatcher("glob:*");
+			
+		}else { //files in the parent directory with a name matching the pattern
+			directory = (path.getParent() == null)? Paths.get("."):path.getParent();
+			fileNameMatcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+		}
+		
+		try(DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+			for(Path file: directoryStream) {
+				if(Files.isRegularFile(file) && fileNameMatcher.matches(file.getFileName())) {
+					inputFiles.add(file);
+				}
+			}
+		}
+		
+		Collections.sort(inputFiles);
+		
+		return inputFiles;
+	}
+	
+	/**
+	 * Parses and allocates the given input files, writes one output file for each of them and a summary
+	 * in the output directory.
+	 * 
+	 * @param inputFiles The input files to process
+	 * @param outputDirectory The directory where output files are written
+	 * 
+	 * @return The result of each input file, in the order of the input files
+	 * 
+	 * @throws IOException Exception thrown when the output cannot be written
+	 * @throws InterruptedException Exception thrown when interrupted while waiting for files to be processed
+	 */
+	public List<FileResult> run(List<Path> inputFiles, final Path outputDirectory) throws IOException, InterruptedException {
+		
+		//results of the input files, in the order of the input files
+		final FileResult[] results = new FileResult[inputFiles.size()];
+		
+		//permits for manifests in flight. A permit is taken before a file is scheduled and returned when
+		//its output is written, so scheduling blocks while too many manifests are held in memory
+		final Semaphore manifestsInFlight = new Semaphore(maxManifestsInFlight);
+		
+		ForkJoinPool workers = new ForkJoinPool(parallelism);
+		
+		Files.createDirectories(outputDirectory);
+		
+		try {
+			for(int currentFile = 0; currentFile < inputFiles.size(); currentFile++) {
+				
+				final int fileIndex = currentFile;
+				final Path inputFile = inputFiles.get(currentFile);
+				
+				manifestsInFlight.acquire();
+				
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							results[fileIndex] = processFile(inputFile, outputDirectory);
+						}finally {
+							manifestsInFlight.release();
+						}
+					}
+				});
+			}
+			
+		}finally {
+			workers.shutdown();
+			workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		
+		//any file that could not be processed (e.g. output failed to be written) is reported as failed
+		for(int currentFile = 0; currentFile < results.length; currentFile++) {
+			if(results[currentFile] == null) {
+				results[currentFile] = new FileResult(inputFiles.get(currentFile), 0, 0, null, "Unable to process file");
+			}
+		}
+		
+		writeSummary(results, outputDirectory.resolve(SUMMARY_FILE));
+		
+		List<FileResult> fileResults = new ArrayList<FileResult>();
+		Collections.addAll(fileResults, results);
+		
+		return fileResults;
+	}
+	
+	/*
+	 * Parses and allocates a single input file and writes its output. Invalid input is reported in the 
+	 * output file (as the application does) and in the returned result.
+	 */
+	private static FileResult processFile(Path inputFile, Path outputDirectory) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		SittingArrangement sittingArrangement;
+		Path outputFile = outputDirectory.resolve(inputFile.getFileName() + OUTPUT_SUFFIX);
+		
+		long parseStartTime = System.nanoTime();
+		long allocationStartTime;
+		long allocationEndTime;
+		
+		try {
+			try {
+				// parse input file to extract passenger preferences and plane dimensions
+				inputParser.parseInputFile(inputFile.toString());
+			}
+			
+			// this will be triggered in a case where the input is missing or invalid
+			catch(IllegalArgumentException e) {
+				write(outputFile, e.getMessage() + System.lineSeparator());
+				return new FileResult(inputFile, System.nanoTime() - parseStartTime, 0, null, e.getMessage());
+			}
+			
+			allocationStartTime = System.nanoTime();
+			
+			sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+					 							   inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+					 							   inputParser.getNumWindowsInPlane()).allocateSeats();
+			
+			allocationEndTime = System.nanoTime();
+			
+			write(outputFile, ArrangementFormatter.format(sittingArrangement));
+			
+			return new FileResult(inputFile, allocationStartTime - parseStartTime, allocationEndTime - allocationStartTime, 
+								  sittingArrangement.getSatisfaction(), null);
+			
+		}catch(IOException e) {
+			return new FileResult(inputFile, 0, 0, null, "Unable to write output: " + e.getMessage());
+		}
+	}
+	
+	/*
+	 * Writes the given content to a file
+	 */
+	private static void write(Path file, String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/*
+	 * Writes a summary line with the timings and satisfaction of each file, followed by the totals
+	 */
+	private static void writeSummary(FileResult[] results, Path summaryFile) throws IOException {
+		
+		long totalParseTime = 0;
+		long totalAllocationTime = 0;
+		int failedFiles = 0;
+		
+		try(PrintWriter summary = new PrintWriter(Files.newBufferedWriter(summaryFile, StandardCharsets.UTF_8))) {
+			
+			summary.println("file\tparse ms\tallocation ms\tsatisfaction");
+			
+			for(FileResult result: results) {
+				summary.println(result);
+				
+				totalParseTime += result.getParseTime();
+				totalAllocationTime += result.getAllocationTime();
+				failedFiles += result.isFailed()? 1:0;
+			}
+			
+			summary.printf("total: %d files, %d failed, %.3f ms parsing, %.3f ms allocating%n", results.length, failedFiles, 
+						   totalParseTime / 1e6, totalAllocationTime / 1e6);
+		}
+	}
+	
+	/**
+	 * Holds the outcome of processing a single input file.
+	 */
+	public static class FileResult {
+		
+		//the input file
+		private Path inputFile;
+		
+		//time spent parsing the file, in nanoseconds
+		private long parseTime;
+		
+		//time spent allocating seats, in nanoseconds
+		private long allocationTime;
+		
+		//total passenger satisfaction (null if the file failed)
+		private String satisfaction;
+		
+		//reason the file failed (null if the file was processed)
+		private String error;
+		
+		/**
+		 * Creates an object that holds the outcome of processing an input file.
+		 * 
+		 * @param inputFile The input file
+		 * @param parseTime Time spent parsing the file, in nanoseconds
+		 * @param allocationTime Time spent allocating seats, in nanoseconds
+		 * @param satisfaction Total passenger satisfaction (null if the file failed)
+		 * @param error Reason the file failed (null if the file was processed)
+		 */
+		public FileResult(Path inputFile, long parseTime, long allocationTime, String satisfaction, String error) {
+			this.inputFile = inputFile;
+			this.parseTime = parseTime;
+			this.allocationTime = allocationTime;
+			this.satisfaction = satisfaction;
+			this.error = error;
+		}
+		
+		/**
+		 * Gets the input file.
+		 * 
+		 * @return The input file
+		 */
+		public Path getInputFile() {
+			return inputFile;
+		}
+		
+		/**
+		 * Gets the time spent parsing the file.
+		 * 
+		 * @return Parse time in nanoseconds
+		 */
+		public long getParseTime() {
+			return parseTime;
+		}
+		
+		/**
+		 * Gets the time spent allocating seats.
+		 * 
+		 * @return Allocation time in nanoseconds
+		 */
+		public long getAllocationTime() {
+			return allocationTime;
+		}
+		
+		/**
+		 * Gets the total passenger satisfaction.
+		 * 
+		 * @return The total passenger satisfaction, or null if the file failed
+		 */
+		public String getSatisfaction() {
+			return satisfaction;
+		}
+		
+		/**
+		 * Gets the reason the file failed.
+		 * 
+		 * @return The reason the file failed, or null if the file was processed
+		 */
+		public String getError() {
+			return error;
+		}
+		
+		/**
+		 * Informs whether the file failed to be processed.
+		 * 
+		 * @return Whether the file failed
+		 */
+		public boolean isFailed() {
+			return error != null;
+		}
+		
+		/**
+		 * Gets a summary line for the file
+		 */
+		public String toString() {
+			return String.format("%s\t%.3f\t%.3f\t%s", inputFile.getFileName(), parseTime / 1e6, allocationTime / 1e6, 
+								 isFailed()? "FAILED: " + error:satisfaction);
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.pyiapa.seatallocator.application;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local load-test client for the {@link AllocationServer}. It posts the same manifest repeatedly
+ * from a number of concurrent clients and reports the p50/p99 latency and the throughput.
+ * 
+ * @author pyiapa
+ *
+ */
+public class LoadTestClient {
+	
+	//number of requests sent before measuring, so that the server is warmed up
+	private static final int WARM_UP_REQUESTS = 1000;
+	
+	/**
+	 * 
+	 * Runs the load test
+	 * 
+	 * @param args Server URL (e.g. http://localhost:8080/allocate), input file to post, 
+	 *             number of concurrent clients and total number of requests
+	 * 
+	 * @throws Exception Exception thrown when the load test cannot be performed
+	 */
+	public static void main(String[] args) throws Exception {
+		
+		if(args.length != 4) {
+			System.out.println("Usage: LoadTestClient <url> <input file> <concurrent clients> <requests>");
+			System.exit(1);
+		}
+		
+		URL url = new URL(args[0]);
+		byte[] manifest = Files.readAllBytes(Paths.get(args[1]));
+		int concurrentClients = Integer.parseInt(args[2]);
+		int numRequests = Integer.parseInt(args[3]);
+		
+		//warm up the server (and the client)
+		runRequests(url, manifest, concurrentClients, WARM_UP_REQUESTS);
+		
+		//measure
+		long startTime = System.nanoTime();
+		long[] latencies = runRequests(url, manifest, concurrentClients, numRequests);
+		long elapsedTime = System.nanoTime() - startTime;
+		
+		Arrays.sort(latencies);
+		
+		System.out.println("requests:     " + numRequests);
+		System.out.println("clients:      " + concurrentClients);
+		System.out.printf("p50 latency:  %.3f ms%n", percentile(latencies, 50) / 1e6);
+		System.out.printf("p99 latency:  %.3f ms%n", percentile(latencies, 99) / 1e6);
+		System.out.printf("throughput:   %.1f requests/sec%n", numRequests / (elapsedTime / 1e9));
+	}
+	
+	/*
+	 * Sends the given number of requests from a number of concurrent clients and returns
+	 * the latency of each request in nanoseconds
+	 */
+	private static long[] runRequests(final URL url, final byte[] manifest, int concurrentClients, int numRequests) 
+			throws InterruptedException, ExecutionException {
+		
+		final long[] latencies = new long[numRequests];
+		final AtomicInteger nextRequest = new AtomicInteger();
+		
+		ExecutorService clients = Executors.newFixedThreadPool(concurrentClients);
+		List<Future<Void>> results = new ArrayList<Future<Void>>();
+		
+		for(int client = 0; client < concurrentClients; client++) {
+			results.add(clients.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					
+					int request;
+					
+					while((request = nextRequest.getAndIncrement()) < latencies.length) {
+						long startTime = System.nanoTime();
+						sendRequest(url, manifest);
+						latencies[request] = System.nanoTime() - startTime;
+					}
+					return null;
+				}
+			}));
+		}
+		
+		try {
+			//propagate any failed request
+			for(Future<Void> result: results) {
+				result.get();
+			}
+		}finally {
+			clients.shutdown();
+		}
+		
+		return latencies;
+	}
+	
+	/*
+	 * Posts the manifest to the server and consumes the response
+	 */
+	private static void sendRequest(URL url, byte[] manifest) throws IOException {
+		
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		byte[] buffer = new byte[8192];
+		
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setFixedLengthStreamingMode(manifest.length);
+		
+		try(OutputStream requestBody = connection.getOutputStream()) {
+			requestBody.write(manifest);
+		}
+		
+		if(connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+			throw new IOException("Allocation request failed with status " + connection.getResponseCode());
+		}
+		
+		//consume the response so that the connection can be reused
+		try(InputStream responseBody = connection.getInputStream()) {
+			while(responseBody.read(buffer) != -1);
+		}
+	}
+	
+	/*
+	 * Returns the given percentile of sorted values
+	 */
+	private static long percentile(long[] sortedValues, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+		return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+	}
+
+}
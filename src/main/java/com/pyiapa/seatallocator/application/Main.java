@@ -1,10 +1,25 @@
 package com.pyiapa.seatallocator.application;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
+import com.pyiapa.seatallocator.domain.Departure;
 import com.pyiapa.seatallocator.domain.Passenger;
 import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.domain.WaitlistDistribution;
+import com.pyiapa.seatallocator.services.ExternalGroupSorter;
+import com.pyiapa.seatallocator.services.RowConsumer;
 import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.services.WaitlistDistributor;
+import com.pyiapa.seatallocator.utilities.ArrangementFormatter;
+import com.pyiapa.seatallocator.utilities.GroupConsumer;
+import com.pyiapa.seatallocator.utilities.ParallelPassengerParser;
 import com.pyiapa.seatallocator.utilities.PassengerParser;
 
 /**
@@ -15,18 +30,75 @@ import com.pyiapa.seatallocator.utilities.PassengerParser;
  *
  */
 public class Main {
+	
+	//command line option that runs the application as a long-running allocation server
+	private static final String SERVER_MODE = "--server";
+	
+	//command line option that allocates every input file in a directory (or matching a glob pattern)
+	private static final String BATCH_MODE = "--batch";
+	
+	//command line option that distributes the passengers of an input file across several departures
+	private static final String WAITLIST_MODE = "--waitlist";
+	
+	//command line option that allocates an input file larger than the heap, ordering its groups on disk
+	private static final String EXTERNAL_MODE = "--external";
+	
+	//input file name that reads the input from the standard input (e.g. a pipe)
+	private static final String STANDARD_INPUT = "-";
+	
+	//directory where batch outputs are written unless one is provided
+	private static final String DEFAULT_BATCH_OUTPUT_DIRECTORY = "allocations";
+	
+	//input files larger than this (in bytes) are parsed in parallel
+	private static final long PARALLEL_PARSING_THRESHOLD = 16 * 1024 * 1024;
+	
+	//flights that may need more (virtual) rows than this keep the row state off-heap
+	private static final int OFF_HEAP_ROWS_THRESHOLD = 1000000;
+	
+	//port of the allocation server unless one is provided
+	private static final int DEFAULT_SERVER_PORT = 8080;
+	
+	//number of allocations performed to warm up the allocation server before serving requests
+	private static final int SERVER_WARM_UP_ITERATIONS = 20000;
 
 	/**
 	 * 
 	 * Drives the application that simulates passenger sitting configuration in a plane
 	 * 
-	 * @param args Input file with passenger preferences and plane dimensions
+	 * @param args Input file with passenger preferences and plane dimensions ("-" reads it from the 
+	 *             standard input), the server 
+	 *             option followed by an optional port, or the batch option followed by a directory
+	 *             (or glob pattern) of input files and an optional output directory, or the waitlist 
+	 *             option followed by an input file and the plane dimensions of each departure, or the 
+	 *             external option followed by an input file ("-" reads it from the standard input) and an
+	 *             optional directory for the files of the groups ordered on disk
 	 */
 	public static void main(String[] args) {
+		
+		if(args.length > 0 && SERVER_MODE.equals(args[0])) {
+			runServer(args);
+			return;
+		}
+		
+		if(args.length > 0 && BATCH_MODE.equals(args[0])) {
+			runBatch(args);
+			return;
+		}
+		
+		if(args.length > 0 && WAITLIST_MODE.equals(args[0])) {
+			runWaitlist(args);
+			return;
+		}
+		
+		if(args.length > 0 && EXTERNAL_MODE.equals(args[0])) {
+			runExternal(args);
+			return;
+		}
 
 		// the utility that parses the input to extract customer preferences and plane
-		// dimensions
-		PassengerParser inputParser = new PassengerParser();
+		// dimensions. Very large input files are parsed in parallel
+		PassengerParser inputParser = (args.length > 0 && new File(args[0]).length() > PARALLEL_PARSING_THRESHOLD)? 
+									  new ParallelPassengerParser():new PassengerParser();
 
 		//the service that performs the seating allocation based on passenger satisfaction
 		SeatAllocator seatAllocator;
@@ -35,12 +107,14 @@ public class Main {
 		// satisfaction
 		SittingArrangement sittingArrangement;
 
-		// the final passenger group sitting configuration
-		List<List<Passenger>> seatConfiguration;
-
 		try {
-			// parse input file to extract passenger preferences and plane dimensions
-			inputParser.parseInputFile(args[0]);
+			// parse input file to extract passenger preferences and plane dimensions. Input piped to the standard
+			// input is streamed through a bounded buffer rather than read as a whole
+			if(args.length > 0 && STANDARD_INPUT.equals(args[0])) {
+				inputParser.parseInput(Channels.newChannel(System.in));
+			}else {
+				inputParser.parseInputFile(args[0]);
+			}
 		}
 
 		// this will be triggered in a case where the input is missing or invalid
@@ -57,24 +131,243 @@ public class Main {
 				 					      inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
 				 						  inputParser.getNumWindowsInPlane());
 		
+		//heavily over-subscribed flights open a (virtual) row for every few passengers, so keep row state off-heap
+		seatAllocator.setOffHeapRowState(inputParser.getPassengerCount() / inputParser.getNumSeatsInRow() > OFF_HEAP_ROWS_THRESHOLD);
+		
 		//perform the seat allocation and get the final sitting configuration and satisfaction
 		sittingArrangement = seatAllocator.allocateSeats();
 		
-		//get the final passenger sitting configuration on the plane
-		seatConfiguration = sittingArrangement.getSeatConfiguration();
+		//output the final sitting configuration and the total passenger satisfaction. Passengers with window 
+		//preferences satisfied will appear on the sides of the row
+		System.out.print(ArrangementFormatter.format(sittingArrangement));
+
+	}
+	
+	/*
+	 * Runs the application as a long-running allocation server until the process is terminated
+	 */
+	private static void runServer(String[] args) {
+		
+		final AllocationServer allocationServer;
+		
+		try {
+			allocationServer = new AllocationServer(args.length > 1? Integer.parseInt(args[1]):DEFAULT_SERVER_PORT);
+			
+		}catch(NumberFormatException e) {
+			System.out.println("Invalid input: server port must be in numeric format");
+			System.exit(1);
+			return;
+			
+		}catch(IOException e) {
+			System.out.println("Unable to start allocation server: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
 		
-		//output the final sitting configuration. Passengers with window preferences satisfied will appear on the
-		//sides of the row
-		for (int currentRow = 0; currentRow < seatConfiguration.size(); currentRow++) {
-			for (int currentPassenger = 0; currentPassenger < seatConfiguration.get(currentRow).size(); currentPassenger++) {
-				System.out.print(seatConfiguration.get(currentRow).get(currentPassenger).getPassengerID() + " ");
+		//stop serving requests when the process is terminated
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				allocationServer.stop(1);
 			}
-			System.out.println();
+		});
+		
+		allocationServer.start(SERVER_WARM_UP_ITERATIONS);
+		System.out.println("Allocation server listening on port " + allocationServer.getPort() 
+						   + ", POST manifests to " + AllocationServer.ALLOCATION_PATH);
+	}
+	
+	/*
+	 * Allocates every input file in a directory (or matching a glob pattern) in parallel, writing an output
+	 * file for each of them and a summary in the output directory
+	 */
+	private static void runBatch(String[] args) {
+		
+		//number of worker threads
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		
+		//the input files to allocate
+		List<Path> inputFiles;
+		
+		//the result of each input file
+		List<BatchRunner.FileResult> results;
+		
+		//number of input files that failed
+		int failedFiles = 0;
+		
+		if(args.length < 2) {
+			System.out.println("Please provide an input directory or glob pattern");
+			System.exit(1);
 		}
 		
-		//output the total passenger satisfaction
-		System.out.println(sittingArrangement.getSatisfaction());
+		Path outputDirectory = Paths.get(args.length > 2? args[2]:DEFAULT_BATCH_OUTPUT_DIRECTORY);
+		
+		try {
+			inputFiles = BatchRunner.findInputFiles(args[1]);
+			
+			//bound the number of parsed manifests in memory to a couple per worker
+			results = new BatchRunner(parallelism, 2 * parallelism).run(inputFiles, outputDirectory);
+			
+		}catch(IOException | InterruptedException e) {
+			System.out.println("Unable to run batch: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		
+		for(BatchRunner.FileResult result: results) {
+			failedFiles += result.isFailed()? 1:0;
+		}
+		
+		System.out.println(results.size() + " files allocated (" + failedFiles + " failed), summary in " 
+						   + outputDirectory.resolve(BatchRunner.SUMMARY_FILE));
+	}
 
+	/*
+	 * Allocates an input file whose groups do not fit in memory all at once. Groups are ordered in runs written
+	 * to disk as they are parsed, and then merged into the allocation, which streams the rows of the plane so 
+	 * that only the open rows are held in memory. Prints the same output as an allocation in memory
+	 */
+	private static void runExternal(String[] args) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		//the service that performs the seating allocation based on passenger satisfaction
+		SeatAllocator seatAllocator;
+		
+		//the rows of the plane by row number (null for rows that were not opened)
+		final List<List<Passenger>> planeRows = new ArrayList<List<Passenger>>();
+		
+		//the rows that were opened, in row order
+		List<List<Passenger>> seatConfiguration = new ArrayList<List<Passenger>>();
+		
+		//the total passenger satisfaction
+		String satisfaction;
+		
+		if(args.length < 2) {
+			System.out.println("Please provide Input File");
+			System.exit(1);
+		}
+		
+		try(final ExternalGroupSorter groupSorter = new ExternalGroupSorter(Paths.get(args.length > 2? args[2]:
+																			System.getProperty("java.io.tmpdir")))) {
+			
+			//the groups are ordered on disk as soon as they are parsed, rather than kept by the parser
+			GroupConsumer groupConsumer = new GroupConsumer() {
+				@Override
+				public void acceptGroup(List<Passenger> passengerGroup) {
+					groupSorter.addGroup(passengerGroup);
+				}
+			};
+			
+			if(STANDARD_INPUT.equals(args[1])) {
+				inputParser.parseInput(Channels.newChannel(System.in), PassengerParser.DEFAULT_BUFFER_SIZE, groupConsumer);
+			}else {
+				inputParser.parseInputFile(args[1], groupConsumer);
+			}
+			
+			seatAllocator = new SeatAllocator(new ArrayList<List<Passenger>>(), inputParser.getNumRows(), 
+											  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+											  inputParser.getNumWindowsInPlane());
+			seatAllocator.setOffHeapRowState(inputParser.getPassengerCount() / inputParser.getNumSeatsInRow() > OFF_HEAP_ROWS_THRESHOLD);
+			
+			//rows are delivered as they fill up, so put them back in row order
+			satisfaction = seatAllocator.allocateSeats(groupSorter.merge(), new RowConsumer() {
+				@Override
+				public void acceptRow(int rowNumber, List<Passenger> row) {
+					while(planeRows.size() <= rowNumber) {
+						planeRows.add(null);
+					}
+					planeRows.set(rowNumber, row);
+				}
+			});
+			
+		}catch(IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
+			return;
+			
+		}catch(IOException | UncheckedIOException e) {
+			System.out.println("Unable to order groups on disk: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		
+		for(List<Passenger> row: planeRows) {
+			if(row != null) {
+				seatConfiguration.add(row);
+			}
+		}
+		
+		System.out.print(ArrangementFormatter.format(new SittingArrangement(seatConfiguration, satisfaction)));
+	}
+
+	/*
+	 * Distributes the passengers of an input file across several departures, given by their plane dimensions 
+	 * in the order of the first line of an input file (e.g. 4x4), and prints the arrangement of each departure
+	 * followed by the passengers left without a departure and the total satisfaction
+	 */
+	private static void runWaitlist(String[] args) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		//the departures to distribute the passengers to
+		List<Departure> departures = new ArrayList<Departure>();
+		
+		//the arrangement of each departure and the total satisfaction
+		WaitlistDistribution waitlistDistribution;
+		
+		//the textual representation of the distribution
+		StringBuilder output = new StringBuilder();
+		
+		try {
+			
+			if(args.length < 3) {
+				throw new IllegalArgumentException("Please provide an input file and the dimensions of each departure");
+			}
+			
+			inputParser.parseInputFile(args[1]);
+			
+			for(int departure = 2; departure < args.length; departure++) {
+				
+				String[] planeDimensions = args[departure].split("x");
+				
+				if(planeDimensions.length != 2) {
+					throw new IllegalArgumentException("Please provide valid plane dimensions: " + args[departure]);
+				}
+				
+				departures.add(new Departure(Integer.parseInt(planeDimensions[0]), Integer.parseInt(planeDimensions[1]), 
+											 inputParser.getNumWindowsInPlane()));
+			}
+			
+		}catch(NumberFormatException e) {
+			System.out.println("Invalid input: plane dimensions must be in numeric format");
+			System.exit(1);
+			return;
+			
+		}catch(IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
+			return;
+		}
+		
+		waitlistDistribution = new WaitlistDistributor(departures).distribute(inputParser.getPassengerGroups(), 
+																				inputParser.getPassengerCount());
+		
+		for(int departure = 0; departure < departures.size(); departure++) {
+			output.append("Departure ").append(departure + 1).append(" (").append(departures.get(departure)).append(')')
+				  .append(System.lineSeparator())
+				  .append(ArrangementFormatter.format(waitlistDistribution.getSittingArrangements().get(departure)));
+		}
+		
+		output.append("Unassigned:");
+		for(List<Passenger> passengerGroup: waitlistDistribution.getUnassignedGroups()) {
+			for(Passenger passenger: passengerGroup) {
+				output.append(' ').append(passenger.getPassengerID());
+			}
+		}
+		output.append(System.lineSeparator()).append(waitlistDistribution.getSatisfaction()).append(System.lineSeparator());
+		
+		System.out.print(output);
 	}
 
 }
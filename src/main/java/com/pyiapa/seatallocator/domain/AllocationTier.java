@@ -0,0 +1,33 @@
+package com.pyiapa.seatallocator.domain;
+
+/**
+ * The strategy that produced a sitting arrangement under a time budget, from the cheapest to the
+ * strongest one.
+ * 
+ * @author pyiapa
+ *
+ */
+public enum AllocationTier {
+	
+	/**
+	 * The plain greedy allocation, which every time-limited allocation starts from
+	 */
+	GREEDY,
+	
+	/**
+	 * Local search that improves the greedy arrangement by moving groups between rows
+	 */
+	LOCAL_SEARCH,
+	
+	/**
+	 * Exhaustive search over the rows of groups that the time budget stopped before it went through
+	 * every assignment, so the arrangement is the best one found rather than the best one possible
+	 */
+	PARTIAL_EXACT,
+	
+	/**
+	 * Exhaustive search over the rows of groups, used for small planes
+	 */
+	EXACT
+
+}
@@ -0,0 +1,678 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * A finished sitting arrangement persisted in a compact binary file that is used through memory mapping,
+ * so that a restarted process regains its flights without allocating them again or reading them into
+ * objects. The file holds a header with the plane dimensions and the satisfaction, the state of each row
+ * of the plane as fixed-width records (available seats, available window seats and row satisfaction, as
+ * kept during the allocation), the passenger in each seat, and a hash table (open addressing with linear
+ * probing) from passenger ID to seat. Lookups read the mapped file directly and updates (seating or
+ * removing a passenger) write it in place, so opening a snapshot takes constant time whatever the size of
+ * the flight. The index is rebuilt in place from the seats once too many of its entries belong to removed
+ * passengers, so that searches keep ending at an empty entry. Values are stored in big-endian order.
+ *
+ * @author pyiapa
+ *
+ */
+public class ArrangementSnapshot implements Closeable {
+
+	/**
+	 * Suffix of the names of snapshot files
+	 */
+	public static final String FILE_SUFFIX = ".snapshot";
+
+	//identifies snapshot files and the version of their layout
+	private static final int MAGIC = 0x53454154;
+	private static final int VERSION = 3;
+
+	//layout of the header (in bytes)
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int NUM_ROWS_OFFSET = 8;
+	private static final int NUM_SEATS_IN_ROW_OFFSET = 12;
+	private static final int NUM_ROWS_OPENED_OFFSET = 16;
+	private static final int NUM_WINDOW_SEATS_OFFSET = 20;
+	private static final int WINDOW_SEATS_OFFSET = 24;
+	private static final int INDEX_CAPACITY_OFFSET = 32;
+	private static final int WEIGHTED_PASSENGER_COUNT_OFFSET = 40;
+	private static final int SATISFACTION_POINTS_OFFSET = 48;
+	private static final int SATISFACTION_BOUND_OFFSET = 56;
+	private static final int JOURNAL_SEQUENCE_OFFSET = 64;
+	private static final int REMOVED_ENTRIES_OFFSET = 72;
+	private static final int HEADER_SIZE = 80;
+
+	//layout of a row record (in bytes), as in the off-heap row store
+	private static final int AVAILABLE_SEATS_OFFSET = 0;
+	private static final int AVAILABLE_WINDOW_SEATS_OFFSET = 4;
+	private static final int ROW_SATISFACTION_OFFSET = 8;
+	private static final int ROW_RECORD_SIZE = 16;
+
+	//layout of a seat record (in bytes)
+	private static final int PASSENGER_SATISFACTION_OFFSET = 0;
+	private static final int PASSENGER_ID_OFFSET = 8;
+	private static final int PASSENGER_WEIGHT_OFFSET = 12;
+	private static final int PASSENGER_FLAGS_OFFSET = 16;
+	private static final int SEAT_RECORD_SIZE = 24;
+
+	//layout of an entry of the passenger index (in bytes)
+	private static final int ENTRY_KEY_OFFSET = 0;
+	private static final int ENTRY_SEAT_OFFSET = 4;
+	private static final int ENTRY_SIZE = 8;
+
+	//seats of index entries that are empty, or that held a passenger who was removed since
+	private static final int EMPTY_ENTRY = -1;
+	private static final int REMOVED_ENTRY = -2;
+
+	//position returned when the search for a passenger inspects every entry without reaching an empty one
+	private static final int NOT_FOUND = -1;
+
+	//share of the index entries (as a divisor) that may belong to removed passengers before the index is rebuilt
+	private static final int REMOVED_ENTRIES_DIVISOR = 4;
+
+	//flags of a seat record
+	private static final int OCCUPIED = 1;
+	private static final int WINDOW_PREFERENCE = 2;
+	private static final int PASSENGER_IN_GROUP = 4;
+	private static final int SEPARATED_FROM_GROUP = 8;
+	private static final int WINDOW_SEAT = 16;
+
+	//the channel of the snapshot file and the file mapped in memory
+	private FileChannel channel;
+	private MappedByteBuffer snapshot;
+
+	//plane dimensions and the number of entries of the passenger index, read from the header
+	private int numRows;
+	private int numSeatsInRow;
+	private int indexCapacity;
+
+	//where the seat records and the passenger index start in the file
+	private int seatsStart;
+	private int indexStart;
+
+	/*
+	 * Creates a snapshot over a file mapped in memory, checking its header
+	 */
+	private ArrangementSnapshot(FileChannel channel, MappedByteBuffer snapshot) {
+
+		this.channel = channel;
+		this.snapshot = snapshot;
+
+		if(snapshot.capacity() < HEADER_SIZE || snapshot.getInt(MAGIC_OFFSET) != MAGIC ||
+		   snapshot.getInt(VERSION_OFFSET) != VERSION) {
+			throw new IllegalArgumentException("Not an arrangement snapshot");
+		}
+
+		this.numRows = snapshot.getInt(NUM_ROWS_OFFSET);
+		this.numSeatsInRow = snapshot.getInt(NUM_SEATS_IN_ROW_OFFSET);
+		this.indexCapacity = snapshot.getInt(INDEX_CAPACITY_OFFSET);
+		this.seatsStart = HEADER_SIZE + numRows * ROW_RECORD_SIZE;
+		this.indexStart = seatsStart + numRows * numSeatsInRow * SEAT_RECORD_SIZE;
+
+		if((long) indexStart + (long) indexCapacity * ENTRY_SIZE != snapshot.capacity()) {
+			throw new IllegalArgumentException("Truncated arrangement snapshot");
+		}
+	}
+
+	/**
+	 * Writes a finished arrangement to a snapshot file, replacing the file if it exists.
+	 *
+	 * @param file The snapshot file
+	 * @param sittingArrangement The arrangement, with its seat map
+	 * @param weightedPassengerCount Number of passengers the satisfaction is rated over (counted by their weight),
+	 *                               including passengers that did not get a seat
+	 *
+	 * @throws IOException Exception thrown if the file cannot be written
+	 */
+	public static void write(Path file, SittingArrangement sittingArrangement, long weightedPassengerCount)
+			throws IOException {
+
+		//the passenger in each seat of the arrangement
+		SeatMap seatMap = sittingArrangement.getSeatMap();
+
+		//window seat positions in a row
+		int numWindowSeats = 0;
+		int[] windowSeats = {-1, -1};
+
+		if(seatMap == null) {
+			throw new IllegalArgumentException("Snapshots need the seat map of the arrangement");
+		}
+
+		if(weightedPassengerCount < 1) {
+			throw new IllegalArgumentException("Snapshots need at least one passenger");
+		}
+
+		//number of rows in the plane
+		int numRows = seatMap.getNumRows();
+
+		for(int seat = 0; seat < seatMap.getNumSeatsInRow() && numWindowSeats < windowSeats.length; seat++) {
+			if(seatMap.isWindowSeat(seat)) {
+				windowSeats[numWindowSeats++] = seat;
+			}
+		}
+
+		//size of the file, with an index that is at most half full when every seat is taken
+		long numSeats = (long) numRows * seatMap.getNumSeatsInRow();
+		long indexCapacity = Long.highestOneBit(Math.max(2, 2 * numSeats) - 1) << 1;
+		long fileSize = HEADER_SIZE + numRows * (long) ROW_RECORD_SIZE + numSeats * SEAT_RECORD_SIZE + indexCapacity * ENTRY_SIZE;
+
+		if(fileSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Plane too large for a snapshot");
+		}
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+												   StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+			MappedByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+			snapshot.putInt(MAGIC_OFFSET, MAGIC);
+			snapshot.putInt(VERSION_OFFSET, VERSION);
+			snapshot.putInt(NUM_ROWS_OFFSET, numRows);
+			snapshot.putInt(NUM_SEATS_IN_ROW_OFFSET, seatMap.getNumSeatsInRow());
+			snapshot.putInt(NUM_ROWS_OPENED_OFFSET, seatMap.getNumRowsOpened());
+			snapshot.putInt(NUM_WINDOW_SEATS_OFFSET, numWindowSeats);
+			snapshot.putInt(WINDOW_SEATS_OFFSET, windowSeats[0]);
+			snapshot.putInt(WINDOW_SEATS_OFFSET + 4, windowSeats[1]);
+			snapshot.putInt(INDEX_CAPACITY_OFFSET, (int) indexCapacity);
+			snapshot.putLong(WEIGHTED_PASSENGER_COUNT_OFFSET, weightedPassengerCount);
+			snapshot.putDouble(SATISFACTION_POINTS_OFFSET, 0);
+			snapshot.putDouble(SATISFACTION_BOUND_OFFSET, sittingArrangement.getSatisfactionBound());
+			snapshot.putLong(JOURNAL_SEQUENCE_OFFSET, 0);
+			snapshot.putInt(REMOVED_ENTRIES_OFFSET, 0);
+
+			//the snapshot is filled through the same methods that update it
+			ArrangementSnapshot arrangementSnapshot = new ArrangementSnapshot(channel, snapshot);
+
+			for(int entry = 0; entry < indexCapacity; entry++) {
+				snapshot.putInt(arrangementSnapshot.indexStart + entry * ENTRY_SIZE + ENTRY_SEAT_OFFSET, EMPTY_ENTRY);
+			}
+
+			for(int row = 0; row < numRows; row++) {
+				snapshot.putInt(arrangementSnapshot.rowRecord(row) + AVAILABLE_SEATS_OFFSET, seatMap.getNumSeatsInRow());
+				snapshot.putInt(arrangementSnapshot.rowRecord(row) + AVAILABLE_WINDOW_SEATS_OFFSET, numWindowSeats);
+				snapshot.putDouble(arrangementSnapshot.rowRecord(row) + ROW_SATISFACTION_OFFSET, 0);
+			}
+
+			for(int row = 0; row < seatMap.getNumRowsOpened(); row++) {
+				for(int seat = 0; seat < seatMap.getNumSeatsInRow(); seat++) {
+					if(seatMap.getPassenger(row, seat) != null) {
+						arrangementSnapshot.assignSeat(seatMap.getPassenger(row, seat), row, seat,
+													   seatMap.getPassenger(row, seat).getSatisfaction());
+					}
+				}
+			}
+
+			snapshot.force();
+		}
+	}
+
+	/**
+	 * Opens a snapshot file by mapping it in memory. Nothing is read besides the header until it is asked for.
+	 *
+	 * @param file The snapshot file
+	 *
+	 * @return The snapshot, which reads and updates the file in place
+	 *
+	 * @throws IOException Exception thrown if the file cannot be opened
+	 * @throws IllegalArgumentException Exception thrown if the file is not a snapshot
+	 */
+	public static ArrangementSnapshot open(Path file) throws IOException {
+
+		//the channel of the file, closed again if the file is not a snapshot
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			return new ArrangementSnapshot(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+		}catch(IOException | IllegalArgumentException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens every snapshot file (named with the snapshot suffix) of a directory, e.g. all live flights of a
+	 * restarted process.
+	 *
+	 * @param directory The directory of the snapshot files
+	 *
+	 * @return The snapshots by the name of their file without the suffix
+	 *
+	 * @throws IOException Exception thrown if a file cannot be opened
+	 * @throws IllegalArgumentException Exception thrown if a file is not a snapshot
+	 */
+	public static Map<String, ArrangementSnapshot> openAll(Path directory) throws IOException {
+
+		//the snapshots opened so far, closed again if a file cannot be opened
+		Map<String, ArrangementSnapshot> snapshots = new LinkedHashMap<String, ArrangementSnapshot>();
+
+		try(DirectoryStream<Path> snapshotFiles = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+			for(Path snapshotFile: snapshotFiles) {
+				String fileName = snapshotFile.getFileName().toString();
+				snapshots.put(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()), open(snapshotFile));
+			}
+		}catch(IOException | IllegalArgumentException e) {
+			for(ArrangementSnapshot snapshot: snapshots.values()) {
+				snapshot.close();
+			}
+			throw e;
+		}
+
+		return snapshots;
+	}
+
+	/**
+	 * Finds the row of a passenger in constant time
+	 *
+	 * @param passengerID The ID of the passenger
+	 *
+	 * @return The row number of the passenger, or SeatMap.NOT_SEATED if the passenger has no seat
+	 */
+	public int getRowOf(int passengerID) {
+		int seat = findSeat(passengerID);
+		return (seat < 0)? SeatMap.NOT_SEATED:seat / numSeatsInRow;
+	}
+
+	/**
+	 * Finds the seat number (within their row) of a passenger in constant time
+	 *
+	 * @param passengerID The ID of the passenger
+	 *
+	 * @return The seat number of the passenger, or SeatMap.NOT_SEATED if the passenger has no seat
+	 */
+	public int getSeatOf(int passengerID) {
+		int seat = findSeat(passengerID);
+		return (seat < 0)? SeatMap.NOT_SEATED:seat % numSeatsInRow;
+	}
+
+	/**
+	 * Informs whether a seat is taken
+	 *
+	 * @param row The row number
+	 * @param seat The seat number within the row
+	 *
+	 * @return Whether a passenger sits in the seat
+	 */
+	public boolean isSeatTaken(int row, int seat) {
+		return (snapshot.getInt(seatRecord(row, seat) + PASSENGER_FLAGS_OFFSET) & OCCUPIED) != 0;
+	}
+
+	/**
+	 * Gets the ID of the passenger in a seat
+	 *
+	 * @param row The row number
+	 * @param seat The seat number within the row
+	 *
+	 * @return The ID of the passenger in the seat
+	 *
+	 * @throws IllegalArgumentException Exception thrown if the seat is free
+	 */
+	public int getPassengerID(int row, int seat) {
+
+		if(!isSeatTaken(row, seat)) {
+			throw new IllegalArgumentException("Seat " + seat + " of row " + row + " is free");
+		}
+
+		return snapshot.getInt(seatRecord(row, seat) + PASSENGER_ID_OFFSET);
+	}
+
+	/**
+	 * Gets the number of free seats of a row
+	 *
+	 * @param row The row number
+	 *
+	 * @return Number of free seats in the row
+	 */
+	public int getAvailableSeats(int row) {
+		return snapshot.getInt(rowRecord(row) + AVAILABLE_SEATS_OFFSET);
+	}
+
+	/**
+	 * Gets the number of window seats of a row that were not given to a passenger with a window preference
+	 *
+	 * @param row The row number
+	 *
+	 * @return Number of window seats still available in the row
+	 */
+	public int getAvailableWindowSeats(int row) {
+		return snapshot.getInt(rowRecord(row) + AVAILABLE_WINDOW_SEATS_OFFSET);
+	}
+
+	/**
+	 * Gets the total passenger satisfaction, including the updates made to the snapshot
+	 *
+	 * @return The total passenger satisfaction (in percent)
+	 */
+	public double getSatisfactionScore() {
+		return snapshot.getDouble(SATISFACTION_POINTS_OFFSET) / snapshot.getLong(WEIGHTED_PASSENGER_COUNT_OFFSET) * 100;
+	}
+
+	/**
+	 * Gets the total passenger satisfaction formatted the way it is reported
+	 *
+	 * @return The formatted satisfaction
+	 */
+	public String getSatisfaction() {
+		return SittingArrangement.formatSatisfaction(getSatisfactionScore());
+	}
+
+	/**
+	 * Gets the upper bound on the satisfaction of the arrangement as it was allocated
+	 *
+	 * @return The upper bound on the total passenger satisfaction (in percent), or NaN if not available
+	 */
+	public double getSatisfactionBound() {
+		return snapshot.getDouble(SATISFACTION_BOUND_OFFSET);
+	}
+
+	/**
+	 * Gets the number of rows of the plane
+	 *
+	 * @return Number of rows in the plane
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/**
+	 * Gets the number of seats per row
+	 *
+	 * @return Number of seats per row
+	 */
+	public int getNumSeatsInRow() {
+		return numSeatsInRow;
+	}
+
+	/**
+	 * Gets the number of rows of the plane that hold or held passengers
+	 *
+	 * @return Number of rows opened
+	 */
+	public int getNumRowsOpened() {
+		return snapshot.getInt(NUM_ROWS_OPENED_OFFSET);
+	}
+
+	/**
+	 * Gets the sequence number of the last booking journal event applied to the snapshot
+	 *
+	 * @return The sequence number of the last event applied (0 if none)
+	 */
+	public long getJournalSequence() {
+		return snapshot.getLong(JOURNAL_SEQUENCE_OFFSET);
+	}
+
+	/**
+	 * Records the sequence number of the last booking journal event applied to the snapshot, so that replaying the
+	 * journal skips the events the snapshot already holds
+	 *
+	 * @param journalSequence The sequence number of the last event applied
+	 */
+	public void setJournalSequence(long journalSequence) {
+		snapshot.putLong(JOURNAL_SEQUENCE_OFFSET, journalSequence);
+	}
+
+	/**
+	 * Seats a passenger in a free seat, updating the state of the row and the satisfaction in place. A passenger
+	 * with a window preference seated in a window seat takes one of the window seats of the row.
+	 *
+	 * @param passenger The passenger to seat
+	 * @param row The row number
+	 * @param seat The seat number within the row
+	 * @param satisfaction The satisfaction (from 0 to 1) of the passenger in the seat
+	 *
+	 * @throws IllegalArgumentException Exception thrown if the seat is taken or the passenger already has a seat
+	 */
+	public void assignSeat(Passenger passenger, int row, int seat, double satisfaction) {
+
+		//the records of the seat and the row, and the index entry of the passenger
+		int seatRecord = seatRecord(row, seat);
+		int rowRecord = rowRecord(row);
+		int entry = findEntry(passenger.getPassengerID());
+
+		//whether the passenger takes one of the window seats of the row
+		boolean windowSeat = passenger.hasWindowPreference() && isWindowSeat(seat);
+
+		if(isSeatTaken(row, seat)) {
+			throw new IllegalArgumentException("Seat " + seat + " of row " + row + " is taken");
+		}
+
+		if(entry != NOT_FOUND && snapshot.getInt(entry + ENTRY_SEAT_OFFSET) >= 0) {
+			throw new IllegalArgumentException("Passenger " + passenger.getPassengerID() + " already has a seat");
+		}
+
+		snapshot.putDouble(seatRecord + PASSENGER_SATISFACTION_OFFSET, satisfaction);
+		snapshot.putInt(seatRecord + PASSENGER_ID_OFFSET, passenger.getPassengerID());
+		snapshot.putInt(seatRecord + PASSENGER_WEIGHT_OFFSET, passenger.getWeight());
+		snapshot.putInt(seatRecord + PASSENGER_FLAGS_OFFSET, OCCUPIED | (passenger.hasWindowPreference()? WINDOW_PREFERENCE:0) |
+						(passenger.isPassengerInGroup()? PASSENGER_IN_GROUP:0) |
+						(passenger.isSeparatedFromGroup()? SEPARATED_FROM_GROUP:0) | (windowSeat? WINDOW_SEAT:0));
+
+		//a passenger removed before leaves an entry that the passenger can take again
+		if(entry == NOT_FOUND || snapshot.getInt(entry + ENTRY_SEAT_OFFSET) == EMPTY_ENTRY) {
+			entry = findFreeEntry(passenger.getPassengerID(), entry);
+		}
+		if(snapshot.getInt(entry + ENTRY_SEAT_OFFSET) == REMOVED_ENTRY) {
+			snapshot.putInt(REMOVED_ENTRIES_OFFSET, snapshot.getInt(REMOVED_ENTRIES_OFFSET) - 1);
+		}
+		snapshot.putInt(entry + ENTRY_KEY_OFFSET, passenger.getPassengerID());
+		snapshot.putInt(entry + ENTRY_SEAT_OFFSET, row * numSeatsInRow + seat);
+
+		updateRow(rowRecord, -1, windowSeat? -1:0, satisfaction * passenger.getWeight());
+
+		if(row >= getNumRowsOpened()) {
+			snapshot.putInt(NUM_ROWS_OPENED_OFFSET, row + 1);
+		}
+	}
+
+	/**
+	 * Removes a passenger from their seat (e.g. a cancellation), updating the state of the row and the satisfaction
+	 * in place
+	 *
+	 * @param passengerID The ID of the passenger
+	 *
+	 * @throws IllegalArgumentException Exception thrown if the passenger has no seat
+	 */
+	public void vacateSeat(int passengerID) {
+
+		//the index entry of the passenger and their seat
+		int entry = findEntry(passengerID);
+		int seat = (entry == NOT_FOUND)? EMPTY_ENTRY:snapshot.getInt(entry + ENTRY_SEAT_OFFSET);
+
+		//the records of the seat and of its row, and the flags of the passenger
+		int seatRecord;
+		int flags;
+
+		if(seat < 0) {
+			throw new IllegalArgumentException("Passenger " + passengerID + " has no seat");
+		}
+
+		seatRecord = seatRecord(seat / numSeatsInRow, seat % numSeatsInRow);
+		flags = snapshot.getInt(seatRecord + PASSENGER_FLAGS_OFFSET);
+
+		updateRow(rowRecord(seat / numSeatsInRow), 1, ((flags & WINDOW_SEAT) != 0)? 1:0,
+				  -snapshot.getDouble(seatRecord + PASSENGER_SATISFACTION_OFFSET) * snapshot.getInt(seatRecord + PASSENGER_WEIGHT_OFFSET));
+
+		snapshot.putInt(seatRecord + PASSENGER_FLAGS_OFFSET, 0);
+		snapshot.putInt(entry + ENTRY_SEAT_OFFSET, REMOVED_ENTRY);
+		snapshot.putInt(REMOVED_ENTRIES_OFFSET, snapshot.getInt(REMOVED_ENTRIES_OFFSET) + 1);
+
+		if(snapshot.getInt(REMOVED_ENTRIES_OFFSET) > indexCapacity / REMOVED_ENTRIES_DIVISOR) {
+			rebuildIndex();
+		}
+	}
+
+	/**
+	 * Writes the updates made to the snapshot to the file
+	 */
+	public void force() {
+		snapshot.force();
+	}
+
+	/**
+	 * Writes the updates made to the snapshot to the file and closes it. The mapping itself is released once the
+	 * snapshot is no longer referenced.
+	 */
+	@Override
+	public void close() throws IOException {
+		snapshot.force();
+		channel.close();
+	}
+
+	/*
+	 * Updates the free seats, available window seats and satisfaction of a row by the given amounts, together with
+	 * the total satisfaction
+	 */
+	private void updateRow(int rowRecord, int availableSeats, int availableWindowSeats, double satisfactionPoints) {
+		snapshot.putInt(rowRecord + AVAILABLE_SEATS_OFFSET, snapshot.getInt(rowRecord + AVAILABLE_SEATS_OFFSET) + availableSeats);
+		snapshot.putInt(rowRecord + AVAILABLE_WINDOW_SEATS_OFFSET,
+						snapshot.getInt(rowRecord + AVAILABLE_WINDOW_SEATS_OFFSET) + availableWindowSeats);
+		snapshot.putDouble(rowRecord + ROW_SATISFACTION_OFFSET, snapshot.getDouble(rowRecord + ROW_SATISFACTION_OFFSET) + satisfactionPoints);
+		snapshot.putDouble(SATISFACTION_POINTS_OFFSET, snapshot.getDouble(SATISFACTION_POINTS_OFFSET) + satisfactionPoints);
+	}
+
+	/*
+	 * Informs whether a seat of a row is a window seat
+	 */
+	private boolean isWindowSeat(int seat) {
+
+		for(int window = 0; window < snapshot.getInt(NUM_WINDOW_SEATS_OFFSET); window++) {
+			if(snapshot.getInt(WINDOW_SEATS_OFFSET + 4 * window) == seat) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Returns the seat (counted over the whole plane) of a passenger, or a negative value if the passenger has no seat
+	 */
+	private int findSeat(int passengerID) {
+		int entry = findEntry(passengerID);
+		return (entry == NOT_FOUND)? EMPTY_ENTRY:snapshot.getInt(entry + ENTRY_SEAT_OFFSET);
+	}
+
+	/*
+	 * Returns the position of the index entry that holds a passenger, or of the empty entry that ends the search
+	 * for the passenger, or NOT_FOUND if every entry was inspected without reaching either. Entries of removed
+	 * passengers do not end the search, so that later entries are still found
+	 */
+	private int findEntry(int passengerID) {
+
+		int mask = indexCapacity - 1;
+
+		//spread the bits of the ID so that sequential IDs do not form long probe runs
+		int hash = passengerID * 0x9E3779B9;
+		int entry = (hash ^ (hash >>> 16)) & mask;
+
+		//position of the entry in the file
+		int position = indexStart + entry * ENTRY_SIZE;
+
+		//at most every entry is inspected once, in case no entry is empty any more
+		for(int probe = 0; probe < indexCapacity; probe++) {
+
+			position = indexStart + entry * ENTRY_SIZE;
+
+			if(snapshot.getInt(position + ENTRY_SEAT_OFFSET) == EMPTY_ENTRY ||
+			   snapshot.getInt(position + ENTRY_KEY_OFFSET) == passengerID) {
+				return position;
+			}
+
+			entry = (entry + 1) & mask;
+		}
+
+		return NOT_FOUND;
+	}
+
+	/*
+	 * Returns the position of the first entry of removed passengers on the way to the empty entry at which the
+	 * search for a passenger ended (along every entry if the search found none), or the empty entry itself if
+	 * there is none
+	 */
+	private int findFreeEntry(int passengerID, int emptyEntry) {
+
+		int mask = indexCapacity - 1;
+		int hash = passengerID * 0x9E3779B9;
+		int entry = (hash ^ (hash >>> 16)) & mask;
+
+		//position of the entry in the file
+		int position = indexStart + entry * ENTRY_SIZE;
+
+		for(int probe = 0; probe < indexCapacity; probe++) {
+
+			position = indexStart + entry * ENTRY_SIZE;
+
+			if(position == emptyEntry || snapshot.getInt(position + ENTRY_SEAT_OFFSET) == REMOVED_ENTRY) {
+				return position;
+			}
+
+			entry = (entry + 1) & mask;
+		}
+
+		//the index holds at most one passenger per seat, and is twice as large, so this is never reached
+		throw new IllegalStateException("Passenger index of the snapshot is full");
+	}
+
+	/*
+	 * Empties the passenger index and adds the passenger of every taken seat again, dropping the entries of
+	 * removed passengers. Takes time proportional to the size of the index, which is paid back by the removals
+	 * it takes to reach the threshold again
+	 */
+	private void rebuildIndex() {
+
+		//the index entry of the passenger of a seat
+		int entry;
+
+		for(int position = indexStart; position < indexStart + indexCapacity * ENTRY_SIZE; position += ENTRY_SIZE) {
+			snapshot.putInt(position + ENTRY_KEY_OFFSET, 0);
+			snapshot.putInt(position + ENTRY_SEAT_OFFSET, EMPTY_ENTRY);
+		}
+
+		for(int row = 0; row < getNumRowsOpened(); row++) {
+			for(int seat = 0; seat < numSeatsInRow; seat++) {
+				if(isSeatTaken(row, seat)) {
+					entry = findEntry(getPassengerID(row, seat));
+					snapshot.putInt(entry + ENTRY_KEY_OFFSET, getPassengerID(row, seat));
+					snapshot.putInt(entry + ENTRY_SEAT_OFFSET, row * numSeatsInRow + seat);
+				}
+			}
+		}
+
+		snapshot.putInt(REMOVED_ENTRIES_OFFSET, 0);
+	}
+
+	/*
+	 * Returns the position of the record of a row, making sure the row is in the plane
+	 */
+	private int rowRecord(int row) {
+
+		if(row < 0 || row >= numRows) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows in plane: " + numRows);
+		}
+
+		return HEADER_SIZE + row * ROW_RECORD_SIZE;
+	}
+
+	/*
+	 * Returns the position of the record of a seat, making sure the seat is in the plane
+	 */
+	private int seatRecord(int row, int seat) {
+
+		if(seat < 0 || seat >= numSeatsInRow) {
+			throw new IndexOutOfBoundsException("Seat: " + seat + ", Seats in row: " + numSeatsInRow);
+		}
+
+		return seatsStart + (rowRecord(row) - HEADER_SIZE) / ROW_RECORD_SIZE * numSeatsInRow * SEAT_RECORD_SIZE + seat * SEAT_RECORD_SIZE;
+	}
+
+}
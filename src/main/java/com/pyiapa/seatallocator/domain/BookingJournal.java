@@ -0,0 +1,671 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ *
+ * Append-only journal of the bookings and cancellations made on the arrangement of a flight persisted in a
+ * snapshot, so that a crashed booking process loses none of the events it acknowledged. Each event is a
+ * fixed-width binary record with a checksum, and takes the next sequence number of the journal. Events are
+ * appended to a buffer in memory; a flusher thread writes the buffer to the file and forces it to disk once per
+ * commit interval for all the events gathered since the last commit (group commit), so recording an event costs
+ * no disk access. Only then are the events applied to the snapshot, so the snapshot never holds an event the
+ * journal could lose (write-ahead), and events are checked against the ones still waiting to be applied. Callers
+ * that must not acknowledge an event before it is durable wait for its sequence number.
+ *
+ * Opening a journal over a snapshot replays the events the snapshot does not hold yet (a record cut short by a
+ * crash ends the journal), and compacting the journal forces the snapshot to disk and empties the journal.
+ *
+ * @author pyiapa
+ *
+ */
+public class BookingJournal implements Closeable {
+
+	/**
+	 * Commit interval (in microseconds) unless one is given
+	 */
+	public static final long DEFAULT_COMMIT_INTERVAL_MICROS = 1000;
+
+	//identifies journal files and the version of their layout
+	private static final int MAGIC = 0x4A524E4C;
+	private static final int VERSION = 1;
+
+	//layout of the header (in bytes): the sequence number of the events before the first record follows the version
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int BASE_SEQUENCE_OFFSET = 8;
+	private static final int HEADER_SIZE = 16;
+
+	//layout of an event record (in bytes), whose checksum covers the bytes before it
+	private static final int EVENT_TYPE_OFFSET = 0;
+	private static final int PASSENGER_FLAGS_OFFSET = 1;
+	private static final int PASSENGER_ID_OFFSET = 4;
+	private static final int PASSENGER_WEIGHT_OFFSET = 8;
+	private static final int ROW_OFFSET = 12;
+	private static final int SEAT_OFFSET = 16;
+	private static final int SATISFACTION_OFFSET = 20;
+	private static final int CHECKSUM_OFFSET = 28;
+	private static final int RECORD_SIZE = 32;
+
+	//types of events
+	private static final byte BOOKING = 1;
+	private static final byte CANCELLATION = 2;
+
+	//flags of a booked passenger
+	private static final int WINDOW_PREFERENCE = 1;
+	private static final int PASSENGER_IN_GROUP = 2;
+	private static final int SEPARATED_FROM_GROUP = 4;
+
+	//number of records the buffers of events hold, and read at a time during replay
+	private static final int BUFFERED_RECORDS = 4096;
+
+	//the journal file
+	private FileChannel channel;
+
+	//the snapshot the events are applied to
+	private ArrangementSnapshot snapshot;
+
+	//time to gather events into a commit
+	private long commitIntervalNanos;
+
+	//records of the events not handed to the flusher yet, and of the events the flusher is writing
+	private ByteBuffer pending = ByteBuffer.allocate(BUFFERED_RECORDS * RECORD_SIZE);
+	private ByteBuffer flushing = ByteBuffer.allocate(BUFFERED_RECORDS * RECORD_SIZE);
+
+	//seat (counted over the plane) of each passenger of the events not applied to the snapshot yet (NOT_SEATED
+	//once cancelled), and whether each seat of those events is taken
+	private Map<Integer, Integer> unappliedPassengerSeats = new HashMap<Integer, Integer>();
+	private Map<Integer, Boolean> unappliedTakenSeats = new HashMap<Integer, Boolean>();
+
+	//checksum of the record being appended
+	private CRC32 checksum = new CRC32();
+
+	//sequence number of the last event recorded and of the last event on disk (and applied to the snapshot)
+	private long lastSequence;
+	private long durableSequence;
+
+	//number of events applied to the snapshot when the journal was opened
+	private int eventsReplayed;
+
+	//whether a commit is wanted without waiting for the end of the commit interval
+	private boolean commitRequested;
+
+	//whether the journal is being closed
+	private boolean closing;
+
+	//the error that stopped the flusher, if any
+	private IOException failure;
+
+	//the thread that writes the events to disk
+	private Thread flusher;
+
+	/**
+	 * Opens (or creates) the journal of a snapshot with the default commit interval, replaying the events the
+	 * snapshot does not hold yet
+	 *
+	 * @param journalFile The journal file
+	 * @param snapshot The snapshot of the flight
+	 *
+	 * @throws IOException Exception thrown if the journal cannot be read or written
+	 */
+	public BookingJournal(Path journalFile, ArrangementSnapshot snapshot) throws IOException {
+		this(journalFile, snapshot, DEFAULT_COMMIT_INTERVAL_MICROS, TimeUnit.MICROSECONDS);
+	}
+
+	/**
+	 * Opens (or creates) the journal of a snapshot, replaying the events the snapshot does not hold yet
+	 *
+	 * @param journalFile The journal file
+	 * @param snapshot The snapshot of the flight
+	 * @param commitInterval Time to gather events into one write to disk
+	 * @param unit Unit of the commit interval
+	 *
+	 * @throws IOException Exception thrown if the journal cannot be read or written
+	 * @throws IllegalArgumentException Exception thrown if the file is not a journal or the commit interval is negative
+	 */
+	public BookingJournal(Path journalFile, ArrangementSnapshot snapshot, long commitInterval, TimeUnit unit)
+			throws IOException {
+
+		if(commitInterval < 0) {
+			throw new IllegalArgumentException("Commit interval must be >= 0");
+		}
+
+		this.snapshot = snapshot;
+		this.commitIntervalNanos = unit.toNanos(commitInterval);
+		this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+										StandardOpenOption.WRITE);
+
+		try {
+			replay();
+		}catch(IOException | IllegalArgumentException e) {
+			channel.close();
+			throw e;
+		}
+
+		this.durableSequence = lastSequence;
+
+		flusher = new Thread("booking-journal-flusher") {
+			@Override
+			public void run() {
+				runFlusher();
+			}
+		};
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * Records the booking of a free seat. The passenger is seated in the snapshot once the journal has committed
+	 * the sequence number of the event, which makes it durable.
+	 *
+	 * @param passenger The passenger to seat
+	 * @param row The row number
+	 * @param seat The seat number within the row
+	 * @param satisfaction The satisfaction (from 0 to 1) of the passenger in the seat
+	 *
+	 * @return The sequence number of the event
+	 *
+	 * @throws IllegalArgumentException Exception thrown if the seat is taken or the passenger already has a seat
+	 * @throws IllegalStateException Exception thrown if the journal is closed
+	 * @throws UncheckedIOException Exception thrown if the journal can no longer be written
+	 */
+	public synchronized long book(Passenger passenger, int row, int seat, double satisfaction) {
+
+		//waiting for room lets other events in, so the seat is checked afterwards
+		awaitRoom();
+
+		if(isSeatTaken(row, seat)) {
+			throw new IllegalArgumentException("Seat " + seat + " of row " + row + " is taken");
+		}
+
+		if(seatOf(passenger.getPassengerID()) != SeatMap.NOT_SEATED) {
+			throw new IllegalArgumentException("Passenger " + passenger.getPassengerID() + " already has a seat");
+		}
+
+		pending.put(BOOKING);
+		pending.put((byte) ((passenger.hasWindowPreference()? WINDOW_PREFERENCE:0) |
+							(passenger.isPassengerInGroup()? PASSENGER_IN_GROUP:0) |
+							(passenger.isSeparatedFromGroup()? SEPARATED_FROM_GROUP:0)));
+		pending.putShort((short) 0);
+		pending.putInt(passenger.getPassengerID());
+		pending.putInt(passenger.getWeight());
+		pending.putInt(row);
+		pending.putInt(seat);
+		pending.putDouble(satisfaction);
+
+		unappliedPassengerSeats.put(passenger.getPassengerID(), row * snapshot.getNumSeatsInRow() + seat);
+		unappliedTakenSeats.put(row * snapshot.getNumSeatsInRow() + seat, true);
+
+		return endRecord();
+	}
+
+	/**
+	 * Records the cancellation of a seated passenger. Their seat is freed in the snapshot once the journal has
+	 * committed the sequence number of the event, which makes it durable.
+	 *
+	 * @param passengerID The ID of the passenger
+	 *
+	 * @return The sequence number of the event
+	 *
+	 * @throws IllegalArgumentException Exception thrown if the passenger has no seat
+	 * @throws IllegalStateException Exception thrown if the journal is closed
+	 * @throws UncheckedIOException Exception thrown if the journal can no longer be written
+	 */
+	public synchronized long cancel(int passengerID) {
+
+		awaitRoom();
+
+		//the seat the passenger frees
+		int seat = seatOf(passengerID);
+
+		if(seat == SeatMap.NOT_SEATED) {
+			throw new IllegalArgumentException("Passenger " + passengerID + " has no seat");
+		}
+
+		pending.put(CANCELLATION);
+		pending.put((byte) 0);
+		pending.putShort((short) 0);
+		pending.putInt(passengerID);
+		pending.putInt(0);
+		pending.putInt(0);
+		pending.putInt(0);
+		pending.putDouble(0);
+
+		unappliedPassengerSeats.put(passengerID, SeatMap.NOT_SEATED);
+		unappliedTakenSeats.put(seat, false);
+
+		return endRecord();
+	}
+
+	/**
+	 * Waits until an event is on disk and applied to the snapshot
+	 *
+	 * @param sequence The sequence number of the event
+	 *
+	 * @throws InterruptedException Exception thrown if the thread is interrupted while waiting
+	 * @throws UncheckedIOException Exception thrown if the journal can no longer be written
+	 */
+	public synchronized void awaitDurable(long sequence) throws InterruptedException {
+
+		while(durableSequence < sequence) {
+			checkFailure();
+			wait();
+		}
+	}
+
+	/**
+	 * Commits the events recorded so far without waiting for the end of the commit interval, and waits until they
+	 * are on disk and applied to the snapshot
+	 *
+	 * @throws InterruptedException Exception thrown if the thread is interrupted while waiting
+	 * @throws UncheckedIOException Exception thrown if the journal can no longer be written
+	 */
+	public synchronized void sync() throws InterruptedException {
+
+		commitRequested = true;
+		notifyAll();
+
+		awaitDurable(lastSequence);
+	}
+
+	/**
+	 * Compacts the journal into the snapshot: commits the events recorded so far, forces the snapshot (which holds
+	 * them all) to disk and empties the journal, so that the next replay starts from the snapshot
+	 *
+	 * @throws InterruptedException Exception thrown if the thread is interrupted while waiting for the commit
+	 * @throws UncheckedIOException Exception thrown if the journal cannot be written
+	 */
+	public synchronized void compact() throws InterruptedException {
+
+		sync();
+
+		//every event is on disk and none can be recorded meanwhile, so the flusher is idle
+		snapshot.force();
+
+		try {
+			resetJournal(lastSequence);
+		}catch(IOException e) {
+			failure = e;
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Gets the sequence number of the last event recorded
+	 *
+	 * @return The sequence number of the last event (0 if none)
+	 */
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Gets the sequence number of the last event on disk, which is the last event applied to the snapshot
+	 *
+	 * @return The sequence number of the last durable event
+	 */
+	public synchronized long getDurableSequence() {
+		return durableSequence;
+	}
+
+	/**
+	 * Gets the number of events of the journal that were applied to the snapshot when the journal was opened
+	 *
+	 * @return Number of events replayed
+	 */
+	public int getEventsReplayed() {
+		return eventsReplayed;
+	}
+
+	/**
+	 * Commits the events recorded so far and closes the journal. The snapshot stays open.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		synchronized(this) {
+			closing = true;
+			notifyAll();
+		}
+
+		try {
+			flusher.join();
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}finally {
+			channel.close();
+		}
+
+		synchronized(this) {
+			if(failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/*
+	 * Reads the journal and applies the events that follow the last event of the snapshot. Events the snapshot
+	 * already holds (applied after their commit, before a crash) are skipped, and the journal is cut at the first
+	 * record that is incomplete or does not match its checksum, which is where a crash interrupted a commit
+	 */
+	private void replay() throws IOException {
+
+		//the records read from the journal
+		ByteBuffer records = ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_SIZE);
+
+		//position of the next record in the file
+		long position = HEADER_SIZE;
+
+		if(channel.size() < HEADER_SIZE) { //new journal, which starts at the last event of the snapshot
+			resetJournal(snapshot.getJournalSequence());
+			return;
+		}
+
+		records.limit(HEADER_SIZE);
+		channel.read(records, 0);
+		if(records.getInt(MAGIC_OFFSET) != MAGIC || records.getInt(VERSION_OFFSET) != VERSION) {
+			throw new IllegalArgumentException("Not a booking journal");
+		}
+		lastSequence = records.getLong(BASE_SEQUENCE_OFFSET);
+
+		if(lastSequence > snapshot.getJournalSequence()) {
+			throw new IllegalArgumentException("The journal starts after the last event of the snapshot");
+		}
+
+		while(true) {
+
+			records.clear();
+			while(records.hasRemaining() && channel.read(records, position + records.position()) > 0) {
+				//read until the buffer is full or the journal ends
+			}
+			records.flip();
+
+			while(records.remaining() >= RECORD_SIZE && isValidRecord(records)) {
+
+				lastSequence++;
+				if(lastSequence > snapshot.getJournalSequence()) {
+					applyRecord(records);
+					snapshot.setJournalSequence(lastSequence);
+					eventsReplayed++;
+				}
+
+				records.position(records.position() + RECORD_SIZE);
+				position += RECORD_SIZE;
+			}
+
+			if(records.limit() < records.capacity() || records.hasRemaining()) { //end of the journal or a torn record
+				break;
+			}
+		}
+
+		if(lastSequence < snapshot.getJournalSequence()) { //the journal was emptied by a compaction that was cut short
+			resetJournal(snapshot.getJournalSequence());
+			return;
+		}
+
+		channel.truncate(position);
+		channel.position(position);
+	}
+
+	/*
+	 * Informs whether the record at the position of the buffer matches its checksum
+	 */
+	private boolean isValidRecord(ByteBuffer records) {
+
+		ByteBuffer record = records.duplicate();
+		record.limit(record.position() + CHECKSUM_OFFSET);
+
+		checksum.reset();
+		checksum.update(record);
+
+		return (int) checksum.getValue() == records.getInt(records.position() + CHECKSUM_OFFSET);
+	}
+
+	/*
+	 * Applies the event of the record at the position of the buffer to the snapshot, unless the snapshot already
+	 * holds it
+	 */
+	private void applyRecord(ByteBuffer records) {
+
+		int record = records.position();
+		int passengerID = records.getInt(record + PASSENGER_ID_OFFSET);
+		int row = records.getInt(record + ROW_OFFSET);
+		int seat = records.getInt(record + SEAT_OFFSET);
+
+		if(records.get(record + EVENT_TYPE_OFFSET) == CANCELLATION) {
+			if(snapshot.getRowOf(passengerID) != SeatMap.NOT_SEATED) {
+				snapshot.vacateSeat(passengerID);
+			}
+			return;
+		}
+
+		if(snapshot.getRowOf(passengerID) == row && snapshot.getSeatOf(passengerID) == seat) {
+			return;
+		}
+
+		//the booked passenger
+		int flags = records.get(record + PASSENGER_FLAGS_OFFSET);
+		Passenger passenger = new Passenger(passengerID, (flags & WINDOW_PREFERENCE) != 0, (flags & PASSENGER_IN_GROUP) != 0,
+											records.getInt(record + PASSENGER_WEIGHT_OFFSET));
+		passenger.setSeparatedFromGroup((flags & SEPARATED_FROM_GROUP) != 0);
+
+		snapshot.assignSeat(passenger, row, seat, records.getDouble(record + SATISFACTION_OFFSET));
+	}
+
+	/*
+	 * Empties the journal, which then starts after the given event
+	 */
+	private void resetJournal(long baseSequence) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		header.putInt(MAGIC_OFFSET, MAGIC);
+		header.putInt(VERSION_OFFSET, VERSION);
+		header.putLong(BASE_SEQUENCE_OFFSET, baseSequence);
+
+		channel.truncate(0);
+		while(header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+		channel.position(HEADER_SIZE);
+		channel.force(true);
+
+		lastSequence = baseSequence;
+	}
+
+	/*
+	 * Waits until the buffer of events has room for a record, handing it to the flusher if it is full
+	 */
+	private void awaitRoom() {
+
+		if(closing) {
+			throw new IllegalStateException("The booking journal is closed");
+		}
+
+		checkFailure();
+
+		while(pending.remaining() < RECORD_SIZE) {
+
+			commitRequested = true;
+			notifyAll();
+
+			try {
+				wait();
+			}catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the journal", e);
+			}
+
+			checkFailure();
+		}
+	}
+
+	/*
+	 * Informs whether a seat is taken, counting the events not applied to the snapshot yet
+	 */
+	private boolean isSeatTaken(int row, int seat) {
+
+		//the snapshot also makes sure the seat is in the plane
+		boolean seatTaken = snapshot.isSeatTaken(row, seat);
+		Boolean unappliedSeatTaken = unappliedTakenSeats.get(row * snapshot.getNumSeatsInRow() + seat);
+
+		return (unappliedSeatTaken == null)? seatTaken:unappliedSeatTaken;
+	}
+
+	/*
+	 * Returns the seat (counted over the plane) of a passenger, counting the events not applied to the snapshot yet,
+	 * or SeatMap.NOT_SEATED if the passenger has no seat
+	 */
+	private int seatOf(int passengerID) {
+
+		Integer unappliedSeat = unappliedPassengerSeats.get(passengerID);
+
+		if(unappliedSeat != null) {
+			return unappliedSeat;
+		}
+
+		return (snapshot.getRowOf(passengerID) == SeatMap.NOT_SEATED)? SeatMap.NOT_SEATED:
+				snapshot.getRowOf(passengerID) * snapshot.getNumSeatsInRow() + snapshot.getSeatOf(passengerID);
+	}
+
+	/*
+	 * Applies the events of a commit that reached the disk to the snapshot, and keeps track of the events that are
+	 * still waiting to be applied (the ones recorded since)
+	 */
+	private void applyCommit(ByteBuffer events, long commitSequence) {
+
+		for(int record = 0; record < events.limit(); record += RECORD_SIZE) {
+			events.position(record);
+			applyRecord(events);
+		}
+		snapshot.setJournalSequence(commitSequence);
+
+		unappliedPassengerSeats.clear();
+		unappliedTakenSeats.clear();
+
+		//events are recorded while holding the lock, so the buffer holds whole records
+		for(int record = 0; record < pending.position(); record += RECORD_SIZE) {
+
+			int passengerID = pending.getInt(record + PASSENGER_ID_OFFSET);
+			int seat;
+
+			if(pending.get(record + EVENT_TYPE_OFFSET) == CANCELLATION) {
+				unappliedTakenSeats.put(seatOf(passengerID), false);
+				unappliedPassengerSeats.put(passengerID, SeatMap.NOT_SEATED);
+			}else {
+				seat = pending.getInt(record + ROW_OFFSET) * snapshot.getNumSeatsInRow() + pending.getInt(record + SEAT_OFFSET);
+				unappliedPassengerSeats.put(passengerID, seat);
+				unappliedTakenSeats.put(seat, true);
+			}
+		}
+	}
+
+	/*
+	 * Completes the record being appended with its checksum and returns its sequence number, waking the flusher
+	 * for the first record of a commit
+	 */
+	private long endRecord() {
+
+		ByteBuffer record = pending.duplicate();
+		record.position(pending.position() - CHECKSUM_OFFSET);
+		record.limit(pending.position());
+
+		checksum.reset();
+		checksum.update(record);
+		pending.putInt((int) checksum.getValue());
+
+		if(pending.position() == RECORD_SIZE) {
+			notifyAll();
+		}
+
+		return ++lastSequence;
+	}
+
+	/*
+	 * Throws the error that stopped the flusher, if any
+	 */
+	private void checkFailure() {
+
+		if(failure != null) {
+			throw new UncheckedIOException("The booking journal can no longer be written", failure);
+		}
+	}
+
+	/*
+	 * Commits the events until the journal is closed: waits for the first event of a commit, gathers events for
+	 * the commit interval (unless a commit is requested or the buffer is full), then writes them and forces them
+	 * to disk while new events go to the other buffer, and applies them to the snapshot
+	 */
+	private void runFlusher() {
+
+		//sequence number of the last event of the commit
+		long commitSequence;
+
+		while(true) {
+
+			synchronized(this) {
+
+				try {
+					while(pending.position() == 0 && !closing) {
+						wait();
+					}
+
+					long deadline = System.nanoTime() + commitIntervalNanos;
+					while(!closing && !commitRequested && pending.remaining() >= RECORD_SIZE &&
+						  deadline - System.nanoTime() > 0) {
+						TimeUnit.NANOSECONDS.timedWait(this, deadline - System.nanoTime());
+					}
+				}catch(InterruptedException e) {
+					closing = true;
+				}
+
+				if(pending.position() == 0) { //closing with nothing left to commit
+					return;
+				}
+
+				ByteBuffer events = pending;
+				pending = flushing;
+				flushing = events;
+				commitSequence = lastSequence;
+				commitRequested = false;
+
+				//appends waiting for room can use the other buffer
+				notifyAll();
+			}
+
+			flushing.flip();
+
+			try {
+				while(flushing.hasRemaining()) {
+					channel.write(flushing);
+				}
+				channel.force(false);
+			}catch(IOException e) {
+				synchronized(this) {
+					failure = e;
+					notifyAll();
+				}
+				return;
+			}
+
+			synchronized(this) {
+				applyCommit(flushing, commitSequence);
+				durableSequence = commitSequence;
+				notifyAll();
+			}
+
+			flushing.clear();
+		}
+	}
+
+}
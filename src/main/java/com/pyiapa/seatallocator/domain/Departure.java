@@ -0,0 +1,82 @@
+package com.pyiapa.seatallocator.domain;
+
+/**
+ * 
+ * Describes a candidate departure that passengers of a manifest can be distributed to, i.e.
+ * the dimensions of its plane.
+ * 
+ * @author pyiapa
+ *
+ */
+public class Departure {
+	
+	//number of rows in the plane
+	private int numRows;
+	
+	//number of seats per row
+	private int numSeatsInRow;
+	
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+	
+	/**
+	 * 
+	 * Creates a departure with the given plane dimensions
+	 * 
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public Departure(int numRows, int numSeatsInRow, int numWindowsInPlane) {
+		
+		if(numRows < 1 || numSeatsInRow < 1 || numWindowsInPlane < 0) {
+			throw new IllegalArgumentException("Plane dimensions must be >= 1 and windows >= 0");
+		}
+		
+		this.numRows = numRows;
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+	}
+	
+	/**
+	 * Gets the number of rows in the plane
+	 * 
+	 * @return Number of rows
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+	
+	/**
+	 * Gets the number of seats per row
+	 * 
+	 * @return Number of seats per row
+	 */
+	public int getNumSeatsInRow() {
+		return numSeatsInRow;
+	}
+	
+	/**
+	 * Gets the number of windows (per row) in the plane
+	 * 
+	 * @return Number of windows per row
+	 */
+	public int getNumWindowsInPlane() {
+		return numWindowsInPlane;
+	}
+	
+	/**
+	 * Gets the number of seats in the plane
+	 * 
+	 * @return Number of seats
+	 */
+	public long getCapacity() {
+		return (long) numRows * numSeatsInRow;
+	}
+	
+	@Override
+	public String toString() {
+		return numRows + "x" + numSeatsInRow;
+	}
+
+}
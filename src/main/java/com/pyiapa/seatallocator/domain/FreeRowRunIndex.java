@@ -0,0 +1,271 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Indexes the runs of consecutive rows that have at least a given number of free seats, so that the
+ * first run of k such rows is found in logarithmic time rather than by scanning the rows. For each
+ * number of free seats asked for, a segment tree over the rows holds the longest run of qualifying
+ * rows in each range together with the runs at its two ends. The tree of a number of free seats is
+ * only built when it is first asked for, and is updated as the free seats of rows change. Rows after
+ * the last row added are considered empty, as they are the rows that would be opened next.
+ *
+ * @author pyiapa
+ *
+ */
+public class FreeRowRunIndex {
+
+	/**
+	 * Returned when no run ends within the rows a search is limited to
+	 */
+	public static final int NO_RUN = -1;
+
+	//number of rows the trees are first built for
+	private static final int INITIAL_CAPACITY = 16;
+
+	//number of seats per row
+	private int numSeatsInRow;
+
+	//number of free seats of each row
+	private int[] freeSeats;
+
+	//number of rows added
+	private int numRows;
+
+	//number of leaves of the trees (a power of two, at least the number of rows)
+	private int capacity;
+
+	//for each number of free seats (null until asked for), the tree nodes holding the length of the run of rows
+	//with that many free seats at the start and at the end of each range, and the longest run in it. Node 1 is the
+	//root, the children of node n are 2n and 2n + 1, and row r is at leaf capacity + r
+	private int[][] prefixRuns;
+	private int[][] suffixRuns;
+	private int[][] longestRuns;
+
+	/**
+	 * Creates an empty index for rows of the given number of seats
+	 *
+	 * @param numSeatsInRow Number of seats per row
+	 */
+	public FreeRowRunIndex(int numSeatsInRow) {
+
+		this.numSeatsInRow = numSeatsInRow;
+		this.capacity = INITIAL_CAPACITY;
+		this.freeSeats = new int[capacity];
+
+		this.prefixRuns = new int[numSeatsInRow + 1][];
+		this.suffixRuns = new int[numSeatsInRow + 1][];
+		this.longestRuns = new int[numSeatsInRow + 1][];
+	}
+
+	/**
+	 * Adds the next row to the index
+	 *
+	 * @param rowFreeSeats Number of free seats of the row
+	 */
+	public void addRow(int rowFreeSeats) {
+
+		if(numRows == capacity) {
+			grow();
+		}
+
+		//the row was considered empty until it was added
+		freeSeats[numRows] = numSeatsInRow;
+		setFreeSeats(numRows++, rowFreeSeats);
+	}
+
+	/**
+	 * Updates the number of free seats of a row
+	 *
+	 * @param row The row number
+	 * @param rowFreeSeats Number of free seats of the row
+	 */
+	public void setFreeSeats(int row, int rowFreeSeats) {
+
+		if(row < 0 || row >= numRows) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + numRows);
+		}
+
+		//number of free seats of the row before the update
+		int previousFreeSeats = freeSeats[row];
+
+		freeSeats[row] = rowFreeSeats;
+
+		//the row only changes the trees of the numbers of free seats it no longer has, or now has
+		for(int minFreeSeats = Math.min(previousFreeSeats, rowFreeSeats) + 1;
+			minFreeSeats <= Math.max(previousFreeSeats, rowFreeSeats) && minFreeSeats <= numSeatsInRow; minFreeSeats++) {
+			if(longestRuns[minFreeSeats] != null) {
+				updateLeaf(minFreeSeats, row);
+			}
+		}
+	}
+
+	/**
+	 * Finds the first run of the given number of consecutive rows that each have at least the given number of
+	 * free seats. The run may extend past the last row added, into rows that are yet to be opened.
+	 *
+	 * @param runLength Number of consecutive rows
+	 * @param minFreeSeats Number of free seats each row of the run must have (from 1 to the number of seats per row)
+	 *
+	 * @return The first row of the run
+	 */
+	public int findRun(int runLength, int minFreeSeats) {
+
+		if(minFreeSeats < 1 || minFreeSeats > numSeatsInRow || runLength < 1) {
+			throw new IllegalArgumentException("Invalid run of " + runLength + " rows with " + minFreeSeats + " free seats");
+		}
+
+		if(longestRuns[minFreeSeats] == null) {
+			buildTree(minFreeSeats);
+		}
+
+		//the runs of the tree
+		int[] prefixRun = prefixRuns[minFreeSeats];
+		int[] suffixRun = suffixRuns[minFreeSeats];
+		int[] longestRun = longestRuns[minFreeSeats];
+
+		//the node being searched, and the length of its range
+		int node = 1;
+		int nodeLength = capacity;
+
+		if(longestRun[node] < runLength) { //the run has to reach past the rows of the tree, so it starts at the last run
+			return capacity - suffixRun[node];
+		}
+
+		//go down to the leftmost range that holds the run
+		while(node < capacity) {
+
+			nodeLength /= 2;
+
+			if(longestRun[2 * node] >= runLength) { //the run is in the left half
+				node = 2 * node;
+			}else if(suffixRun[2 * node] + prefixRun[2 * node + 1] >= runLength) { //the run crosses the middle
+				return (2 * node + 1) * nodeLength - capacity - suffixRun[2 * node];
+			}else { //the run is in the right half
+				node = 2 * node + 1;
+			}
+		}
+
+		return node - capacity;
+	}
+
+	/**
+	 * Finds the first run of the given number of consecutive rows that each have at least the given number of
+	 * free seats, among the first rows only (e.g. the rows of the plane)
+	 *
+	 * @param runLength Number of consecutive rows
+	 * @param minFreeSeats Number of free seats each row of the run must have (from 1 to the number of seats per row)
+	 * @param rowLimit Number of rows the run must end within
+	 *
+	 * @return The first row of the run, or NO_RUN if no run ends within the limit
+	 */
+	public int findRun(int runLength, int minFreeSeats, int rowLimit) {
+
+		//the first run of all ends before any later run does
+		int firstRow = findRun(runLength, minFreeSeats);
+
+		return (firstRow + runLength <= rowLimit)? firstRow:NO_RUN;
+	}
+
+	/**
+	 * Removes every row, keeping the memory of the trees for the rows of a later allocation
+	 */
+	public void clear() {
+
+		numRows = 0;
+
+		//rows not added are empty, which every tree reflects once reset
+		for(int minFreeSeats = 1; minFreeSeats <= numSeatsInRow; minFreeSeats++) {
+			if(longestRuns[minFreeSeats] != null) {
+				resetTree(minFreeSeats);
+			}
+		}
+	}
+
+	/*
+	 * Doubles the number of rows the trees hold, building again the trees in use
+	 */
+	private void grow() {
+
+		capacity *= 2;
+		freeSeats = Arrays.copyOf(freeSeats, capacity);
+
+		for(int minFreeSeats = 1; minFreeSeats <= numSeatsInRow; minFreeSeats++) {
+			if(longestRuns[minFreeSeats] != null) {
+				buildTree(minFreeSeats);
+			}
+		}
+	}
+
+	/*
+	 * Builds the tree of a number of free seats from the free seats of the rows
+	 */
+	private void buildTree(int minFreeSeats) {
+
+		prefixRuns[minFreeSeats] = new int[2 * capacity];
+		suffixRuns[minFreeSeats] = new int[2 * capacity];
+		longestRuns[minFreeSeats] = new int[2 * capacity];
+
+		resetTree(minFreeSeats);
+	}
+
+	/*
+	 * Sets every leaf of the tree of a number of free seats from the free seats of the rows, and then every node
+	 */
+	private void resetTree(int minFreeSeats) {
+
+		for(int row = 0; row < capacity; row++) {
+			setLeaf(minFreeSeats, row);
+		}
+		for(int node = capacity - 1; node >= 1; node--) {
+			combine(minFreeSeats, node);
+		}
+	}
+
+	/*
+	 * Sets the leaf of a row in the tree of a number of free seats, and then the nodes above it
+	 */
+	private void updateLeaf(int minFreeSeats, int row) {
+
+		setLeaf(minFreeSeats, row);
+
+		for(int node = (capacity + row) / 2; node >= 1; node /= 2) {
+			combine(minFreeSeats, node);
+		}
+	}
+
+	/*
+	 * Sets the leaf of a row in the tree of a number of free seats to a run of one row if the row qualifies
+	 */
+	private void setLeaf(int minFreeSeats, int row) {
+
+		//rows not added yet are empty
+		int run = (row >= numRows || freeSeats[row] >= minFreeSeats)? 1:0;
+
+		prefixRuns[minFreeSeats][capacity + row] = run;
+		suffixRuns[minFreeSeats][capacity + row] = run;
+		longestRuns[minFreeSeats][capacity + row] = run;
+	}
+
+	/*
+	 * Sets the runs of a node of the tree of a number of free seats from the runs of its children
+	 */
+	private void combine(int minFreeSeats, int node) {
+
+		//the runs of the tree
+		int[] prefixRun = prefixRuns[minFreeSeats];
+		int[] suffixRun = suffixRuns[minFreeSeats];
+		int[] longestRun = longestRuns[minFreeSeats];
+
+		//the children of the node, and the length of their ranges
+		int left = 2 * node;
+		int right = 2 * node + 1;
+		int childLength = capacity / Integer.highestOneBit(left);
+
+		prefixRun[node] = (prefixRun[left] == childLength)? childLength + prefixRun[right]:prefixRun[left];
+		suffixRun[node] = (suffixRun[right] == childLength)? childLength + suffixRun[left]:suffixRun[right];
+		longestRun[node] = Math.max(Math.max(longestRun[left], longestRun[right]), suffixRun[left] + prefixRun[right]);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 
+ * Holds the state of the rows of the plane as a list of {@link RowDescriptor} objects. The objects
+ * are kept when the store is cleared and describe the rows opened afterwards.
+ * 
+ * @author pyiapa
+ *
+ */
+public class HeapRowStore implements RowStore {
+	
+	//information about each row (including rows closed when the store was cleared)
+	private List<RowDescriptor> rowDescriptors;
+	
+	//number of rows opened so far
+	private int numRowsOpened;
+	
+	//number of seats per row
+	private int numSeatsInRow;
+	
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+	
+	/**
+	 * Creates a store for rows with the given dimensions
+	 * 
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public HeapRowStore(int numSeatsInRow, int numWindowsInPlane) {
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+		this.rowDescriptors = new ArrayList<RowDescriptor>();
+	}
+
+	@Override
+	public int addRow() {
+		
+		if(numRowsOpened < rowDescriptors.size()) { //describe the new row with the object of a closed row
+			rowDescriptors.get(numRowsOpened).reset(numSeatsInRow, numWindowsInPlane);
+		}else {
+			rowDescriptors.add(new RowDescriptor(numSeatsInRow, numWindowsInPlane));
+		}
+		
+		return numRowsOpened++;
+	}
+
+	@Override
+	public void clear() {
+		numRowsOpened = 0;
+	}
+
+	@Override
+	public int size() {
+		return numRowsOpened;
+	}
+
+	@Override
+	public int getAvailableSeats(int row) {
+		return descriptorOf(row).getAvailableSeats();
+	}
+
+	@Override
+	public void updateAvailableSeats(int row, int availableSeats) {
+		descriptorOf(row).updateAvailableSeats(availableSeats);
+	}
+
+	@Override
+	public int getAvailableWindowSeats(int row) {
+		return descriptorOf(row).getAvailableWindowSeats();
+	}
+
+	@Override
+	public void updateAvailableWindowSeats(int row, int availableWindowSeats) {
+		descriptorOf(row).updateAvailableWindowSeats(availableWindowSeats);
+	}
+
+	@Override
+	public double getRowSatisfaction(int row) {
+		return descriptorOf(row).getRowSatisfaction();
+	}
+
+	@Override
+	public void updateRowSatisfaction(int row, double rowSatisfaction) {
+		descriptorOf(row).updateRowSatisfaction(rowSatisfaction);
+	}
+
+	/*
+	 * Returns the descriptor of a row, making sure the row has been opened
+	 */
+	private RowDescriptor descriptorOf(int row) {
+		
+		if(row < 0 || row >= numRowsOpened) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + numRowsOpened);
+		}
+		
+		return rowDescriptors.get(row);
+	}
+
+}
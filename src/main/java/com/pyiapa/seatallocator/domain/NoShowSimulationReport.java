@@ -0,0 +1,85 @@
+package com.pyiapa.seatallocator.domain;
+
+/**
+ * Holds the outcome of a no-show simulation, i.e. the distribution over the trials of the passenger
+ * satisfaction and of the number of passengers that were seated and that were bumped (showed up but
+ * got no seat).
+ * 
+ * @author pyiapa
+ *
+ */
+public class NoShowSimulationReport {
+	
+	//the outcome of every trial, each in ascending order
+	private double[] satisfactionScores;
+	private int[] seatedCounts;
+	private int[] bumpedCounts;
+	
+	/**
+	 * Creates a report of the given trial outcomes
+	 * 
+	 * @param satisfactionScores Passenger satisfaction of every trial (in percent), in ascending order
+	 * @param seatedCounts Number of passengers seated in every trial, in ascending order
+	 * @param bumpedCounts Number of passengers bumped in every trial, in ascending order
+	 */
+	public NoShowSimulationReport(double[] satisfactionScores, int[] seatedCounts, int[] bumpedCounts) {
+		this.satisfactionScores = satisfactionScores;
+		this.seatedCounts = seatedCounts;
+		this.bumpedCounts = bumpedCounts;
+	}
+	
+	/**
+	 * Gets the number of trials simulated
+	 * 
+	 * @return Number of trials
+	 */
+	public int getNumTrials() {
+		return satisfactionScores.length;
+	}
+	
+	/**
+	 * Gets a percentile of the passenger satisfaction over the trials
+	 * 
+	 * @param percentile The percentile (from 0 to 100)
+	 * 
+	 * @return The satisfaction (in percent) that the given share of the trials does not exceed
+	 */
+	public double getSatisfactionPercentile(double percentile) {
+		return satisfactionScores[rankOf(percentile)];
+	}
+	
+	/**
+	 * Gets a percentile of the number of passengers seated over the trials
+	 * 
+	 * @param percentile The percentile (from 0 to 100)
+	 * 
+	 * @return The number of passengers seated that the given share of the trials does not exceed
+	 */
+	public int getSeatedPercentile(double percentile) {
+		return seatedCounts[rankOf(percentile)];
+	}
+	
+	/**
+	 * Gets a percentile of the number of passengers bumped over the trials
+	 * 
+	 * @param percentile The percentile (from 0 to 100)
+	 * 
+	 * @return The number of passengers bumped that the given share of the trials does not exceed
+	 */
+	public int getBumpedPercentile(double percentile) {
+		return bumpedCounts[rankOf(percentile)];
+	}
+	
+	/*
+	 * Returns the position of a percentile in the sorted outcomes (nearest rank)
+	 */
+	private int rankOf(double percentile) {
+		
+		if(percentile < 0 || percentile > 100 || Double.isNaN(percentile)) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		
+		return Math.max(0, (int) Math.ceil(percentile / 100 * satisfactionScores.length) - 1);
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 
+ * Holds the state of the rows of the plane outside the Java heap. Each row is a fixed-width 
+ * record in a direct buffer that packs the available seats, available window seats and row 
+ * satisfaction of the row, so that millions of (virtual) rows do not create millions of 
+ * objects for the garbage collector to trace.
+ * 
+ * @author pyiapa
+ *
+ */
+public class OffHeapRowStore implements RowStore {
+	
+	//layout of a row record (in bytes)
+	private static final int AVAILABLE_SEATS_OFFSET = 0;
+	private static final int AVAILABLE_WINDOW_SEATS_OFFSET = 4;
+	private static final int ROW_SATISFACTION_OFFSET = 8;
+	private static final int RECORD_SIZE = 16;
+	
+	//number of records the buffer can initially hold
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	//the row records
+	private ByteBuffer rowRecords;
+	
+	//number of rows opened so far
+	private int numRowsOpened;
+	
+	//number of seats per row
+	private int numSeatsInRow;
+	
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+	
+	/**
+	 * Creates a store for rows with the given dimensions
+	 * 
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public OffHeapRowStore(int numSeatsInRow, int numWindowsInPlane) {
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+		this.rowRecords = ByteBuffer.allocateDirect(INITIAL_CAPACITY * RECORD_SIZE).order(ByteOrder.nativeOrder());
+	}
+
+	@Override
+	public int addRow() {
+		
+		int row = numRowsOpened;
+		int record;
+		
+		if((long) (row + 1) * RECORD_SIZE > rowRecords.capacity()) { //no room for another record
+			growRecords();
+		}
+		
+		record = row * RECORD_SIZE;
+		rowRecords.putInt(record + AVAILABLE_SEATS_OFFSET, numSeatsInRow);
+		rowRecords.putInt(record + AVAILABLE_WINDOW_SEATS_OFFSET, numWindowsInPlane);
+		rowRecords.putDouble(record + ROW_SATISFACTION_OFFSET, 0);
+		
+		numRowsOpened++;
+		
+		return row;
+	}
+
+	@Override
+	public void clear() {
+		numRowsOpened = 0;
+	}
+
+	@Override
+	public int size() {
+		return numRowsOpened;
+	}
+
+	@Override
+	public int getAvailableSeats(int row) {
+		return rowRecords.getInt(recordOf(row) + AVAILABLE_SEATS_OFFSET);
+	}
+
+	@Override
+	public void updateAvailableSeats(int row, int availableSeats) {
+		int field = recordOf(row) + AVAILABLE_SEATS_OFFSET;
+		rowRecords.putInt(field, rowRecords.getInt(field) + availableSeats);
+	}
+
+	@Override
+	public int getAvailableWindowSeats(int row) {
+		return rowRecords.getInt(recordOf(row) + AVAILABLE_WINDOW_SEATS_OFFSET);
+	}
+
+	@Override
+	public void updateAvailableWindowSeats(int row, int availableWindowSeats) {
+		int field = recordOf(row) + AVAILABLE_WINDOW_SEATS_OFFSET;
+		rowRecords.putInt(field, rowRecords.getInt(field) + availableWindowSeats);
+	}
+
+	@Override
+	public double getRowSatisfaction(int row) {
+		return rowRecords.getDouble(recordOf(row) + ROW_SATISFACTION_OFFSET);
+	}
+
+	@Override
+	public void updateRowSatisfaction(int row, double rowSatisfaction) {
+		int field = recordOf(row) + ROW_SATISFACTION_OFFSET;
+		rowRecords.putDouble(field, rowRecords.getDouble(field) + rowSatisfaction);
+	}
+	
+	/*
+	 * Returns the position of the record of a row, making sure the row has been opened
+	 */
+	private int recordOf(int row) {
+		
+		if(row < 0 || row >= numRowsOpened) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + numRowsOpened);
+		}
+		
+		return row * RECORD_SIZE;
+	}
+	
+	/*
+	 * Moves the records to a buffer with twice the capacity
+	 */
+	private void growRecords() {
+		
+		long capacity = Math.min((long) rowRecords.capacity() * 2, (Integer.MAX_VALUE / RECORD_SIZE) * (long) RECORD_SIZE);
+		
+		if(capacity <= rowRecords.capacity()) {
+			throw new IllegalStateException("Too many rows for the off-heap row store");
+		}
+		
+		ByteBuffer grownRecords = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+		
+		rowRecords.clear();
+		grownRecords.put(rowRecords);
+		grownRecords.clear();
+		
+		rowRecords = grownRecords;
+	}
+
+}
@@ -26,6 +26,12 @@ public class Passenger {
 	//fitting in any available row
 	private boolean separatedFromGroup;
 	
+	//how much the satisfaction of the passenger counts (e.g. by frequent-flyer tier or fare class)
+	private int weight;
+	
+	//weight of passengers that are not given one
+	public static final int DEFAULT_WEIGHT = 1;
+	
 	/**
 	 * 
 	 * Creates a passenger object to hold information about a passenger.
@@ -35,6 +41,25 @@ public class Passenger {
 	 * @param passengerInGroup Whether the passenger is part of a group
 	 */
 	public Passenger(int passengerID, boolean windowPreference, boolean passengerInGroup) {
+		this(passengerID, windowPreference, passengerInGroup, DEFAULT_WEIGHT);
+	}
+	
+	/**
+	 * 
+	 * Creates a passenger object to hold information about a passenger whose satisfaction counts
+	 * the given number of times.
+	 * 
+	 * @param passengerID Passenger's unique identifier
+	 * @param windowPreference Whether the passenger has window preference or not
+	 * @param passengerInGroup Whether the passenger is part of a group
+	 * @param weight How much the satisfaction of the passenger counts (at least 1)
+	 */
+	public Passenger(int passengerID, boolean windowPreference, boolean passengerInGroup, int weight) {
+		
+		if(weight < DEFAULT_WEIGHT) {
+			throw new IllegalArgumentException("Passenger weight must be >= 1");
+		}
+		
 		this.passengerID = passengerID;
 		this.windowPreference = windowPreference;
 		this.passengerInGroup = passengerInGroup;
@@ -43,6 +68,7 @@ public class Passenger {
 		this.satisfaction = 0;
 		
 		this.separatedFromGroup = false;
+		this.weight = weight;
 	}
 	
 	/**
@@ -72,6 +98,15 @@ public class Passenger {
 		return passengerID;
 	}
 
+	/**
+	 * Gets how much the satisfaction of the passenger counts towards the total satisfaction
+	 * 
+	 * @return Passenger's weight
+	 */
+	public int getWeight() {
+		return weight;
+	}
+
 	/**
 	 * Informs whether the passenger has window preference.
 	 * 
@@ -109,6 +144,15 @@ public class Passenger {
 		this.separatedFromGroup = separatedFromGroup;
 	}
 	
+	/**
+	 * Clears the satisfaction and the separation from their group of the passenger, so that a later
+	 * allocation can seat them again.
+	 */
+	public void reset() {
+		this.satisfaction = 0;
+		this.separatedFromGroup = false;
+	}
+	
 	/**
 	 * Gets a representation of the passenger
 	 */
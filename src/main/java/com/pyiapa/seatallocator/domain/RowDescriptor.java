@@ -37,6 +37,18 @@ public class RowDescriptor {
 
 	}
 	
+	/**
+	 * Empties the row again so that the object can describe a row of a later allocation
+	 * 
+	 * @param availableSeats Number of available seats in the row
+	 * @param availableWindowSeats Number of available window seats in the row
+	 */
+	public void reset(int availableSeats, int availableWindowSeats) {
+		this.availableSeats = availableSeats;
+		this.availableWindowSeats = availableWindowSeats;
+		this.rowSatisfaction = 0;
+	}
+	
 	/**
 	 * Obtains the number of currently available seats in the row
 	 * 
@@ -0,0 +1,83 @@
+package com.pyiapa.seatallocator.domain;
+
+/**
+ * 
+ * Holds the state of every (virtual) row of the plane during a seat allocation, i.e. the
+ * information a {@link RowDescriptor} provides for a single row, addressed by row number.
+ * 
+ * @author pyiapa
+ *
+ */
+public interface RowStore {
+	
+	/**
+	 * Opens a new row with all its seats and window seats available
+	 * 
+	 * @return The number of the new row
+	 */
+	int addRow();
+	
+	/**
+	 * Closes every row, keeping the memory of the rows for the rows of a later allocation
+	 */
+	void clear();
+	
+	/**
+	 * Obtains the number of rows opened so far
+	 * 
+	 * @return Number of rows
+	 */
+	int size();
+	
+	/**
+	 * Obtains the number of currently available seats in a row
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of available seats in the row
+	 */
+	int getAvailableSeats(int row);
+	
+	/**
+	 * Updates the number of currently available seats in a row by the value provided
+	 * 
+	 * @param row The row number
+	 * @param availableSeats The value to add to the number of currently available seats in the row
+	 */
+	void updateAvailableSeats(int row, int availableSeats);
+	
+	/**
+	 * Obtains the number of currently available window seats in a row
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of available window seats in the row
+	 */
+	int getAvailableWindowSeats(int row);
+	
+	/**
+	 * Updates the number of currently available window seats in a row by the value provided
+	 * 
+	 * @param row The row number
+	 * @param availableWindowSeats The value to add to the number of available window seats in the row
+	 */
+	void updateAvailableWindowSeats(int row, int availableWindowSeats);
+	
+	/**
+	 * Obtains the satisfaction score of a row
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Row satisfaction score
+	 */
+	double getRowSatisfaction(int row);
+	
+	/**
+	 * Updates the satisfaction score of a row by adding the value provided
+	 * 
+	 * @param row The row number
+	 * @param rowSatisfaction The value to add to the current row satisfaction score
+	 */
+	void updateRowSatisfaction(int row, double rowSatisfaction);
+
+}
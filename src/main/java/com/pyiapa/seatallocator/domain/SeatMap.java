@@ -0,0 +1,411 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pyiapa.seatallocator.utilities.IntIntMap;
+
+/**
+ * 
+ * Holds the passengers seating in each seat of the plane, addressed by row and seat number.
+ * Window seats are at known seat positions (the first and last seat of a row), so passengers
+ * are placed straight into their final seat as they are seated: passengers take the seats of a row
+ * from left to right, except for passengers that get a window seat. The first of them takes the 
+ * first seat (moving its occupant to the seat they would have taken) and the second takes the last
+ * seat, leaving a gap that the passenger who fills the row takes. Optionally keeps an index from 
+ * passenger ID to seat that answers seat lookups in constant time.
+ * 
+ * @author pyiapa
+ *
+ */
+public class SeatMap {
+	
+	//value returned by seat lookups when a passenger is not seated
+	public static final int NOT_SEATED = -1;
+	
+	//number of rows in the plane
+	private int numRows;
+	
+	//number of seats per row
+	private int numSeatsInRow;
+	
+	//window seat positions in a row, in the order they are taken
+	private int[] windowSeats;
+	
+	//the passenger in each seat. Seat s of row r is at r * numSeatsInRow + s
+	private Passenger[] seats;
+	
+	//number of rows opened so far
+	private int numRowsOpened;
+	
+	//number of seats taken in each row
+	private int[] seatsTaken;
+	
+	//number of window seats given to passengers in each row
+	private int[] windowSeatsTaken;
+	
+	//the seat of each row left free when the last window seat was taken before its turn (NO_GAP if none)
+	private int[] gapSeats;
+	
+	//indicates that a row has no gap
+	private static final int NO_GAP = -1;
+	
+	//the seat (position in seats) of each passenger, or null if passengers are not indexed
+	private IntIntMap passengerSeats;
+	
+	/**
+	 * Creates an empty seat map for a plane with the given dimensions
+	 * 
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 * @param indexPassengers Whether to keep an index from passenger ID to seat
+	 */
+	public SeatMap(int numRows, int numSeatsInRow, int numWindowsInPlane, boolean indexPassengers) {
+		
+		this.numRows = numRows;
+		this.numSeatsInRow = numSeatsInRow;
+		
+		//the first window is the first seat of the row and the second window is the last seat of the row
+		if(numWindowsInPlane <= 0) {
+			windowSeats = new int[0];
+		}else if(numWindowsInPlane == 1 || numSeatsInRow == 1) {
+			windowSeats = new int[] {0};
+		}else {
+			windowSeats = new int[] {0, numSeatsInRow - 1};
+		}
+		
+		this.seats = new Passenger[0];
+		this.seatsTaken = new int[0];
+		this.windowSeatsTaken = new int[0];
+		this.gapSeats = new int[0];
+		this.passengerSeats = indexPassengers? new IntIntMap(numSeatsInRow):null;
+	}
+	
+	/**
+	 * Opens the next row of the plane, making its seats available
+	 * 
+	 * @return The number of the row opened
+	 */
+	public int openRow() {
+		
+		if(numRowsOpened == numRows) {
+			throw new IllegalStateException("All rows of the plane are already open");
+		}
+		
+		//grow (at least doubling) to make room for the seats of the new row
+		if(numRowsOpened == seatsTaken.length) {
+			int capacity = (int) Math.min(Math.max(1, 2L * seatsTaken.length), Math.min(numRows, Integer.MAX_VALUE / numSeatsInRow));
+			
+			seats = Arrays.copyOf(seats, capacity * numSeatsInRow);
+			seatsTaken = Arrays.copyOf(seatsTaken, capacity);
+			windowSeatsTaken = Arrays.copyOf(windowSeatsTaken, capacity);
+			gapSeats = Arrays.copyOf(gapSeats, capacity);
+		}
+		
+		//the row may have been used before the seat map was cleared
+		seatsTaken[numRowsOpened] = 0;
+		windowSeatsTaken[numRowsOpened] = 0;
+		gapSeats[numRowsOpened] = NO_GAP;
+		
+		return numRowsOpened++;
+	}
+	
+	/**
+	 * Seats a passenger in a row.
+	 * 
+	 * @param row The row number
+	 * @param passenger The passenger to seat
+	 * @param windowSeat Whether the passenger gets a window seat
+	 * 
+	 * @return The seat number the passenger took
+	 */
+	public int seatPassenger(int row, Passenger passenger, boolean windowSeat) {
+		
+		int rowStart = rowStart(row);
+		
+		if(seatsTaken[row] == numSeatsInRow) {
+			throw new IllegalStateException("No seat available in row " + row);
+		}
+		
+		//the seat the passenger takes in turn (i.e. the next seat from the left, or the gap if it is the last seat)
+		int seat = (seatsTaken[row] < numSeatsInRow - 1 || gapSeats[row] == NO_GAP)? seatsTaken[row]:gapSeats[row];
+		
+		if(windowSeat && windowSeatsTaken[row] < windowSeats.length) { //passenger takes the next window seat
+			
+			int window = windowSeats[windowSeatsTaken[row]++];
+			
+			if(seats[rowStart + window] != null) { //occupied window seat, so its occupant takes the seat in turn instead
+				seats[rowStart + seat] = seats[rowStart + window];
+				indexPassenger(seats[rowStart + seat], rowStart + seat);
+				
+			}else if(window != seat) { //free window seat ahead of its turn, so the seat in turn is left as a gap
+				gapSeats[row] = seat;
+			}
+			
+			seat = window;
+		}
+		
+		seats[rowStart + seat] = passenger;
+		indexPassenger(passenger, rowStart + seat);
+		seatsTaken[row]++;
+		
+		return seat;
+	}
+	
+	/**
+	 * Gets the passenger in a seat.
+	 * 
+	 * @param row The row number
+	 * @param seat The seat number within the row
+	 * 
+	 * @return The passenger in the seat, or null if the seat is free
+	 */
+	public Passenger getPassenger(int row, int seat) {
+		
+		if(seat < 0 || seat >= numSeatsInRow) {
+			throw new IndexOutOfBoundsException("Seat: " + seat + ", Seats in row: " + numSeatsInRow);
+		}
+		
+		return seats[rowStart(row) + seat];
+	}
+	
+	/**
+	 * Gets the passengers of a row, from the leftmost to the rightmost seat, skipping free seats.
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return The passengers seating in the row
+	 */
+	public List<Passenger> getRowPassengers(int row) {
+		
+		List<Passenger> rowPassengers = new ArrayList<Passenger>(numSeatsInRow);
+		
+		copyRowPassengers(row, rowPassengers);
+		
+		return rowPassengers;
+	}
+	
+	/**
+	 * Puts the passengers of a row, from the leftmost to the rightmost seat, in the given list in place
+	 * of its contents, so that the list can be reused.
+	 * 
+	 * @param row The row number
+	 * @param rowPassengers The list that receives the passengers seating in the row
+	 */
+	public void copyRowPassengers(int row, List<Passenger> rowPassengers) {
+		
+		int rowStart = rowStart(row);
+		
+		rowPassengers.clear();
+		for(int seat = rowStart; seat < rowStart + numSeatsInRow; seat++) {
+			if(seats[seat] != null) {
+				rowPassengers.add(seats[seat]);
+			}
+		}
+	}
+	
+	/**
+	 * Releases the passengers of a row that are no longer needed. The seats of the row are 
+	 * considered free afterwards.
+	 * 
+	 * @param row The row number
+	 */
+	public void releaseRow(int row) {
+		int rowStart = rowStart(row);
+		Arrays.fill(seats, rowStart, rowStart + numSeatsInRow, null);
+	}
+	
+	/**
+	 * Closes every row and frees its seats, keeping the memory of the seats for a later allocation.
+	 */
+	public void clear() {
+		
+		Arrays.fill(seats, 0, numRowsOpened * numSeatsInRow, null);
+		numRowsOpened = 0;
+		
+		if(passengerSeats != null) {
+			passengerSeats.clear();
+		}
+	}
+	
+	/**
+	 * Finds the row of a passenger in constant time. Requires the seat map to index passengers.
+	 * 
+	 * @param passengerID The ID of the passenger
+	 * 
+	 * @return The row number of the passenger, or NOT_SEATED if the passenger has no seat
+	 */
+	public int getRowOf(int passengerID) {
+		int seat = findSeat(passengerID);
+		return (seat == NOT_SEATED)? NOT_SEATED:seat / numSeatsInRow;
+	}
+	
+	/**
+	 * Finds the seat number (within their row) of a passenger in constant time. Requires the seat 
+	 * map to index passengers.
+	 * 
+	 * @param passengerID The ID of the passenger
+	 * 
+	 * @return The seat number of the passenger, or NOT_SEATED if the passenger has no seat
+	 */
+	public int getSeatOf(int passengerID) {
+		int seat = findSeat(passengerID);
+		return (seat == NOT_SEATED)? NOT_SEATED:seat % numSeatsInRow;
+	}
+	
+	/**
+	 * Finds the row and seat number of many passengers at once, in constant time per passenger. Requires 
+	 * the seat map to index passengers.
+	 * 
+	 * @param passengerIDs The IDs of the passengers
+	 * @param rows Receives the row number of each passenger, or NOT_SEATED if the passenger has no seat
+	 * @param seatNumbers Receives the seat number (within their row) of each passenger, or NOT_SEATED
+	 * 
+	 * @return The number of the passengers that have a seat
+	 */
+	public int findSeats(int[] passengerIDs, int[] rows, int[] seatNumbers) {
+		
+		//the seat (position in seats) of the passenger being looked up, and the number of passengers found
+		int seat;
+		int numSeated = 0;
+		
+		if(rows.length < passengerIDs.length || seatNumbers.length < passengerIDs.length) {
+			throw new IllegalArgumentException("Lookup results must have room for " + passengerIDs.length + " passengers");
+		}
+		
+		for(int passenger = 0; passenger < passengerIDs.length; passenger++) {
+			
+			seat = findSeat(passengerIDs[passenger]);
+			
+			if(seat == NOT_SEATED) {
+				rows[passenger] = NOT_SEATED;
+				seatNumbers[passenger] = NOT_SEATED;
+			}else {
+				rows[passenger] = seat / numSeatsInRow;
+				seatNumbers[passenger] = seat % numSeatsInRow;
+				numSeated++;
+			}
+		}
+		
+		return numSeated;
+	}
+	
+	/**
+	 * Gets the number of passengers seating in a row, from the count kept as the row is filled
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of seats taken in the row (0 for rows of the plane that were not opened)
+	 */
+	public int getSeatsTaken(int row) {
+		return isRowOpened(row)? seatsTaken[row]:0;
+	}
+	
+	/**
+	 * Gets the number of window seats of a row that were not given to a passenger with a window preference, 
+	 * i.e. that are free or held by a passenger who would move to another seat for such a passenger
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of window seats still available in the row (all of them for rows of the plane that were not opened)
+	 */
+	public int getAvailableWindowSeats(int row) {
+		return windowSeats.length - (isRowOpened(row)? windowSeatsTaken[row]:0);
+	}
+	
+	/**
+	 * Informs whether a seat of a row is a window seat
+	 * 
+	 * @param seat The seat number within a row
+	 * 
+	 * @return Whether the seat is a window seat
+	 */
+	public boolean isWindowSeat(int seat) {
+		
+		for(int windowSeat: windowSeats) {
+			if(windowSeat == seat) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Gets the number of rows in the plane
+	 * 
+	 * @return Number of rows in the plane
+	 */
+	public int getNumRows() {
+		return numRows;
+	}
+	
+	/**
+	 * Gets the number of rows of the plane opened so far
+	 * 
+	 * @return Number of rows opened
+	 */
+	public int getNumRowsOpened() {
+		return numRowsOpened;
+	}
+	
+	/**
+	 * Gets the number of seats per row
+	 * 
+	 * @return Number of seats per row
+	 */
+	public int getNumSeatsInRow() {
+		return numSeatsInRow;
+	}
+	
+	/*
+	 * Records the seat (position in seats) of a passenger if passengers are indexed
+	 */
+	private void indexPassenger(Passenger passenger, int seat) {
+		if(passengerSeats != null) {
+			passengerSeats.put(passenger.getPassengerID(), seat);
+		}
+	}
+	
+	/*
+	 * Returns the seat (position in seats) of a passenger, or NOT_SEATED
+	 */
+	private int findSeat(int passengerID) {
+		
+		if(passengerSeats == null) {
+			throw new IllegalStateException("Passengers are not indexed by this seat map");
+		}
+		
+		int seat = passengerSeats.get(passengerID);
+		
+		return (seat == IntIntMap.NO_VALUE || seats[seat] == null || seats[seat].getPassengerID() != passengerID)? 
+			   NOT_SEATED:seat;
+	}
+	
+	/*
+	 * Informs whether a row of the plane has been opened
+	 */
+	private boolean isRowOpened(int row) {
+		
+		if(row < 0 || row >= numRows) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows in plane: " + numRows);
+		}
+		
+		return row < numRowsOpened;
+	}
+	
+	/*
+	 * Returns the position in seats of the first seat of a row, making sure the row has been opened
+	 */
+	private int rowStart(int row) {
+		
+		if(row < 0 || row >= numRowsOpened) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + numRowsOpened);
+		}
+		
+		return row * numSeatsInRow;
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.pyiapa.seatallocator.domain;
 
+import java.text.DecimalFormat;
 import java.util.List;
 
 /**
@@ -15,9 +16,20 @@ public class SittingArrangement {
 	//seating configuration of passengers in the plane
 	private List<List<Passenger>> seatConfiguration;
 	
-	//total passenger satisfaction
+	//total passenger satisfaction (formatted from the satisfaction score when first asked for, if null)
 	private String satisfaction;
 	
+	//the passenger in each seat of the plane (null if not available)
+	private SeatMap seatMap;
+	
+	//total passenger satisfaction and the upper bound on it (in percent). NaN if not available
+	private double satisfactionScore = Double.NaN;
+	private double satisfactionBound = Double.NaN;
+	
+	//the strategy that produced the arrangement and the time it took, for time-limited allocations (null and -1 otherwise)
+	private AllocationTier allocationTier;
+	private long allocationTimeNanos = -1;
+	
 	
 	/**
 	 * Creates an object that holds the final sitting configuration of passengers in the plane.
@@ -26,8 +38,38 @@ public class SittingArrangement {
 	 * @param satisfaction The total passenger satisfaction
 	 */
 	public SittingArrangement(List<List<Passenger>> seatConfiguration, String satisfaction) {
+		this(seatConfiguration, satisfaction, null);
+	}
+	
+	/**
+	 * Creates an object that holds the final sitting configuration of passengers in the plane
+	 * together with the seat of every passenger.
+	 * 
+	 * @param seatConfiguration The sitting configuration of the passengers
+	 * @param satisfaction The total passenger satisfaction
+	 * @param seatMap The passenger in each seat of the plane
+	 */
+	public SittingArrangement(List<List<Passenger>> seatConfiguration, String satisfaction, SeatMap seatMap) {
 		this.seatConfiguration = seatConfiguration;
 		this.satisfaction = satisfaction;
+		this.seatMap = seatMap;
+	}
+	
+	/**
+	 * Creates an object that holds the final sitting configuration of passengers in the plane
+	 * together with the seat of every passenger and how far the satisfaction is from optimal.
+	 * 
+	 * @param seatConfiguration The sitting configuration of the passengers
+	 * @param satisfaction The total passenger satisfaction
+	 * @param seatMap The passenger in each seat of the plane
+	 * @param satisfactionScore The total passenger satisfaction (in percent)
+	 * @param satisfactionBound Upper bound on the satisfaction any arrangement can achieve (in percent)
+	 */
+	public SittingArrangement(List<List<Passenger>> seatConfiguration, String satisfaction, SeatMap seatMap,
+							  double satisfactionScore, double satisfactionBound) {
+		this(seatConfiguration, satisfaction, seatMap);
+		this.satisfactionScore = satisfactionScore;
+		this.satisfactionBound = satisfactionBound;
 	}
 	
 	/**
@@ -45,9 +87,189 @@ public class SittingArrangement {
 	 * @return The total passenger satisfaction score
 	 */
 	public String getSatisfaction() {
+		
+		if(this.satisfaction == null && !Double.isNaN(this.satisfactionScore)) {
+			this.satisfaction = formatSatisfaction(this.satisfactionScore);
+		}
+		
 		return this.satisfaction;
 	}
 	
+	/**
+	 * Gets the total passenger satisfaction as a number.
+	 * 
+	 * @return The total passenger satisfaction (in percent), or NaN if not available
+	 */
+	public double getSatisfactionScore() {
+		return this.satisfactionScore;
+	}
+	
+	/**
+	 * Gets the upper bound on the satisfaction any sitting arrangement can achieve.
+	 * 
+	 * @return The upper bound on the total passenger satisfaction (in percent), or NaN if not available
+	 */
+	public double getSatisfactionBound() {
+		return this.satisfactionBound;
+	}
+	
+	/**
+	 * Gets how far the satisfaction may be from optimal, i.e. the difference between the upper bound
+	 * and the satisfaction. A gap of 0 means that the arrangement is optimal.
+	 * 
+	 * @return The optimality gap (in percentage points), or NaN if not available
+	 */
+	public double getOptimalityGap() {
+		return Math.max(0, this.satisfactionBound - this.satisfactionScore);
+	}
+	
+	/**
+	 * Records which strategy produced the arrangement of a time-limited allocation and how much of the
+	 * time budget it used.
+	 * 
+	 * @param allocationTier The strategy that produced the arrangement
+	 * @param allocationTimeNanos The time the allocation took (in nanoseconds)
+	 */
+	public void setAllocationReport(AllocationTier allocationTier, long allocationTimeNanos) {
+		this.allocationTier = allocationTier;
+		this.allocationTimeNanos = allocationTimeNanos;
+	}
+	
+	/**
+	 * Gets the strategy that produced the arrangement of a time-limited allocation.
+	 * 
+	 * @return The strategy that produced the arrangement, or null if the allocation had no time limit
+	 */
+	public AllocationTier getAllocationTier() {
+		return this.allocationTier;
+	}
+	
+	/**
+	 * Gets the time a time-limited allocation took.
+	 * 
+	 * @return The time the allocation took (in nanoseconds), or -1 if the allocation had no time limit
+	 */
+	public long getAllocationTimeNanos() {
+		return this.allocationTimeNanos;
+	}
+	
+	/**
+	 * Updates the satisfaction of an arrangement that is reused by a later allocation, whose seat configuration
+	 * and seat map were filled again in place. The formatted satisfaction is only produced when asked for.
+	 * 
+	 * @param satisfactionScore The total passenger satisfaction (in percent)
+	 * @param satisfactionBound Upper bound on the satisfaction any arrangement can achieve (in percent)
+	 */
+	public void resetSatisfaction(double satisfactionScore, double satisfactionBound) {
+		this.satisfaction = null;
+		this.satisfactionScore = satisfactionScore;
+		this.satisfactionBound = satisfactionBound;
+		this.allocationTier = null;
+		this.allocationTimeNanos = -1;
+	}
+	
+	/**
+	 * Formats a total passenger satisfaction the way it is reported, i.e. to two decimal places
+	 * 
+	 * @param satisfactionScore The total passenger satisfaction (in percent)
+	 * 
+	 * @return The formatted satisfaction
+	 */
+	public static String formatSatisfaction(double satisfactionScore) {
+		return (new DecimalFormat(".##").format(satisfactionScore) + "%");
+	}
+	
+	/**
+	 * Finds the row of a passenger in constant time, from the index of the seat map.
+	 * 
+	 * @param passengerID The ID of the passenger
+	 * 
+	 * @return The row number of the passenger, or SeatMap.NOT_SEATED if the passenger has no seat
+	 * 
+	 * @throws IllegalStateException Exception thrown if the arrangement has no seat map
+	 */
+	public int getRowOf(int passengerID) {
+		return requireSeatMap().getRowOf(passengerID);
+	}
+	
+	/**
+	 * Finds the seat number (within their row) of a passenger in constant time, from the index of the seat map.
+	 * 
+	 * @param passengerID The ID of the passenger
+	 * 
+	 * @return The seat number of the passenger, or SeatMap.NOT_SEATED if the passenger has no seat
+	 * 
+	 * @throws IllegalStateException Exception thrown if the arrangement has no seat map
+	 */
+	public int getSeatOf(int passengerID) {
+		return requireSeatMap().getSeatOf(passengerID);
+	}
+	
+	/**
+	 * Finds the row and seat number of many passengers at once, in constant time per passenger.
+	 * 
+	 * @param passengerIDs The IDs of the passengers
+	 * @param rows Receives the row number of each passenger, or SeatMap.NOT_SEATED if the passenger has no seat
+	 * @param seatNumbers Receives the seat number (within their row) of each passenger, or SeatMap.NOT_SEATED
+	 * 
+	 * @return The number of the passengers that have a seat
+	 * 
+	 * @throws IllegalStateException Exception thrown if the arrangement has no seat map
+	 */
+	public int findSeats(int[] passengerIDs, int[] rows, int[] seatNumbers) {
+		return requireSeatMap().findSeats(passengerIDs, rows, seatNumbers);
+	}
+	
+	/**
+	 * Gets the number of free seats of a row of the plane, without going over its passengers.
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of free seats in the row (all of them for rows that were not opened)
+	 * 
+	 * @throws IllegalStateException Exception thrown if the arrangement has no seat map
+	 * @throws IndexOutOfBoundsException Exception thrown if the row is not in the plane
+	 */
+	public int getAvailableSeats(int row) {
+		return requireSeatMap().getNumSeatsInRow() - seatMap.getSeatsTaken(row);
+	}
+	
+	/**
+	 * Gets the number of window seats of a row of the plane that a passenger with a window preference could still
+	 * be given, without going over its passengers.
+	 * 
+	 * @param row The row number
+	 * 
+	 * @return Number of window seats still available in the row
+	 * 
+	 * @throws IllegalStateException Exception thrown if the arrangement has no seat map
+	 */
+	public int getAvailableWindowSeats(int row) {
+		return requireSeatMap().getAvailableWindowSeats(row);
+	}
+	
+	/**
+	 * Gets the passenger in each seat of the plane, which also finds the seat of a passenger
+	 * in constant time.
+	 * 
+	 * @return The seat map of the plane, or null if not available
+	 */
+	public SeatMap getSeatMap() {
+		return this.seatMap;
+	}
+	
+	/*
+	 * Returns the seat map that answers the queries on the arrangement
+	 */
+	private SeatMap requireSeatMap() {
+		
+		if(this.seatMap == null) {
+			throw new IllegalStateException("Seat lookups are not available for this arrangement");
+		}
+		
+		return this.seatMap;
+	}
+	
 	
 	
 }
@@ -0,0 +1,89 @@
+package com.pyiapa.seatallocator.domain;
+
+import java.util.List;
+
+/**
+ * Represents the distribution of the passengers of a manifest across several departures. It holds
+ * the sitting arrangement of each departure, the passengers that no departure could seat, and the total
+ * satisfaction over every passenger of the manifest.
+ * 
+ * @author pyiapa
+ *
+ */
+public class WaitlistDistribution {
+	
+	//the departures, and the sitting arrangement of each of them (in the same order)
+	private List<Departure> departures;
+	private List<SittingArrangement> sittingArrangements;
+	
+	//groups of passengers that were not given to any departure, or not seated by the departure they were given to
+	private List<List<Passenger>> unassignedGroups;
+	
+	//total passenger satisfaction over the whole manifest (in percent)
+	private double satisfactionScore;
+	
+	/**
+	 * Creates an object that holds the distribution of passengers across departures
+	 * 
+	 * @param departures The departures
+	 * @param sittingArrangements The sitting arrangement of each departure
+	 * @param unassignedGroups The groups of passengers that were not given to any departure, or not seated by it
+	 * @param satisfactionScore The total passenger satisfaction over the whole manifest (in percent)
+	 */
+	public WaitlistDistribution(List<Departure> departures, List<SittingArrangement> sittingArrangements,
+								List<List<Passenger>> unassignedGroups, double satisfactionScore) {
+		this.departures = departures;
+		this.sittingArrangements = sittingArrangements;
+		this.unassignedGroups = unassignedGroups;
+		this.satisfactionScore = satisfactionScore;
+	}
+	
+	/**
+	 * Gets the departures the passengers were distributed to
+	 * 
+	 * @return The departures
+	 */
+	public List<Departure> getDepartures() {
+		return departures;
+	}
+	
+	/**
+	 * Gets the sitting arrangement of each departure, in the order of the departures. The satisfaction
+	 * of an arrangement is over the passengers given to its departure.
+	 * 
+	 * @return The sitting arrangement of each departure
+	 */
+	public List<SittingArrangement> getSittingArrangements() {
+		return sittingArrangements;
+	}
+	
+	/**
+	 * Gets the groups of passengers that were not given to any departure, as no departure had seats left, and
+	 * the passengers of each group that the departure it was given to could not seat
+	 * 
+	 * @return The groups, or parts of groups, that got no seat
+	 */
+	public List<List<Passenger>> getUnassignedGroups() {
+		return unassignedGroups;
+	}
+	
+	/**
+	 * Gets the total passenger satisfaction over the whole manifest
+	 * 
+	 * @return The total passenger satisfaction (in percent)
+	 */
+	public double getSatisfactionScore() {
+		return satisfactionScore;
+	}
+	
+	/**
+	 * Gets the total passenger satisfaction over the whole manifest, formatted like the satisfaction of
+	 * a sitting arrangement
+	 * 
+	 * @return The total passenger satisfaction
+	 */
+	public String getSatisfaction() {
+		return SittingArrangement.formatSatisfaction(satisfactionScore);
+	}
+
+}
@@ -0,0 +1,599 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Searches for a better assignment of groups to the rows of the plane than a given one, within a
+ * deadline. Groups are described by their size and window preferences only, and an assignment tells
+ * the row every group sits in together (or that the group is not seated together). Passengers of
+ * groups that are not seated together are separated: they take the free seats and only get half
+ * satisfaction from a window seat, following the satisfaction rules of the allocator.
+ *
+ * Small planes are searched exhaustively, while larger planes are improved by local search that
+ * seats groups in free seats, swaps groups for larger ones and moves window preferences to rows with
+ * free window seats. Both stop as soon as the upper bound on satisfaction is reached.
+ *
+ * @author pyiapa
+ *
+ */
+public class ArrangementSearch {
+
+	/**
+	 * Assignment of a group that is not seated together
+	 */
+	public static final int NOT_ASSIGNED = -1;
+
+	/**
+	 * Largest plane (in seats) and number of groups that are searched exhaustively
+	 */
+	public static final int EXACT_MAX_SEATS = 32;
+	public static final int EXACT_MAX_GROUPS = 20;
+
+	//number of search steps between deadline checks
+	private final static int DEADLINE_CHECK_INTERVAL = 256;
+
+	//number of rows inspected for each kind of move
+	private final static int CANDIDATE_ROWS = 8;
+
+	//tolerance when comparing satisfaction points, which add up halves
+	private final static double TOLERANCE = 1e-9;
+
+	//passenger satisfaction values
+	private final static double HALF_SATISFACTION = 0.5;
+
+	//size, number of window preferences and whether they travel alone, for each group
+	private int[] groupSizes;
+	private int[] groupWindowPreferences;
+	private boolean[] travelingAlone;
+
+	//number of rows in the plane
+	private int numRows;
+
+	//number of seats per row
+	private int numSeatsInRow;
+
+	//number of window seats (per row) that can be given to passengers
+	private int numWindowsInRow;
+
+	//the row of each group, or NOT_ASSIGNED
+	private int[] rowOf;
+
+	//the groups seating in each row
+	private List<List<Integer>> rowGroups;
+
+	//per row: seats taken, and passengers without window preference, traveling alone with window preference and
+	//traveling in a group with window preference
+	private int[] seatsTaken;
+	private int[] nonWindowPassengers;
+	private int[] aloneWindowPassengers;
+	private int[] groupWindowPassengers;
+
+	//rows by number of free seats
+	private BitSet[] rowsWithFreeSeats;
+
+	//rows with window seats that the passengers of their groups do not take
+	private BitSet rowsWithFreeWindows;
+
+	//satisfaction of the groups seated together, summed over the rows
+	private double rowsSatisfaction;
+
+	//window seats left to separated passengers (i.e. free seats that still get window credit)
+	private long separatedWindowSeats;
+
+	//separated passengers with window preference
+	private long separatedWindowPassengers;
+
+	//groups that fit in a row, in descending order of size
+	private int[] fittingGroups;
+
+	//best assignment found by the exhaustive search
+	private int[] bestRowOf;
+	private double bestSatisfaction;
+
+	//search steps taken and whether the deadline was hit
+	private long steps;
+	private boolean timedOut;
+
+	/**
+	 * Creates a search over the given groups, with no group seated together
+	 *
+	 * @param groupSizes Size of each group
+	 * @param groupWindowPreferences Number of window preferences of each group
+	 * @param travelingAlone Whether the passenger of each group travels alone
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public ArrangementSearch(int[] groupSizes, int[] groupWindowPreferences, boolean[] travelingAlone,
+							 int numRows, int numSeatsInRow, int numWindowsInPlane) {
+
+		//number of groups that fit in a row
+		int numFittingGroups = 0;
+
+		this.groupSizes = groupSizes;
+		this.groupWindowPreferences = groupWindowPreferences;
+		this.travelingAlone = travelingAlone;
+		this.numRows = numRows;
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInRow = Math.max(0, Math.min(numWindowsInPlane, numSeatsInRow));
+
+		this.rowOf = new int[groupSizes.length];
+		Arrays.fill(rowOf, NOT_ASSIGNED);
+
+		this.rowGroups = new ArrayList<List<Integer>>(numRows);
+		for(int row = 0; row < numRows; row++) {
+			rowGroups.add(new ArrayList<Integer>());
+		}
+
+		this.seatsTaken = new int[numRows];
+		this.nonWindowPassengers = new int[numRows];
+		this.aloneWindowPassengers = new int[numRows];
+		this.groupWindowPassengers = new int[numRows];
+
+		this.rowsWithFreeSeats = new BitSet[numSeatsInRow + 1];
+		for(int freeSeats = 0; freeSeats <= numSeatsInRow; freeSeats++) {
+			rowsWithFreeSeats[freeSeats] = new BitSet(numRows);
+		}
+		rowsWithFreeSeats[numSeatsInRow].set(0, numRows);
+
+		this.rowsWithFreeWindows = new BitSet(numRows);
+		if(numWindowsInRow > 0) {
+			rowsWithFreeWindows.set(0, numRows);
+		}
+
+		for(int row = 0; row < numRows; row++) {
+			separatedWindowSeats += separatedWindowSeats(row);
+		}
+
+		for(int group = 0; group < groupSizes.length; group++) {
+			separatedWindowPassengers += groupWindowPreferences[group];
+			numFittingGroups += (groupSizes[group] <= numSeatsInRow)? 1:0;
+		}
+
+		//groups that fit in a row, largest first
+		Integer[] fittingOrder = new Integer[numFittingGroups];
+		for(int group = 0, fittingGroup = 0; group < groupSizes.length; group++) {
+			if(groupSizes[group] <= numSeatsInRow) {
+				fittingOrder[fittingGroup++] = group;
+			}
+		}
+		Arrays.sort(fittingOrder, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer group1, Integer group2) {
+				return groupSizes[group2] - groupSizes[group1];
+			}
+		});
+
+		this.fittingGroups = new int[numFittingGroups];
+		for(int fittingGroup = 0; fittingGroup < numFittingGroups; fittingGroup++) {
+			fittingGroups[fittingGroup] = fittingOrder[fittingGroup];
+		}
+	}
+
+	/**
+	 * Seats groups together in the given rows
+	 *
+	 * @param assignment The row of each group, or NOT_ASSIGNED
+	 */
+	public void setAssignment(int[] assignment) {
+
+		for(int group = 0; group < rowOf.length; group++) {
+			if(rowOf[group] != NOT_ASSIGNED) {
+				removeGroup(group);
+			}
+		}
+
+		for(int group = 0; group < assignment.length; group++) {
+			if(assignment[group] != NOT_ASSIGNED) {
+
+				if(groupSizes[group] > numSeatsInRow - seatsTaken[assignment[group]]) {
+					throw new IllegalArgumentException("Group " + group + " does not fit in row " + assignment[group]);
+				}
+
+				addGroup(group, assignment[group]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the current assignment
+	 *
+	 * @return The row of each group, or NOT_ASSIGNED
+	 */
+	public int[] getAssignment() {
+		return rowOf.clone();
+	}
+
+	/**
+	 * Gets the satisfaction of the current assignment
+	 *
+	 * @return The sum of passenger satisfaction
+	 */
+	public double getSatisfaction() {
+		return rowsSatisfaction + HALF_SATISFACTION * Math.min(separatedWindowSeats, separatedWindowPassengers);
+	}
+
+	/**
+	 * Informs whether the plane is small enough to be searched exhaustively
+	 *
+	 * @return Whether the plane is small enough for the exhaustive search
+	 */
+	public boolean isSmallPlane() {
+		return (long) numRows * numSeatsInRow <= EXACT_MAX_SEATS && fittingGroups.length <= EXACT_MAX_GROUPS;
+	}
+
+	/**
+	 * Searches every assignment of groups to rows for the best one, keeping the current assignment
+	 * unless a better one is found. Stops at the deadline or as soon as the bound is reached.
+	 *
+	 * @param deadline The deadline (as a System.nanoTime() value)
+	 * @param satisfactionBound Upper bound on satisfaction for the groups
+	 *
+	 * @return Whether the search completed (i.e. the resulting assignment is the best one)
+	 */
+	public boolean searchExact(long deadline, SatisfactionBound satisfactionBound) {
+
+		bestRowOf = getAssignment();
+		bestSatisfaction = getSatisfaction();
+		timedOut = false;
+
+		if(!satisfactionBound.isReached(bestSatisfaction)) {
+			setAssignment(emptyAssignment());
+			searchRows(0, deadline, satisfactionBound);
+			setAssignment(bestRowOf);
+		}
+
+		return !timedOut;
+	}
+
+	/**
+	 * Improves the current assignment by local search until no move improves it any further, the
+	 * deadline passes or the bound is reached.
+	 *
+	 * @param deadline The deadline (as a System.nanoTime() value)
+	 * @param satisfactionBound Upper bound on satisfaction for the groups
+	 *
+	 * @return Whether the assignment was improved
+	 */
+	public boolean searchLocal(long deadline, SatisfactionBound satisfactionBound) {
+
+		double initialSatisfaction = getSatisfaction();
+		boolean improved = true;
+
+		timedOut = false;
+
+		while(improved && !satisfactionBound.isReached(getSatisfaction()) && !isPastDeadline(deadline)) {
+
+			improved = false;
+
+			//seat groups that are not seated together, largest first
+			for(int fittingGroup = 0; fittingGroup < fittingGroups.length && !isPastDeadline(deadline); fittingGroup++) {
+
+				int group = fittingGroups[fittingGroup];
+
+				if(rowOf[group] == NOT_ASSIGNED && (insertGroup(group) || replaceSmallerGroup(group))) {
+					improved = true;
+				}
+			}
+
+			//move window preferences to rows with free window seats
+			for(int row = 0; row < numRows && !isPastDeadline(deadline); row++) {
+				if(aloneWindowPassengers[row] + groupWindowPassengers[row] > numWindowsInRow && moveWindowPreferences(row)) {
+					improved = true;
+				}
+			}
+		}
+
+		return getSatisfaction() > initialSatisfaction + TOLERANCE;
+	}
+
+	/*
+	 * Seats a group in the row with the fewest free seats it fits in, if that improves satisfaction
+	 */
+	private boolean insertGroup(int group) {
+
+		double satisfaction = getSatisfaction();
+
+		for(int freeSeats = groupSizes[group]; freeSeats <= numSeatsInRow; freeSeats++) {
+
+			int row = rowsWithFreeSeats[freeSeats].nextSetBit(0);
+
+			if(row >= 0) {
+
+				addGroup(group, row);
+
+				if(getSatisfaction() > satisfaction + TOLERANCE) {
+					return true;
+				}
+
+				removeGroup(group);
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Seats a group in place of a smaller group (which is seated elsewhere if possible), if that
+	 * improves satisfaction
+	 */
+	private boolean replaceSmallerGroup(int group) {
+
+		double satisfaction = getSatisfaction();
+
+		for(int freeSeats = groupSizes[group] - 1; freeSeats >= 0; freeSeats--) {
+
+			int row = rowsWithFreeSeats[freeSeats].nextSetBit(0);
+
+			for(int candidate = 0; candidate < CANDIDATE_ROWS && row >= 0; candidate++) {
+
+				for(int rowGroup = 0; rowGroup < rowGroups.get(row).size(); rowGroup++) {
+
+					int smallerGroup = rowGroups.get(row).get(rowGroup);
+
+					if(groupSizes[smallerGroup] < groupSizes[group] && groupSizes[smallerGroup] + freeSeats >= groupSizes[group]) {
+
+						removeGroup(smallerGroup);
+						addGroup(group, row);
+
+						if(insertGroup(smallerGroup) || getSatisfaction() > satisfaction + TOLERANCE) {
+							return true;
+						}
+
+						removeGroup(group);
+						addGroup(smallerGroup, row);
+					}
+				}
+
+				row = rowsWithFreeSeats[freeSeats].nextSetBit(row + 1);
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Moves a group with window preferences out of a row where not all window preferences can be satisfied,
+	 * either to a row with free window seats and enough free seats or in exchange for a group of the same size
+	 * with fewer window preferences, if that improves satisfaction
+	 */
+	private boolean moveWindowPreferences(int row) {
+
+		double satisfaction = getSatisfaction();
+
+		for(int rowGroup = 0; rowGroup < rowGroups.get(row).size(); rowGroup++) {
+
+			int group = rowGroups.get(row).get(rowGroup);
+
+			if(groupWindowPreferences[group] == 0) {
+				continue;
+			}
+
+			int otherRow = rowsWithFreeWindows.nextSetBit(0);
+
+			for(int candidate = 0; candidate < CANDIDATE_ROWS && otherRow >= 0; candidate++) {
+
+				//move the group if it fits
+				if(numSeatsInRow - seatsTaken[otherRow] >= groupSizes[group]) {
+
+					removeGroup(group);
+					addGroup(group, otherRow);
+
+					if(getSatisfaction() > satisfaction + TOLERANCE) {
+						return true;
+					}
+
+					removeGroup(group);
+					addGroup(group, row);
+				}
+
+				//otherwise exchange it for a group of the same size with fewer window preferences
+				for(int otherRowGroup = 0; otherRowGroup < rowGroups.get(otherRow).size(); otherRowGroup++) {
+
+					int otherGroup = rowGroups.get(otherRow).get(otherRowGroup);
+
+					if(groupSizes[otherGroup] == groupSizes[group] &&
+					   groupWindowPreferences[otherGroup] < groupWindowPreferences[group]) {
+
+						removeGroup(group);
+						removeGroup(otherGroup);
+						addGroup(group, otherRow);
+						addGroup(otherGroup, row);
+
+						if(getSatisfaction() > satisfaction + TOLERANCE) {
+							return true;
+						}
+
+						removeGroup(group);
+						removeGroup(otherGroup);
+						addGroup(group, row);
+						addGroup(otherGroup, otherRow);
+					}
+				}
+
+				otherRow = rowsWithFreeWindows.nextSetBit(otherRow + 1);
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Tries every row (or none) for each group that fits in a row in turn, keeping the best assignment.
+	 * Branches that cannot beat the best assignment found are cut.
+	 */
+	private void searchRows(int fittingGroup, long deadline, SatisfactionBound satisfactionBound) {
+
+		if(timedOut || satisfactionBound.isReached(bestSatisfaction)) {
+			return;
+		}
+
+		if(++steps % DEADLINE_CHECK_INTERVAL == 0 && isPastDeadline(deadline)) {
+			timedOut = true;
+			return;
+		}
+
+		if(fittingGroup == fittingGroups.length) {
+			if(getSatisfaction() > bestSatisfaction + TOLERANCE) {
+				bestSatisfaction = getSatisfaction();
+				bestRowOf = getAssignment();
+			}
+			return;
+		}
+
+		//every passenger still to be seated adds at most one to satisfaction, and needs a free seat
+		if(rowsSatisfaction + Math.min(freeSeats(), remainingPassengers(fittingGroup) + separatedWindowPassengers)
+		   <= bestSatisfaction + TOLERANCE) {
+			return;
+		}
+
+		int group = fittingGroups[fittingGroup];
+
+		//empty rows are all alike, so only the first one is tried
+		boolean emptyRowTried = false;
+
+		for(int row = 0; row < numRows; row++) {
+
+			if(numSeatsInRow - seatsTaken[row] < groupSizes[group] || (seatsTaken[row] == 0 && emptyRowTried)) {
+				continue;
+			}
+
+			emptyRowTried |= (seatsTaken[row] == 0);
+
+			addGroup(group, row);
+			searchRows(fittingGroup + 1, deadline, satisfactionBound);
+			removeGroup(group);
+		}
+
+		//the group may also be left to be separated
+		searchRows(fittingGroup + 1, deadline, satisfactionBound);
+	}
+
+	/*
+	 * Returns the number of free seats in the plane
+	 */
+	private long freeSeats() {
+
+		long freeSeats = 0;
+
+		for(int row = 0; row < numRows; row++) {
+			freeSeats += numSeatsInRow - seatsTaken[row];
+		}
+
+		return freeSeats;
+	}
+
+	/*
+	 * Returns the number of passengers of the groups from the given one onwards (in descending order of size)
+	 */
+	private long remainingPassengers(int fittingGroup) {
+
+		long remainingPassengers = 0;
+
+		for(int group = fittingGroup; group < fittingGroups.length; group++) {
+			remainingPassengers += groupSizes[fittingGroups[group]];
+		}
+
+		return remainingPassengers;
+	}
+
+	/*
+	 * Returns an assignment where no group is seated together
+	 */
+	private int[] emptyAssignment() {
+		int[] assignment = new int[rowOf.length];
+		Arrays.fill(assignment, NOT_ASSIGNED);
+		return assignment;
+	}
+
+	/*
+	 * Seats a group together in a row
+	 */
+	private void addGroup(int group, int row) {
+		leaveRow(row);
+		rowOf[group] = row;
+		rowGroups.get(row).add(group);
+		seatsTaken[row] += groupSizes[group];
+		nonWindowPassengers[row] += groupSizes[group] - groupWindowPreferences[group];
+		if(travelingAlone[group]) {
+			aloneWindowPassengers[row] += groupWindowPreferences[group];
+		}else {
+			groupWindowPassengers[row] += groupWindowPreferences[group];
+		}
+		separatedWindowPassengers -= groupWindowPreferences[group];
+		enterRow(row);
+	}
+
+	/*
+	 * Removes a group from its row, leaving its passengers to be separated
+	 */
+	private void removeGroup(int group) {
+		int row = rowOf[group];
+		leaveRow(row);
+		rowOf[group] = NOT_ASSIGNED;
+		rowGroups.get(row).remove(Integer.valueOf(group));
+		seatsTaken[row] -= groupSizes[group];
+		nonWindowPassengers[row] -= groupSizes[group] - groupWindowPreferences[group];
+		if(travelingAlone[group]) {
+			aloneWindowPassengers[row] -= groupWindowPreferences[group];
+		}else {
+			groupWindowPassengers[row] -= groupWindowPreferences[group];
+		}
+		separatedWindowPassengers += groupWindowPreferences[group];
+		enterRow(row);
+	}
+
+	/*
+	 * Takes out the contribution of a row before it changes
+	 */
+	private void leaveRow(int row) {
+		rowsSatisfaction -= rowSatisfaction(row);
+		separatedWindowSeats -= separatedWindowSeats(row);
+		rowsWithFreeSeats[numSeatsInRow - seatsTaken[row]].clear(row);
+		rowsWithFreeWindows.clear(row);
+	}
+
+	/*
+	 * Adds back the contribution of a row after it changed
+	 */
+	private void enterRow(int row) {
+		rowsSatisfaction += rowSatisfaction(row);
+		separatedWindowSeats += separatedWindowSeats(row);
+		rowsWithFreeSeats[numSeatsInRow - seatsTaken[row]].set(row);
+		if(aloneWindowPassengers[row] + groupWindowPassengers[row] < numWindowsInRow) {
+			rowsWithFreeWindows.set(row);
+		}
+	}
+
+	/*
+	 * Returns the satisfaction of the groups seated together in a row. Window seats go to passengers traveling
+	 * alone first, as they get nothing without one, while passengers of a group still get half satisfaction.
+	 */
+	private double rowSatisfaction(int row) {
+
+		int windowSeats = Math.min(numWindowsInRow, aloneWindowPassengers[row] + groupWindowPassengers[row]);
+		int groupWindowSeats = windowSeats - Math.min(windowSeats, aloneWindowPassengers[row]);
+
+		return nonWindowPassengers[row] + windowSeats + (groupWindowPassengers[row] - groupWindowSeats) * HALF_SATISFACTION;
+	}
+
+	/*
+	 * Returns the number of window seats of a row left to separated passengers, which also need a free seat
+	 */
+	private int separatedWindowSeats(int row) {
+		return Math.min(Math.max(0, numWindowsInRow - aloneWindowPassengers[row] - groupWindowPassengers[row]),
+						numSeatsInRow - seatsTaken[row]);
+	}
+
+	/*
+	 * Informs whether the deadline has passed
+	 */
+	private static boolean isPastDeadline(long deadline) {
+		return System.nanoTime() - deadline >= 0;
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.pyiapa.seatallocator.services;
+
+/**
+ * Rates seated passengers by the rules of the README. Passengers without window preference are fully 
+ * satisfied when they sit with their group, while passengers with window preference also need a window 
+ * seat for that and get half the satisfaction without one if they sit with their group. Passengers 
+ * separated from their group get half for a window seat they wished for, plus their share of the
+ * satisfaction of sitting with their group for groups that are kept partly together (0 unless groups larger
+ * than a row are split into blocks or seated in adjacent rows). The satisfaction of every combination of
+ * flags is worked out once, so rating a passenger is a table lookup and an arrangement is rated by a loop
+ * without branches.
+ * 
+ * @author pyiapa
+ *
+ */
+public class DefaultSatisfactionScorer implements SatisfactionScorer {
+	
+	//passenger satisfaction values
+	private final static double FULL_SATISFACTION = 1;
+	private final static double HALF_SATISFACTION = 0.5;
+	private final static double NO_SATISFACTION = 0;
+	
+	//the satisfaction of a passenger with each combination of flags
+	private double[] scores = new double[FLAG_COMBINATIONS];
+	
+	/**
+	 * Creates a scorer for passengers of groups that are never kept partly together
+	 */
+	public DefaultSatisfactionScorer() {
+		this(NO_SATISFACTION);
+	}
+	
+	/**
+	 * Creates a scorer that gives passengers separated from their group the given share of the satisfaction
+	 * of sitting with their group
+	 * 
+	 * @param partialGroupSatisfaction Share (from 0 to 1) of the group satisfaction given to separated passengers
+	 */
+	public DefaultSatisfactionScorer(double partialGroupSatisfaction) {
+		
+		if(partialGroupSatisfaction < NO_SATISFACTION || partialGroupSatisfaction > FULL_SATISFACTION) {
+			throw new IllegalArgumentException("Partial group satisfaction must be between 0 and 1");
+		}
+		
+		for(int passengerFlags = 0; passengerFlags < FLAG_COMBINATIONS; passengerFlags++) {
+			scores[passengerFlags] = rate(passengerFlags, partialGroupSatisfaction);
+		}
+	}
+	
+	@Override
+	public double score(int passengerFlags) {
+		return scores[passengerFlags];
+	}
+	
+	@Override
+	public double scoreArrangement(byte[] passengerFlags, int[] passengerWeights, int numPassengers) {
+		
+		//total satisfaction of the passengers
+		double satisfaction = 0;
+		
+		for(int passenger = 0; passenger < numPassengers; passenger++) {
+			satisfaction += scores[passengerFlags[passenger] & (FLAG_COMBINATIONS - 1)] * passengerWeights[passenger];
+		}
+		
+		return satisfaction;
+	}
+	
+	/*
+	 * Rates a passenger with the given flags by the rules of the README
+	 */
+	private static double rate(int passengerFlags, double partialGroupSatisfaction) {
+		
+		//the preferences of the passenger and how they were seated
+		boolean windowPreference = (passengerFlags & WINDOW_PREFERENCE) != 0;
+		boolean passengerInGroup = (passengerFlags & PASSENGER_IN_GROUP) != 0;
+		boolean separatedFromGroup = (passengerFlags & SEPARATED_FROM_GROUP) != 0;
+		boolean windowSeat = (passengerFlags & WINDOW_SEAT) != 0;
+		
+		if(!windowPreference) { //fully satisfied unless separated from their group
+			return separatedFromGroup? partialGroupSatisfaction:FULL_SATISFACTION;
+			
+		}else if(windowSeat) { //only half satisfied by the window seat when separated from their group
+			return separatedFromGroup? HALF_SATISFACTION + partialGroupSatisfaction * HALF_SATISFACTION:FULL_SATISFACTION;
+			
+		}else if(separatedFromGroup) { //only their share for a partially kept group
+			return partialGroupSatisfaction * HALF_SATISFACTION;
+		}
+		
+		//sitting with their group is still worth half, unlike traveling alone
+		return passengerInGroup? HALF_SATISFACTION:NO_SATISFACTION;
+	}
+
+}
@@ -0,0 +1,437 @@
+package com.pyiapa.seatallocator.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Orders groups of passengers that do not fit in memory all at once, for manifests larger than the heap.
+ * Groups are collected into runs of a fixed number of groups, and each full run is put in the order groups
+ * are seated (the order of the {@link GroupQueue}) and written to a file on disk. The runs are then merged,
+ * handing out one group at a time to the {@link SeatAllocator}, so only one run and the head group of each
+ * run are ever held in memory. Groups of different runs that are seated in the same order are handed out
+ * in the order of their runs, which is the order they were read, so the order is the same as if every group
+ * had been put in a single queue. Runs are merged a number of them at a time, so the number of files open
+ * at once is bounded. If every group fits in a single run, nothing is written to disk.
+ *
+ * @author pyiapa
+ *
+ */
+public class ExternalGroupSorter implements Closeable {
+
+	/**
+	 * Number of runs merged at a time unless one is given
+	 */
+	public static final int DEFAULT_MERGE_WIDTH = 64;
+
+	//share of the maximum heap that the groups of a run may take unless a number of groups is given, and the 
+	//memory (in bytes) a group of a few passengers is assumed to take together with its place in the queue
+	private static final int RUN_HEAP_SHARE = 8;
+	private static final int ESTIMATED_GROUP_BYTES = 256;
+
+	//size (in bytes) of the buffer each run file is written and read through
+	private static final int RUN_BUFFER_SIZE = 64 * 1024;
+
+	//flags that record the preferences of a passenger in a run file
+	private static final int WINDOW_PREFERENCE_FLAG = 1;
+	private static final int PASSENGER_IN_GROUP_FLAG = 2;
+
+	//directory where run files are written
+	private Path spillDirectory;
+
+	//number of groups in a run, and number of runs merged at a time
+	private int groupsPerRun;
+	private int mergeWidth;
+
+	//the groups of the run being collected, and the queue that orders them
+	private List<List<Passenger>> runGroups = new ArrayList<List<Passenger>>();
+	private GroupQueue runQueue = new GroupQueue();
+
+	//the files of the runs written so far, in the order the groups were read, and the number of groups in each
+	private List<Path> runFiles = new ArrayList<Path>();
+	private List<Integer> runSizes = new ArrayList<Integer>();
+
+	//the readers of the runs being merged into the groups handed out
+	private List<RunReader> openReaders = new ArrayList<RunReader>();
+
+	/**
+	 * Creates a sorter that writes runs to the given directory, sized so that the groups of a run take about
+	 * an eighth of the maximum heap
+	 *
+	 * @param spillDirectory Directory where run files are written
+	 */
+	public ExternalGroupSorter(Path spillDirectory) {
+		this(spillDirectory, (int) Math.max(1, Math.min(Integer.MAX_VALUE, 
+						   Runtime.getRuntime().maxMemory() / RUN_HEAP_SHARE / ESTIMATED_GROUP_BYTES)), DEFAULT_MERGE_WIDTH);
+	}
+
+	/**
+	 * Creates a sorter that writes runs of the given number of groups to the given directory
+	 *
+	 * @param spillDirectory Directory where run files are written
+	 * @param groupsPerRun Number of groups held in memory before they are written to disk as a run
+	 * @param mergeWidth Number of runs merged at a time (at least 2)
+	 */
+	public ExternalGroupSorter(Path spillDirectory, int groupsPerRun, int mergeWidth) {
+
+		if(spillDirectory == null || !Files.isDirectory(spillDirectory)) {
+			throw new IllegalArgumentException("Please provide a spill directory");
+		}
+
+		if(groupsPerRun < 1 || mergeWidth < 2) {
+			throw new IllegalArgumentException("Groups per run must be >= 1 and merge width must be >= 2");
+		}
+
+		this.spillDirectory = spillDirectory;
+		this.groupsPerRun = groupsPerRun;
+		this.mergeWidth = mergeWidth;
+	}
+
+	/**
+	 * Adds a group of passengers, in the order groups are read. Writes a run to disk once enough groups
+	 * are collected.
+	 *
+	 * @param passengerGroup The passengers of the group
+	 *
+	 * @throws UncheckedIOException Exception thrown if a run cannot be written
+	 */
+	public void addGroup(List<Passenger> passengerGroup) {
+
+		runGroups.add(passengerGroup);
+
+		if(runGroups.size() == groupsPerRun) {
+			spillRun();
+		}
+	}
+
+	/**
+	 * Gets every group added, in the order they are seated. Runs are merged down to at most the merge width
+	 * first, and groups are then read from the remaining runs as they are taken.
+	 *
+	 * @return The groups in the order they are seated
+	 *
+	 * @throws UncheckedIOException Exception thrown if a run cannot be written or read
+	 */
+	public OrderedGroups merge() {
+
+		//every group fits in a single run, which is ordered in memory
+		if(runFiles.isEmpty()) {
+			runQueue.addGroups(runGroups);
+			runGroups.clear();
+			return runQueue;
+		}
+
+		if(!runGroups.isEmpty()) {
+			spillRun();
+		}
+
+		//merge consecutive runs, so that the runs stay in the order the groups were read
+		while(runFiles.size() > mergeWidth) {
+			for(int firstRun = 0; firstRun < runFiles.size() - 1; firstRun++) {
+				mergeRuns(firstRun, Math.min(firstRun + mergeWidth, runFiles.size()));
+			}
+		}
+
+		return new MergedRuns(openRuns(0, runFiles.size()));
+	}
+
+	/**
+	 * Gets the number of runs written to disk so far
+	 *
+	 * @return The number of runs
+	 */
+	public int getNumRuns() {
+		return runFiles.size();
+	}
+
+	/**
+	 * Closes the runs being merged and deletes the run files
+	 */
+	@Override
+	public void close() throws IOException {
+
+		for(RunReader runReader: openReaders) {
+			runReader.close();
+		}
+		openReaders.clear();
+
+		for(Path runFile: runFiles) {
+			Files.deleteIfExists(runFile);
+		}
+		runFiles.clear();
+		runSizes.clear();
+	}
+
+	/*
+	 * Orders the groups collected and writes them to a new run file
+	 */
+	private void spillRun() {
+
+		runQueue.addGroups(runGroups);
+
+		//the file the run is written to
+		Path runFile = createRunFile();
+
+		try(DataOutputStream runOutput = openRunOutput(runFile)) {
+			while(!runQueue.isEmpty()) {
+				writeGroup(runOutput, runQueue.poll());
+			}
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		runFiles.add(runFile);
+		runSizes.add(runGroups.size());
+
+		runGroups.clear();
+		runQueue.clear();
+	}
+
+	/*
+	 * Merges the runs from the first run (inclusive) to the last run (exclusive) into a single run that takes
+	 * their place
+	 */
+	private void mergeRuns(int firstRun, int lastRun) {
+
+		//the groups of the runs in the order they are seated, and the number of groups
+		OrderedGroups mergedRuns = new MergedRuns(openRuns(firstRun, lastRun));
+		int mergedSize = 0;
+
+		//the file the merged run is written to
+		Path runFile = createRunFile();
+
+		try(DataOutputStream runOutput = openRunOutput(runFile)) {
+			while(!mergedRuns.isEmpty()) {
+				writeGroup(runOutput, mergedRuns.poll());
+				mergedSize++;
+			}
+
+			for(int run = firstRun; run < lastRun; run++) {
+				Files.delete(runFiles.get(run));
+			}
+
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		runFiles.subList(firstRun, lastRun).clear();
+		runSizes.subList(firstRun, lastRun).clear();
+		runFiles.add(firstRun, runFile);
+		runSizes.add(firstRun, mergedSize);
+	}
+
+	/*
+	 * Opens a reader on each run from the first run (inclusive) to the last run (exclusive), positioned at the
+	 * first group of the run
+	 */
+	private List<RunReader> openRuns(int firstRun, int lastRun) {
+
+		//the readers of the runs
+		List<RunReader> runReaders = new ArrayList<RunReader>(lastRun - firstRun);
+
+		try {
+			for(int run = firstRun; run < lastRun; run++) {
+				runReaders.add(new RunReader(runFiles.get(run), runSizes.get(run), run));
+				openReaders.add(runReaders.get(runReaders.size() - 1));
+			}
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return runReaders;
+	}
+
+	/*
+	 * Creates an empty run file in the spill directory
+	 */
+	private Path createRunFile() {
+		try {
+			return Files.createTempFile(spillDirectory, "groups-", ".run");
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * Opens a buffered stream that writes a run file
+	 */
+	private static DataOutputStream openRunOutput(Path runFile) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), RUN_BUFFER_SIZE));
+	}
+
+	/*
+	 * Writes a group to a run file: its size followed by the ID, preferences and weight of each passenger
+	 */
+	private static void writeGroup(DataOutputStream runOutput, List<Passenger> passengerGroup) throws IOException {
+
+		runOutput.writeInt(passengerGroup.size());
+
+		for(int passenger = 0; passenger < passengerGroup.size(); passenger++) {
+
+			Passenger currentPassenger = passengerGroup.get(passenger);
+
+			runOutput.writeInt(currentPassenger.getPassengerID());
+			runOutput.writeByte((currentPassenger.hasWindowPreference()? WINDOW_PREFERENCE_FLAG:0)
+							    | (currentPassenger.isPassengerInGroup()? PASSENGER_IN_GROUP_FLAG:0));
+			runOutput.writeInt(currentPassenger.getWeight());
+		}
+	}
+
+	/*
+	 * Reads the groups of a run file one at a time, keeping the group to hand out next and what orders it
+	 */
+	private class RunReader implements Closeable {
+
+		//the stream the run file is read from
+		private DataInputStream runInput;
+
+		//number of groups of the run not read yet
+		private int groupsLeft;
+
+		//the position of the run among the runs, which orders groups that are seated in the same order
+		private int runNumber;
+
+		//the group to hand out next (null once the run is exhausted), with its total weight and window preferences
+		private List<Passenger> passengerGroup;
+		private long groupWeight;
+		private int groupWindowPreferences;
+
+		//creates a reader positioned at the first group of the run
+		private RunReader(Path runFile, int numGroups, int runNumber) throws IOException {
+			this.runInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), RUN_BUFFER_SIZE));
+			this.groupsLeft = numGroups;
+			this.runNumber = runNumber;
+			readGroup();
+		}
+
+		//reads the next group of the run, closing the run once it is exhausted
+		private void readGroup() throws IOException {
+
+			//size of the group, and the ID and flags of the passenger being read
+			int groupSize;
+			int passengerID;
+			int flags;
+
+			//the passenger being read
+			Passenger currentPassenger;
+
+			if(groupsLeft == 0) {
+				passengerGroup = null;
+				close();
+				return;
+			}
+
+			groupSize = runInput.readInt();
+			passengerGroup = new ArrayList<Passenger>(groupSize);
+			groupWeight = 0;
+			groupWindowPreferences = 0;
+
+			for(int passenger = 0; passenger < groupSize; passenger++) {
+
+				passengerID = runInput.readInt();
+				flags = runInput.readByte();
+				currentPassenger = new Passenger(passengerID, (flags & WINDOW_PREFERENCE_FLAG) != 0,
+												 (flags & PASSENGER_IN_GROUP_FLAG) != 0, runInput.readInt());
+
+				passengerGroup.add(currentPassenger);
+				groupWeight += currentPassenger.getWeight();
+				groupWindowPreferences += currentPassenger.hasWindowPreference()? 1:0;
+			}
+
+			groupsLeft--;
+		}
+
+		@Override
+		public void close() throws IOException {
+			runInput.close();
+		}
+	}
+
+	/*
+	 * Hands out the groups of several runs in the order they are seated, from a priority queue of the readers
+	 * of the runs ordered by the group each of them is to hand out next
+	 */
+	private class MergedRuns implements OrderedGroups {
+
+		//the readers of the runs that still have groups
+		private PriorityQueue<RunReader> runHeads;
+
+		//creates the merge of the runs of the given readers
+		private MergedRuns(List<RunReader> runReaders) {
+
+			runHeads = new PriorityQueue<RunReader>(Math.max(1, runReaders.size()), new Comparator<RunReader>() {
+				@Override
+				public int compare(RunReader run1, RunReader run2) {
+
+					//the order of the head groups regardless of the order they were read
+					int order = GroupQueue.compareGroups(run1.groupWeight, run1.passengerGroup.size(), run1.groupWindowPreferences,
+														 run2.groupWeight, run2.passengerGroup.size(), run2.groupWindowPreferences);
+
+					return (order != 0)? order:Integer.compare(run1.runNumber, run2.runNumber);
+				}
+			});
+
+			for(RunReader runReader: runReaders) {
+				if(runReader.passengerGroup != null) {
+					runHeads.add(runReader);
+				}
+			}
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return runHeads.isEmpty();
+		}
+
+		@Override
+		public List<Passenger> peek() {
+
+			if(runHeads.isEmpty()) {
+				throw new IllegalStateException("No group is waiting");
+			}
+
+			return runHeads.peek().passengerGroup;
+		}
+
+		@Override
+		public List<Passenger> poll() {
+
+			//the run that holds the group to seat next, and the group
+			RunReader runReader = runHeads.poll();
+			List<Passenger> passengerGroup;
+
+			if(runReader == null) {
+				throw new IllegalStateException("No group is waiting");
+			}
+
+			passengerGroup = runReader.passengerGroup;
+
+			try {
+				runReader.readGroup();
+			}catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			if(runReader.passengerGroup != null) {
+				runHeads.add(runReader);
+			}else {
+				openReaders.remove(runReader);
+			}
+
+			return passengerGroup;
+		}
+	}
+
+}
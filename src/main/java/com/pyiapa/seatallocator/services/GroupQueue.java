@@ -0,0 +1,254 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Hands out groups of passengers in the order they are seated, from a binary heap of group indices.
+ * Groups worth more per seat (the sum of the weights of their passengers over their size) come first.
+ * Among groups worth the same per seat, larger groups come first as they are more constrained, then
+ * groups with more window preferences, and then groups in the order they were added. Building the heap
+ * takes linear time and each group is taken out in logarithmic time, so the order of very long waitlists
+ * never has to be sorted again. When every group is worth the same per seat (e.g. without weights), each group
+ * is instead packed into a key of its size, window preferences and index, and the keys are sorted with a 
+ * parallel sort across all cores, so that groups are then taken out in constant time. The arrays of the heap 
+ * and of the keys are kept for the next allocation.
+ *
+ * @author pyiapa
+ *
+ */
+public class GroupQueue implements OrderedGroups {
+
+	//the groups added, by index
+	private List<List<Passenger>> groups = new ArrayList<List<Passenger>>();
+
+	//total weight and number of window preferences of each group
+	private long[] groupWeights = new long[0];
+	private int[] groupWindowPreferences = new int[0];
+
+	//the indices of the groups waiting, in heap order (the group to seat next at the top)
+	private int[] heap = new int[0];
+
+	//number of groups waiting
+	private int heapSize;
+
+	//bits of a packed key that hold the index of the group, and that hold each of its size and window preferences
+	//(larger groups are kept in the heap)
+	private static final int INDEX_BITS = 31;
+	private static final int COUNT_BITS = 16;
+
+	//whether the groups are taken in the order of their sorted keys rather than from the heap
+	private boolean sortedOrder;
+
+	//the packed keys of the groups in the order they are seated, when in sorted order. Ascending keys put larger
+	//groups first, then groups with more window preferences, and then groups in the order they were added
+	private long[] sortedKeys = new long[0];
+
+	/**
+	 * Adds groups of passengers to the queue, in place of the groups it held before.
+	 *
+	 * @param passengerGroups The groups of passengers
+	 */
+	public void addGroups(List<List<Passenger>> passengerGroups) {
+
+		clear();
+
+		if(heap.length < passengerGroups.size()) {
+			groupWeights = new long[passengerGroups.size()];
+			groupWindowPreferences = new int[passengerGroups.size()];
+			heap = new int[passengerGroups.size()];
+		}
+
+		for(int group = 0; group < passengerGroups.size(); group++) {
+
+			List<Passenger> passengerGroup = passengerGroups.get(group);
+
+			groupWeights[group] = 0;
+			groupWindowPreferences[group] = 0;
+			for(int passenger = 0; passenger < passengerGroup.size(); passenger++) {
+				groupWeights[group] += passengerGroup.get(passenger).getWeight();
+				groupWindowPreferences[group] += passengerGroup.get(passenger).hasWindowPreference()? 1:0;
+			}
+
+			groups.add(passengerGroup);
+			heap[group] = group;
+		}
+		heapSize = passengerGroups.size();
+
+		sortedOrder = sameValuePerSeat() && sortKeys();
+
+		//order the heap bottom-up, from the last group that has children
+		for(int position = heapSize / 2 - 1; position >= 0 && !sortedOrder; position--) {
+			siftDown(position);
+		}
+	}
+
+	/**
+	 * Informs whether groups are waiting to be seated
+	 *
+	 * @return Whether the queue is empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return heapSize == 0;
+	}
+
+	/**
+	 * Gets the group to seat next, leaving it in the queue
+	 *
+	 * @return The group to seat next
+	 */
+	@Override
+	public List<Passenger> peek() {
+
+		if(heapSize == 0) {
+			throw new IllegalStateException("No group is waiting");
+		}
+
+		return groups.get(sortedOrder? (int) (sortedKeys[groups.size() - heapSize] & ((1L << INDEX_BITS) - 1)):heap[0]);
+	}
+
+	/**
+	 * Takes the group to seat next out of the queue
+	 *
+	 * @return The group to seat next
+	 */
+	@Override
+	public List<Passenger> poll() {
+
+		//the group to seat next
+		List<Passenger> passengerGroup = peek();
+
+		if(sortedOrder) { //the next key is already in place
+			heapSize--;
+		}else {
+			heap[0] = heap[--heapSize];
+			siftDown(0);
+		}
+
+		return passengerGroup;
+	}
+
+	/**
+	 * Removes every group from the queue, keeping its memory
+	 */
+	public void clear() {
+		groups.clear();
+		heapSize = 0;
+	}
+
+	/*
+	 * Informs whether every group is worth the same per seat, in which case groups are ordered by size, window
+	 * preferences and index alone
+	 */
+	private boolean sameValuePerSeat() {
+
+		for(int group = 1; group < groups.size(); group++) {
+			if(groupWeights[group] * groups.get(0).size() != groupWeights[0] * groups.get(group).size()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/*
+	 * Packs every group into a key of its size and window preferences (each subtracted from the largest possible,
+	 * so that larger counts come first) and its index, and sorts the keys in parallel. Returns false without
+	 * sorting if a group is too large for its size to be packed
+	 */
+	private boolean sortKeys() {
+
+		//largest size and number of window preferences that can be packed
+		long maxCount = (1L << COUNT_BITS) - 1;
+
+		if(sortedKeys.length < groups.size()) {
+			sortedKeys = new long[groups.size()];
+		}
+
+		for(int group = 0; group < groups.size(); group++) {
+
+			if(groups.get(group).size() > maxCount) {
+				return false;
+			}
+
+			sortedKeys[group] = ((maxCount - groups.get(group).size()) << (COUNT_BITS + INDEX_BITS)) 
+								| ((maxCount - groupWindowPreferences[group]) << INDEX_BITS) | group;
+		}
+
+		Arrays.parallelSort(sortedKeys, 0, groups.size());
+
+		return true;
+	}
+
+	/*
+	 * Moves the group at the given position of the heap down until it comes before both of its children
+	 */
+	private void siftDown(int position) {
+
+		//the group being moved down and the child that comes first
+		int group = heap[position];
+		int child;
+
+		while((child = 2 * position + 1) < heapSize) {
+
+			if(child + 1 < heapSize && comesBefore(heap[child + 1], heap[child])) {
+				child++;
+			}
+
+			if(!comesBefore(heap[child], group)) {
+				break;
+			}
+
+			heap[position] = heap[child];
+			position = child;
+		}
+
+		heap[position] = group;
+	}
+
+	/*
+	 * Informs whether a group is seated before another one
+	 */
+	private boolean comesBefore(int group1, int group2) {
+
+		//the order of the groups by their value per seat, size and window preferences
+		int order = compareGroups(groupWeights[group1], groups.get(group1).size(), groupWindowPreferences[group1],
+								  groupWeights[group2], groups.get(group2).size(), groupWindowPreferences[group2]);
+
+		return (order != 0)? order < 0:group1 < group2;
+	}
+
+	/**
+	 * Compares two groups by the order they are seated in, regardless of the order they were read. Values per
+	 * seat are compared as cross products of weights and sizes, so that equal values compare equal
+	 *
+	 * @param weight1 Total weight of the passengers of the first group
+	 * @param size1 Size of the first group
+	 * @param windowPreferences1 Number of window preferences in the first group
+	 * @param weight2 Total weight of the passengers of the second group
+	 * @param size2 Size of the second group
+	 * @param windowPreferences2 Number of window preferences in the second group
+	 *
+	 * @return A negative number if the first group is seated first, a positive number if the second group is,
+	 *         or 0 if they are seated in the order they were read
+	 */
+	static int compareGroups(long weight1, int size1, int windowPreferences1, long weight2, int size2, int windowPreferences2) {
+
+		//weight per seat of group 1 times the sizes of both groups, and likewise for group 2
+		long value1 = weight1 * size2;
+		long value2 = weight2 * size1;
+
+		if(value1 != value2) {
+			return (value1 > value2)? -1:1;
+		}else if(size1 != size2) {
+			return (size1 > size2)? -1:1;
+		}
+
+		return Integer.compare(windowPreferences2, windowPreferences1);
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Plans how a group of passengers that does not fit in a row is split. The group is cut into
+ * row-width blocks (the last block holding the remaining passengers), which are meant to be
+ * seated as units in consecutive rows so that the group stays as close together as possible.
+ * Passengers with window preferences are spread over the blocks, as each row only has a few
+ * window seats. Groups can also be cut into blocks of balanced sizes, which need fewer free seats
+ * per row and so fit in rows that are already partly taken.
+ *
+ * @author pyiapa
+ *
+ */
+public class GroupSplitPlanner {
+
+	//number of seats per row
+	private int numSeatsInRow;
+
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+
+	/**
+	 * Creates a planner that splits groups into blocks that fit in the rows of the plane
+	 *
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public GroupSplitPlanner(int numSeatsInRow, int numWindowsInPlane) {
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+	}
+
+	/**
+	 * Cuts a group into blocks of passengers to be seated in consecutive rows. Every block but the
+	 * last one fills a whole row. Each block gets up to one passenger with window preference per
+	 * window of the row before the rest of the passengers are handed out, keeping the order of the
+	 * passengers of the group otherwise.
+	 *
+	 * @param passengerGroup The group of passengers to split
+	 *
+	 * @return The blocks of passengers, in the order of the rows they are meant for
+	 */
+	public List<List<Passenger>> planBlocks(List<Passenger> passengerGroup) {
+		return planBlocks(passengerGroup, false);
+	}
+
+	/**
+	 * Cuts a group into as few blocks as with planBlocks, but of balanced sizes: block sizes differ by
+	 * at most one passenger, larger blocks first. Window preferences are handed out as with planBlocks.
+	 *
+	 * @param passengerGroup The group of passengers to split
+	 *
+	 * @return The blocks of passengers, in the order of the rows they are meant for
+	 */
+	public List<List<Passenger>> planBalancedBlocks(List<Passenger> passengerGroup) {
+		return planBlocks(passengerGroup, true);
+	}
+
+	/*
+	 * Cuts a group into row-width blocks, or into blocks of balanced sizes
+	 */
+	private List<List<Passenger>> planBlocks(List<Passenger> passengerGroup, boolean balanced) {
+
+		//number of blocks the group is cut into
+		int numBlocks = (passengerGroup.size() + numSeatsInRow - 1) / numSeatsInRow;
+
+		//the blocks of the group
+		List<List<Passenger>> blocks = new ArrayList<List<Passenger>>(numBlocks);
+
+		//passengers that are handed out after each block got its share of window preferences
+		List<Passenger> remainingPassengers = new ArrayList<Passenger>(passengerGroup.size());
+
+		//the block that gets the next passenger with window preference
+		int currentBlock = 0;
+
+		//the block that gets the next remaining passenger
+		int fillingBlock = 0;
+
+		for(int block = 0; block < numBlocks; block++) {
+			blocks.add(new ArrayList<Passenger>(blockSize(passengerGroup.size(), numBlocks, block, balanced)));
+		}
+
+		//hand out passengers with window preferences, up to the number of windows of each block
+		for(Passenger currentPassenger: passengerGroup) {
+
+			//skip blocks that got all the window preferences they can satisfy
+			while(currentBlock < numBlocks &&
+				  blocks.get(currentBlock).size() == Math.min(numWindowsInPlane, blockSize(passengerGroup.size(), numBlocks, currentBlock, balanced))) {
+				currentBlock++;
+			}
+
+			if(currentPassenger.hasWindowPreference() && currentBlock < numBlocks) {
+				blocks.get(currentBlock).add(currentPassenger);
+			}else {
+				remainingPassengers.add(currentPassenger);
+			}
+		}
+
+		//fill up the blocks with the rest of the passengers
+		for(Passenger currentPassenger: remainingPassengers) {
+
+			while(blocks.get(fillingBlock).size() == blockSize(passengerGroup.size(), numBlocks, fillingBlock, balanced)) {
+				fillingBlock++;
+			}
+
+			blocks.get(fillingBlock).add(currentPassenger);
+		}
+
+		return blocks;
+	}
+
+	/*
+	 * Returns the number of passengers of a block of a group of the given size
+	 */
+	private int blockSize(int groupSize, int numBlocks, int block, boolean balanced) {
+		return balanced? groupSize / numBlocks + ((block < groupSize % numBlocks)? 1:0):
+						 Math.min(numSeatsInRow, groupSize - block * numSeatsInRow);
+	}
+
+}
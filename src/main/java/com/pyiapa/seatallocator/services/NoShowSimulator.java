@@ -0,0 +1,252 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.pyiapa.seatallocator.domain.NoShowSimulationReport;
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+
+/**
+ * Simulates random no-shows on an (overbooked) flight to find the distribution of the passenger
+ * satisfaction and of the number of seated and bumped passengers. Each trial drops whole groups and
+ * single passengers of the manifest at the configured rates and allocates the seats of the passengers
+ * that show up. Trials run in parallel: every worker takes a range of trials and keeps its own
+ * allocator and passengers, reused from one trial to the next, while the parsed manifest is shared
+ * by all workers and never changed. Each trial draws from its own seed, so the outcome does not depend
+ * on the number of workers.
+ * 
+ * @author pyiapa
+ *
+ */
+public class NoShowSimulator {
+	
+	//spreads the seeds of consecutive trials
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+	
+	//the groups of passengers of the manifest (shared by every trial)
+	private List<List<Passenger>> passengerGroups;
+	
+	//number of rows in the plane
+	private int numRows;
+	
+	//number of seats per row
+	private int numSeatsInRow;
+	
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+	
+	//chance that a whole group does not show up, and that a passenger of a group that shows up does not
+	private double groupNoShowRate;
+	private double passengerNoShowRate;
+	
+	//the pool that runs the trials
+	private ForkJoinPool simulationPool;
+	
+	/**
+	 * Creates a simulator for a manifest that runs trials on the common fork/join pool
+	 * 
+	 * @param passengerGroups The groups of passengers of the manifest
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public NoShowSimulator(List<List<Passenger>> passengerGroups, int numRows, int numSeatsInRow, int numWindowsInPlane) {
+		this(passengerGroups, numRows, numSeatsInRow, numWindowsInPlane, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a simulator for a manifest that runs trials on the given fork/join pool
+	 * 
+	 * @param passengerGroups The groups of passengers of the manifest
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 * @param simulationPool The pool that runs the trials
+	 */
+	public NoShowSimulator(List<List<Passenger>> passengerGroups, int numRows, int numSeatsInRow, int numWindowsInPlane,
+						   ForkJoinPool simulationPool) {
+		this.passengerGroups = passengerGroups;
+		this.numRows = numRows;
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+		this.simulationPool = simulationPool;
+	}
+	
+	/**
+	 * Sets the chances of no-shows. A group either does not show up as a whole, or each of its passengers
+	 * independently may not show up.
+	 * 
+	 * @param groupNoShowRate Chance (from 0 to 1) that a whole group does not show up
+	 * @param passengerNoShowRate Chance (from 0 to 1) that a passenger of a group that shows up does not
+	 */
+	public void setNoShowRates(double groupNoShowRate, double passengerNoShowRate) {
+		
+		if(!(groupNoShowRate >= 0 && groupNoShowRate <= 1 && passengerNoShowRate >= 0 && passengerNoShowRate <= 1)) {
+			throw new IllegalArgumentException("No-show rates must be between 0 and 1");
+		}
+		
+		this.groupNoShowRate = groupNoShowRate;
+		this.passengerNoShowRate = passengerNoShowRate;
+	}
+	
+	/**
+	 * Runs the given number of trials and reports the distribution of their outcomes.
+	 * 
+	 * @param numTrials Number of trials
+	 * @param seed Seed of the random no-shows (the same seed gives the same outcome)
+	 * 
+	 * @return The distribution of satisfaction, seated and bumped passengers over the trials
+	 */
+	public NoShowSimulationReport simulate(int numTrials, long seed) {
+		
+		if(numTrials < 1) {
+			throw new IllegalArgumentException("Number of trials must be >= 1");
+		}
+		
+		//the outcome of each trial
+		double[] satisfactionScores = new double[numTrials];
+		int[] seatedCounts = new int[numTrials];
+		int[] bumpedCounts = new int[numTrials];
+		
+		//one range of trials per worker
+		int numWorkers = Math.min(numTrials, simulationPool.getParallelism());
+		List<ForkJoinTask<Void>> workers = new ArrayList<ForkJoinTask<Void>>(numWorkers);
+		
+		for(int worker = 0; worker < numWorkers; worker++) {
+			workers.add(simulationPool.submit(new TrialWorker((int) ((long) numTrials * worker / numWorkers), 
+															  (int) ((long) numTrials * (worker + 1) / numWorkers), 
+															  seed, satisfactionScores, seatedCounts, bumpedCounts)));
+		}
+		for(ForkJoinTask<Void> worker: workers) {
+			worker.join();
+		}
+		
+		Arrays.sort(satisfactionScores);
+		Arrays.sort(seatedCounts);
+		Arrays.sort(bumpedCounts);
+		
+		return new NoShowSimulationReport(satisfactionScores, seatedCounts, bumpedCounts);
+	}
+	
+	/*
+	 * Returns the seed of a trial, mixing the bits of the simulation seed and the trial number so that
+	 * consecutive trials draw unrelated no-shows
+	 */
+	private static long trialSeed(long seed, int trial) {
+		
+		long mixedSeed = seed + trial * SEED_INCREMENT;
+		
+		mixedSeed = (mixedSeed ^ (mixedSeed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		mixedSeed = (mixedSeed ^ (mixedSeed >>> 27)) * 0x94D049BB133111EBL;
+		
+		return mixedSeed ^ (mixedSeed >>> 31);
+	}
+	
+	/*
+	 * Runs a range of trials with an allocator and passengers of its own, which are reused by every trial
+	 */
+	private class TrialWorker implements Callable<Void> {
+		
+		//the trials of the worker, from the first to the one after the last
+		private int firstTrial;
+		private int endTrial;
+		
+		//seed of the simulation
+		private long seed;
+		
+		//where the outcome of each trial is recorded
+		private double[] satisfactionScores;
+		private int[] seatedCounts;
+		private int[] bumpedCounts;
+		
+		private TrialWorker(int firstTrial, int endTrial, long seed, double[] satisfactionScores, int[] seatedCounts,
+							int[] bumpedCounts) {
+			this.firstTrial = firstTrial;
+			this.endTrial = endTrial;
+			this.seed = seed;
+			this.satisfactionScores = satisfactionScores;
+			this.seatedCounts = seatedCounts;
+			this.bumpedCounts = bumpedCounts;
+		}
+		
+		@Override
+		public Void call() {
+			
+			//allocations change the passengers they seat, so the worker seats passengers of its own
+			SeatAllocator seatAllocator = new SeatAllocator(numRows, numSeatsInRow, numWindowsInPlane);
+			List<List<Passenger>> workerGroups = new ArrayList<List<Passenger>>(passengerGroups.size());
+			
+			//the passengers of each group that show up in the current trial, and the groups that show up
+			List<List<Passenger>> presentGroups = new ArrayList<List<Passenger>>(passengerGroups.size());
+			List<List<Passenger>> trialGroups = new ArrayList<List<Passenger>>(passengerGroups.size());
+			
+			Random random = new Random();
+			
+			for(List<Passenger> passengerGroup: passengerGroups) {
+				
+				List<Passenger> workerGroup = new ArrayList<Passenger>(passengerGroup.size());
+				for(Passenger passenger: passengerGroup) {
+					workerGroup.add(new Passenger(passenger.getPassengerID(), passenger.hasWindowPreference(), 
+												  passenger.isPassengerInGroup(), passenger.getWeight()));
+				}
+				
+				workerGroups.add(workerGroup);
+				presentGroups.add(new ArrayList<Passenger>(passengerGroup.size()));
+			}
+			
+			for(int trial = firstTrial; trial < endTrial; trial++) {
+				
+				//number of passengers that show up, and that get a seat
+				int presentCount = 0;
+				int seatedCount = 0;
+				
+				random.setSeed(trialSeed(seed, trial));
+				trialGroups.clear();
+				
+				for(int group = 0; group < workerGroups.size(); group++) {
+					
+					if(random.nextDouble() < groupNoShowRate) {
+						continue;
+					}
+					
+					List<Passenger> presentGroup = presentGroups.get(group);
+					presentGroup.clear();
+					
+					for(int passenger = 0; passenger < workerGroups.get(group).size(); passenger++) {
+						if(random.nextDouble() >= passengerNoShowRate) {
+							workerGroups.get(group).get(passenger).reset();
+							presentGroup.add(workerGroups.get(group).get(passenger));
+						}
+					}
+					
+					if(!presentGroup.isEmpty()) {
+						trialGroups.add(presentGroup);
+						presentCount += presentGroup.size();
+					}
+				}
+				
+				if(presentCount > 0) {
+					
+					SittingArrangement sittingArrangement = seatAllocator.allocateSeats(trialGroups, presentCount);
+					
+					for(int row = 0; row < sittingArrangement.getSeatConfiguration().size(); row++) {
+						seatedCount += sittingArrangement.getSeatConfiguration().get(row).size();
+					}
+					satisfactionScores[trial] = sittingArrangement.getSatisfactionScore();
+				}
+				
+				seatedCounts[trial] = seatedCount;
+				bumpedCounts[trial] = presentCount - seatedCount;
+			}
+			
+			return null;
+		}
+	}
+
+}
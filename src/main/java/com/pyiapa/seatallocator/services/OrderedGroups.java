@@ -0,0 +1,39 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * A source of groups of passengers handed out in the order they are seated, i.e. groups worth more per
+ * seat first, then larger groups, then groups with more window preferences, and then groups in the order 
+ * they were read. The {@link SeatAllocator} takes groups one at a time from it, so the groups need not be 
+ * held in memory all at once.
+ * 
+ * @author pyiapa
+ *
+ */
+public interface OrderedGroups {
+	
+	/**
+	 * Informs whether groups are waiting to be seated
+	 * 
+	 * @return Whether no group is left
+	 */
+	boolean isEmpty();
+	
+	/**
+	 * Gets the group to seat next, leaving it in the source
+	 * 
+	 * @return The group to seat next
+	 */
+	List<Passenger> peek();
+	
+	/**
+	 * Takes the group to seat next out of the source
+	 * 
+	 * @return The group to seat next
+	 */
+	List<Passenger> poll();
+
+}
@@ -0,0 +1,26 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * A callback that receives rows of the plane as soon as the seat allocation can no longer
+ * change them. Used by the streaming mode of the {@link SeatAllocator}.
+ * 
+ * @author pyiapa
+ *
+ */
+public interface RowConsumer {
+	
+	/**
+	 * Receives a finalized row of the plane. Passengers with window seat preferences satisfied
+	 * have already been moved to the sides of the row. Rows are not necessarily delivered in
+	 * row order, as a row is handed over as soon as it becomes full.
+	 * 
+	 * @param rowNumber The (zero-based) number of the row in the plane
+	 * @param row The passengers seating in the row
+	 */
+	void acceptRow(int rowNumber, List<Passenger> row);
+
+}
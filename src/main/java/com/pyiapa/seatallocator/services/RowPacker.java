@@ -0,0 +1,228 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Packs groups of passengers into rows for planes with narrow rows. Groups are kept in queues by
+ * size and number of window preferences, and each row is filled with the combination of groups
+ * that takes the most seats of the row, preferring larger groups. The sums of group sizes that can
+ * share a row are precomputed with a bitset subset-sum, so filling a row is a table lookup; the
+ * table only changes when fewer groups of some size are left than fit in a row.
+ *
+ * @author pyiapa
+ *
+ */
+public class RowPacker {
+
+	/**
+	 * Widest row the packer handles. Sums of group sizes are held as bits of a long.
+	 */
+	public static final int MAX_SEATS_IN_ROW = 10;
+
+	//number of seats per row
+	private int numSeatsInRow;
+
+	//number of windows (per row) that can be given to passengers
+	private int numWindowsInRow;
+
+	//groups waiting to be seated, by size and number of window preferences
+	private List<ArrayDeque<List<Passenger>>> groupQueues;
+
+	//number of groups waiting to be seated, by size
+	private int[] groupsOfSize;
+
+	//reachableSums[k] holds (as bits) every sum of sizes of the waiting groups no larger than k that fits in a row
+	private long[] reachableSums;
+
+	//whether the reachable sums have to be computed again
+	private boolean reachableSumsChanged;
+
+	//number of groups waiting to be seated
+	private int numGroups;
+
+	/**
+	 * Creates a row packer for a plane with the given row dimensions
+	 *
+	 * @param numSeatsInRow Number of seats per row (at most MAX_SEATS_IN_ROW)
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public RowPacker(int numSeatsInRow, int numWindowsInPlane) {
+
+		if(numSeatsInRow > MAX_SEATS_IN_ROW) {
+			throw new IllegalArgumentException("Row packing supports rows of up to " + MAX_SEATS_IN_ROW + " seats");
+		}
+
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInRow = Math.max(0, Math.min(numWindowsInPlane, numSeatsInRow));
+
+		this.groupQueues = new ArrayList<ArrayDeque<List<Passenger>>>((numSeatsInRow + 1) * (numSeatsInRow + 1));
+		for(int queue = 0; queue < (numSeatsInRow + 1) * (numSeatsInRow + 1); queue++) {
+			groupQueues.add(new ArrayDeque<List<Passenger>>());
+		}
+
+		this.groupsOfSize = new int[numSeatsInRow + 1];
+		this.reachableSums = new long[numSeatsInRow + 1];
+		this.reachableSumsChanged = true;
+	}
+
+	/**
+	 * Adds a group of passengers to be seated. The group must fit in a row.
+	 *
+	 * @param passengerGroup The group of passengers
+	 */
+	public void addGroup(List<Passenger> passengerGroup) {
+
+		if(passengerGroup.isEmpty() || passengerGroup.size() > numSeatsInRow) {
+			throw new IllegalArgumentException("Group of " + passengerGroup.size() + " does not fit in a row");
+		}
+
+		groupQueues.get(queueOf(passengerGroup.size(), countWindowPreferences(passengerGroup))).add(passengerGroup);
+
+		//the sums only change while there are fewer groups of this size than fit in a row
+		if(groupsOfSize[passengerGroup.size()]++ < numSeatsInRow / passengerGroup.size()) {
+			reachableSumsChanged = true;
+		}
+
+		numGroups++;
+	}
+
+	/**
+	 * Informs whether there are groups waiting to be seated
+	 *
+	 * @return Whether there are groups waiting to be seated
+	 */
+	public boolean hasGroups() {
+		return numGroups > 0;
+	}
+
+	/**
+	 * Takes the groups to seat together in the next row: the combination of waiting groups that takes
+	 * the most seats of the row, with the larger groups taken first. Groups are returned in the order
+	 * they should be seated, so that window seats go to passengers traveling alone first.
+	 *
+	 * @return The groups to seat in the next row
+	 */
+	public List<List<Passenger>> nextRow() {
+
+		//groups chosen for the row
+		List<List<Passenger>> rowGroups = new ArrayList<List<Passenger>>();
+
+		//seats (of the chosen combination) not yet given to a group, and window seats not yet claimed
+		int seatsLeft;
+		int windowsLeft = numWindowsInRow;
+
+		if(reachableSumsChanged) {
+			computeReachableSums();
+		}
+
+		//the largest sum of group sizes that fits in the row
+		seatsLeft = 63 - Long.numberOfLeadingZeros(reachableSums[numSeatsInRow]);
+
+		for(int size = numSeatsInRow; size >= 1 && seatsLeft > 0; size--) {
+
+			//take as many groups of this size as possible while smaller groups can still fill the rest
+			int numTaken = Math.min(groupsOfSize[size], seatsLeft / size);
+			while(numTaken > 0 && (reachableSums[size - 1] & (1L << (seatsLeft - numTaken * size))) == 0) {
+				numTaken--;
+			}
+
+			for(int group = 0; group < numTaken; group++) {
+				List<Passenger> passengerGroup = takeGroup(size, windowsLeft);
+				windowsLeft -= Math.min(windowsLeft, countWindowPreferences(passengerGroup));
+				rowGroups.add(passengerGroup);
+			}
+
+			seatsLeft -= numTaken * size;
+		}
+
+		//seat smaller groups (and passengers traveling alone) first
+		List<List<Passenger>> seatingOrder = new ArrayList<List<Passenger>>(rowGroups.size());
+		for(int group = rowGroups.size() - 1; group >= 0; group--) {
+			seatingOrder.add(rowGroups.get(group));
+		}
+
+		return seatingOrder;
+	}
+
+	/*
+	 * Removes a waiting group of the given size, preferring the group with the most window preferences that
+	 * the window seats left can satisfy. If every group has more, the group with the fewest is taken, which
+	 * keeps groups with many window preferences for rows with free window seats.
+	 */
+	private List<Passenger> takeGroup(int size, int windowsLeft) {
+
+		int windowPreferences = Math.min(windowsLeft, size);
+
+		while(windowPreferences >= 0 && groupQueues.get(queueOf(size, windowPreferences)).isEmpty()) {
+			windowPreferences--;
+		}
+
+		if(windowPreferences < 0) {
+			windowPreferences = windowsLeft + 1;
+			while(groupQueues.get(queueOf(size, windowPreferences)).isEmpty()) {
+				windowPreferences++;
+			}
+		}
+
+		if(groupsOfSize[size]-- <= numSeatsInRow / size) {
+			reachableSumsChanged = true;
+		}
+		numGroups--;
+
+		return groupQueues.get(queueOf(size, windowPreferences)).poll();
+	}
+
+	/*
+	 * Computes the sums of group sizes that fit in a row with a bitset subset-sum over the waiting groups,
+	 * taking groups in increasing size
+	 */
+	private void computeReachableSums() {
+
+		//sums that fit in the row
+		long rowMask = (1L << (numSeatsInRow + 1)) - 1;
+
+		//only the empty sum is reachable without groups
+		long sums = 1L;
+
+		reachableSums[0] = sums;
+
+		for(int size = 1; size <= numSeatsInRow; size++) {
+
+			for(int copy = 0; copy < Math.min(groupsOfSize[size], numSeatsInRow / size); copy++) {
+				sums = (sums | (sums << size)) & rowMask;
+			}
+
+			reachableSums[size] = sums;
+		}
+
+		reachableSumsChanged = false;
+	}
+
+	/*
+	 * Returns the queue of groups of a given size and number of window preferences
+	 */
+	private int queueOf(int size, int windowPreferences) {
+		return size * (numSeatsInRow + 1) + windowPreferences;
+	}
+
+	/*
+	 * Returns the number of window preferences in a group
+	 */
+	private static int countWindowPreferences(List<Passenger> passengerGroup) {
+
+		int numWindowPreferences = 0;
+
+		for(Passenger passenger: passengerGroup) {
+			if(passenger.hasWindowPreference()) {
+				numWindowPreferences++;
+			}
+		}
+
+		return numWindowPreferences;
+	}
+
+}
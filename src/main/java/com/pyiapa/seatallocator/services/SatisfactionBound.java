@@ -0,0 +1,256 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Derives an upper bound on the satisfaction any sitting arrangement can achieve, in linear time.
+ * Every passenger is rated with the best satisfaction they could get: passengers of groups that
+ * do not fit in a row can never sit with their group, only as many passengers as there are seats
+ * get a seat, and only as many window preferences as there are window seats are satisfied. Each of
+ * the last two limits gives a bound on its own, and the smaller one is kept. When passengers have
+ * weights, the seats and window seats go to the passengers they are worth the most to, which takes
+ * sorting their values instead of counting them.
+ *
+ * An improving search can stop as soon as it reaches the bound, as no arrangement does better.
+ *
+ * @author pyiapa
+ *
+ */
+public class SatisfactionBound {
+
+	//tolerance when comparing satisfaction points, which add up halves and shares
+	private final static double TOLERANCE = 1e-9;
+
+	//passenger satisfaction values
+	private final static double FULL_SATISFACTION = 1;
+	private final static double HALF_SATISFACTION = 0.5;
+
+	//number of rows in the plane
+	private int numRows;
+
+	//number of seats per row
+	private int numSeatsInRow;
+
+	//number of windows (per row) in the plane
+	private int numWindowsInPlane;
+
+	//share of the group satisfaction given to passengers of split groups
+	private double partialGroupSatisfaction;
+
+	//the bound, in satisfaction points (i.e. the sum of passenger satisfaction)
+	private double boundPoints;
+
+	//total passenger count the bound was computed for, with every passenger counted by their weight
+	private long weightedPassengerCount;
+
+	/**
+	 * Creates a bound calculator for a plane with the given dimensions
+	 *
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 * @param partialGroupSatisfaction Share of the group satisfaction given to passengers of split groups
+	 */
+	public SatisfactionBound(int numRows, int numSeatsInRow, int numWindowsInPlane, double partialGroupSatisfaction) {
+		this.numRows = numRows;
+		this.numSeatsInRow = numSeatsInRow;
+		this.numWindowsInPlane = numWindowsInPlane;
+		this.partialGroupSatisfaction = partialGroupSatisfaction;
+	}
+
+	/**
+	 * Computes the upper bound on satisfaction for the given passengers. Must be called before the
+	 * groups are handed to the allocator, which consumes them.
+	 *
+	 * @param passengerGroups The groups of passengers to be seated
+	 * @param passengerCount Total passenger count
+	 *
+	 * @return The upper bound on the total passenger satisfaction (in percent)
+	 */
+	public double computeBound(List<List<Passenger>> passengerGroups, int passengerCount) {
+
+		//number of passengers by the satisfaction they get with and without a window seat:
+		//passengers without window preference that can sit with their group (or travel alone)
+		long fullPassengers = 0;
+
+		//passengers traveling alone that wish for a window seat
+		long singleWindowPassengers = 0;
+
+		//passengers of groups that fit in a row that wish for a window seat
+		long groupWindowPassengers = 0;
+
+		//passengers of groups that do not fit in a row, with and without window preference
+		long splitWindowPassengers = 0;
+		long splitPassengers = 0;
+
+		//weight of the passengers beyond counting each of them once
+		long extraWeight = 0;
+
+		for(List<Passenger> passengerGroup: passengerGroups) {
+			for(Passenger passenger: passengerGroup) {
+
+				extraWeight += passenger.getWeight() - Passenger.DEFAULT_WEIGHT;
+
+				if(passengerGroup.size() > numSeatsInRow) {
+					if(passenger.hasWindowPreference()) {
+						splitWindowPassengers++;
+					}else {
+						splitPassengers++;
+					}
+				}else if(!passenger.hasWindowPreference()) {
+					fullPassengers++;
+				}else if(passengerGroup.size() == 1) {
+					singleWindowPassengers++;
+				}else {
+					groupWindowPassengers++;
+				}
+			}
+		}
+
+		//satisfaction of a passenger of a split group without a window seat, and with one
+		double splitSatisfaction = partialGroupSatisfaction;
+		double splitWindowSatisfaction = HALF_SATISFACTION + partialGroupSatisfaction * HALF_SATISFACTION;
+
+		//plane capacity and window seats (a row cannot give more window seats than it has seats)
+		long numSeats = (long) numRows * numSeatsInRow;
+		long numWindowSeats = (long) numRows * Math.max(0, Math.min(numWindowsInPlane, numSeatsInRow));
+
+		//bound ignoring window seats: the passengers with the best satisfaction take the seats, all with a window
+		//seat if they wish for one
+		double capacityBound = 0;
+		long seatsLeft = numSeats;
+
+		long taken = Math.min(seatsLeft, fullPassengers + singleWindowPassengers + groupWindowPassengers);
+		capacityBound += taken * FULL_SATISFACTION;
+		seatsLeft -= taken;
+
+		//a passenger of a split group gets at least as much from a window seat as from any other seat
+		taken = Math.min(seatsLeft, splitWindowPassengers);
+		capacityBound += taken * splitWindowSatisfaction;
+		seatsLeft -= taken;
+		capacityBound += Math.min(seatsLeft, splitPassengers) * splitSatisfaction;
+
+		//bound ignoring capacity: everyone is seated, and the window seats go where they add the most
+		double windowBound = fullPassengers * FULL_SATISFACTION + groupWindowPassengers * HALF_SATISFACTION +
+							 splitPassengers * splitSatisfaction +
+							 splitWindowPassengers * partialGroupSatisfaction * HALF_SATISFACTION;
+		long windowSeatsLeft = numWindowSeats;
+
+		//a window seat adds full satisfaction to a passenger traveling alone and half to anyone else
+		taken = Math.min(windowSeatsLeft, singleWindowPassengers);
+		windowBound += taken * FULL_SATISFACTION;
+		windowSeatsLeft -= taken;
+		windowBound += Math.min(windowSeatsLeft, groupWindowPassengers + splitWindowPassengers) * HALF_SATISFACTION;
+
+		this.boundPoints = (extraWeight > 0)? 
+						   computeWeightedBound(passengerGroups, numSeats, numWindowSeats, splitSatisfaction, splitWindowSatisfaction):
+						   Math.min(capacityBound, windowBound);
+		this.weightedPassengerCount = passengerCount + extraWeight;
+
+		return getBound();
+	}
+
+	/**
+	 * Gets the last computed bound
+	 *
+	 * @return The upper bound on the total passenger satisfaction (in percent)
+	 */
+	public double getBound() {
+		return (weightedPassengerCount == 0)? 0:boundPoints / weightedPassengerCount * 100;
+	}
+
+	/**
+	 * Informs whether a satisfaction reaches the bound, in which case no arrangement can do better
+	 * and any improving search should stop.
+	 *
+	 * @param satisfactionPoints The sum of passenger satisfaction of an arrangement
+	 *
+	 * @return Whether the satisfaction reaches the bound
+	 */
+	public boolean isReached(double satisfactionPoints) {
+		return satisfactionPoints >= boundPoints - TOLERANCE;
+	}
+
+	/*
+	 * Returns the bound (in satisfaction points) for passengers with weights. The seats go to the passengers
+	 * with the highest best satisfaction times weight, and the window seats to the passengers with the highest
+	 * gain from a window seat times weight
+	 */
+	private double computeWeightedBound(List<List<Passenger>> passengerGroups, long numSeats, long numWindowSeats,
+										double splitSatisfaction, double splitWindowSatisfaction) {
+
+		//best satisfaction of each passenger, and the satisfaction a window seat adds, both times their weight
+		double[] seatValues = new double[countPassengers(passengerGroups)];
+		double[] windowGains = new double[seatValues.length];
+
+		//bound ignoring window seats, and bound ignoring capacity
+		double capacityBound = 0;
+		double windowBound = 0;
+
+		//the passenger being rated
+		int passengerIndex = 0;
+
+		for(List<Passenger> passengerGroup: passengerGroups) {
+			for(Passenger passenger: passengerGroup) {
+
+				//satisfaction of the passenger without and with a window seat
+				double withoutWindow;
+				double withWindow;
+
+				if(passengerGroup.size() > numSeatsInRow) {
+					withoutWindow = passenger.hasWindowPreference()? partialGroupSatisfaction * HALF_SATISFACTION:splitSatisfaction;
+					withWindow = passenger.hasWindowPreference()? splitWindowSatisfaction:splitSatisfaction;
+				}else if(!passenger.hasWindowPreference()) {
+					withoutWindow = FULL_SATISFACTION;
+					withWindow = FULL_SATISFACTION;
+				}else {
+					withoutWindow = (passengerGroup.size() == 1)? 0:HALF_SATISFACTION;
+					withWindow = FULL_SATISFACTION;
+				}
+
+				seatValues[passengerIndex] = withWindow * passenger.getWeight();
+				windowGains[passengerIndex] = (withWindow - withoutWindow) * passenger.getWeight();
+				windowBound += withoutWindow * passenger.getWeight();
+				passengerIndex++;
+			}
+		}
+
+		capacityBound = sumLargest(seatValues, numSeats);
+		windowBound += sumLargest(windowGains, numWindowSeats);
+
+		return Math.min(capacityBound, windowBound);
+	}
+
+	/*
+	 * Returns the number of passengers in the given groups
+	 */
+	private static int countPassengers(List<List<Passenger>> passengerGroups) {
+
+		int numPassengers = 0;
+
+		for(List<Passenger> passengerGroup: passengerGroups) {
+			numPassengers += passengerGroup.size();
+		}
+
+		return numPassengers;
+	}
+
+	/*
+	 * Returns the sum of the given number of largest values (or of all values if there are fewer)
+	 */
+	private static double sumLargest(double[] values, long count) {
+
+		double sum = 0;
+
+		Arrays.sort(values);
+		for(int value = values.length - 1; value >= 0 && values.length - value <= count; value--) {
+			sum += values[value];
+		}
+
+		return sum;
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.pyiapa.seatallocator.services;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SeatMap;
+
+/**
+ * A policy that rates how satisfied a seated passenger is. A passenger is described by a few flags (their 
+ * preferences and how they were seated), so that whole arrangements can be scored from primitive arrays of
+ * flags and weights in a single loop, without a call per passenger object. The {@link SeatAllocator} rates 
+ * every passenger it seats with its scorer, which follows the rules of the README unless another one is set
+ * (see {@link DefaultSatisfactionScorer}).
+ * 
+ * @author pyiapa
+ *
+ */
+public interface SatisfactionScorer {
+	
+	/**
+	 * Flag of a passenger with a window seat preference
+	 */
+	int WINDOW_PREFERENCE = 1;
+	
+	/**
+	 * Flag of a passenger traveling with a group
+	 */
+	int PASSENGER_IN_GROUP = 2;
+	
+	/**
+	 * Flag of a passenger that was separated from their group
+	 */
+	int SEPARATED_FROM_GROUP = 4;
+	
+	/**
+	 * Flag of a passenger with a window seat preference that got a window seat
+	 */
+	int WINDOW_SEAT = 8;
+	
+	/**
+	 * Number of combinations of the flags, i.e. flags range from 0 to FLAG_COMBINATIONS - 1
+	 */
+	int FLAG_COMBINATIONS = 16;
+	
+	/**
+	 * Rates a seated passenger
+	 * 
+	 * @param passengerFlags The flags of the passenger
+	 * 
+	 * @return The satisfaction of the passenger (from 0 to 1)
+	 */
+	double score(int passengerFlags);
+	
+	/**
+	 * Rates every seated passenger of an arrangement, each counted by their weight
+	 * 
+	 * @param passengerFlags The flags of each passenger
+	 * @param passengerWeights The weight of each passenger
+	 * @param numPassengers Number of passengers (from the start of the arrays)
+	 * 
+	 * @return The total satisfaction of the passengers
+	 */
+	double scoreArrangement(byte[] passengerFlags, int[] passengerWeights, int numPassengers);
+	
+	/**
+	 * Gets the flags of a seated passenger
+	 * 
+	 * @param passenger The passenger
+	 * @param windowSeat Whether the passenger sits in a window seat
+	 * 
+	 * @return The flags of the passenger
+	 */
+	static int flagsOf(Passenger passenger, boolean windowSeat) {
+		return (passenger.hasWindowPreference()? WINDOW_PREFERENCE:0) | (passenger.isPassengerInGroup()? PASSENGER_IN_GROUP:0) |
+			   (passenger.isSeparatedFromGroup()? SEPARATED_FROM_GROUP:0) | 
+			   (passenger.hasWindowPreference() && windowSeat? WINDOW_SEAT:0);
+	}
+	
+	/**
+	 * Writes the flags and weight of every passenger seated in an arrangement to arrays, in row and seat order,
+	 * so that the arrangement can be scored by any scorer. The arrays must hold a passenger for every seat of
+	 * the rows opened.
+	 * 
+	 * @param seatMap The passenger in each seat of the arrangement
+	 * @param passengerFlags Receives the flags of each passenger
+	 * @param passengerWeights Receives the weight of each passenger
+	 * 
+	 * @return The number of passengers written
+	 */
+	static int encodeArrangement(SeatMap seatMap, byte[] passengerFlags, int[] passengerWeights) {
+		
+		//number of passengers written, and the passenger in the seat being read
+		int numPassengers = 0;
+		Passenger passenger;
+		
+		for(int row = 0; row < seatMap.getNumRowsOpened(); row++) {
+			for(int seat = 0; seat < seatMap.getNumSeatsInRow(); seat++) {
+				
+				passenger = seatMap.getPassenger(row, seat);
+				
+				if(passenger != null) {
+					passengerFlags[numPassengers] = (byte) flagsOf(passenger, seatMap.isWindowSeat(seat));
+					passengerWeights[numPassengers++] = passenger.getWeight();
+				}
+			}
+		}
+		
+		return numPassengers;
+	}
+
+}
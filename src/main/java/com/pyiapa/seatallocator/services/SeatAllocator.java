@@ -1,13 +1,16 @@
 package com.pyiapa.seatallocator.services;
 
-import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.pyiapa.seatallocator.domain.AllocationTier;
+import com.pyiapa.seatallocator.domain.FreeRowRunIndex;
 import com.pyiapa.seatallocator.domain.Passenger;
-import com.pyiapa.seatallocator.domain.RowDescriptor;
+import com.pyiapa.seatallocator.domain.HeapRowStore;
+import com.pyiapa.seatallocator.domain.OffHeapRowStore;
+import com.pyiapa.seatallocator.domain.RowStore;
+import com.pyiapa.seatallocator.domain.SeatMap;
 import com.pyiapa.seatallocator.domain.SittingArrangement;
 
 /**
@@ -23,11 +26,12 @@ public class SeatAllocator {
 	//wishing to seat together
 	private List<List<Passenger>> passengerGroups;
 	
-	//the rows of the plane. Each element is a list that represents customers sitting together in a row
-	private List<List<Passenger>> planeRows;
+	//the passenger in each seat of the rows that fit in the plane. Passengers in excess (virtual) rows are cut
+	//off anyway so they do not get a seat
+	private SeatMap seatMap;
 	
-	//information about each row
-	private List<RowDescriptor> rowDescriptors;
+	//information about each (virtual) row
+	private RowStore rowStore;
 	
 	//number of rows in the plane
 	private int numRows;
@@ -41,13 +45,68 @@ public class SeatAllocator {
 	//total passenger count (could be larger than plane capacity if flight is over-subscribed)
 	private int passengerCount;
 	
+	//total passenger count with every passenger counted by their weight, and whether any passenger has a weight
+	private long weightedPassengerCount;
+	private boolean weightedPassengers;
+	
+	//weight of the passengers seated so far beyond counting each of them once
+	private long extraWeight;
+	
 	//indicates that no suitable row was found to seat a group of passengers
 	private final int NO_SUITABLE_ROW = -1;
 	
-	//passenger satisfaction values
+	//bounds of passenger satisfaction values
 	private final double FULL_SATISFACTION = 1;
-	private final double HALF_SATISFACTION = 0.5;
 	private final double NO_SATISFACTION = 0;
+	
+	//tolerance when comparing satisfaction points, which add up halves
+	private final double SATISFACTION_TOLERANCE = 1e-9;
+	
+	//receives rows as soon as they are finalized when allocating in streaming mode (null otherwise)
+	private RowConsumer rowConsumer;
+	
+	//cuts groups that do not fit in a row into row-width blocks (null if such groups are scattered instead)
+	private GroupSplitPlanner splitPlanner;
+	
+	//share of the satisfaction of sitting with their group that passengers of a split group get
+	private double partialGroupSatisfaction = NO_SATISFACTION;
+	
+	//rates every passenger seated, and whether it was set rather than following the rules of the README (the bound 
+	//on the satisfaction only holds for these rules)
+	private SatisfactionScorer satisfactionScorer = new DefaultSatisfactionScorer();
+	private boolean customScorer;
+	
+	//finds runs of adjacent rows with room for the blocks of groups that do not fit in a row, when such groups
+	//are split or seated in adjacent rows (null otherwise)
+	private FreeRowRunIndex freeRowRunIndex;
+	
+	//whether the blocks of groups that do not fit in a row are balanced and may share partly taken rows
+	private boolean rowAffinity;
+	
+	//whether groups are packed into rows with the row packer (for narrow rows) rather than first-fit
+	private boolean rowPacking;
+	
+	//upper bound on the satisfaction of the passengers being allocated. Improving searches stop once they reach it
+	private SatisfactionBound satisfactionBound;
+	
+	//buffers of an allocation that are emptied and reused by the next one: passengers separated from their group, 
+	//groups split into blocks, and separated passengers with and without window preference
+	private List<Passenger> separatedPassengerGroups = new ArrayList<Passenger>();
+	private List<List<Passenger>> oversizedPassengerGroups = new ArrayList<List<Passenger>>();
+	private List<Passenger> windowPassengers = new ArrayList<Passenger>();
+	private List<Passenger> otherPassengers = new ArrayList<Passenger>();
+	
+	//row packer, kept for the next allocation once its queues are drained (null until first used)
+	private RowPacker rowPacker;
+	
+	//the arrangement filled in place by every allocation of a reused allocator, with the lists holding the passengers
+	//of each row (including rows that the latest allocation did not use). Null until first reused
+	private SittingArrangement reusedArrangement;
+	private List<List<Passenger>> reusedSeatConfiguration = new ArrayList<List<Passenger>>();
+	private List<List<Passenger>> rowBuffers = new ArrayList<List<Passenger>>();
+	
+	//hands out the groups that fit in a row in the order they are seated, kept for the next allocation
+	private GroupQueue groupQueue = new GroupQueue();
 
 	
 	
@@ -71,8 +130,131 @@ public class SeatAllocator {
 		this.numWindowsInPlane = numWindowsInPlane;
 		this.passengerCount = passengerCount;
 		
-		this.rowDescriptors = new ArrayList<RowDescriptor>();
-		this.planeRows = new ArrayList<List<Passenger>>();
+		this.rowStore = new HeapRowStore(numSeatsInRow, numWindowsInPlane);
+	}
+	
+	/**
+	 * 
+	 * Creates an object that allocates seats on a plane with the given dimensions, for groups of passengers
+	 * given with each allocation (see allocateSeats(passengerGroups, passengerCount)).
+	 * 
+	 * @param numRows Number of available rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param numWindowsInPlane Number of windows (per row) in the plane
+	 */
+	public SeatAllocator(int numRows, int numSeatsInRow, int numWindowsInPlane) {
+		this(new ArrayList<List<Passenger>>(), numRows, numSeatsInRow, 0, numWindowsInPlane);
+	}
+	
+	/**
+	 * Chooses whether the state of the rows is held outside the Java heap. Off-heap row state avoids
+	 * creating an object per (virtual) row, which matters when a heavily over-subscribed flight opens
+	 * millions of rows. Must be chosen before the allocation is performed.
+	 * 
+	 * @param offHeapRowState Whether row state is held outside the Java heap
+	 */
+	public void setOffHeapRowState(boolean offHeapRowState) {
+		this.rowStore = offHeapRowState? new OffHeapRowStore(numSeatsInRow, numWindowsInPlane):
+			                             new HeapRowStore(numSeatsInRow, numWindowsInPlane);
+	}
+	
+	/*
+	 * Informs whether the state of the rows is held outside the Java heap
+	 */
+	boolean isOffHeapRowState() {
+		return rowStore instanceof OffHeapRowStore;
+	}
+	
+
+	
+	/**
+	 * Chooses whether groups that do not fit in a row are split into row-width blocks seated in consecutive
+	 * rows, instead of being scattered one passenger at a time. Passengers of a split group are still 
+	 * separated from part of their group, so they get the given share of the satisfaction of sitting with 
+	 * their group: 0 follows the rules for separated passengers, while 1 treats them as if the whole group 
+	 * sat together. Must be chosen before the allocation is performed.
+	 * 
+	 * @param splitOversizedGroups Whether groups that do not fit in a row are split into blocks
+	 * @param partialGroupSatisfaction Share (from 0 to 1) of the group satisfaction given to passengers of split groups
+	 */
+	public void setGroupSplitting(boolean splitOversizedGroups, double partialGroupSatisfaction) {
+		
+		if(partialGroupSatisfaction < NO_SATISFACTION || partialGroupSatisfaction > FULL_SATISFACTION) {
+			throw new IllegalArgumentException("Partial group satisfaction must be between 0 and 1");
+		}
+		
+		this.splitPlanner = splitOversizedGroups? new GroupSplitPlanner(numSeatsInRow, numWindowsInPlane):null;
+		this.partialGroupSatisfaction = splitOversizedGroups? partialGroupSatisfaction:NO_SATISFACTION;
+		this.freeRowRunIndex = splitOversizedGroups? new FreeRowRunIndex(numSeatsInRow):null;
+		this.rowAffinity = false;
+		
+		if(!customScorer) {
+			this.satisfactionScorer = new DefaultSatisfactionScorer(this.partialGroupSatisfaction);
+		}
+		
+		//the bound depends on the share of the group satisfaction
+		this.satisfactionBound = null;
+	}
+	
+
+	
+	/**
+	 * Chooses whether groups that do not fit in a row are seated in adjacent rows, instead of being scattered one
+	 * passenger at a time. Each such group is cut into blocks of balanced sizes that are seated in the first run
+	 * of consecutive rows with room for them, including rows that are already partly taken (new rows are opened
+	 * where the run reaches past the open rows). Passengers of these groups sit in rows adjacent to the rest of 
+	 * their group, so they get the given share of the satisfaction of sitting with their group. Replaces group 
+	 * splitting (see setGroupSplitting). Must be chosen before the allocation is performed.
+	 * 
+	 * @param rowAffinity Whether groups that do not fit in a row are seated in adjacent rows
+	 * @param adjacentRowSatisfaction Share (from 0 to 1) of the group satisfaction given to passengers in adjacent rows
+	 */
+	public void setRowAffinity(boolean rowAffinity, double adjacentRowSatisfaction) {
+		
+		if(adjacentRowSatisfaction < NO_SATISFACTION || adjacentRowSatisfaction > FULL_SATISFACTION) {
+			throw new IllegalArgumentException("Adjacent row satisfaction must be between 0 and 1");
+		}
+		
+		this.splitPlanner = rowAffinity? new GroupSplitPlanner(numSeatsInRow, numWindowsInPlane):null;
+		this.partialGroupSatisfaction = rowAffinity? adjacentRowSatisfaction:NO_SATISFACTION;
+		this.freeRowRunIndex = rowAffinity? new FreeRowRunIndex(numSeatsInRow):null;
+		this.rowAffinity = rowAffinity;
+		
+		if(!customScorer) {
+			this.satisfactionScorer = new DefaultSatisfactionScorer(this.partialGroupSatisfaction);
+		}
+		
+		//the bound depends on the share of the group satisfaction
+		this.satisfactionBound = null;
+	}
+	
+
+	
+	/**
+	 * Sets the policy that rates every passenger seated, in place of the rules of the README. Arrangements are
+	 * still chosen by the same rules, only their satisfaction is rated by the given scorer, so no upper bound on 
+	 * the satisfaction is reported (it is NaN) and time-limited allocations keep the greedy arrangement. Must be
+	 * chosen before the allocation is performed.
+	 * 
+	 * @param satisfactionScorer The policy that rates passengers, or null to follow the rules of the README
+	 */
+	public void setSatisfactionScorer(SatisfactionScorer satisfactionScorer) {
+		this.customScorer = satisfactionScorer != null;
+		this.satisfactionScorer = customScorer? satisfactionScorer:new DefaultSatisfactionScorer(partialGroupSatisfaction);
+	}
+	
+
+	
+	/**
+	 * Chooses whether groups that fit in a row are packed into rows by the row packer, which fills each
+	 * row with the combination of groups that takes the most seats, instead of seating each group in the 
+	 * first row with room. Only applies to planes with rows of up to RowPacker.MAX_SEATS_IN_ROW seats; 
+	 * wider planes are always allocated first-fit. Must be chosen before the allocation is performed.
+	 * 
+	 * @param rowPacking Whether groups are packed into rows by the row packer
+	 */
+	public void setRowPacking(boolean rowPacking) {
+		this.rowPacking = rowPacking;
 	}
 	
 
@@ -85,9 +267,224 @@ public class SeatAllocator {
 	 */
 	public SittingArrangement allocateSeats() {
 		
-		//passengers that their group will not fit in any row so they were separated
-		//from their original group
-		List<Passenger> separatedPassengerGroups = new ArrayList<Passenger>();
+		//seats of the plane, indexed by passenger ID for seat lookups
+		seatMap = new SeatMap(numRows, numSeatsInRow, numWindowsInPlane, true);
+		rowStore.clear();
+		rowConsumer = null;
+		
+		//bound the satisfaction before the passenger groups are consumed by the allocation
+		satisfactionBound = new SatisfactionBound(numRows, numSeatsInRow, numWindowsInPlane, partialGroupSatisfaction);
+		satisfactionBound.computeBound(passengerGroups, passengerCount);
+		
+		//seat every passenger in the (virtual) rows of the plane
+		seatPassengers(null);
+		
+		//return the final sitting configuration and satisfaction score, together with how far it may be from optimal
+		return (new SittingArrangement(getSeatConfiguration(), getSatisfaction(), seatMap, 
+									   getSatisfactionPoints() / weightedPassengerCount * 100, getSatisfactionBound()));
+		
+	} // end of method allocateSeats()
+	
+	
+	/**
+	 * Performs the sitting allocation of the given passengers while trying to maximize satisfaction, reusing the
+	 * memory of the previous allocations of this allocator. The seats, row state, working lists and the returned
+	 * arrangement are emptied and filled again in place, so that repeated allocations of similar size create 
+	 * next to no garbage (the formatted satisfaction is only produced when asked for). The returned arrangement, 
+	 * its seat configuration and its seat map are therefore only valid until the next allocation. Passengers keep
+	 * their satisfaction, so each allocation needs passengers that no earlier allocation seated.
+	 * 
+	 * @param passengerGroups The groups of passenger to be seated
+	 * @param passengerCount Total passenger count (may be larger than plane capacity)
+	 * 
+	 * @return Passenger Object that holds final sitting configuration and satisfaction score, reused by the next allocation
+	 */
+	public SittingArrangement allocateSeats(List<List<Passenger>> passengerGroups, int passengerCount) {
+		
+		this.passengerGroups = passengerGroups;
+		this.passengerCount = passengerCount;
+		this.rowConsumer = null;
+		
+		//seats of the plane, indexed by passenger ID for seat lookups, emptied for this allocation
+		if(reusedArrangement == null) {
+			seatMap = new SeatMap(numRows, numSeatsInRow, numWindowsInPlane, true);
+			reusedArrangement = new SittingArrangement(reusedSeatConfiguration, null, seatMap, Double.NaN, Double.NaN);
+		}else {
+			seatMap = reusedArrangement.getSeatMap();
+			seatMap.clear();
+		}
+		rowStore.clear();
+		
+		//bound the satisfaction before the passenger groups are consumed by the allocation
+		if(satisfactionBound == null) {
+			satisfactionBound = new SatisfactionBound(numRows, numSeatsInRow, numWindowsInPlane, partialGroupSatisfaction);
+		}
+		satisfactionBound.computeBound(passengerGroups, passengerCount);
+		
+		//seat every passenger in the (virtual) rows of the plane
+		seatPassengers(null);
+		
+		//fill the rows of the arrangement in place
+		reusedSeatConfiguration.clear();
+		for(int currentRow = 0; currentRow < seatMap.getNumRowsOpened(); currentRow++) {
+			if(currentRow == rowBuffers.size()) {
+				rowBuffers.add(new ArrayList<Passenger>(numSeatsInRow));
+			}
+			seatMap.copyRowPassengers(currentRow, rowBuffers.get(currentRow));
+			reusedSeatConfiguration.add(rowBuffers.get(currentRow));
+		}
+		
+		reusedArrangement.resetSatisfaction(getSatisfactionPoints() / weightedPassengerCount * 100, getSatisfactionBound());
+		
+		return reusedArrangement;
+	}
+	
+	
+	/**
+	 * Performs the sitting allocation within a time budget, with the strongest strategy that fits the budget.
+	 * The greedy allocation runs first and is always completed, so there is a valid arrangement to fall back
+	 * on. Unless it already reaches the upper bound on satisfaction, the rows of the groups are then improved
+	 * for the rest of the budget: small planes are searched exhaustively, larger ones by local search. The
+	 * arrangement reports the strategy that produced it and the time it took; an exhaustive search stopped by
+	 * the deadline is reported as partial, since it may have missed better rows. Groups that do not fit in a row
+	 * are not improved upon when they are split into blocks.
+	 * 
+	 * @param timeBudget The time allowed for the allocation
+	 * @param unit The unit of the time budget
+	 * 
+	 * @return Passenger Object that holds final sitting configuration and satisfaction score.
+	 */
+	public SittingArrangement allocateSeats(long timeBudget, TimeUnit unit) {
+		
+		if(timeBudget < 0) {
+			throw new IllegalArgumentException("Time budget must not be negative");
+		}
+		
+		//when the allocation started, and when it must be done
+		long startTime = System.nanoTime();
+		long deadline = startTime + unit.toNanos(timeBudget);
+		
+		//the groups as given, since the allocation consumes the list of groups
+		List<List<Passenger>> originalGroups = new ArrayList<List<Passenger>>(passengerGroups);
+		
+		//the greedy arrangement is the floor for the stronger strategies
+		SittingArrangement sittingArrangement = allocateSeats();
+		AllocationTier allocationTier = AllocationTier.GREEDY;
+		
+		//satisfaction points of the greedy arrangement
+		double greedySatisfaction = getSatisfactionPoints();
+		
+		if(splitPlanner == null && !weightedPassengers && !customScorer && !satisfactionBound.isReached(getSatisfactionPoints()) && 
+		   System.nanoTime() - deadline < 0) {
+			
+			ArrangementSearch arrangementSearch = createArrangementSearch(originalGroups);
+			
+			//whether the exhaustive search went through every assignment before the deadline
+			boolean searchCompleted = true;
+			
+			if(arrangementSearch.isSmallPlane()) {
+				searchCompleted = arrangementSearch.searchExact(deadline, satisfactionBound);
+			}else {
+				arrangementSearch.searchLocal(deadline, satisfactionBound);
+			}
+			
+			//seat the passengers again if the search found better rows for the groups, and keep the result only if
+			//the placement rules rate it higher than the greedy arrangement
+			if(arrangementSearch.getSatisfaction() > greedySatisfaction + SATISFACTION_TOLERANCE) {
+				
+				SittingArrangement searchArrangement = seatAssignment(originalGroups, arrangementSearch.getAssignment());
+				
+				if(getSatisfactionPoints() > greedySatisfaction + SATISFACTION_TOLERANCE) {
+					sittingArrangement = searchArrangement;
+					if(!arrangementSearch.isSmallPlane()) {
+						allocationTier = AllocationTier.LOCAL_SEARCH;
+					}else {
+						allocationTier = searchCompleted? AllocationTier.EXACT:AllocationTier.PARTIAL_EXACT;
+					}
+				}else {
+					seatMap = sittingArrangement.getSeatMap();
+				}
+			}
+		}
+		
+		sittingArrangement.setAllocationReport(allocationTier, System.nanoTime() - startTime);
+		
+		return sittingArrangement;
+	}
+	
+	
+	/**
+	 * Performs the sitting allocation in streaming mode. Rows are handed to the given consumer as soon
+	 * as no later placement can change them (i.e. when they become full), while the rest of the rows are 
+	 * handed over once all passengers are seated. Only rows that fit in the plane are delivered and rows
+	 * are not retained after they have been delivered, so downstream processing can overlap with the
+	 * allocation and memory is bounded by the rows that are still open.
+	 * 
+	 * @param rowConsumer The consumer that receives the finalized rows
+	 * 
+	 * @return The total passenger satisfaction score
+	 */
+	public String allocateSeats(RowConsumer rowConsumer) {
+		return streamRows(null, rowConsumer);
+	}
+	
+	
+	/**
+	 * Performs the sitting allocation in streaming mode for groups taken one at a time from the given source,
+	 * in the order they are seated (e.g. merged from sorted runs on disk by the {@link ExternalGroupSorter} for
+	 * manifests larger than the heap). Rows are handed to the given consumer as in allocateSeats(rowConsumer),
+	 * so besides the groups read ahead by the source only the state of the open rows is held in memory. The 
+	 * groups given when creating the allocator are not seated, and groups are always seated first-fit (row 
+	 * packing does not apply). Yields the same rows and satisfaction as allocating the same groups in memory.
+	 * 
+	 * @param orderedGroups The groups to be seated, in the order they are seated
+	 * @param rowConsumer The consumer that receives the finalized rows
+	 * 
+	 * @return The total passenger satisfaction score
+	 */
+	public String allocateSeats(OrderedGroups orderedGroups, RowConsumer rowConsumer) {
+		
+		if(orderedGroups == null) {
+			throw new IllegalArgumentException("Please provide the passenger groups");
+		}
+		
+		return streamRows(orderedGroups, rowConsumer);
+	}
+	
+	
+	/*
+	 * Seats the groups of the given source (or the passenger groups if null) while emitting rows that become
+	 * full, and then the rest of the rows of the plane. Returns the total passenger satisfaction score
+	 */
+	private String streamRows(OrderedGroups orderedGroups, RowConsumer rowConsumer) {
+		
+		this.rowConsumer = rowConsumer;
+		
+		//seats of the plane. Rows are released once delivered, so passengers are not indexed
+		seatMap = new SeatMap(numRows, numSeatsInRow, numWindowsInPlane, false);
+		rowStore.clear();
+		
+		//seat every passenger while emitting rows that become full
+		seatPassengers(orderedGroups);
+		
+		//hand over the rows of the plane that did not fill up during the allocation
+		for(int currentRow = 0; currentRow < rowStore.size() && currentRow < numRows; currentRow++) {
+			if(rowStore.getAvailableSeats(currentRow) > 0) {
+				emitRow(currentRow);
+			}
+		}
+		
+		//return the satisfaction score
+		return getSatisfaction();
+	}
+	
+	
+	/*
+	 * Seats all passengers in the virtual rows of the plane, prioritizing groups that fit in a row and
+	 * leaving passengers separated from their group for last. Takes the groups in the order they are seated,
+	 * or null to seat the passenger groups of the allocator.
+	 */
+	private void seatPassengers(OrderedGroups orderedGroups) {
 		
 		//the group that we are currently looking to fit in an available row
 		List<Passenger> currentPassengerGroup = null;
@@ -98,35 +495,59 @@ public class SeatAllocator {
 		//a suitable row to seat a given passenger group
 		int suitableRow = 0 ;
 		
+		//first row that may still have a free seat. Rows only lose free seats while groups are seated,
+		//so full rows before it never need to be inspected again
+		int firstRowWithSeat = 0;
+		
 		//number of window preferences in the passenger group
 		int numWindowPreferences = 0;
 		
-		//sort passenger groups by prioritizing larger groups
-		//if two groups have same size then prioritize groups that have people with window preferences
-		passengerGroups = sortPassengerList(passengerGroups);
+		//passengers that their group will not fit in any row so they were separated from their original group, 
+		//and groups that will not fit in any row and are split into row-width blocks (emptied of any earlier allocation)
+		separatedPassengerGroups.clear();
+		oversizedPassengerGroups.clear();
+		
+		//the score is the weighted total, counted as the groups are consumed
+		extraWeight = 0;
 		
 		//open a new row to seat passengers as well as a new descriptor that keeps information
 		//about that row
-		rowDescriptors.add(new RowDescriptor(numSeatsInRow, numWindowsInPlane));
-		planeRows.add(new ArrayList<Passenger>(numSeatsInRow));
+		openNewRow();
+		
+		if(orderedGroups == null) {
+			
+			//narrow rows are filled by the row packer instead
+			if(rowPacking && numSeatsInRow <= RowPacker.MAX_SEATS_IN_ROW) {
+				packRows(separatedPassengerGroups, oversizedPassengerGroups);
+			}
+			
+			//order passenger groups by prioritizing groups worth more per seat, and then larger groups
+			//if two groups have same size then prioritize groups that have people with window preferences
+			groupQueue.addGroups(passengerGroups);
+			passengerGroups.clear();
+			orderedGroups = groupQueue;
+		}
 
 		//go over passenger groups and try to find the optimal way to fit them in the plane
-		while(!passengerGroups.isEmpty()) {
+		while(!orderedGroups.isEmpty()) {
 			
-			//get the top passenger group from the list
-			currentPassengerGroup = passengerGroups.get(0);
+			//get the top passenger group from the queue
+			currentPassengerGroup = orderedGroups.peek();
 			
 			//count the number of window seat preferences in the group under question 
 			numWindowPreferences = 0;
-			for(Passenger p: currentPassengerGroup) {
-				if(p.hasWindowPreference()) {
+			for(int passenger = 0; passenger < currentPassengerGroup.size(); passenger++) {
+				if(currentPassengerGroup.get(passenger).hasWindowPreference()) {
 					numWindowPreferences++;
 				}
 			}
 			
 			//try to find a row that will fit this group based on their preferences of group size
 			//and window seats
-			suitableRow = findSuitableRow(currentRow, currentPassengerGroup.size(), numWindowPreferences);
+			while(firstRowWithSeat < currentRow && rowStore.getAvailableSeats(firstRowWithSeat) == 0) {
+				firstRowWithSeat++;
+			}
+			suitableRow = findSuitableRow(firstRowWithSeat, currentRow, currentPassengerGroup.size(), numWindowPreferences);
 			
 			
 			if(suitableRow == NO_SUITABLE_ROW) { //passengers do not fit in any of the existing open rows
@@ -134,16 +555,19 @@ public class SeatAllocator {
 				if(currentPassengerGroup.size() > numSeatsInRow) { //if passengers will not fit in any row
 					
 					//break them up, remove them from current list, and add them to the list of single
-					//unsatisfied customers to deal with it later.
+					//unsatisfied customers (or of groups to split into blocks) to deal with it later.
 					//the aim is to try and fit first the customers that will give us full satisfaction rate
-					separatedPassengerGroups.addAll(currentPassengerGroup);
-					passengerGroups.remove(currentPassengerGroup);
+					if(splitPlanner != null) {
+						oversizedPassengerGroups.add(currentPassengerGroup);
+					}else {
+						separateGroup(currentPassengerGroup);
+					}
+					countWeight(orderedGroups.poll());
 					
 				}else { 
 					//open a new row to try and seat the current passenger group as well as a new descriptor 
 					//that keeps information about that row
-					rowDescriptors.add(new RowDescriptor(numSeatsInRow, numWindowsInPlane));
-					planeRows.add(new ArrayList<Passenger>(numSeatsInRow));
+					openNewRow();
 					
 					//proceed to check the next row (that we've just opened) in the plane
 					currentRow++; 
@@ -156,82 +580,427 @@ public class SeatAllocator {
 					fitPassengerInCurrentRow(suitableRow, currentPassenger);
 				}
 				
-				//remove passengers from original list since they are now seating
-				passengerGroups.remove(currentPassengerGroup);
+				//remove passengers from the queue since they are now seating
+				countWeight(orderedGroups.poll());
 				
 				
 			}
 			
 		}//end of while loop that tries to seat passengers
 		
-		//sort passengers that were separated from their groups by prioritizing window preferences first.
-		//This will at least allow to satisfy some if there are still window seats available 
-		Collections.sort(separatedPassengerGroups, new Comparator<Passenger>() {    
-	        @Override
-	        public int compare(Passenger passenger1, Passenger passenger2) {
-	        			return passenger1.hasWindowPreference()? -1:1;
-	        }               
-		});
+		//seat the blocks of groups that were split, and then passengers that were separated from their groups
+		if(rowAffinity) {
+			seatAdjacentBlocks(oversizedPassengerGroups);
+		}else if(splitPlanner != null) {
+			seatSplitGroups(oversizedPassengerGroups);
+		}
+		seatSeparatedPassengers(separatedPassengerGroups);
+		oversizedPassengerGroups.clear();
+		groupQueue.clear();
 		
+		weightedPassengerCount = passengerCount + extraWeight;
+		weightedPassengers = extraWeight > 0;
 		
-		currentRow = 0;
+	} // end of method seatPassengers()
+	
+	
+	/*
+	 * Counts the passengers of a group taken for seating by their weight. Passengers without a weight count 
+	 * once, so the weighted count equals the passenger count unless some passenger has a weight.
+	 */
+	private void countWeight(List<Passenger> passengerGroup) {
+		for(int passenger = 0; passenger < passengerGroup.size(); passenger++) {
+			extraWeight += passengerGroup.get(passenger).getWeight() - Passenger.DEFAULT_WEIGHT;
+		}
+	}
+	
+	
+	/*
+	 * Seats the groups that fit in a row by filling one row after the other with the row packer, starting
+	 * from the (empty) row that is open. Groups that do not fit in a row are set aside to be split.
+	 */
+	private void packRows(List<Passenger> separatedPassengerGroups, List<List<Passenger>> oversizedPassengerGroups) {
+		
+		//the packer is empty again after each allocation, so it is kept for the next one
+		if(rowPacker == null) {
+			rowPacker = new RowPacker(numSeatsInRow, numWindowsInPlane);
+		}
+		
+		for(List<Passenger> currentPassengerGroup: passengerGroups) {
+			countWeight(currentPassengerGroup);
+			if(currentPassengerGroup.size() > numSeatsInRow) {
+				if(splitPlanner != null) {
+					oversizedPassengerGroups.add(currentPassengerGroup);
+				}else {
+					separateGroup(currentPassengerGroup);
+				}
+			}else if(!currentPassengerGroup.isEmpty()) {
+				rowPacker.addGroup(currentPassengerGroup);
+			}
+		}
+		passengerGroups.clear();
 		
-		//seat remaining passengers 
-		while(!separatedPassengerGroups.isEmpty()) {
+		while(rowPacker.hasGroups()) {
 			
-			//get passenger from the top of the list
-			Passenger currentPassenger = separatedPassengerGroups.get(0);
+			//the open row is still empty before the first row is packed
+			if(rowStore.getAvailableSeats(rowStore.size() - 1) < numSeatsInRow) {
+				openNewRow();
+			}
 			
-			//find a suitable row, satisfying window preference if possible
-			suitableRow = findSuitableRow(currentRow, 1, currentPassenger.hasWindowPreference()?1:0);
+			for(List<Passenger> currentPassengerGroup: rowPacker.nextRow()) {
+				for(Passenger currentPassenger: currentPassengerGroup) {
+					fitPassengerInCurrentRow(rowStore.size() - 1, currentPassenger);
+				}
+			}
+		}
+	}
+	
+	
+	/*
+	 * Sets the passengers of a group aside to be seated separately. Passengers are added one by one, as adding 
+	 * the group as a whole copies it to a new array first.
+	 */
+	private void separateGroup(List<Passenger> passengerGroup) {
+		for(int passenger = 0; passenger < passengerGroup.size(); passenger++) {
+			separatedPassengerGroups.add(passengerGroup.get(passenger));
+		}
+	}
+	
+	
+	/*
+	 * Seats groups that do not fit in a row as row-width blocks. The blocks of each group are seated as units
+	 * in the first run of consecutive empty rows of the plane, found with the index of runs of free rows, so that
+	 * empty rows come first and new rows are only opened where the run reaches past the open rows.
+	 */
+	private void seatSplitGroups(List<List<Passenger>> oversizedPassengerGroups) {
+		
+		//the blocks of the current group, and the first row of the run they are seated in
+		List<List<Passenger>> blocks;
+		int firstRow;
+		
+		if(oversizedPassengerGroups.isEmpty()) {
+			return;
+		}
+		
+		indexOpenRows();
+		
+		for(List<Passenger> currentPassengerGroup: oversizedPassengerGroups) {
 			
+			blocks = splitPlanner.planBlocks(currentPassengerGroup);
+			firstRow = freeRowRunIndex.findRun(blocks.size(), numSeatsInRow, numRows);
 			
-			if(suitableRow == NO_SUITABLE_ROW) { //no suitable row found
+			seatBlocks(blocks, firstRow);
+		}
+	}
 	
+	
+	/*
+	 * Seats groups that do not fit in a row in adjacent rows. The balanced blocks of each group are seated in the
+	 * first run of consecutive rows of the plane that each have room for the largest block, found with the index of
+	 * runs of free rows, opening new rows where the run reaches past the open rows.
+	 */
+	private void seatAdjacentBlocks(List<List<Passenger>> oversizedPassengerGroups) {
+		
+		//the blocks of the current group, and the first row of the run they are seated in
+		List<List<Passenger>> blocks;
+		int firstRow;
+		
+		if(oversizedPassengerGroups.isEmpty()) {
+			return;
+		}
+		
+		indexOpenRows();
+		
+		for(List<Passenger> currentPassengerGroup: oversizedPassengerGroups) {
+			
+			blocks = splitPlanner.planBalancedBlocks(currentPassengerGroup);
+			firstRow = freeRowRunIndex.findRun(blocks.size(), blocks.get(0).size(), numRows);
+			
+			seatBlocks(blocks, firstRow);
+		}
+	}
+	
+	
+	/*
+	 * Indexes the free seats of the open rows
+	 */
+	private void indexOpenRows() {
+		
+		freeRowRunIndex.clear();
+		for(int currentRow = 0; currentRow < rowStore.size(); currentRow++) {
+			freeRowRunIndex.addRow(rowStore.getAvailableSeats(currentRow));
+		}
+	}
+	
+	
+	/*
+	 * Seats the blocks of a group in consecutive rows from the given row, and keeps the index of runs of free rows
+	 * up to date. Without a run in the plane, each block takes the first row of the plane with room for it, and
+	 * the passengers of blocks that no row has room for are set aside to be seated wherever a seat is free.
+	 */
+	private void seatBlocks(List<List<Passenger>> blocks, int firstRow) {
+		
+		//the row of the current block
+		int blockRow;
+		
+		for(int block = 0; block < blocks.size(); block++) {
+			
+			blockRow = (firstRow == FreeRowRunIndex.NO_RUN)? 
+					   freeRowRunIndex.findRun(1, blocks.get(block).size(), numRows):firstRow + block;
+			
+			if(blockRow == FreeRowRunIndex.NO_RUN) {
+				separateGroup(blocks.get(block));
+				continue;
+			}
+			
+			openRowsUpTo(blockRow);
+			for(Passenger currentPassenger: blocks.get(block)) {
+				seatSeparatedPassenger(blockRow, currentPassenger);
+			}
+			freeRowRunIndex.setFreeSeats(blockRow, rowStore.getAvailableSeats(blockRow));
+		}
+	}
+	
+	
+	/*
+	 * Opens new rows until the given row is open, adding them to the index of runs of free rows
+	 */
+	private void openRowsUpTo(int row) {
+		while(rowStore.size() <= row) {
+			openNewRow();
+			freeRowRunIndex.addRow(numSeatsInRow);
+		}
+	}
+	
+	
+	/*
+	 * Seats passengers that were separated from their groups, prioritizing window preferences first. This will
+	 * at least allow to satisfy some if there are still window seats available. Each passenger takes the first 
+	 * row with a free seat (and a free window seat, if they have a window preference and there is such a row).
+	 */
+	private void seatSeparatedPassengers(List<Passenger> separatedPassengers) {
+		
+		//first row that may still have a free seat. Rows only lose free seats while passengers are seated,
+		//so rows before it never need to be inspected again
+		int firstRowWithSeat = 0;
+		
+		//first row that may still have a free seat and a free window seat
+		int firstRowWithWindow = 0;
+		
+		//the row to seat the current passenger
+		int suitableRow;
+		
+		//partition passengers by window preference in linear time, each in their original order
+		windowPassengers.clear();
+		otherPassengers.clear();
+		for(Passenger currentPassenger: separatedPassengers) {
+			if(currentPassenger.hasWindowPreference()) {
+				windowPassengers.add(currentPassenger);
+			}else {
+				otherPassengers.add(currentPassenger);
+			}
+		}
+		
+		for(Passenger currentPassenger: windowPassengers) {
+			
+			//skip rows with no free window seat left
+			while(firstRowWithWindow < rowStore.size() && 
+				  (rowStore.getAvailableSeats(firstRowWithWindow) == 0 || 
+				   rowStore.getAvailableWindowSeats(firstRowWithWindow) == 0)) {
+				firstRowWithWindow++;
+			}
+			
+			if(firstRowWithWindow < rowStore.size()) { //a row with a free window seat is open
+				suitableRow = firstRowWithWindow;
+			}else if(rowStore.size() < numRows) { //a new row of the plane has free window seats
+				openNewRow();
+				suitableRow = firstRowWithWindow;
+			}else { //no window seat is left in the plane, so seat them wherever there is a seat
+				firstRowWithSeat = findRowWithSeat(firstRowWithSeat);
+				suitableRow = firstRowWithSeat;
+			}
+			
+			seatSeparatedPassenger(suitableRow, currentPassenger);
+		}
+		
+		for(Passenger currentPassenger: otherPassengers) {
+			firstRowWithSeat = findRowWithSeat(firstRowWithSeat);
+			seatSeparatedPassenger(firstRowWithSeat, currentPassenger);
+		}
+		
+		separatedPassengers.clear();
+		windowPassengers.clear();
+		otherPassengers.clear();
+	}
+	
+	
+	/*
+	 * Creates a search over the rows of the given groups, starting from the rows the allocation seated them in
+	 */
+	private ArrangementSearch createArrangementSearch(List<List<Passenger>> groups) {
+		
+		//size, number of window preferences and whether they travel alone, for each group
+		int[] groupSizes = new int[groups.size()];
+		int[] groupWindowPreferences = new int[groups.size()];
+		boolean[] travelingAlone = new boolean[groups.size()];
+		
+		//the row each group sits in together, if any
+		int[] assignment = new int[groups.size()];
+		
+		//search over the groups
+		ArrangementSearch arrangementSearch;
+		
+		for(int group = 0; group < groups.size(); group++) {
+			
+			List<Passenger> passengerGroup = groups.get(group);
+			
+			groupSizes[group] = passengerGroup.size();
+			travelingAlone[group] = passengerGroup.size() == 1;
+			for(Passenger currentPassenger: passengerGroup) {
+				groupWindowPreferences[group] += currentPassenger.hasWindowPreference()? 1:0;
+			}
+			
+			//groups sit together unless they were separated, or are in the rows cut off the plane
+			assignment[group] = ArrangementSearch.NOT_ASSIGNED;
+			if(!passengerGroup.isEmpty() && !passengerGroup.get(0).isSeparatedFromGroup() && 
+			   seatMap.getRowOf(passengerGroup.get(0).getPassengerID()) != SeatMap.NOT_SEATED) {
+				assignment[group] = seatMap.getRowOf(passengerGroup.get(0).getPassengerID());
+			}
+		}
+		
+		arrangementSearch = new ArrangementSearch(groupSizes, groupWindowPreferences, travelingAlone, 
+												  numRows, numSeatsInRow, numWindowsInPlane);
+		arrangementSearch.setAssignment(assignment);
+		
+		return arrangementSearch;
+	}
+	
+	
+	/*
+	 * Seats the given groups again in the rows of an assignment. Passengers traveling alone are seated first in
+	 * each row so that they get the window seats, and passengers of groups without a row are separated. Fresh
+	 * copies of the passengers are seated, since the passengers given already hold their satisfaction.
+	 */
+	private SittingArrangement seatAssignment(List<List<Passenger>> groups, int[] assignment) {
+		
+		//passengers that are separated from their group
+		List<Passenger> separatedPassengers = new ArrayList<Passenger>();
+		
+		//the last row a group is assigned to
+		int lastRow = -1;
+		
+		//the row store chosen for the allocator is emptied, while the greedy arrangement keeps its own seat map
+		rowStore.clear();
+		seatMap = new SeatMap(numRows, numSeatsInRow, numWindowsInPlane, true);
+		
+		for(int group = 0; group < groups.size(); group++) {
+			lastRow = Math.max(lastRow, assignment[group]);
+		}
+		while(rowStore.size() <= lastRow) {
+			openNewRow();
+		}
+		
+		//passengers traveling alone, then groups, and then separated passengers
+		for(int pass = 0; pass < 2; pass++) {
+			for(int group = 0; group < groups.size(); group++) {
 				
-				//open a new row to try and seat the current passenger as well as a new descriptor 
-				//that keeps information about that row
-				rowDescriptors.add(new RowDescriptor(numSeatsInRow, numWindowsInPlane));
-				planeRows.add(new ArrayList<Passenger>(numSeatsInRow));
-				
-				//proceed to check the next row in the plane (which is the one we've just opened)
-				currentRow++; 
-				
-			}else { // passenger fits in one of the existing rows
+				if((groups.get(group).size() == 1) != (pass == 0)) {
+					continue;
+				}
 				
-				//seat passenger in available seat. Indicate that they were separated from their original group
-				//in order to update satisfaction appropriately. Remove passenger from the list as they are
-				//now seated.
-				currentPassenger.setSeparatedFromGroup(true);
-				fitPassengerInCurrentRow(suitableRow, currentPassenger);
-				separatedPassengerGroups.remove(currentPassenger);
+				for(Passenger currentPassenger: groups.get(group)) {
+					
+					Passenger passengerCopy = new Passenger(currentPassenger.getPassengerID(), 
+															currentPassenger.hasWindowPreference(), 
+															currentPassenger.isPassengerInGroup(), 
+															currentPassenger.getWeight());
+					
+					if(assignment[group] == ArrangementSearch.NOT_ASSIGNED) {
+						separatedPassengers.add(passengerCopy);
+					}else {
+						fitPassengerInCurrentRow(assignment[group], passengerCopy);
+					}
+				}
 			}
 		}
 		
-		//return the final sitting configuration and satisfaction score
-		return (new SittingArrangement(getSeatConfiguration(), getSatisfaction()));
+		seatSeparatedPassengers(separatedPassengers);
 		
-	} // end of method allocateSeats()
+		return (new SittingArrangement(getSeatConfiguration(), getSatisfaction(), seatMap, 
+				   					   getSatisfactionPoints() / weightedPassengerCount * 100, getSatisfactionBound()));
+	}
+	
+	
+	/*
+	 * Returns the first row with a free seat starting from the given row, opening a new row if none of the
+	 * open rows has a free seat
+	 */
+	private int findRowWithSeat(int firstRow) {
+		
+		int currentRow = firstRow;
+		
+		while(currentRow < rowStore.size() && rowStore.getAvailableSeats(currentRow) == 0) {
+			currentRow++;
+		}
+		
+		if(currentRow == rowStore.size()) {
+			openNewRow();
+		}
+		
+		return currentRow;
+	}
+	
+	
+	/*
+	 * Seats a passenger in a given row, indicating that they were separated from their original group
+	 * in order to update satisfaction appropriately
+	 */
+	private void seatSeparatedPassenger(int currentRow, Passenger currentPassenger) {
+		currentPassenger.setSeparatedFromGroup(true);
+		fitPassengerInCurrentRow(currentRow, currentPassenger);
+	}
+	
+	
+	/*
+	 * Opens a new (virtual) row in the plane as well as the information kept about that row. Rows that 
+	 * fit in the plane also get seats.
+	 */
+	private void openNewRow() {
+		if(rowStore.addRow() < numRows) {
+			seatMap.openRow();
+		}
+	}
+	
+	
+	/*
+	 * Hands a finalized row over to the row consumer and releases its passengers, as it will not change
+	 * any further.
+	 */
+	private void emitRow(int currentRow) {
+		List<Passenger> finalizedRow = seatMap.getRowPassengers(currentRow);
+		seatMap.releaseRow(currentRow);
+		rowConsumer.acceptRow(currentRow, finalizedRow);
+	}
 	
 	
 	/*
 	 * Find a suitable row to seat passengers while satisfying any group or window seat
-	 * preferences. Takes number of currently open (available) rows in the plane, the group size,
-	 * and how many window preferences are in the group as parameters.
+	 * preferences. Takes the first row that may have a free seat, number of currently open (available) 
+	 * rows in the plane, the group size, and how many window preferences are in the group as parameters.
 	 */
-	private int findSuitableRow(int availableRows, int groupSize, int numWindowPreferences) {
+	private int findSuitableRow(int firstRow, int availableRows, int groupSize, int numWindowPreferences) {
 		
 		//go over the open (available) rows in plane
-		for(int currentRow = 0; currentRow <= availableRows; currentRow++) {
+		for(int currentRow = firstRow; currentRow <= availableRows; currentRow++) {
 			
-			if(groupSize <= rowDescriptors.get(currentRow).getAvailableSeats()) { //if group fits in row
+			if(groupSize <= rowStore.getAvailableSeats(currentRow)) { //if group fits in row
 				
 				if(numWindowPreferences > 0) { //if there are any window preferences
 					
 					//Passengers already fit in the inspecting row and we know they have window preferences
 					//Thus, if there are available window seats, seat them. Also if we have inspected all possible 
 					//rows in the plane and there was no available window seat then we have to seat them here
-					if( numWindowPreferences <= rowDescriptors.get(currentRow).getAvailableWindowSeats() || 
+					if( numWindowPreferences <= rowStore.getAvailableWindowSeats(currentRow) || 
 					    availableRows >= numRows) {
 							return(currentRow);
 					}
@@ -255,89 +1024,64 @@ public class SeatAllocator {
 	 */
 	private void fitPassengerInCurrentRow(int currentRow, Passenger currentPassenger) {
 		
+		//whether the passenger takes one of the window seats of the row
+		boolean windowSeat = false;
+		
 		//decease the number of available seats in the given row
-		rowDescriptors.get(currentRow).updateAvailableSeats(-1);
+		rowStore.updateAvailableSeats(currentRow, -1);
 		
-		if(currentPassenger.hasWindowPreference()) { //passenger has a window seat preference
-			
-			
-			if(rowDescriptors.get(currentRow).getAvailableWindowSeats() > 0) { //if there are available window seats
-				
-				//update row information as appropriate
-				rowDescriptors.get(currentRow).updateAvailableWindowSeats(-1);
-				
-				//update passenger satisfaction as appropriate. Even though they got seated, if they were separated
-				//form their group, they only get half satisfaction.
-				updateSatisfafction(currentRow, currentPassenger, 
-						            currentPassenger.isSeparatedFromGroup()? HALF_SATISFACTION:FULL_SATISFACTION);
-				
-			}else { //no available window seats in the given row
-				
-				//if passenger was traveling with a group and has not been separated from them, they still get
-				//half satisfaction even if their window seat wish was not satisfied.
-				if(currentPassenger.isPassengerInGroup() && !currentPassenger.isSeparatedFromGroup()) {
-					updateSatisfafction(currentRow, currentPassenger, HALF_SATISFACTION);
-				}
-			}
-			
-		}else { //update satisfaction of passengers that did not have window preferences. They are fully
-			    //satisfied unless they were separated from their original group
-			updateSatisfafction(currentRow, currentPassenger, 
-					            currentPassenger.isSeparatedFromGroup()? NO_SATISFACTION:FULL_SATISFACTION);
+		//a passenger with a window seat preference takes one of the window seats of the row if any is left
+		if(currentPassenger.hasWindowPreference() && rowStore.getAvailableWindowSeats(currentRow) > 0) {
+			rowStore.updateAvailableWindowSeats(currentRow, -1);
+			windowSeat = true;
 		}
 		
-		//place the passenger on the seat in the given row
-		planeRows.get(currentRow).add(currentPassenger);
+		//update passenger satisfaction as rated by the scorer (by default, the rules of the README) from their 
+		//preferences and how they were seated
+		updateSatisfafction(currentRow, currentPassenger, 
+							satisfactionScorer.score(SatisfactionScorer.flagsOf(currentPassenger, windowSeat)));
+		
+		//place the passenger straight into their seat in the given row, passengers with window seats at the sides
+		//of the row (rows beyond the plane are cut off so they have no seats)
+		if(currentRow < numRows) {
+			seatMap.seatPassenger(currentRow, currentPassenger, windowSeat);
+		}
+		
+		//in streaming mode, a full row of the plane can no longer change so hand it over straight away
+		if(rowConsumer != null && currentRow < numRows && rowStore.getAvailableSeats(currentRow) == 0) {
+			emitRow(currentRow);
+		}
 	}
 	
 	/*
 	 * Updates the passenger and row satisfaction. Takes as parameters a passenger and the 
-	 * satisfaction value to be used from updating their satisfaction score.
+	 * satisfaction value to be used from updating their satisfaction score. The row satisfaction
+	 * counts the passenger by their weight.
 	 */
 	private void updateSatisfafction(int currentRow, Passenger passenger, double satisfaction) {
 		passenger.updateSatisfaction(satisfaction);
-		rowDescriptors.get(currentRow).updateRowSatisfaction(satisfaction);
+		rowStore.updateRowSatisfaction(currentRow, satisfaction * passenger.getWeight());
+	}
+	
+	/*
+	 * Returns the upper bound on the satisfaction, which is not available (NaN) for scorers other than the rules
+	 * of the README
+	 */
+	private double getSatisfactionBound() {
+		return customScorer? Double.NaN:satisfactionBound.getBound();
 	}
 	
 	/*
-	 * Returns the final sitting configuration while performing some cleanup.
-	 * Cleanup includes moving passengers with window seats to the sides of the row and removing rows that exceed
-	 * the size of the plane.
+	 * Returns the final sitting configuration, i.e. the passengers of each row that fits in the plane from
+	 * the leftmost to the rightmost seat. Passengers with window seats are already on the sides of the row.
 	 */
 	private List<List<Passenger>> getSeatConfiguration() {
 		
-		//number of available windows in the plane
-		int windowsAvailable;
-		
-		//indicates the window seat position in the row
-		int windowPosition;
-		
-		//passenger to be swapped so we can move a passenger with window seat preference in the window
-		Passenger temporaryPasseneger;
+		//the rows of the plane. Each element is a list that represents customers sitting together in a row
+		List<List<Passenger>> planeRows = new ArrayList<List<Passenger>>();
 		
-		//remove any unnecessary plane rows
-		while(planeRows.size() > numRows) {
-			planeRows.remove(planeRows.size()-1);
-		}
-		
-		//move passengers with window seat preference to the sides of the row
-		for(List<Passenger> currentRow: planeRows) {
-			windowsAvailable = numWindowsInPlane;
-			windowPosition = 0;
-			
-			for(int currentPassengerPosition = 0; currentPassengerPosition < currentRow.size(); currentPassengerPosition++) {
-				
-				//swap passengers with window seat preference and move them to the sides if possible 
-				if(currentRow.get(currentPassengerPosition).hasWindowPreference() && windowsAvailable > 0) {
-				    windowPosition = (windowsAvailable == numWindowsInPlane)? 0:currentRow.size()-1;
-					temporaryPasseneger = currentRow.get(windowPosition);
-					currentRow.set(windowPosition, currentRow.get(currentPassengerPosition));
-					currentRow.set(currentPassengerPosition, temporaryPasseneger);
-					windowsAvailable--;
-				}
-				
-				
-			}
+		for(int currentRow = 0; currentRow < seatMap.getNumRowsOpened(); currentRow++) {
+			planeRows.add(seatMap.getRowPassengers(currentRow));
 		}
 		
 		//return the final sitting configuration of the passengers in the plane
@@ -349,72 +1093,24 @@ public class SeatAllocator {
 	 */
 	private String getSatisfaction() {
 		
+		//return customer satisfaction formatted to two decimal places
+		return SittingArrangement.formatSatisfaction(getSatisfactionPoints() / weightedPassengerCount * 100);
+	}
+	
+	/*
+	 * Returns the sum of the satisfaction of the passengers seated in the plane
+	 */
+	private double getSatisfactionPoints() {
+		
 		//total passenger satisfaction
 		double satisfaction = 0;
 		
-		//passenger count
-		int totalPassengers = passengerCount;
-		
-		//accumulate passenger satisfaction obtained from each row
-		for(int currentRow = 0; currentRow < numRows; currentRow++) {
-			satisfaction += rowDescriptors.get(currentRow).getRowSatisfaction();
-			totalPassengers-= numSeatsInRow;
-			if(totalPassengers <= 0) {
-				break;
-			}
+		//accumulate passenger satisfaction obtained from each (opened) row of the plane
+		for(int currentRow = 0; currentRow < numRows && currentRow < rowStore.size(); currentRow++) {
+			satisfaction += rowStore.getRowSatisfaction(currentRow);
 		}
 		
-		//return customer satisfaction formatted to two decimal places
-		return (new DecimalFormat(".##").format(satisfaction / passengerCount * 100) + "%");
-	}
-	
-	/*
-	 * Sort passenger groups by prioritizing larger groups that would yield higher satisfaction. If two groups 
-	 * have the same number of passengers, the group with more window seat preferences will have priority. 
-	 *  
-	 */
-	private List<List<Passenger>> sortPassengerList(List<List<Passenger>> passengerGroups){
-		
-		Collections.sort(passengerGroups, new Comparator<List<Passenger>>() {    
-	        @Override
-	        public int compare(List<Passenger> passengerGroup1, List<Passenger> passengerGroup2) {
-	        		
-	        		//value to check if two groups have the same size
-	        		int result = passengerGroup2.size() - passengerGroup1.size();
-	        		
-	        		//number of window preferences for group 1
-	        		int group1NumWindowPrefs;
-	        		
-	        		//number of window preferences for group 2
-        			int group2NumWindowPrefs;
-	        		
-	        		if(result == 0) { //if two passenger groups have the same size, prioritize the group with
-	        			             //more window seat preferences
-	        			group1NumWindowPrefs = 0;
-	        			group2NumWindowPrefs = 0;
-	        			
-	        			//count window preferences of group 1
-	        			for(Passenger pass: passengerGroup1) {
-	        				if(pass.hasWindowPreference()) {
-	        					group1NumWindowPrefs++;
-	        				}
-	        			}
-	        			
-	        			//count window preferences of group 2	        			
-	        			for(Passenger pass: passengerGroup2) {
-	        				if(pass.hasWindowPreference()) {
-	        					group2NumWindowPrefs++;
-	        				}
-	        			}
-	        			
-	        			return group2NumWindowPrefs - group1NumWindowPrefs;
-	        		}else{
-	        			return passengerGroup2.size() - passengerGroup1.size();
-	        		}
-	        }               
-		});
-		
-		return passengerGroups;
+		return satisfaction;
 	}
 	
 	
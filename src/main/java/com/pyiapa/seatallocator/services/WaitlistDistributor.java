@@ -0,0 +1,521 @@
+package com.pyiapa.seatallocator.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.pyiapa.seatallocator.domain.Departure;
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SeatMap;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.domain.WaitlistDistribution;
+
+/**
+ * A service that distributes the groups of passengers of one manifest across several departures, each
+ * with its own plane, with the aim of maximum total satisfaction. Candidate distributions are built by a
+ * few assignment strategies and rated by allocating the seats of every departure; the best one is then
+ * improved by moving groups that did not get seats together to other departures. Candidates (and moves)
+ * are rated in parallel.
+ * 
+ * @author pyiapa
+ *
+ */
+public class WaitlistDistributor {
+	
+	//departure of a group that was not given to any departure
+	private static final int NO_DEPARTURE = -1;
+	
+	//strategies that build the candidate distributions: groups go to the departure with the most free seats,
+	//to the first departure with room, to the departure with the fewest free seats that holds them, or to 
+	//the departure with the most free window seats if they wish for window seats
+	private static final int MOST_FREE_SEATS = 0;
+	private static final int FIRST_WITH_ROOM = 1;
+	private static final int FEWEST_FREE_SEATS = 2;
+	private static final int MOST_FREE_WINDOWS = 3;
+	private static final int NUM_STRATEGIES = 4;
+	
+	//rounds of moves tried on the best distribution, and moves rated per round
+	private static final int MAX_ROUNDS = 32;
+	private static final int MAX_MOVES_PER_ROUND = 64;
+	
+	//tolerance when comparing satisfaction points, which add up halves
+	private static final double TOLERANCE = 1e-9;
+	
+	//the departures to distribute passengers to
+	private List<Departure> departures;
+	
+	//the pool that rates candidate distributions
+	private ForkJoinPool evaluationPool;
+	
+	//the groups being distributed, with the size, number of window preferences and total passenger weight of each
+	private List<List<Passenger>> passengerGroups;
+	private int[] groupSizes;
+	private int[] groupWindowPreferences;
+	private long[] groupWeights;
+	
+	/**
+	 * Creates a distributor that rates candidate distributions on the common fork/join pool
+	 * 
+	 * @param departures The departures to distribute passengers to
+	 */
+	public WaitlistDistributor(List<Departure> departures) {
+		this(departures, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a distributor that rates candidate distributions on the given fork/join pool
+	 * 
+	 * @param departures The departures to distribute passengers to
+	 * @param evaluationPool The pool that rates candidate distributions
+	 */
+	public WaitlistDistributor(List<Departure> departures, ForkJoinPool evaluationPool) {
+		
+		if(departures == null || departures.isEmpty()) {
+			throw new IllegalArgumentException("Please provide at least one departure");
+		}
+		
+		this.departures = departures;
+		this.evaluationPool = evaluationPool;
+	}
+	
+	/**
+	 * Distributes the groups of passengers of a manifest across the departures and seats them. Groups
+	 * are never split between departures.
+	 * 
+	 * @param passengerGroups The groups of passengers to be seated
+	 * @param passengerCount Total passenger count
+	 * 
+	 * @return The sitting arrangement of each departure and the total satisfaction
+	 */
+	public WaitlistDistribution distribute(List<List<Passenger>> passengerGroups, int passengerCount) {
+		
+		//candidate distributions of the strategies, and the best distribution found so far
+		List<Callable<Candidate>> evaluations = new ArrayList<Callable<Candidate>>();
+		Candidate bestCandidate = null;
+		
+		this.passengerGroups = passengerGroups;
+		this.groupSizes = new int[passengerGroups.size()];
+		this.groupWindowPreferences = new int[passengerGroups.size()];
+		this.groupWeights = new long[passengerGroups.size()];
+		
+		//total passenger count with every passenger counted by their weight
+		long weightedPassengerCount = passengerCount;
+		
+		for(int group = 0; group < passengerGroups.size(); group++) {
+			groupSizes[group] = passengerGroups.get(group).size();
+			for(Passenger currentPassenger: passengerGroups.get(group)) {
+				groupWindowPreferences[group] += currentPassenger.hasWindowPreference()? 1:0;
+				groupWeights[group] += currentPassenger.getWeight();
+			}
+			weightedPassengerCount += groupWeights[group] - groupSizes[group];
+		}
+		
+		for(int strategy = 0; strategy < NUM_STRATEGIES; strategy++) {
+			final int currentStrategy = strategy;
+			evaluations.add(new Callable<Candidate>() {
+				@Override
+				public Candidate call() {
+					return evaluate(assignGroups(currentStrategy));
+				}
+			});
+		}
+		
+		for(Candidate candidate: evaluateInParallel(evaluations)) {
+			if(bestCandidate == null || candidate.getPoints() > bestCandidate.getPoints() + TOLERANCE) {
+				bestCandidate = candidate;
+			}
+		}
+		
+		//move groups that did not get seats together to other departures while that improves satisfaction
+		for(int round = 0; round < MAX_ROUNDS; round++) {
+			
+			Candidate improvedCandidate = bestCandidate;
+			
+			for(Candidate candidate: evaluateInParallel(moveEvaluations(bestCandidate))) {
+				if(candidate.getPoints() > improvedCandidate.getPoints() + TOLERANCE) {
+					improvedCandidate = candidate;
+				}
+			}
+			
+			if(improvedCandidate == bestCandidate) {
+				break;
+			}
+			bestCandidate = improvedCandidate;
+		}
+		
+		return seatDistribution(bestCandidate.departureOf, weightedPassengerCount);
+	}
+	
+	/*
+	 * Gives each group, largest first, to a departure according to a strategy. Departures where the group
+	 * fits in a row are preferred, and groups are left without a departure once every seat is taken.
+	 */
+	private int[] assignGroups(int strategy) {
+		
+		//the departure of each group
+		int[] departureOf = new int[groupSizes.length];
+		
+		//seats and window seats not yet given to a group, per departure
+		long[] freeSeats = new long[departures.size()];
+		long[] freeWindows = new long[departures.size()];
+		
+		for(int departure = 0; departure < departures.size(); departure++) {
+			freeSeats[departure] = departures.get(departure).getCapacity();
+			freeWindows[departure] = departures.get(departure).getNumRows() * 
+									 (long) Math.max(0, Math.min(departures.get(departure).getNumWindowsInPlane(), 
+											 					 departures.get(departure).getNumSeatsInRow()));
+		}
+		
+		for(int group: groupsByPriority()) {
+			
+			int chosenDeparture = NO_DEPARTURE;
+			
+			for(int departure = 0; departure < departures.size(); departure++) {
+				if(freeSeats[departure] > 0 && 
+				   (chosenDeparture == NO_DEPARTURE || 
+				    isPreferred(strategy, group, departure, chosenDeparture, freeSeats, freeWindows))) {
+					chosenDeparture = departure;
+				}
+			}
+			
+			departureOf[group] = chosenDeparture;
+			
+			if(chosenDeparture != NO_DEPARTURE) {
+				freeSeats[chosenDeparture] = Math.max(0, freeSeats[chosenDeparture] - groupSizes[group]);
+				freeWindows[chosenDeparture] = Math.max(0, freeWindows[chosenDeparture] - groupWindowPreferences[group]);
+			}
+		}
+		
+		return departureOf;
+	}
+	
+	/*
+	 * Informs whether a departure suits a group better than the departure chosen so far. A departure that holds
+	 * the group in one of its rows beats one that does not, then the strategy decides.
+	 */
+	private boolean isPreferred(int strategy, int group, int departure, int chosenDeparture, long[] freeSeats, 
+								long[] freeWindows) {
+		
+		//whether each departure has room for the group in one row
+		boolean fits = fitsTogether(group, departure, freeSeats);
+		boolean chosenFits = fitsTogether(group, chosenDeparture, freeSeats);
+		
+		if(fits != chosenFits) {
+			return fits;
+		}
+		
+		switch(strategy) {
+			case FIRST_WITH_ROOM:
+				return false;
+			case FEWEST_FREE_SEATS:
+				return freeSeats[departure] < freeSeats[chosenDeparture];
+			case MOST_FREE_WINDOWS:
+				if(groupWindowPreferences[group] > 0 && freeWindows[departure] != freeWindows[chosenDeparture]) {
+					return freeWindows[departure] > freeWindows[chosenDeparture];
+				}
+				return freeSeats[departure] > freeSeats[chosenDeparture];
+			default:
+				return freeSeats[departure] > freeSeats[chosenDeparture];
+		}
+	}
+	
+	/*
+	 * Informs whether a departure has enough free seats for a group and rows wide enough for it
+	 */
+	private boolean fitsTogether(int group, int departure, long[] freeSeats) {
+		return freeSeats[departure] >= groupSizes[group] && groupSizes[group] <= departures.get(departure).getNumSeatsInRow();
+	}
+	
+	/*
+	 * Returns the groups ordered by priority: larger groups first and, among groups of the same size, groups
+	 * with more window preferences first
+	 */
+	private Integer[] groupsByPriority() {
+		
+		Integer[] groups = new Integer[groupSizes.length];
+		
+		for(int group = 0; group < groups.length; group++) {
+			groups[group] = group;
+		}
+		
+		Arrays.sort(groups, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer group1, Integer group2) {
+				if(groupSizes[group1] != groupSizes[group2]) {
+					return groupSizes[group2] - groupSizes[group1];
+				}
+				return groupWindowPreferences[group2] - groupWindowPreferences[group1];
+			}
+		});
+		
+		return groups;
+	}
+	
+	/*
+	 * Returns the evaluations of moving a group that did not get seats together (largest first) to each other
+	 * departure with free seats
+	 */
+	private List<Callable<Candidate>> moveEvaluations(final Candidate candidate) {
+		
+		List<Callable<Candidate>> evaluations = new ArrayList<Callable<Candidate>>();
+		List<Integer> leftoverGroups = new ArrayList<Integer>();
+		
+		for(DepartureResult departureResult: candidate.departureResults) {
+			leftoverGroups.addAll(departureResult.leftoverGroups);
+		}
+		for(int group = 0; group < candidate.departureOf.length; group++) {
+			if(candidate.departureOf[group] == NO_DEPARTURE) {
+				leftoverGroups.add(group);
+			}
+		}
+		
+		Collections.sort(leftoverGroups, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer group1, Integer group2) {
+				return groupSizes[group2] - groupSizes[group1];
+			}
+		});
+		
+		for(final int group: leftoverGroups) {
+			for(int departure = 0; departure < departures.size() && evaluations.size() < MAX_MOVES_PER_ROUND; departure++) {
+				
+				final int targetDeparture = departure;
+				
+				if(departure != candidate.departureOf[group] && 
+				   candidate.departureResults[departure].seatedPassengers < departures.get(departure).getCapacity()) {
+					evaluations.add(new Callable<Candidate>() {
+						@Override
+						public Candidate call() {
+							return moveGroup(candidate, group, targetDeparture);
+						}
+					});
+				}
+			}
+		}
+		
+		return evaluations;
+	}
+	
+	/*
+	 * Returns the candidate distribution with a group moved to another departure, rating only the two departures
+	 * that changed
+	 */
+	private Candidate moveGroup(Candidate candidate, int group, int targetDeparture) {
+		
+		int sourceDeparture = candidate.departureOf[group];
+		
+		Candidate movedCandidate = new Candidate(candidate.departureOf.clone(), candidate.departureResults.clone());
+		movedCandidate.departureOf[group] = targetDeparture;
+		
+		if(sourceDeparture != NO_DEPARTURE) {
+			movedCandidate.departureResults[sourceDeparture] = evaluateDeparture(sourceDeparture, movedCandidate.departureOf);
+		}
+		movedCandidate.departureResults[targetDeparture] = evaluateDeparture(targetDeparture, movedCandidate.departureOf);
+		
+		return movedCandidate;
+	}
+	
+	/*
+	 * Rates a distribution by allocating the seats of every departure
+	 */
+	private Candidate evaluate(int[] departureOf) {
+		
+		DepartureResult[] departureResults = new DepartureResult[departures.size()];
+		
+		for(int departure = 0; departure < departures.size(); departure++) {
+			departureResults[departure] = evaluateDeparture(departure, departureOf);
+		}
+		
+		return new Candidate(departureOf, departureResults);
+	}
+	
+	/*
+	 * Allocates the seats of a departure for copies of the passengers of its groups (allocations change the 
+	 * passengers they seat), and finds the groups that did not get seats together
+	 */
+	private DepartureResult evaluateDeparture(int departure, int[] departureOf) {
+		
+		//copies of the groups of the departure, and which group each copy is of
+		List<List<Passenger>> groupCopies = new ArrayList<List<Passenger>>();
+		List<Integer> groupsOfDeparture = new ArrayList<Integer>();
+		
+		//the result of the departure
+		DepartureResult departureResult = new DepartureResult();
+		int passengerCount = 0;
+		long weightedPassengerCount = 0;
+		
+		for(int group = 0; group < departureOf.length; group++) {
+			if(departureOf[group] == departure) {
+				
+				List<Passenger> groupCopy = new ArrayList<Passenger>(groupSizes[group]);
+				for(Passenger currentPassenger: passengerGroups.get(group)) {
+					groupCopy.add(new Passenger(currentPassenger.getPassengerID(), currentPassenger.hasWindowPreference(), 
+												currentPassenger.isPassengerInGroup(), currentPassenger.getWeight()));
+				}
+				
+				groupCopies.add(groupCopy);
+				groupsOfDeparture.add(group);
+				passengerCount += groupSizes[group];
+				weightedPassengerCount += groupWeights[group];
+			}
+		}
+		
+		if(passengerCount == 0) {
+			return departureResult;
+		}
+		
+		//the allocation consumes the list of groups, so it gets a list of its own
+		SittingArrangement sittingArrangement = allocate(departure, new ArrayList<List<Passenger>>(groupCopies), passengerCount);
+		departureResult.points = sittingArrangement.getSatisfactionScore() * weightedPassengerCount / 100;
+		
+		for(int groupCopy = 0; groupCopy < groupCopies.size(); groupCopy++) {
+			
+			Passenger firstPassenger = groupCopies.get(groupCopy).get(0);
+			boolean seated = sittingArrangement.getSeatMap().getRowOf(firstPassenger.getPassengerID()) != SeatMap.NOT_SEATED;
+			
+			if(!seated || firstPassenger.isSeparatedFromGroup()) {
+				departureResult.leftoverGroups.add(groupsOfDeparture.get(groupCopy));
+			}
+			for(Passenger currentPassenger: groupCopies.get(groupCopy)) {
+				departureResult.seatedPassengers += 
+						(sittingArrangement.getSeatMap().getRowOf(currentPassenger.getPassengerID()) != SeatMap.NOT_SEATED)? 1:0;
+			}
+		}
+		
+		return departureResult;
+	}
+	
+	/*
+	 * Seats the passengers of each departure of a distribution. Passengers that their departure could not seat are
+	 * left unassigned along with the groups given to no departure. The passenger count counts every passenger by their weight
+	 */
+	private WaitlistDistribution seatDistribution(int[] departureOf, long weightedPassengerCount) {
+		
+		List<SittingArrangement> sittingArrangements = new ArrayList<SittingArrangement>(departures.size());
+		List<List<Passenger>> unassignedGroups = new ArrayList<List<Passenger>>();
+		double points = 0;
+		
+		//passengers of each group that their departure could not seat (null if every one of them got a seat)
+		List<List<Passenger>> unseatedPassengers = new ArrayList<List<Passenger>>(Collections.nCopies(departureOf.length, 
+																									  (List<Passenger>) null));
+		
+		for(int departure = 0; departure < departures.size(); departure++) {
+			
+			List<List<Passenger>> departureGroups = new ArrayList<List<Passenger>>();
+			int departurePassengerCount = 0;
+			long departureWeight = 0;
+			
+			for(int group = 0; group < departureOf.length; group++) {
+				if(departureOf[group] == departure) {
+					departureGroups.add(passengerGroups.get(group));
+					departurePassengerCount += groupSizes[group];
+					departureWeight += groupWeights[group];
+				}
+			}
+			
+			if(departurePassengerCount == 0) { //nobody flies on this departure
+				sittingArrangements.add(new SittingArrangement(new ArrayList<List<Passenger>>(), 
+															   SittingArrangement.formatSatisfaction(0), null, 0, 0));
+				continue;
+			}
+			
+			SittingArrangement sittingArrangement = allocate(departure, departureGroups, departurePassengerCount);
+			sittingArrangements.add(sittingArrangement);
+			points += sittingArrangement.getSatisfactionScore() * departureWeight / 100;
+			
+			//a group may be given a departure whose rows still cannot seat all of it
+			for(int group = 0; group < departureOf.length; group++) {
+				if(departureOf[group] == departure) {
+					for(Passenger currentPassenger: passengerGroups.get(group)) {
+						if(sittingArrangement.getSeatMap().getRowOf(currentPassenger.getPassengerID()) == SeatMap.NOT_SEATED) {
+							if(unseatedPassengers.get(group) == null) {
+								unseatedPassengers.set(group, new ArrayList<Passenger>());
+							}
+							unseatedPassengers.get(group).add(currentPassenger);
+						}
+					}
+				}
+			}
+		}
+		
+		for(int group = 0; group < departureOf.length; group++) {
+			if(departureOf[group] == NO_DEPARTURE) {
+				unassignedGroups.add(passengerGroups.get(group));
+			}else if(unseatedPassengers.get(group) != null) {
+				unassignedGroups.add(unseatedPassengers.get(group));
+			}
+		}
+		
+		return new WaitlistDistribution(departures, sittingArrangements, unassignedGroups, 
+										(weightedPassengerCount == 0)? 0:points / weightedPassengerCount * 100);
+	}
+	
+	/*
+	 * Allocates the seats of a departure for the given groups
+	 */
+	private SittingArrangement allocate(int departure, List<List<Passenger>> departureGroups, int passengerCount) {
+		return new SeatAllocator(departureGroups, departures.get(departure).getNumRows(), 
+								 departures.get(departure).getNumSeatsInRow(), passengerCount, 
+								 departures.get(departure).getNumWindowsInPlane()).allocateSeats();
+	}
+	
+	/*
+	 * Runs evaluations on the evaluation pool and returns their results, in order
+	 */
+	private List<Candidate> evaluateInParallel(List<Callable<Candidate>> evaluations) {
+		
+		List<ForkJoinTask<Candidate>> tasks = new ArrayList<ForkJoinTask<Candidate>>(evaluations.size());
+		List<Candidate> candidates = new ArrayList<Candidate>(evaluations.size());
+		
+		for(Callable<Candidate> evaluation: evaluations) {
+			tasks.add(evaluationPool.submit(evaluation));
+		}
+		for(ForkJoinTask<Candidate> task: tasks) {
+			candidates.add(task.join());
+		}
+		
+		return candidates;
+	}
+	
+	/*
+	 * A distribution of the groups across the departures, with the result of each departure
+	 */
+	private static class Candidate {
+		
+		private int[] departureOf;
+		private DepartureResult[] departureResults;
+		
+		private Candidate(int[] departureOf, DepartureResult[] departureResults) {
+			this.departureOf = departureOf;
+			this.departureResults = departureResults;
+		}
+		
+		private double getPoints() {
+			
+			double points = 0;
+			
+			for(DepartureResult departureResult: departureResults) {
+				points += departureResult.points;
+			}
+			
+			return points;
+		}
+	}
+	
+	/*
+	 * The satisfaction points of a departure, the passengers that got a seat and the groups that did not get
+	 * seats together
+	 */
+	private static class DepartureResult {
+		
+		private double points;
+		private long seatedPassengers;
+		private List<Integer> leftoverGroups = new ArrayList<Integer>();
+	}
+
+}
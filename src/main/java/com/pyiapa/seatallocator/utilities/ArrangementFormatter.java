@@ -0,0 +1,46 @@
+package com.pyiapa.seatallocator.utilities;
+
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+
+/**
+ * Provides a utility for producing the textual representation of a sitting arrangement,
+ * i.e. one line of passenger IDs per row of the plane followed by the total satisfaction.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ArrangementFormatter {
+	
+	/**
+	 * Formats the final sitting configuration and total satisfaction. Passengers with window 
+	 * preferences satisfied appear on the sides of the row.
+	 * 
+	 * @param sittingArrangement The sitting arrangement to format
+	 * 
+	 * @return The textual representation of the sitting arrangement
+	 */
+	public static String format(SittingArrangement sittingArrangement) {
+		
+		//the final passenger sitting configuration on the plane
+		List<List<Passenger>> seatConfiguration = sittingArrangement.getSeatConfiguration();
+		
+		//the textual representation under construction
+		StringBuilder output = new StringBuilder();
+		
+		for (int currentRow = 0; currentRow < seatConfiguration.size(); currentRow++) {
+			for (int currentPassenger = 0; currentPassenger < seatConfiguration.get(currentRow).size(); currentPassenger++) {
+				output.append(seatConfiguration.get(currentRow).get(currentPassenger).getPassengerID()).append(' ');
+			}
+			output.append(System.lineSeparator());
+		}
+		
+		//append the total passenger satisfaction
+		output.append(sittingArrangement.getSatisfaction()).append(System.lineSeparator());
+		
+		return output.toString();
+	}
+
+}
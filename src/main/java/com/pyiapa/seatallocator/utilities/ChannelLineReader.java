@@ -0,0 +1,182 @@
+package com.pyiapa.seatallocator.utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the lines of an input from a channel (e.g. standard input or a pipe) through a buffer of
+ * fixed size, so that the input is never held in memory as a whole: only the bytes of the buffer and
+ * of the line being read are. Lines end with a line feed, optionally preceded by a carriage return,
+ * and the last line may have no terminator.
+ *
+ * @author pyiapa
+ *
+ */
+public class ChannelLineReader implements Closeable {
+
+	//initial capacity (in bytes) of the line being read, which grows for longer lines
+	private static final int INITIAL_LINE_CAPACITY = 256;
+
+	//the channel the input is read from
+	private ReadableByteChannel channel;
+
+	//the bytes read from the channel and not consumed yet
+	private ByteBuffer buffer;
+
+	//the bytes of the line being read
+	private byte[] line = new byte[INITIAL_LINE_CAPACITY];
+	private int lineLength;
+
+	//whether the channel has no more bytes
+	private boolean endOfInput;
+
+	//the line read ahead by hasNextLine (null if none)
+	private String nextLine;
+
+	/**
+	 * Creates a reader of the lines of a channel
+	 *
+	 * @param channel The channel the input is read from
+	 * @param bufferSize Size (in bytes) of the buffer the channel is read into
+	 */
+	public ChannelLineReader(ReadableByteChannel channel, int bufferSize) {
+
+		if(bufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be >= 1");
+		}
+
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+
+		//nothing has been read yet
+		buffer.flip();
+	}
+
+	/**
+	 * Informs whether the input has another line
+	 *
+	 * @return Whether there is another line
+	 *
+	 * @throws UncheckedIOException Exception thrown if the channel cannot be read
+	 */
+	public boolean hasNextLine() {
+
+		if(nextLine == null) {
+			nextLine = readLine();
+		}
+
+		return nextLine != null;
+	}
+
+	/**
+	 * Reads the next line of the input
+	 *
+	 * @return The next line, without its terminator
+	 *
+	 * @throws UncheckedIOException Exception thrown if the channel cannot be read
+	 */
+	public String nextLine() {
+
+		//the line to return
+		String currentLine;
+
+		if(!hasNextLine()) {
+			throw new NoSuchElementException("No line found");
+		}
+
+		currentLine = nextLine;
+		nextLine = null;
+
+		return currentLine;
+	}
+
+	/**
+	 * Closes the channel
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/*
+	 * Reads the bytes up to the next line feed (or the end of the input), filling the buffer from the
+	 * channel as needed. Returns null if the input has no more lines
+	 */
+	private String readLine() {
+
+		//the byte being read
+		byte currentByte;
+
+		lineLength = 0;
+
+		while(true) {
+
+			while(buffer.hasRemaining()) {
+
+				currentByte = buffer.get();
+
+				if(currentByte == '\n') {
+					return decodeLine();
+				}
+
+				if(lineLength == line.length) {
+					line = Arrays.copyOf(line, 2 * line.length);
+				}
+				line[lineLength++] = currentByte;
+			}
+
+			if(!fillBuffer()) { //end of the input, which ends the last line unless it was ended already
+				return (lineLength > 0)? decodeLine():null;
+			}
+		}
+	}
+
+	/*
+	 * Reads the next bytes of the channel into the buffer. Returns false at the end of the input
+	 */
+	private boolean fillBuffer() {
+
+		//number of bytes read
+		int bytesRead = 0;
+
+		if(endOfInput) {
+			return false;
+		}
+
+		buffer.clear();
+
+		try {
+			while(bytesRead == 0) {
+				bytesRead = channel.read(buffer);
+			}
+		}catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}finally {
+			buffer.flip();
+		}
+
+		endOfInput = bytesRead < 0;
+
+		return !endOfInput;
+	}
+
+	/*
+	 * Returns the line read, without a carriage return at its end
+	 */
+	private String decodeLine() {
+
+		if(lineLength > 0 && line[lineLength - 1] == '\r') {
+			lineLength--;
+		}
+
+		//passenger tokens are ASCII, so any other character is kept distinct and rejected by the parser
+		return new String(line, 0, lineLength, StandardCharsets.ISO_8859_1);
+	}
+
+}
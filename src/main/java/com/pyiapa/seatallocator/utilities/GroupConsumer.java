@@ -0,0 +1,24 @@
+package com.pyiapa.seatallocator.utilities;
+
+import java.util.List;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * A callback that receives groups of passengers as soon as the {@link PassengerParser} has read them,
+ * instead of the parser holding every group of the input in memory.
+ * 
+ * @author pyiapa
+ *
+ */
+public interface GroupConsumer {
+	
+	/**
+	 * Receives a group of passengers read from the input. Groups are handed over in the order of the 
+	 * input and lines without passengers are skipped.
+	 * 
+	 * @param passengerGroup The passengers of the group, with passengers with window preference first
+	 */
+	void acceptGroup(List<Passenger> passengerGroup);
+
+}
@@ -0,0 +1,140 @@
+package com.pyiapa.seatallocator.utilities;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to non-negative int values that stores keys and values in primitive
+ * arrays (open addressing with linear probing), so that lookups and insertions neither box nor 
+ * allocate. Used to index passengers by their ID.
+ * 
+ * @author pyiapa
+ *
+ */
+public class IntIntMap {
+	
+	//value returned when a key is not in the map
+	public static final int NO_VALUE = -1;
+	
+	//marks an empty entry of the map
+	private static final int EMPTY_KEY = Integer.MIN_VALUE;
+	
+	//the map is grown once it is fuller than this
+	private static final double MAX_LOAD_FACTOR = 0.5;
+	
+	//the keys and values of the entries
+	private int[] keys;
+	private int[] values;
+	
+	//number of entries in the map
+	private int size;
+	
+	/**
+	 * Creates a map that can hold the given number of entries before growing.
+	 * 
+	 * @param expectedSize The expected number of entries
+	 */
+	public IntIntMap(int expectedSize) {
+		
+		int capacity = Integer.highestOneBit((int) Math.min(Math.max(4, expectedSize / MAX_LOAD_FACTOR), 1 << 30) - 1) << 1;
+		
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY_KEY);
+	}
+	
+	/**
+	 * Associates a value with a key, replacing any previous value of the key.
+	 * 
+	 * @param key The key (any int except Integer.MIN_VALUE)
+	 * @param value The value (must be non-negative)
+	 */
+	public void put(int key, int value) {
+		
+		if(key == EMPTY_KEY || value < 0) {
+			throw new IllegalArgumentException("Invalid entry: " + key + "=" + value);
+		}
+		
+		int entry = findEntry(key);
+		
+		if(keys[entry] == EMPTY_KEY) { //new key
+			keys[entry] = key;
+			size++;
+		}
+		values[entry] = value;
+		
+		if(size > keys.length * MAX_LOAD_FACTOR) {
+			grow();
+		}
+	}
+	
+	/**
+	 * Gets the value associated with a key.
+	 * 
+	 * @param key The key
+	 * 
+	 * @return The value of the key, or NO_VALUE if the key is not in the map
+	 */
+	public int get(int key) {
+		
+		int entry = findEntry(key);
+		
+		return (keys[entry] == key && key != EMPTY_KEY)? values[entry]:NO_VALUE;
+	}
+	
+	/**
+	 * Removes every entry of the map, keeping its capacity.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY_KEY);
+		size = 0;
+	}
+	
+	/**
+	 * Gets the number of entries in the map.
+	 * 
+	 * @return Number of entries
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/*
+	 * Returns the entry that holds the key, or the empty entry where the key would be inserted
+	 */
+	private int findEntry(int key) {
+		
+		int mask = keys.length - 1;
+		
+		//spread the bits of the key so that sequential IDs do not form long probe runs
+		int hash = key * 0x9E3779B9;
+		int entry = (hash ^ (hash >>> 16)) & mask;
+		
+		while(keys[entry] != key && keys[entry] != EMPTY_KEY) {
+			entry = (entry + 1) & mask;
+		}
+		
+		return entry;
+	}
+	
+	/*
+	 * Doubles the capacity of the map and inserts the entries again
+	 */
+	private void grow() {
+		
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		Arrays.fill(keys, EMPTY_KEY);
+		
+		for(int entry = 0; entry < oldKeys.length; entry++) {
+			if(oldKeys[entry] != EMPTY_KEY) {
+				int newEntry = findEntry(oldKeys[entry]);
+				keys[newEntry] = oldKeys[entry];
+				values[newEntry] = oldValues[entry];
+			}
+		}
+	}
+
+}
@@ -0,0 +1,371 @@
+package com.pyiapa.seatallocator.utilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * Provides a utility for parsing very large input files in parallel. Since every line after the plane
+ * dimensions describes an independent group of passengers, the file is memory-mapped, split into chunks
+ * at line boundaries and the chunks are parsed on a fork/join pool. The groups and passenger counts of
+ * the chunks are merged in file order, where passengers that appear more than once are detected. Thus,
+ * the outcome (including error messages and their line numbers) is the same as that of the 
+ * {@link PassengerParser}.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ParallelPassengerParser extends PassengerParser {
+	
+	//chunks smaller than this (in bytes) are parsed sequentially rather than split further
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
+	
+	//number of chunks per worker thread, allowing work-stealing to balance uneven chunks
+	private static final int CHUNKS_PER_WORKER = 4;
+	
+	//the pool that parses the chunks
+	private ForkJoinPool parsingPool;
+	
+	/**
+	 * Creates a parser that parses chunks on the common fork/join pool
+	 */
+	public ParallelPassengerParser() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a parser that parses chunks on the given fork/join pool
+	 * 
+	 * @param parsingPool The pool that parses the chunks
+	 */
+	public ParallelPassengerParser(ForkJoinPool parsingPool) {
+		this.parsingPool = parsingPool;
+	}
+	
+	/**
+	 * Parses an input file with passenger sitting preferences and airplane dimension information,
+	 * parsing the passenger groups in parallel
+	 * 
+	 * @param input File that contains passenger sitting preferences and plane dimensions
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input
+	 */
+	@Override
+	public void parseInputFile(String input) throws IllegalArgumentException {
+		
+		//the contents of the input file
+		ByteBuffer inputContents;
+		
+		try(FileChannel inputChannel = FileChannel.open(Paths.get(input), StandardOpenOption.READ)) {
+			
+			if(inputChannel.size() > Integer.MAX_VALUE) { //too large to map in one go, so parse sequentially
+				super.parseInputFile(input);
+				return;
+			}
+			
+			inputContents = inputChannel.map(FileChannel.MapMode.READ_ONLY, 0, inputChannel.size());
+			
+		}catch (IOException | InvalidPathException | NullPointerException e) {
+			throw new IllegalArgumentException("Please provide Input File");
+		}
+		
+		parseContents(inputContents);
+	}
+	
+	/*
+	 * Parses the contents of an input file
+	 */
+	private void parseContents(ByteBuffer inputContents) {
+		
+		//position after the end of the first line
+		int bodyStart;
+		
+		//the outcome of parsing each chunk, in file order
+		List<ChunkResult> chunkResults;
+		
+		//the groups of passengers of the whole file
+		List<List<Passenger>> passengerGroups;
+		
+		//total passenger count
+		int passengerCount = 0;
+		
+		//total number of groups
+		int groupCount = 0;
+		
+		//number of lines before the chunk under inspection
+		int linesBeforeChunk = 1;
+		
+		//the IDs of the passengers merged so far, to detect passengers that appear more than once
+		PassengerIdSet passengerIDs = new PassengerIdSet();
+		
+		if(inputContents.limit() == 0) { //if file is empty
+			throw new IllegalArgumentException("Input file is empty");
+		}
+		
+		//read plane dimensions
+		bodyStart = nextLineStart(inputContents, 0, inputContents.limit());
+		parsePlaneDimensions(decodeLine(inputContents, 0, bodyStart, new byte[bodyStart]));
+		
+		//make sure there are some passengers in the file
+		if(bodyStart == inputContents.limit()) {
+			throw new IllegalArgumentException("Input must have at least one passenger");
+		}
+		
+		chunkResults = parsingPool.invoke(new ChunkTask(inputContents, bodyStart, inputContents.limit(), 
+				                          Math.max(MIN_CHUNK_SIZE, (inputContents.limit() - bodyStart) / 
+				                        		   (parsingPool.getParallelism() * CHUNKS_PER_WORKER))));
+		
+		for(ChunkResult chunkResult: chunkResults) {
+			groupCount += chunkResult.passengerGroups.size();
+		}
+		
+		//merge the groups of the chunks in file order. Errors are reported in file order as well, i.e. the
+		//groups of a chunk are checked for passengers seen before prior to reporting an invalid line of the chunk
+		passengerGroups = new ArrayList<List<Passenger>>(groupCount);
+		
+		for(ChunkResult chunkResult: chunkResults) {
+			
+			//a passenger can only be seated once
+			for(int currentGroup = 0; currentGroup < chunkResult.passengerGroups.size(); currentGroup++) {
+				for(Passenger passenger: chunkResult.passengerGroups.get(currentGroup)) {
+					if(!passengerIDs.add(passenger.getPassengerID())) {
+						throw new IllegalArgumentException(duplicatePassengerID(passenger.getPassengerID(), 
+											linesBeforeChunk + findGroupLine(inputContents, chunkResult, currentGroup)));
+					}
+				}
+			}
+			
+			if(chunkResult.invalidLine > 0) { //invalid input for passenger
+				throw new IllegalArgumentException(invalidPassengerFormat(linesBeforeChunk + chunkResult.invalidLine));
+			}
+			
+			passengerGroups.addAll(chunkResult.passengerGroups);
+			passengerCount += chunkResult.passengerCount;
+			linesBeforeChunk += chunkResult.lineCount;
+		}
+		
+		setPassengers(passengerGroups, passengerCount);
+	}
+	
+	/*
+	 * Finds the line (relative to the chunk, starting from 1) of a group of the chunk. Lines without
+	 * passengers do not produce a group, so the lines of the chunk are parsed again. Only used to report
+	 * errors, so the groups are not retained while parsing.
+	 */
+	private int findGroupLine(ByteBuffer contents, ChunkResult chunkResult, int group) {
+		
+		byte[] lineBuffer = new byte[chunkResult.end - chunkResult.start];
+		int lineStart = chunkResult.start;
+		int lineEnd;
+		int line = 0;
+		
+		while(lineStart < chunkResult.end) {
+			
+			lineEnd = nextLineStart(contents, lineStart, chunkResult.end);
+			line++;
+			
+			if(!parsePassengerGroup(decodeLine(contents, lineStart, lineEnd, lineBuffer)).isEmpty() && group-- == 0) {
+				return line;
+			}
+			
+			lineStart = lineEnd;
+		}
+		
+		return line;
+	}
+	
+	/*
+	 * Returns the position after the end of the line that contains the given position (or the end of
+	 * the contents if it is the last line)
+	 */
+	private static int nextLineStart(ByteBuffer contents, int position, int end) {
+		
+		//length of the line terminator at the position under inspection
+		int terminatorLength;
+		
+		while(position < end) {
+			
+			terminatorLength = terminatorLength(contents, position, end);
+			
+			if(terminatorLength > 0) {
+				return position + terminatorLength;
+			}
+			
+			position++;
+		}
+		
+		return end;
+	}
+	
+	/*
+	 * Returns the length (in bytes) of the line terminator that starts at the given position, or 0 if
+	 * there is none. Lines end where Scanner.nextLine() ends them: at \r\n, a lone \r or \n, or the UTF-8
+	 * encoded \u0085, \u2028 or \u2029.
+	 */
+	private static int terminatorLength(ByteBuffer contents, int position, int end) {
+		
+		byte current = contents.get(position);
+		
+		if(current == '\n') {
+			return 1;
+		}
+		if(current == '\r') {
+			return (position + 1 < end && contents.get(position + 1) == '\n')? 2:1;
+		}
+		if(current == (byte) 0xC2 && position + 1 < end && contents.get(position + 1) == (byte) 0x85) {
+			return 2;
+		}
+		if(current == (byte) 0xE2 && position + 2 < end && contents.get(position + 1) == (byte) 0x80 && 
+		   (contents.get(position + 2) == (byte) 0xA8 || contents.get(position + 2) == (byte) 0xA9)) {
+			return 3;
+		}
+		
+		return 0;
+	}
+	
+	/*
+	 * Decodes the line between the given positions, excluding any line terminator
+	 */
+	private static String decodeLine(ByteBuffer contents, int lineStart, int lineEnd, byte[] lineBuffer) {
+		
+		//the position under inspection, copied until the line terminator (if any)
+		int position = lineStart;
+		
+		while(position < lineEnd && terminatorLength(contents, position, lineEnd) == 0) {
+			lineBuffer[position - lineStart] = contents.get(position);
+			position++;
+		}
+		
+		//passenger tokens are ASCII, so any other character is kept distinct and rejected by the parser 
+		return new String(lineBuffer, 0, position - lineStart, StandardCharsets.ISO_8859_1);
+	}
+	
+	/*
+	 * The outcome of parsing a chunk of lines
+	 */
+	private static class ChunkResult {
+		
+		//the groups of passengers in the chunk
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		
+		//number of passengers in the chunk
+		int passengerCount;
+		
+		//number of lines in the chunk
+		int lineCount;
+		
+		//the first line (relative to the chunk, starting from 1) with an invalid passenger format, 0 if none
+		int invalidLine;
+		
+		//the range of the contents parsed
+		int start;
+		int end;
+	}
+	
+	/*
+	 * Parses a range of lines, splitting it in halves at line boundaries while it is larger than the
+	 * chunk size. Returns the outcome of every chunk in file order.
+	 */
+	private class ChunkTask extends RecursiveTask<List<ChunkResult>> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		//the contents of the input file
+		private ByteBuffer contents;
+		
+		//the range of the contents to parse (always starting at the beginning of a line)
+		private int start;
+		private int end;
+		
+		//the size under which a range is parsed sequentially
+		private int chunkSize;
+		
+		ChunkTask(ByteBuffer contents, int start, int end, int chunkSize) {
+			this.contents = contents;
+			this.start = start;
+			this.end = end;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected List<ChunkResult> compute() {
+			
+			//split at the first line boundary after the middle of the range
+			int middle = (end - start > chunkSize)? nextLineStart(contents, start + (end - start) / 2, end):end;
+			
+			if(middle == end) { //small enough (or a single line), parse sequentially
+				return Collections.singletonList(parseChunk());
+			}
+			
+			ChunkTask firstHalf = new ChunkTask(contents, start, middle, chunkSize);
+			ChunkTask secondHalf = new ChunkTask(contents, middle, end, chunkSize);
+			
+			secondHalf.fork();
+			
+			List<ChunkResult> chunkResults = new ArrayList<ChunkResult>(firstHalf.compute());
+			chunkResults.addAll(secondHalf.join());
+			
+			return chunkResults;
+		}
+		
+		/*
+		 * Parses the lines of the range, stopping at the first invalid line
+		 */
+		private ChunkResult parseChunk() {
+			
+			ChunkResult chunkResult = new ChunkResult();
+			chunkResult.start = start;
+			chunkResult.end = end;
+			
+			//buffer that holds the bytes of the line under inspection
+			byte[] lineBuffer = new byte[256];
+			
+			//the line under inspection
+			int lineStart = start;
+			int lineEnd;
+			
+			//list that holds a group of passengers wishing to seat together
+			List<Passenger> passengerGroup;
+			
+			while(lineStart < end) {
+				
+				lineEnd = nextLineStart(contents, lineStart, end);
+				chunkResult.lineCount++;
+				
+				if(lineEnd - lineStart > lineBuffer.length) {
+					lineBuffer = new byte[lineEnd - lineStart];
+				}
+				
+				passengerGroup = parsePassengerGroup(decodeLine(contents, lineStart, lineEnd, lineBuffer));
+				
+				if(passengerGroup == null) { //invalid input for passenger
+					chunkResult.invalidLine = chunkResult.lineCount;
+					return chunkResult;
+				}
+				
+				chunkResult.passengerCount += passengerGroup.size();
+				
+				//make sure there is at least a passenger in the group before adding it to the final passenger list
+				if(passengerGroup.size() > 0) {
+					chunkResult.passengerGroups.add(passengerGroup);
+				}
+				
+				lineStart = lineEnd;
+			}
+			
+			return chunkResult;
+		}
+	}
+
+}
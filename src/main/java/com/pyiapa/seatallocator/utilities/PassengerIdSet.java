@@ -0,0 +1,96 @@
+package com.pyiapa.seatallocator.utilities;
+
+/**
+ * A set of (non-negative) passenger IDs backed by a sparse, growable bitset. The ID range is divided 
+ * into fixed-size pages of bits that are only allocated once an ID in their range is added, so that 
+ * dense ID ranges cost one bit per ID while far apart IDs do not allocate the bits in between. IDs
+ * are never boxed.
+ * 
+ * @author pyiapa
+ *
+ */
+public class PassengerIdSet {
+	
+	//number of bits per page (as a power of two)
+	private static final int PAGE_BITS_SHIFT = 16;
+	
+	//number of words (of 64 bits) per page
+	private static final int PAGE_WORDS = 1 << (PAGE_BITS_SHIFT - 6);
+	
+	//mask that selects the word of an ID within its page
+	private static final int WORD_MASK = PAGE_WORDS - 1;
+	
+	//initial number of page slots
+	private static final int INITIAL_PAGE_SLOTS = 16;
+	
+	//the pages of bits. A page is null until an ID in its range is added
+	private long[][] pages = new long[INITIAL_PAGE_SLOTS][];
+	
+	//number of IDs in the set
+	private int size;
+	
+	/**
+	 * Adds a passenger ID to the set.
+	 * 
+	 * @param passengerID The ID to add (must be non-negative)
+	 * 
+	 * @return Whether the ID was added, i.e. false if the ID was already in the set
+	 */
+	public boolean add(int passengerID) {
+		
+		if(passengerID < 0) {
+			throw new IllegalArgumentException("Passenger IDs must be >= 0");
+		}
+		
+		int page = passengerID >>> PAGE_BITS_SHIFT;
+		int word = (passengerID >>> 6) & WORD_MASK;
+		long bit = 1L << passengerID;
+		
+		if(page >= pages.length) { //grow the page slots to cover the ID
+			long[][] grownPages = new long[Math.max(page + 1, pages.length * 2)][];
+			System.arraycopy(pages, 0, grownPages, 0, pages.length);
+			pages = grownPages;
+		}
+		
+		if(pages[page] == null) {
+			pages[page] = new long[PAGE_WORDS];
+		}
+		
+		if((pages[page][word] & bit) != 0) { //already in the set
+			return false;
+		}
+		
+		pages[page][word] |= bit;
+		size++;
+		
+		return true;
+	}
+	
+	/**
+	 * Informs whether a passenger ID is in the set.
+	 * 
+	 * @param passengerID The ID to look for
+	 * 
+	 * @return Whether the ID is in the set
+	 */
+	public boolean contains(int passengerID) {
+		
+		int page = passengerID >>> PAGE_BITS_SHIFT;
+		
+		if(passengerID < 0 || page >= pages.length || pages[page] == null) {
+			return false;
+		}
+		
+		return (pages[page][(passengerID >>> 6) & WORD_MASK] & (1L << passengerID)) != 0;
+	}
+	
+	/**
+	 * Gets the number of IDs in the set.
+	 * 
+	 * @return The number of IDs in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+}
@@ -2,9 +2,12 @@ package com.pyiapa.seatallocator.utilities;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Scanner;
 
@@ -31,6 +34,11 @@ public class PassengerParser {
 	//number of windows (per row) in the plane
 	private final int NUM_WINDOWS_IN_PLANE = 2;
 	
+	/**
+	 * Size (in bytes) of the buffer that input read from a channel goes through, unless one is given
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	
 	//whether a passenger has a window seating preference
 	private final boolean HAS_WINDOW_PREFERENCE = true;
 	
@@ -54,43 +62,243 @@ public class PassengerParser {
 		//holds the contents of the input file
 		Scanner inputReader;
 		
+		try {
+			//get input file
+			inputReader = new Scanner(new File(input));
+	
+		}catch (FileNotFoundException | ArrayIndexOutOfBoundsException | NullPointerException e) {
+			throw new IllegalArgumentException("Please provide Input File");
+		}
+		
+		parseInput(inputReader, null);
+	}
+	
+	/**
+	 * Parses an input file with passenger sitting preferences and airplane dimension information, handing
+	 * each group of passengers to the given consumer as soon as it is read instead of keeping it (the passenger
+	 * groups are then left empty). Only the IDs of the passengers read so far are held in memory, to reject
+	 * passengers that appear more than once.
+	 * 
+	 * @param input File that contains passenger sitting preferences and plane dimensions
+	 * @param groupConsumer The consumer that receives the groups of passengers
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input
+	 */
+	public void parseInputFile(String input, GroupConsumer groupConsumer) throws IllegalArgumentException {
+		
+		//holds the contents of the input file
+		Scanner inputReader;
+		
+		try {
+			inputReader = new Scanner(new File(input));
+			
+		}catch (FileNotFoundException | NullPointerException e) {
+			throw new IllegalArgumentException("Please provide Input File");
+		}
+		
+		parseInput(inputReader, groupConsumer);
+	}
+	
+	/**
+	 * Parses passenger sitting preferences and airplane dimension information from a stream
+	 * that holds the input in the same format as an input file
+	 * 
+	 * @param input Stream that provides passenger sitting preferences and plane dimensions
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input
+	 */
+	public void parseInput(InputStream input) throws IllegalArgumentException {
+		
+		if(input == null) {
+			throw new IllegalArgumentException("Please provide Input File");
+		}
+		
+		parseInput(new Scanner(input, "UTF-8"), null);
+	}
+	
+	/**
+	 * Parses passenger sitting preferences and airplane dimension information from a channel (e.g. standard
+	 * input or a pipe) that holds the input in the same format as an input file, through a buffer of the
+	 * default size. The channel is closed when parsing is done.
+	 * 
+	 * @param input Channel that provides passenger sitting preferences and plane dimensions
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input
+	 */
+	public void parseInput(ReadableByteChannel input) throws IllegalArgumentException {
+		parseInput(input, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Parses passenger sitting preferences and airplane dimension information from a channel (e.g. standard
+	 * input or a pipe) that holds the input in the same format as an input file. The input is read through a
+	 * buffer of the given size and each group is parsed as soon as its line is read, so the input is never
+	 * held in memory as a whole besides the passengers parsed from it. The channel is closed when parsing is done.
+	 * 
+	 * @param input Channel that provides passenger sitting preferences and plane dimensions
+	 * @param bufferSize Size (in bytes) of the buffer the input is read through
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input, or if the input cannot be read
+	 */
+	public void parseInput(ReadableByteChannel input, int bufferSize) throws IllegalArgumentException {
+		parseInput(input, bufferSize, null);
+	}
+	
+	/**
+	 * Parses passenger sitting preferences and airplane dimension information from a channel as in
+	 * parseInput(input, bufferSize), handing each group of passengers to the given consumer as soon as it
+	 * is read instead of keeping it (the passenger groups are then left empty). The channel is closed when 
+	 * parsing is done.
+	 * 
+	 * @param input Channel that provides passenger sitting preferences and plane dimensions
+	 * @param bufferSize Size (in bytes) of the buffer the input is read through
+	 * @param groupConsumer The consumer that receives the groups of passengers (null to keep them)
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing input, or if the input cannot be read
+	 */
+	public void parseInput(ReadableByteChannel input, int bufferSize, GroupConsumer groupConsumer) throws IllegalArgumentException {
+		
+		if(input == null) {
+			throw new IllegalArgumentException("Please provide Input File");
+		}
+		
+		//reads the lines of the channel through the buffer
+		final ChannelLineReader lineReader = new ChannelLineReader(input, bufferSize);
+		
+		try {
+			parseLines(new LineSource() {
+				@Override
+				public boolean hasNextLine() {
+					return lineReader.hasNextLine();
+				}
+				@Override
+				public String nextLine() {
+					return lineReader.nextLine();
+				}
+				@Override
+				public void close() {
+					try {
+						lineReader.close();
+					}catch(IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			}, groupConsumer);
+			
+		}catch(UncheckedIOException e) {
+			throw new IllegalArgumentException("Error while reading input: " + e.getCause().getMessage());
+		}
+	}
+	
+	/*
+	 * Parses the contents of the input provided by the given scanner, handing groups to the given consumer
+	 * (or keeping them if null). The scanner is always closed when parsing is done.
+	 */
+	private void parseInput(final Scanner inputReader, GroupConsumer groupConsumer) {
+		parseLines(new LineSource() {
+			@Override
+			public boolean hasNextLine() {
+				return inputReader.hasNextLine();
+			}
+			@Override
+			public String nextLine() {
+				return inputReader.nextLine();
+			}
+			@Override
+			public void close() {
+				inputReader.close();
+			}
+		}, groupConsumer);
+	}
+	
+	/*
+	 * Parses the lines of the input provided by the given source, handing groups to the given consumer
+	 * (or keeping them if null). The source is always closed when parsing is done.
+	 */
+	private void parseLines(LineSource inputReader, GroupConsumer groupConsumer) {
+		
 		//a line in the input file
 		String fileLine;
 		
-		//plane dimensions
-		String[] planeDimensions;
-		
-		//a group of passengers read directly from the input file. Until parsed correctly
-		//it's still a potential group
-		String[] potentialPassengerGroup;
+		//the number of the line in the input file (starting from 1)
+		int lineNumber = 1;
 		
 		//list that holds a group of passengers wishing to seat together
 		List<Passenger> passengerGroup;
 		
+		//the IDs of the passengers read so far, to detect passengers that appear more than once
+		PassengerIdSet passengerIDs = new PassengerIdSet();
 		
 		try {
-			//get input file
-			inputReader = new Scanner(new File(input));
 			
 			if(!inputReader.hasNextLine()) { //if file is empty
-				inputReader.close();
 				throw new IllegalArgumentException("Input file is empty");
 			}
-	
-		}catch (FileNotFoundException | ArrayIndexOutOfBoundsException | NullPointerException e) {
-			throw new IllegalArgumentException("Please provide Input File");
+	        
+			//read plane dimensions
+			parsePlaneDimensions(inputReader.nextLine());
+			
+			//make sure there are some passengers in the file
+			if(!inputReader.hasNextLine()) {
+				throw new IllegalArgumentException("Input must have at least one passenger");
+			}
+			
+			//initialize list that will hold the passenger groups
+			passengerGroups = new ArrayList<List<Passenger>>();
+			
+			
+			//read passengers
+			while (inputReader.hasNextLine()) {
+				
+				//get a passenger group
+				fileLine = inputReader.nextLine();
+				lineNumber++;
+				
+				passengerGroup = parsePassengerGroup(fileLine);
+				
+				if(passengerGroup == null) { //invalid input for passenger
+					throw new IllegalArgumentException(invalidPassengerFormat(lineNumber));
+				}
+				
+				//a passenger can only be seated once
+				for(Passenger passenger: passengerGroup) {
+					if(!passengerIDs.add(passenger.getPassengerID())) {
+						throw new IllegalArgumentException(duplicatePassengerID(passenger.getPassengerID(), lineNumber));
+					}
+				}
+				
+				//update total passenger count
+				passengerCount += passengerGroup.size();
+				
+				//make sure there is at least a passenger in the group before adding it to the final passenger list
+				if(passengerGroup.size() > 0 && groupConsumer != null) {
+					groupConsumer.acceptGroup(passengerGroup);
+				}else if(passengerGroup.size() > 0) {
+					passengerGroups.add(passengerGroup);
+				}
+				
+	        }//end of while loop for reading lines of input
+			
+		}finally {
+			inputReader.close();
 		}
-        
-		//read plane dimensions
-		fileLine = inputReader.nextLine();
+	}
+	
+	/**
+	 * Parses the first line of the input that holds the plane dimensions
+	 * 
+	 * @param fileLine The line that holds the plane dimensions
+	 * 
+	 * @throws IllegalArgumentException Exception thrown on invalid or missing dimensions
+	 */
+	protected void parsePlaneDimensions(String fileLine) throws IllegalArgumentException {
 		
 		//split dimensions list to extract number of rows and number of seats per row
-		planeDimensions = fileLine.split("[\\s+]");
+		String[] planeDimensions = fileLine.split("[\\s+]");
 		
 		try {
 			
 			if(planeDimensions.length != 2) { //at least one plane dimension is missing
-				inputReader.close();
 				throw new IllegalArgumentException("Please provide valid plane dimensions");
 				
 			}else {
@@ -100,81 +308,141 @@ public class PassengerParser {
 			}
 				
 		}catch(NumberFormatException e) {
-			inputReader.close();
 			throw new IllegalArgumentException("Invalid input: plane dimensions must be in numeric format");
 		}
 		
 		//check for valid plane dimensions
 		if(numSeatsInRow < 1 || numRows < 1) {
-			inputReader.close();
 			throw new IllegalArgumentException("Plane dimensions must be >= 1");
 		}
+	}
+	
+	/**
+	 * Parses a line of the input that describes a group of passengers. The passengers of the group 
+	 * are sorted by window preference in descending order.
+	 * 
+	 * @param fileLine The line that describes the group
+	 * 
+	 * @return The group of passengers (empty if the line holds no passengers), or null if the line 
+	 *         has an invalid passenger format
+	 */
+	protected List<Passenger> parsePassengerGroup(String fileLine) {
 		
-		//make sure there are some passengers in the file
-		if(!inputReader.hasNextLine()) {
-			inputReader.close();
-			throw new IllegalArgumentException("Input must have at least one passenger");
-		}
+		//a group of passengers read directly from the input file. Until parsed correctly
+		//it's still a potential group
+		String[] potentialPassengerGroup = fileLine.split("[\\s+]");
 		
-		//initialize list that will hold the passenger groups
-		passengerGroups = new ArrayList<List<Passenger>>();
+		//list that holds a group of passengers wishing to seat together
+		List<Passenger> passengerGroup = new ArrayList<Passenger>(potentialPassengerGroup.length);
 		
+		//the weight of a passenger, given by an optional suffix (e.g. "5W:3")
+		int weight;
 		
-		//read passengers
-		while (inputReader.hasNextLine()) {
-			
-			//get a passenger group
-			fileLine = inputReader.nextLine();
-			potentialPassengerGroup = fileLine.split("[\\s+]");
-			
-			passengerGroup = new ArrayList<Passenger>();
-			
+		try {
 			//process a given passenger
 			for(String passenger: potentialPassengerGroup) {
 				
-				if(passenger.matches("\\d+")) { //passenger with no window preference
+				weight = Passenger.DEFAULT_WEIGHT;
+				
+				if(passenger.matches("\\d+[W]?:\\d+")) { //passenger with a weight (e.g. frequent-flyer tier or fare class)
+					
+					weight = Integer.parseInt(passenger.substring(passenger.indexOf(':') + 1));
+					passenger = passenger.substring(0, passenger.indexOf(':'));
 					
+					if(weight < Passenger.DEFAULT_WEIGHT) { //weights start from 1
+						return null;
+					}
+				}
+			
+				if(passenger.matches("\\d+")) { //passenger with no window preference
+				
 					//create a new passenger and add them to their group. Indicate whether they have window preference seat
 					//and if they are part of a group or flying alone
 					passengerGroup.add(new Passenger(Integer.parseInt(passenger), 
 							        	   !HAS_WINDOW_PREFERENCE, 
-							           (potentialPassengerGroup.length == 1)? !PASSENGER_IN_GROUP:PASSENGER_IN_GROUP));
-					
+							           (potentialPassengerGroup.length == 1)? !PASSENGER_IN_GROUP:PASSENGER_IN_GROUP,
+							           weight));
+				
 				} else if(passenger.matches("\\d+[W]")) { //passenger with window preference
-					
+				
 					//create a new passenger and add them to their group. Indicate whether they have window preference seat
 					//and if they are part of a group or flying alone
 					passengerGroup.add(new Passenger(Integer.parseInt(passenger.substring(0, passenger.length()-1)),
 							           HAS_WINDOW_PREFERENCE, 
-							           (potentialPassengerGroup.length == 1)? !PASSENGER_IN_GROUP:PASSENGER_IN_GROUP));
-					
+							           (potentialPassengerGroup.length == 1)? !PASSENGER_IN_GROUP:PASSENGER_IN_GROUP,
+							           weight));
+				
 				}else { //invalid input for passenger
-					inputReader.close();
-					throw new IllegalArgumentException("Error while parsing passengers. Invalid passenger format.");
+					return null;
 				}
-				
-				//update total passenger count
-				passengerCount++;
 			}
 			
-			//sort a given passenger group by window preference in descending order. This makes it easier to satisfy window
-			//preferences first when we are sitting the passengers later
-			Collections.sort(passengerGroup, new Comparator<Passenger>() {    
-		        @Override
-		        public int compare(Passenger passenger1, Passenger passenger2) {
-		        			return passenger1.hasWindowPreference()? -1:1;
-		        }               
-			});
-			
-			//make sure there is at least a passenger in the group before adding it to the final passenger list
-			if(passengerGroup.size() > 0) {
-				passengerGroups.add(passengerGroup);
+		}catch(NumberFormatException e) { //passenger ID does not fit in an integer
+			return null;
+		}
+		
+		//order a given passenger group by window preference in descending order. This makes it easier to satisfy window
+		//preferences first when we are sitting the passengers later. Passengers with window preference come in reverse 
+		//order of appearance followed by the rest in order of appearance, as the window-first sort always ordered 
+		//small groups (a partition rather than a sort, which could fail on groups of 32 or more)
+		return orderByWindowPreference(passengerGroup);
+	}
+	
+	/*
+	 * Returns the passengers of a group with window preferences first (in reverse order) followed by the rest
+	 */
+	private static List<Passenger> orderByWindowPreference(List<Passenger> passengerGroup) {
+		
+		//passengers with and without window preference
+		List<Passenger> orderedGroup = new ArrayList<Passenger>(passengerGroup.size());
+		List<Passenger> otherPassengers = new ArrayList<Passenger>(passengerGroup.size());
+		
+		for(Passenger passenger: passengerGroup) {
+			if(passenger.hasWindowPreference()) {
+				orderedGroup.add(passenger);
+			}else {
+				otherPassengers.add(passenger);
 			}
-			
-
-        }//end of while loop for reading lines of input
-        
-        inputReader.close();
+		}
+		
+		Collections.reverse(orderedGroup);
+		orderedGroup.addAll(otherPassengers);
+		
+		return orderedGroup;
+	}
+	
+	/**
+	 * Sets the outcome of parsing the passengers of the input
+	 * 
+	 * @param passengerGroups The groups of passengers
+	 * @param passengerCount The total passenger count
+	 */
+	protected void setPassengers(List<List<Passenger>> passengerGroups, int passengerCount) {
+		this.passengerGroups = passengerGroups;
+		this.passengerCount = passengerCount;
+	}
+	
+	/**
+	 * Gets the error message for a line of the input with an invalid passenger format
+	 * 
+	 * @param lineNumber The number of the line in the input (starting from 1)
+	 * 
+	 * @return The error message
+	 */
+	protected static String invalidPassengerFormat(int lineNumber) {
+		return "Error while parsing passengers. Invalid passenger format. Line " + lineNumber;
+	}
+	
+	/**
+	 * Gets the error message for a passenger that appears more than once in the input
+	 * 
+	 * @param passengerID The ID of the passenger
+	 * @param lineNumber The number of the line in the input where the passenger appears again
+	 * 
+	 * @return The error message
+	 */
+	protected static String duplicatePassengerID(int passengerID, int lineNumber) {
+		return "Error while parsing passengers. Duplicate passenger ID " + passengerID + ". Line " + lineNumber;
 	}
 	
 	/**
@@ -222,4 +490,19 @@ public class PassengerParser {
 		return NUM_WINDOWS_IN_PLANE;
 	}
 	
+	/*
+	 * The lines of an input, read one after the other
+	 */
+	private interface LineSource {
+		
+		//whether the input has another line
+		boolean hasNextLine();
+		
+		//the next line of the input, without its terminator
+		String nextLine();
+		
+		//releases the input
+		void close();
+	}
+
 }
@@ -0,0 +1,123 @@
+package com.pyiapa.seatallocator.application;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * Posts sample inputs to the AllocationServer and ensures that it responds with the
+ * same sitting arrangements as the application.
+ * 
+ * @author pyiapa
+ *
+ */
+public class AllocationServerTest {
+	
+	private AllocationServer allocationServer;
+	private final static String TEST_INPUT_FILE_PATH = "src/test/resources/input/Input.Normal";
+	private final static String INVALID_PASSENGER_FORMAT_FILE_PATH = "src/test/resources/input/Input.InvalidPassengerFormat";
+	private final static String NL = System.lineSeparator();
+	
+	@Before
+	public void setup() throws IOException {
+		allocationServer = new AllocationServer(0);
+		allocationServer.start(0);
+	}
+	
+	@Test
+	public void testAllocation() throws IOException {
+		
+		HttpURLConnection connection = post(TEST_INPUT_FILE_PATH);
+		
+		assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+		assertEquals("4 5 6 7 " + NL + "1 2 3 12 " + NL + "11 9 10 8 " + NL + "13 14 15 16 " + NL + "100.0%" + NL, 
+					 read(connection.getInputStream()));
+	}
+	
+	@Test
+	public void testInvalidPassengerFormat() throws IOException {
+		
+		HttpURLConnection connection = post(INVALID_PASSENGER_FORMAT_FILE_PATH);
+		
+		assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, connection.getResponseCode());
+		assertTrue(read(connection.getErrorStream()).startsWith("Error while parsing passengers. Invalid passenger format."));
+	}
+	
+	@Test
+	public void testManifestTooLarge() throws IOException {
+		
+		allocationServer.stop(0);
+		allocationServer = new AllocationServer(0, 16);
+		allocationServer.start(0);
+		
+		HttpURLConnection connection = post(TEST_INPUT_FILE_PATH);
+		
+		assertEquals(413, connection.getResponseCode());
+		assertTrue(read(connection.getErrorStream()).startsWith("Manifest larger than 16 bytes"));
+		
+		//without a declared length, reading stops at the limit
+		URL url = new URL("http://localhost:" + allocationServer.getPort() + AllocationServer.ALLOCATION_PATH);
+		connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setChunkedStreamingMode(8);
+		
+		try(OutputStream requestBody = connection.getOutputStream()) {
+			requestBody.write(Files.readAllBytes(Paths.get(TEST_INPUT_FILE_PATH)));
+		}
+		
+		assertEquals(413, connection.getResponseCode());
+	}
+	
+	private HttpURLConnection post(String inputFile) throws IOException {
+		
+		URL url = new URL("http://localhost:" + allocationServer.getPort() + AllocationServer.ALLOCATION_PATH);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		
+		try(OutputStream requestBody = connection.getOutputStream()) {
+			requestBody.write(Files.readAllBytes(Paths.get(inputFile)));
+		}
+		
+		return connection;
+	}
+	
+	private String read(InputStream input) throws IOException {
+		
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int bytesRead;
+		
+		try {
+			while((bytesRead = input.read(buffer)) != -1) {
+				content.write(buffer, 0, bytesRead);
+			}
+		}finally {
+			input.close();
+		}
+		
+		return new String(content.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	@After
+	public void tearDown() {
+		allocationServer.stop(0);
+		allocationServer = null;
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.pyiapa.seatallocator.application;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 
+ * Runs the BatchRunner over the sample inputs and ensures that every input produces
+ * an output and appears in the summary.
+ * 
+ * @author pyiapa
+ *
+ */
+public class BatchRunnerTest {
+	
+	private final static String INPUT_GLOB = "src/test/resources/input/Input.*";
+	private final static String NL = System.lineSeparator();
+	
+	@Rule
+	public TemporaryFolder outputFolder = new TemporaryFolder();
+	
+	@Test
+	public void testBatchOutputs() throws IOException, InterruptedException {
+		
+		List<Path> inputFiles = BatchRunner.findInputFiles(INPUT_GLOB);
+		Path outputDirectory = outputFolder.getRoot().toPath();
+		
+		//allow a single manifest in flight so that scheduling has to wait on the workers
+		List<BatchRunner.FileResult> results = new BatchRunner(4, 1).run(inputFiles, outputDirectory);
+		
+		assertEquals(inputFiles.size(), results.size());
+		
+		for(int currentFile = 0; currentFile < inputFiles.size(); currentFile++) {
+			assertEquals(inputFiles.get(currentFile), results.get(currentFile).getInputFile());
+			assertTrue(Files.exists(outputDirectory.resolve(inputFiles.get(currentFile).getFileName() + BatchRunner.OUTPUT_SUFFIX)));
+		}
+		
+		assertEquals("4 5 6 7 " + NL + "1 2 3 12 " + NL + "11 9 10 8 " + NL + "13 14 15 16 " + NL + "100.0%" + NL,
+				     new String(Files.readAllBytes(outputDirectory.resolve("Input.Normal" + BatchRunner.OUTPUT_SUFFIX)), 
+				    		    StandardCharsets.UTF_8));
+		
+		assertEquals(inputFiles.size() + 2, Files.readAllLines(outputDirectory.resolve(BatchRunner.SUMMARY_FILE)).size());
+	}
+	
+	@Test
+	public void testInvalidInputIsReported() throws IOException, InterruptedException {
+		
+		List<Path> inputFiles = BatchRunner.findInputFiles("src/test/resources/input/Input.InvalidPassengerFormat");
+		
+		List<BatchRunner.FileResult> results = new BatchRunner(1, 1).run(inputFiles, outputFolder.getRoot().toPath());
+		
+		assertEquals(1, results.size());
+		assertTrue(results.get(0).isFailed());
+		assertTrue(results.get(0).getError().startsWith("Error while parsing passengers. Invalid passenger format."));
+	}
+
+}
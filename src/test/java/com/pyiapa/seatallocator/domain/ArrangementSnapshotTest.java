@@ -0,0 +1,229 @@
+package com.pyiapa.seatallocator.domain;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ *
+ * Ensures that ArrangementSnapshot brings back a persisted arrangement and keeps the updates made to it.
+ *
+ * @author pyiapa
+ *
+ */
+public class ArrangementSnapshotTest {
+
+	private final static String NORMAL_FILE_PATH = "src/test/resources/input/Input.Normal";
+
+	@Rule
+	public TemporaryFolder snapshotFolder = new TemporaryFolder();
+
+	@Test
+	public void testReopenedSnapshotMatchesArrangement() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+		int passengerCount = inputParser.getPassengerCount();
+
+		SittingArrangement sittingArrangement = allocate(inputParser);
+		SeatMap seatMap = sittingArrangement.getSeatMap();
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("flight" + ArrangementSnapshot.FILE_SUFFIX);
+
+		ArrangementSnapshot.write(snapshotFile, sittingArrangement, passengerCount);
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+
+			assertEquals(sittingArrangement.getSatisfaction(), snapshot.getSatisfaction());
+			assertEquals(sittingArrangement.getSatisfactionBound(), snapshot.getSatisfactionBound(), 0);
+			assertEquals(seatMap.getNumRowsOpened(), snapshot.getNumRowsOpened());
+
+			for(int passengerID = 1; passengerID <= passengerCount + 1; passengerID++) {
+				assertEquals(sittingArrangement.getRowOf(passengerID), snapshot.getRowOf(passengerID));
+				assertEquals(sittingArrangement.getSeatOf(passengerID), snapshot.getSeatOf(passengerID));
+			}
+
+			for(int row = 0; row < snapshot.getNumRows(); row++) {
+
+				assertEquals(sittingArrangement.getAvailableSeats(row), snapshot.getAvailableSeats(row));
+				assertEquals(sittingArrangement.getAvailableWindowSeats(row), snapshot.getAvailableWindowSeats(row));
+
+				for(int seat = 0; seat < snapshot.getNumSeatsInRow(); seat++) {
+					assertEquals(seatMap.getPassenger(row, seat) != null, snapshot.isSeatTaken(row, seat));
+					if(seatMap.getPassenger(row, seat) != null) {
+						assertEquals(seatMap.getPassenger(row, seat).getPassengerID(), snapshot.getPassengerID(row, seat));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testUpdatesPersistAcrossReopening() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+		int passengerCount = inputParser.getPassengerCount();
+
+		SittingArrangement sittingArrangement = allocate(inputParser);
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("flight" + ArrangementSnapshot.FILE_SUFFIX);
+
+		ArrangementSnapshot.write(snapshotFile, sittingArrangement, passengerCount);
+
+		//the passenger that leaves and the seat it frees
+		int row = sittingArrangement.getRowOf(12);
+		int seat = sittingArrangement.getSeatOf(12);
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+
+			snapshot.vacateSeat(12);
+			assertEquals(SeatMap.NOT_SEATED, snapshot.getRowOf(12));
+			assertFalse(snapshot.isSeatTaken(row, seat));
+			assertEquals(sittingArrangement.getAvailableSeats(row) + 1, snapshot.getAvailableSeats(row));
+
+			//another passenger takes the free seat, with half satisfaction
+			snapshot.assignSeat(new Passenger(17, false, false), row, seat, 0.5);
+		}
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+
+			assertEquals(row, snapshot.getRowOf(17));
+			assertEquals(seat, snapshot.getSeatOf(17));
+			assertEquals(SeatMap.NOT_SEATED, snapshot.getSeatOf(12));
+			assertEquals(sittingArrangement.getAvailableSeats(row), snapshot.getAvailableSeats(row));
+			assertEquals(sittingArrangement.getSatisfactionScore() - 50.0 / passengerCount, snapshot.getSatisfactionScore(), 1e-9);
+			assertEquals(17, snapshot.getPassengerID(row, seat));
+		}
+	}
+
+	@Test
+	public void testRepeatedBookingAndCancellation() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInput(new ByteArrayInputStream("1 2\n1".getBytes(StandardCharsets.UTF_8)));
+
+		SittingArrangement sittingArrangement = allocate(inputParser);
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("flight" + ArrangementSnapshot.FILE_SUFFIX);
+
+		ArrangementSnapshot.write(snapshotFile, sittingArrangement, inputParser.getPassengerCount());
+
+		//the seat of the passenger that stays, and the seat that is booked and cancelled over and over
+		int seat = sittingArrangement.getSeatOf(1);
+		int freeSeat = 1 - seat;
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+
+			assertEquals(1, snapshot.getNumRows());
+			assertEquals(2, snapshot.getNumSeatsInRow());
+
+			//far more cancellations than the passenger index has entries
+			for(int passengerID = 5001; passengerID <= 6000; passengerID++) {
+
+				assertEquals(SeatMap.NOT_SEATED, snapshot.getRowOf(passengerID));
+
+				snapshot.assignSeat(new Passenger(passengerID, false, false), 0, freeSeat, 1);
+				assertEquals(0, snapshot.getRowOf(passengerID));
+				assertEquals(freeSeat, snapshot.getSeatOf(passengerID));
+
+				snapshot.vacateSeat(passengerID);
+				assertEquals(SeatMap.NOT_SEATED, snapshot.getSeatOf(passengerID));
+				assertEquals(seat, snapshot.getSeatOf(1));
+			}
+		}
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+
+			assertEquals(seat, snapshot.getSeatOf(1));
+			assertEquals(SeatMap.NOT_SEATED, snapshot.getRowOf(5004));
+			assertFalse(snapshot.isSeatTaken(0, freeSeat));
+			assertEquals(sittingArrangement.getSatisfactionScore(), snapshot.getSatisfactionScore(), 1e-9);
+
+			//a passenger cancelled long ago can book again
+			snapshot.assignSeat(new Passenger(5004, false, false), 0, freeSeat, 1);
+			assertEquals(freeSeat, snapshot.getSeatOf(5004));
+		}
+	}
+
+	@Test
+	public void testOpenAllSnapshotsOfDirectory() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+
+		SittingArrangement sittingArrangement = allocate(inputParser);
+		Path directory = snapshotFolder.getRoot().toPath();
+
+		ArrangementSnapshot.write(directory.resolve("AB123" + ArrangementSnapshot.FILE_SUFFIX), sittingArrangement,
+								  inputParser.getPassengerCount());
+		ArrangementSnapshot.write(directory.resolve("CD456" + ArrangementSnapshot.FILE_SUFFIX), sittingArrangement,
+								  inputParser.getPassengerCount());
+		Files.createFile(directory.resolve("notes.txt"));
+
+		Map<String, ArrangementSnapshot> snapshots = ArrangementSnapshot.openAll(directory);
+
+		assertEquals(2, snapshots.size());
+		for(ArrangementSnapshot snapshot: snapshots.values()) {
+			assertEquals(sittingArrangement.getRowOf(1), snapshot.getRowOf(1));
+			snapshot.close();
+		}
+		assertTrue(snapshots.containsKey("CD456"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSeatTaken() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+
+		SittingArrangement sittingArrangement = allocate(inputParser);
+		Path snapshotFile = snapshotFolder.getRoot().toPath().resolve("flight" + ArrangementSnapshot.FILE_SUFFIX);
+
+		ArrangementSnapshot.write(snapshotFile, sittingArrangement, inputParser.getPassengerCount());
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile)) {
+			snapshot.assignSeat(new Passenger(17, false, false), sittingArrangement.getRowOf(1), sittingArrangement.getSeatOf(1), 1);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotASnapshot() throws IOException {
+
+		File notSnapshot = snapshotFolder.newFile("flight" + ArrangementSnapshot.FILE_SUFFIX);
+		Files.write(notSnapshot.toPath(), new byte[128]);
+
+		ArrangementSnapshot.open(notSnapshot.toPath());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testArrangementWithoutSeatMap() throws IOException {
+		ArrangementSnapshot.write(snapshotFolder.getRoot().toPath().resolve("flight"),
+								  new SittingArrangement(new ArrayList<List<Passenger>>(), "0%"), 1);
+	}
+
+	/*
+	 * Allocates the seats of a parsed input
+	 */
+	private static SittingArrangement allocate(PassengerParser inputParser) {
+
+		SeatAllocator seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+														inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(),
+														inputParser.getNumWindowsInPlane());
+
+		return seatAllocator.allocateSeats();
+	}
+
+}
@@ -0,0 +1,272 @@
+package com.pyiapa.seatallocator.domain;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ *
+ * Ensures that BookingJournal commits bookings and cancellations and replays them onto a snapshot.
+ *
+ * @author pyiapa
+ *
+ */
+public class BookingJournalTest {
+
+	private final static String NORMAL_FILE_PATH = "src/test/resources/input/Input.Normal";
+
+	@Rule
+	public TemporaryFolder journalFolder = new TemporaryFolder();
+
+	private Path snapshotFile;
+	private Path compactedSnapshotFile;
+	private Path journalFile;
+
+	private int row;
+	private int seat;
+
+	@Before
+	public void writeSnapshot() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+
+		SeatAllocator seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+														inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(),
+														inputParser.getNumWindowsInPlane());
+		SittingArrangement sittingArrangement = seatAllocator.allocateSeats();
+
+		snapshotFile = journalFolder.getRoot().toPath().resolve("flight" + ArrangementSnapshot.FILE_SUFFIX);
+		compactedSnapshotFile = journalFolder.getRoot().toPath().resolve("compacted");
+		journalFile = journalFolder.getRoot().toPath().resolve("flight.journal");
+
+		ArrangementSnapshot.write(snapshotFile, sittingArrangement, inputParser.getPassengerCount());
+
+		//the snapshot as of the last compaction, which misses the events of the journal
+		Files.copy(snapshotFile, compactedSnapshotFile);
+
+		row = sittingArrangement.getRowOf(12);
+		seat = sittingArrangement.getSeatOf(12);
+	}
+
+	@Test
+	public void testReplayRestoresEventsOntoCompactedSnapshot() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			assertEquals(1, journal.cancel(12));
+			assertEquals(2, journal.book(new Passenger(17, true, false, 2), row, seat, 0.5));
+			assertEquals(3, journal.cancel(1));
+
+			journal.awaitDurable(3);
+			assertEquals(3, journal.getDurableSequence());
+			assertEquals(3, snapshot.getJournalSequence());
+		}
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			ArrangementSnapshot compactedSnapshot = ArrangementSnapshot.open(compactedSnapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, compactedSnapshot)) {
+
+			assertEquals(3, journal.getEventsReplayed());
+			assertSameArrangement(snapshot, compactedSnapshot);
+			assertEquals(17, compactedSnapshot.getPassengerID(row, seat));
+			assertEquals(SeatMap.NOT_SEATED, compactedSnapshot.getRowOf(1));
+		}
+	}
+
+	@Test
+	public void testReplaySkipsEventsSnapshotHolds() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			journal.cancel(12);
+			journal.sync();
+		}
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			assertEquals(0, journal.getEventsReplayed());
+			assertEquals(1, journal.getLastSequence());
+			assertFalse(snapshot.isSeatTaken(row, seat));
+
+			assertEquals(2, journal.book(new Passenger(12, false, false), row, seat, 1));
+		}
+	}
+
+	@Test
+	public void testTornRecordEndsJournal() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			journal.cancel(12);
+			journal.sync();
+		}
+
+		//a commit cut short by a crash
+		Files.write(journalFile, new byte[] {1, 0, 0, 0, 0, 0, 0, 17, 0, 0}, StandardOpenOption.APPEND);
+
+		try(ArrangementSnapshot compactedSnapshot = ArrangementSnapshot.open(compactedSnapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, compactedSnapshot)) {
+
+			assertEquals(1, journal.getEventsReplayed());
+			assertFalse(compactedSnapshot.isSeatTaken(row, seat));
+
+			assertEquals(2, journal.book(new Passenger(17, false, false), row, seat, 1));
+		}
+
+		try(ArrangementSnapshot compactedSnapshot = ArrangementSnapshot.open(compactedSnapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, compactedSnapshot)) {
+
+			assertEquals(0, journal.getEventsReplayed());
+			assertEquals(17, compactedSnapshot.getPassengerID(row, seat));
+		}
+	}
+
+	@Test
+	public void testCompactionEmptiesJournal() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			journal.cancel(12);
+			journal.book(new Passenger(17, false, false), row, seat, 1);
+			journal.compact();
+			assertEquals(16, Files.size(journalFile));
+
+			assertEquals(3, journal.cancel(17));
+			journal.sync();
+
+			//only the events after the compaction are left
+			assertEquals(16 + 32, Files.size(journalFile));
+		}
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			assertEquals(0, journal.getEventsReplayed());
+			assertEquals(3, journal.getLastSequence());
+			assertFalse(snapshot.isSeatTaken(row, seat));
+		}
+
+		//a snapshot older than the compaction misses events the journal no longer has
+		try(ArrangementSnapshot compactedSnapshot = ArrangementSnapshot.open(compactedSnapshotFile)) {
+			new BookingJournal(journalFile, compactedSnapshot).close();
+			fail("Stale snapshot accepted");
+		}catch(IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	@Test
+	public void testSnapshotHoldsOnlyDurableEvents() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot, 1, TimeUnit.HOURS)) {
+
+			assertEquals(1, journal.cancel(12));
+			assertEquals(2, journal.book(new Passenger(17, false, false), row, seat, 1));
+
+			//nothing is committed before the end of the hour, so the snapshot holds neither event
+			assertEquals(0, journal.getDurableSequence());
+			assertEquals(0, snapshot.getJournalSequence());
+			assertEquals(12, snapshot.getPassengerID(row, seat));
+			assertEquals(SeatMap.NOT_SEATED, snapshot.getRowOf(17));
+
+			//the events waiting to be committed still count when checking new ones
+			try {
+				journal.book(new Passenger(18, false, false), row, seat, 1);
+				fail("Seat booked twice");
+			}catch(IllegalArgumentException e) {
+				//expected
+			}
+			try {
+				journal.cancel(12);
+				fail("Passenger cancelled twice");
+			}catch(IllegalArgumentException e) {
+				//expected
+			}
+			assertEquals(3, journal.cancel(17));
+			assertEquals(4, journal.book(new Passenger(12, false, false), row, seat, 1));
+
+			journal.sync();
+			assertEquals(4, snapshot.getJournalSequence());
+			assertEquals(12, snapshot.getPassengerID(row, seat));
+			assertEquals(SeatMap.NOT_SEATED, snapshot.getRowOf(17));
+		}
+	}
+
+	@Test
+	public void testRepeatedBookingAndCancellation() throws IOException, InterruptedException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			journal.cancel(12);
+			for(int passengerID = 5001; passengerID <= 6000; passengerID++) {
+				journal.book(new Passenger(passengerID, false, false), row, seat, 1);
+				journal.cancel(passengerID);
+			}
+			journal.book(new Passenger(12, false, false), row, seat, 1);
+			journal.sync();
+
+			assertEquals(2002, snapshot.getJournalSequence());
+		}
+
+		try(ArrangementSnapshot compactedSnapshot = ArrangementSnapshot.open(compactedSnapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, compactedSnapshot)) {
+
+			assertEquals(2002, journal.getEventsReplayed());
+			assertEquals(12, compactedSnapshot.getPassengerID(row, seat));
+			assertEquals(SeatMap.NOT_SEATED, compactedSnapshot.getRowOf(5004));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBookingTakenSeat() throws IOException {
+
+		try(ArrangementSnapshot snapshot = ArrangementSnapshot.open(snapshotFile);
+			BookingJournal journal = new BookingJournal(journalFile, snapshot)) {
+
+			journal.book(new Passenger(17, false, false), row, seat, 1);
+		}
+	}
+
+	/*
+	 * Asserts that two snapshots seat the same passengers in the same seats with the same satisfaction
+	 */
+	private static void assertSameArrangement(ArrangementSnapshot expected, ArrangementSnapshot actual) {
+
+		assertEquals(expected.getSatisfactionScore(), actual.getSatisfactionScore(), 1e-9);
+		assertEquals(expected.getJournalSequence(), actual.getJournalSequence());
+
+		for(int row = 0; row < expected.getNumRows(); row++) {
+
+			assertEquals(expected.getAvailableSeats(row), actual.getAvailableSeats(row));
+			assertEquals(expected.getAvailableWindowSeats(row), actual.getAvailableWindowSeats(row));
+
+			for(int seat = 0; seat < expected.getNumSeatsInRow(); seat++) {
+				assertEquals(expected.isSeatTaken(row, seat), actual.isSeatTaken(row, seat));
+				if(expected.isSeatTaken(row, seat)) {
+					assertEquals(expected.getPassengerID(row, seat), actual.getPassengerID(row, seat));
+				}
+			}
+		}
+	}
+
+}
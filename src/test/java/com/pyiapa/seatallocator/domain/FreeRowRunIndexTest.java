@@ -0,0 +1,60 @@
+package com.pyiapa.seatallocator.domain;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * 
+ * Ensures that FreeRowRunIndex finds the first run of adjacent rows with enough free seats.
+ * 
+ * @author pyiapa
+ *
+ */
+public class FreeRowRunIndexTest {
+	
+	@Test
+	public void testFindsFirstRun() {
+		
+		FreeRowRunIndex freeRowRunIndex = new FreeRowRunIndex(4);
+		for(int rowFreeSeats: new int[] {1, 3, 3, 0, 3}) {
+			freeRowRunIndex.addRow(rowFreeSeats);
+		}
+		
+		assertEquals(0, freeRowRunIndex.findRun(1, 1));
+		assertEquals(1, freeRowRunIndex.findRun(2, 3));
+		
+		//rows after the last row added are empty
+		assertEquals(4, freeRowRunIndex.findRun(3, 3));
+		assertEquals(5, freeRowRunIndex.findRun(1, 4));
+		
+		freeRowRunIndex.setFreeSeats(1, 0);
+		assertEquals(4, freeRowRunIndex.findRun(2, 3));
+		assertEquals(2, freeRowRunIndex.findRun(1, 2));
+	}
+	
+	@Test
+	public void testRunsPastManyRows() {
+		
+		FreeRowRunIndex freeRowRunIndex = new FreeRowRunIndex(2);
+		
+		//grows past the rows the trees are first built for
+		assertEquals(0, freeRowRunIndex.findRun(2, 1));
+		for(int row = 0; row < 100; row++) {
+			freeRowRunIndex.addRow((row == 60 || row == 61)? 1:0);
+		}
+		
+		assertEquals(60, freeRowRunIndex.findRun(2, 1));
+		assertEquals(100, freeRowRunIndex.findRun(2, 2));
+		assertEquals(100, freeRowRunIndex.findRun(1000, 2));
+		
+		freeRowRunIndex.clear();
+		assertEquals(0, freeRowRunIndex.findRun(2, 2));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyFreeSeats() {
+		new FreeRowRunIndex(2).findRun(1, 3);
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.pyiapa.seatallocator.domain;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * 
+ * Ensures that SeatMap places passengers straight into their final seats and finds them again.
+ * 
+ * @author pyiapa
+ *
+ */
+public class SeatMapTest {
+	
+	private final static boolean WINDOW_SEAT = true;
+	
+	@Test
+	public void testWindowPassengerMovesOccupantOfFirstSeat() {
+		
+		SeatMap seatMap = new SeatMap(1, 4, 2, true);
+		int row = seatMap.openRow();
+		
+		assertEquals(0, seatMap.seatPassenger(row, new Passenger(1, false, true), !WINDOW_SEAT));
+		assertEquals(0, seatMap.seatPassenger(row, new Passenger(2, true, true), WINDOW_SEAT));
+		assertEquals(2, seatMap.seatPassenger(row, new Passenger(3, false, true), !WINDOW_SEAT));
+		assertEquals(3, seatMap.seatPassenger(row, new Passenger(4, true, true), WINDOW_SEAT));
+		
+		assertEquals("[2, 1, 3, 4]", seatMap.getRowPassengers(row).toString());
+		assertEquals(1, seatMap.getSeatOf(1));
+		assertEquals(0, seatMap.getRowOf(1));
+	}
+	
+	@Test
+	public void testLastPassengerTakesGapLeftBySecondWindowPassenger() {
+		
+		SeatMap seatMap = new SeatMap(1, 4, 2, true);
+		int row = seatMap.openRow();
+		
+		seatMap.seatPassenger(row, new Passenger(1, true, true), WINDOW_SEAT);
+		seatMap.seatPassenger(row, new Passenger(2, true, true), WINDOW_SEAT);
+		
+		assertNull(seatMap.getPassenger(row, 1));
+		assertTrue(seatMap.isWindowSeat(3));
+		assertEquals(3, seatMap.getSeatOf(2));
+		
+		assertEquals(2, seatMap.seatPassenger(row, new Passenger(3, false, true), !WINDOW_SEAT));
+		assertEquals(1, seatMap.seatPassenger(row, new Passenger(4, false, true), !WINDOW_SEAT));
+		
+		assertEquals("[1, 4, 3, 2]", seatMap.getRowPassengers(row).toString());
+	}
+	
+	@Test
+	public void testPassengerNotSeated() {
+		
+		SeatMap seatMap = new SeatMap(2, 2, 2, true);
+		int row = seatMap.openRow();
+		
+		seatMap.seatPassenger(row, new Passenger(7, false, false), !WINDOW_SEAT);
+		
+		assertEquals(SeatMap.NOT_SEATED, seatMap.getRowOf(8));
+		assertEquals(SeatMap.NOT_SEATED, seatMap.getSeatOf(8));
+		
+		seatMap.releaseRow(row);
+		
+		assertEquals(SeatMap.NOT_SEATED, seatMap.getRowOf(7));
+	}
+
+}
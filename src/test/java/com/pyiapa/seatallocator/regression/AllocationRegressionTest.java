@@ -0,0 +1,331 @@
+package com.pyiapa.seatallocator.regression;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.services.RowConsumer;
+import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ *
+ * Quality and performance regression suite. Allocates a fixed corpus of manifests (the sample inputs
+ * and generated manifests of varying scale) with each allocation algorithm, and compares satisfaction
+ * and wall time against the checked-in baselines. Fails when satisfaction drops or wall time regresses
+ * beyond the tolerance, when an algorithm scores below greedy while leaving plane rows empty, and when an
+ * algorithm seats fewer passengers than greedy or than its baseline.
+ *
+ * Run with -Dregression.updateBaselines=true to rewrite the baselines after an intended change, and with
+ * -Dregression.timeTolerance=N to allow wall times up to N times the baseline (default 4).
+ *
+ * @author pyiapa
+ *
+ */
+public class AllocationRegressionTest {
+
+	private final static String BASELINES_FILE_PATH = "src/test/resources/regression/baselines.txt";
+	private final static String SAMPLE_INPUT_PATH = "src/test/resources/input/";
+
+	//sample inputs of the corpus
+	private final static String[] SAMPLE_INPUTS = {"Input.Normal", "Input.Small", "Input.SmallWithMorePassengers",
+												   "Input.Large", "Input.Larger", "Input.LargeGroups",
+												   "Input.ManyWindows", "Input.NarrowPlane", "Input.WidePlane"};
+
+	//generated manifests of the corpus: name, seed, rows, seats per row, passengers, largest group
+	private final static Object[][] GENERATED_INPUTS = {
+		{"Generated.Short",          1L,   30, 4,   100,  6},
+		{"Generated.Regional",       2L,  120, 4,   500,  5},
+		{"Generated.Narrowbody",     3L,  300, 6,  1800,  8},
+		{"Generated.Widebody",       4L,  400, 10, 4000, 12},
+		{"Generated.Overbooked",     5L,  500, 6,  6000,  6},
+		{"Generated.TourGroups",     6L,  250, 4,  1000, 45},
+		{"Generated.Crowd",          7L, 3000, 6, 20000,  6}};
+
+	//allocation algorithms under test
+	private final static String[] ALGORITHMS = {"greedy", "greedy-offheap", "greedy-streaming", "greedy-split", "greedy-adjacent",
+												"row-packer"};
+
+	//share of the group satisfaction given to passengers of split groups by the greedy-split and greedy-adjacent algorithms
+	private final static double PARTIAL_GROUP_SATISFACTION = 0.5;
+
+	//runs before timing, and timed runs (the fastest one is kept)
+	private final static int WARM_UP_RUNS = 2;
+	private final static int TIMED_RUNS = 5;
+
+	//allowed drop in satisfaction (in percentage points), to absorb rounding
+	private final static double SATISFACTION_TOLERANCE = 0.01;
+
+	//wall time allowed on top of the baseline regardless of the tolerance, to absorb timer noise
+	private final static long TIME_SLACK_MICROS = 20000;
+
+	private final static double DEFAULT_TIME_TOLERANCE = 4;
+
+	@Test
+	public void testAgainstBaselines() throws IOException {
+
+		boolean updateBaselines = Boolean.getBoolean("regression.updateBaselines");
+		double timeTolerance = Double.parseDouble(System.getProperty("regression.timeTolerance",
+																	 String.valueOf(DEFAULT_TIME_TOLERANCE)));
+
+		//recorded baselines, by manifest and algorithm
+		Map<String, Result> baselines = updateBaselines? new LinkedHashMap<String, Result>():readBaselines();
+
+		//results of this run, by manifest and algorithm
+		Map<String, Result> results = new LinkedHashMap<String, Result>();
+
+		//descriptions of the regressions found
+		List<String> regressions = new ArrayList<String>();
+
+		for(Map.Entry<String, String> manifest: corpus().entrySet()) {
+			for(String algorithm: ALGORITHMS) {
+
+				String key = manifest.getKey() + " " + algorithm;
+				Result result = measure(manifest.getValue(), algorithm);
+				Result baseline = baselines.get(key);
+				Result greedyResult = results.get(manifest.getKey() + " greedy");
+
+				results.put(key, result);
+
+				//greedy is the floor of every algorithm unless the plane is too full to do better
+				if(greedyResult != null && result.satisfaction < greedyResult.satisfaction - SATISFACTION_TOLERANCE
+						&& result.rowsUsed < result.planeRows) {
+					regressions.add(key + ": satisfaction " + result.satisfaction + "% below greedy " + greedyResult.satisfaction
+									+ "% with " + (result.planeRows - result.rowsUsed) + " plane rows left empty");
+				}
+				
+				//no algorithm may leave behind passengers that greedy seats, whatever its satisfaction
+				if(greedyResult != null && result.seatedPassengers < greedyResult.seatedPassengers) {
+					regressions.add(key + ": seats " + result.seatedPassengers + " passengers, greedy seats " 
+									+ greedyResult.seatedPassengers);
+				}
+
+				if(updateBaselines) {
+					continue;
+				}
+
+				if(baseline == null) {
+					regressions.add(key + ": no baseline recorded");
+					continue;
+				}
+
+				if(result.satisfaction < baseline.satisfaction - SATISFACTION_TOLERANCE) {
+					regressions.add(key + ": satisfaction dropped from " + baseline.satisfaction + "% to " + result.satisfaction + "%"
+									+ String.format(Locale.ROOT, " (optimality gap %.2f)", result.optimalityGap));
+				}
+				
+				if(result.seatedPassengers < baseline.seatedPassengers) {
+					regressions.add(key + ": seated passengers dropped from " + baseline.seatedPassengers + " to " 
+									+ result.seatedPassengers);
+				}
+
+				if(result.wallTimeMicros > baseline.wallTimeMicros * timeTolerance + TIME_SLACK_MICROS) {
+					regressions.add(key + ": wall time regressed from " + baseline.wallTimeMicros + "us to " + result.wallTimeMicros + "us");
+				}
+			}
+		}
+
+		if(updateBaselines) {
+			writeBaselines(results);
+		}
+
+		assertTrue("Regressions against " + BASELINES_FILE_PATH + ": " + regressions, regressions.isEmpty());
+	}
+
+	/*
+	 * Returns the manifests of the corpus, by name
+	 */
+	private Map<String, String> corpus() throws IOException {
+
+		Map<String, String> manifests = new LinkedHashMap<String, String>();
+
+		for(String sampleInput: SAMPLE_INPUTS) {
+			manifests.put(sampleInput, new String(Files.readAllBytes(Paths.get(SAMPLE_INPUT_PATH + sampleInput)),
+												  StandardCharsets.UTF_8));
+		}
+
+		for(Object[] generatedInput: GENERATED_INPUTS) {
+			manifests.put((String) generatedInput[0],
+						  ManifestGenerator.generate((Long) generatedInput[1], (Integer) generatedInput[2],
+								  					 (Integer) generatedInput[3], (Integer) generatedInput[4],
+								  					 (Integer) generatedInput[5]));
+		}
+
+		return manifests;
+	}
+
+	/*
+	 * Allocates a manifest with an algorithm several times and returns the result with the fastest wall time
+	 */
+	private Result measure(String manifest, String algorithm) {
+
+		Result result = null;
+		Result currentResult;
+
+		for(int run = 0; run < WARM_UP_RUNS + TIMED_RUNS; run++) {
+
+			currentResult = allocate(manifest, algorithm);
+
+			if(run >= WARM_UP_RUNS && (result == null || currentResult.wallTimeMicros < result.wallTimeMicros)) {
+				result = currentResult;
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * Allocates a manifest with an algorithm, timing only the allocation
+	 */
+	private Result allocate(String manifest, String algorithm) {
+
+		//the parsed passengers keep their satisfaction, so each run parses the manifest again
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInput(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)));
+
+		SeatAllocator seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+										  				inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(),
+										  				inputParser.getNumWindowsInPlane());
+
+		//number of non-empty rows, and of passengers, delivered by the streaming mode
+		final int[] streamedRowsUsed = new int[1];
+		final int[] streamedPassengers = new int[1];
+
+		String satisfaction;
+		double optimalityGap = Double.NaN;
+		int rowsUsed = 0;
+		int seatedPassengers = 0;
+		long startTime = System.nanoTime();
+
+		if(algorithm.equals("greedy-streaming")) {
+
+			satisfaction = seatAllocator.allocateSeats(new RowConsumer() {
+				@Override
+				public void acceptRow(int rowNumber, List<Passenger> row) {
+					if(!row.isEmpty()) {
+						streamedRowsUsed[0]++;
+					}
+					streamedPassengers[0] += row.size();
+				}
+			});
+			rowsUsed = streamedRowsUsed[0];
+			seatedPassengers = streamedPassengers[0];
+
+		}else {
+
+			seatAllocator.setOffHeapRowState(algorithm.equals("greedy-offheap"));
+			seatAllocator.setGroupSplitting(algorithm.equals("greedy-split"), PARTIAL_GROUP_SATISFACTION);
+			if(algorithm.equals("greedy-adjacent")) {
+				seatAllocator.setRowAffinity(true, PARTIAL_GROUP_SATISFACTION);
+			}
+			seatAllocator.setRowPacking(algorithm.equals("row-packer"));
+
+			SittingArrangement sittingArrangement = seatAllocator.allocateSeats();
+			satisfaction = sittingArrangement.getSatisfaction();
+			optimalityGap = sittingArrangement.getOptimalityGap();
+
+			for(List<Passenger> row: sittingArrangement.getSeatConfiguration()) {
+				rowsUsed += row.isEmpty()? 0:1;
+				seatedPassengers += row.size();
+			}
+		}
+
+		long wallTimeMicros = (System.nanoTime() - startTime) / 1000;
+		Result result = new Result(parseSatisfaction(satisfaction), rowsUsed, seatedPassengers, wallTimeMicros);
+		result.optimalityGap = optimalityGap;
+		result.planeRows = inputParser.getNumRows();
+
+		return result;
+	}
+
+	/*
+	 * Returns the satisfaction (in percent) of its formatted representation
+	 */
+	private static double parseSatisfaction(String satisfaction) {
+		return Double.parseDouble(satisfaction.replace("%", "").replace(',', '.'));
+	}
+
+	/*
+	 * Reads the checked-in baselines, by manifest and algorithm
+	 */
+	private Map<String, Result> readBaselines() throws IOException {
+
+		Map<String, Result> baselines = new LinkedHashMap<String, Result>();
+
+		for(String line: Files.readAllLines(Paths.get(BASELINES_FILE_PATH), StandardCharsets.UTF_8)) {
+
+			if(line.trim().isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+
+			String[] fields = line.trim().split("\\s+");
+			baselines.put(fields[0] + " " + fields[1], new Result(Double.parseDouble(fields[2]), Integer.parseInt(fields[3]),
+																  Integer.parseInt(fields[4]), Long.parseLong(fields[5])));
+		}
+
+		return baselines;
+	}
+
+	/*
+	 * Writes the results of this run as the new baselines
+	 */
+	private void writeBaselines(Map<String, Result> results) throws IOException {
+
+		List<String> lines = new ArrayList<String>();
+		Path baselinesFile = Paths.get(BASELINES_FILE_PATH);
+
+		lines.add("# Baselines of AllocationRegressionTest. Rewrite with: mvn test -Dtest=AllocationRegressionTest -Dregression.updateBaselines=true");
+		lines.add("# manifest algorithm satisfaction(%) rowsUsed seatedPassengers wallTime(us)");
+
+		for(Map.Entry<String, Result> result: results.entrySet()) {
+			lines.add(result.getKey() + " " + result.getValue());
+		}
+
+		Files.createDirectories(baselinesFile.getParent());
+		Files.write(baselinesFile, lines, StandardCharsets.UTF_8);
+	}
+
+	/*
+	 * Satisfaction, rows used, passengers seated and wall time of allocating a manifest with an algorithm
+	 */
+	private static class Result {
+
+		private double satisfaction;
+		private int rowsUsed;
+		private int seatedPassengers;
+		private long wallTimeMicros;
+
+		//how far the satisfaction may be from optimal (not recorded in the baselines)
+		private double optimalityGap = Double.NaN;
+
+		//rows of the plane (not recorded in the baselines)
+		private int planeRows;
+
+		private Result(double satisfaction, int rowsUsed, int seatedPassengers, long wallTimeMicros) {
+			this.satisfaction = satisfaction;
+			this.rowsUsed = rowsUsed;
+			this.seatedPassengers = seatedPassengers;
+			this.wallTimeMicros = wallTimeMicros;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%.2f %d %d %d", satisfaction, rowsUsed, seatedPassengers, wallTimeMicros);
+		}
+	}
+
+}
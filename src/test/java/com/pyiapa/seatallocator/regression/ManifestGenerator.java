@@ -0,0 +1,68 @@
+package com.pyiapa.seatallocator.regression;
+
+import java.util.Random;
+
+/**
+ * 
+ * Generates passenger manifests in the input file format. Manifests are built from a fixed seed, 
+ * so the same parameters always give the same manifest. Passenger IDs are plain sequence numbers,
+ * so nothing about real travelers is kept.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ManifestGenerator {
+	
+	//chance that a passenger wishes for a window seat
+	private final static double WINDOW_PREFERENCE_RATE = 0.25;
+	
+	//chance that a group is a family or a tour group rather than a single traveler or couple
+	private final static double LARGER_GROUP_RATE = 0.3;
+	
+	/**
+	 * Generates a manifest
+	 * 
+	 * @param seed The seed of the generated manifest
+	 * @param numRows Number of rows in the plane
+	 * @param numSeatsInRow Number of seats per row
+	 * @param passengerCount Number of passengers (may be larger than plane capacity)
+	 * @param maxGroupSize Size of the largest group of the manifest
+	 * 
+	 * @return The manifest, in the input file format
+	 */
+	public static String generate(long seed, int numRows, int numSeatsInRow, int passengerCount, int maxGroupSize) {
+		
+		Random random = new Random(seed);
+		StringBuilder manifest = new StringBuilder();
+		
+		//the ID of the next passenger
+		int passengerID = 1;
+		
+		//size of the current group
+		int groupSize;
+		
+		manifest.append(numRows).append(' ').append(numSeatsInRow).append('\n');
+		
+		while(passengerID <= passengerCount) {
+			
+			//mostly single travelers and couples, with some families and tour groups
+			if(random.nextDouble() < LARGER_GROUP_RATE) {
+				groupSize = 1 + random.nextInt(maxGroupSize);
+			}else {
+				groupSize = 1 + random.nextInt(Math.min(2, maxGroupSize));
+			}
+			groupSize = Math.min(groupSize, passengerCount - passengerID + 1);
+			
+			for(int currentPassenger = 0; currentPassenger < groupSize; currentPassenger++, passengerID++) {
+				manifest.append(currentPassenger == 0? "":" ").append(passengerID);
+				if(random.nextDouble() < WINDOW_PREFERENCE_RATE) {
+					manifest.append('W');
+				}
+			}
+			manifest.append('\n');
+		}
+		
+		return manifest.toString();
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * 
+ * Ensures that ArrangementSearch rates assignments like the allocator and finds better rows for
+ * the groups within its deadline.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ArrangementSearchTest {
+	
+	private final static double DELTA = 1e-9;
+	
+	private final static int NA = ArrangementSearch.NOT_ASSIGNED;
+	
+	@Test
+	public void testSatisfactionOfAssignment() {
+		
+		//a pair with both window preferences, and a passenger traveling alone with one, on a plane with one row of
+		//four seats and two windows
+		ArrangementSearch arrangementSearch = new ArrangementSearch(new int[] {2, 1}, new int[] {2, 1}, 
+																	new boolean[] {false, true}, 1, 4, 2);
+		
+		//nobody sits with their group: the separated window passengers take the two window seats
+		assertEquals(1, arrangementSearch.getSatisfaction(), DELTA);
+		
+		//the passenger traveling alone gets a window seat first, so the pair gets 1 + 0.5
+		arrangementSearch.setAssignment(new int[] {0, 0});
+		assertEquals(2.5, arrangementSearch.getSatisfaction(), DELTA);
+		
+		//the pair sits together, the separated passenger takes no window seat as none is left
+		arrangementSearch.setAssignment(new int[] {0, NA});
+		assertEquals(2, arrangementSearch.getSatisfaction(), DELTA);
+	}
+	
+	@Test
+	public void testExactSearchFindsBestRows() {
+		
+		//two rows of three seats: first-fit seats the pairs in different rows, separating the group of three
+		ArrangementSearch arrangementSearch = new ArrangementSearch(new int[] {2, 2, 3, 1}, new int[] {0, 0, 0, 0}, 
+																	new boolean[] {false, false, false, true}, 2, 3, 2);
+		arrangementSearch.setAssignment(new int[] {0, 1, NA, 0});
+		
+		assertTrue(arrangementSearch.isSmallPlane());
+		assertTrue(arrangementSearch.searchExact(Long.MAX_VALUE / 2 + System.nanoTime(), bound(6)));
+		assertEquals(6, arrangementSearch.getSatisfaction(), DELTA);
+		assertNotEquals(NA, arrangementSearch.getAssignment()[2]);
+	}
+	
+	@Test
+	public void testLocalSearchSeatsLargerGroups() {
+		
+		//a row of four seats holding a pair, while a group of three is separated
+		ArrangementSearch arrangementSearch = new ArrangementSearch(new int[] {2, 3}, new int[] {0, 0}, 
+																	new boolean[] {false, false}, 1, 4, 2);
+		arrangementSearch.setAssignment(new int[] {0, NA});
+		
+		assertTrue(arrangementSearch.searchLocal(System.nanoTime() + 10000000000L, bound(3)));
+		assertEquals(3, arrangementSearch.getSatisfaction(), DELTA);
+		assertArrayEquals(new int[] {NA, 0}, arrangementSearch.getAssignment());
+	}
+	
+	@Test
+	public void testSearchStopsAtDeadline() {
+		
+		ArrangementSearch arrangementSearch = new ArrangementSearch(new int[] {2, 3}, new int[] {0, 0}, 
+																	new boolean[] {false, false}, 1, 4, 2);
+		arrangementSearch.setAssignment(new int[] {0, NA});
+		
+		//with the deadline already passed the assignment is kept as it is
+		assertFalse(arrangementSearch.searchLocal(System.nanoTime(), bound(3)));
+		assertArrayEquals(new int[] {0, NA}, arrangementSearch.getAssignment());
+	}
+	
+	/*
+	 * Returns a bound reached with the given satisfaction points
+	 */
+	private static SatisfactionBound bound(int passengerCount) {
+		
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		List<Passenger> passengerGroup = new ArrayList<Passenger>();
+		
+		for(int passengerID = 1; passengerID <= passengerCount; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, false, false));
+		}
+		passengerGroups.add(passengerGroup);
+		
+		SatisfactionBound satisfactionBound = new SatisfactionBound(1, passengerCount, 0, 0);
+		satisfactionBound.computeBound(passengerGroups, passengerCount);
+		
+		return satisfactionBound;
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.SeatMap;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ * 
+ * Ensures that DefaultSatisfactionScorer rates passengers by the rules of the README.
+ * 
+ * @author pyiapa
+ *
+ */
+public class DefaultSatisfactionScorerTest {
+	
+	private final static String OVERSUBSCRIBED_FILE_PATH = "src/test/resources/input/Input.Larger";
+	private final static String LARGE_GROUPS_FILE_PATH = "src/test/resources/input/Input.LargeGroups";
+	
+	@Test
+	public void testReadmeRules() {
+		
+		SatisfactionScorer satisfactionScorer = new DefaultSatisfactionScorer();
+		
+		//travelers with no window preference
+		assertEquals(1, satisfactionScorer.score(0), 0);
+		assertEquals(1, satisfactionScorer.score(SatisfactionScorer.PASSENGER_IN_GROUP), 0);
+		assertEquals(0, satisfactionScorer.score(SatisfactionScorer.PASSENGER_IN_GROUP | SatisfactionScorer.SEPARATED_FROM_GROUP), 0);
+		
+		//travelers with window preference
+		assertEquals(1, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.WINDOW_SEAT), 0);
+		assertEquals(0, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE), 0);
+		assertEquals(0.5, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.PASSENGER_IN_GROUP), 0);
+		assertEquals(0.5, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.PASSENGER_IN_GROUP | 
+												   SatisfactionScorer.SEPARATED_FROM_GROUP | SatisfactionScorer.WINDOW_SEAT), 0);
+		assertEquals(0, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.PASSENGER_IN_GROUP | 
+												 SatisfactionScorer.SEPARATED_FROM_GROUP), 0);
+	}
+	
+	@Test
+	public void testPartialGroupSatisfaction() {
+		
+		SatisfactionScorer satisfactionScorer = new DefaultSatisfactionScorer(0.5);
+		
+		assertEquals(0.5, satisfactionScorer.score(SatisfactionScorer.PASSENGER_IN_GROUP | SatisfactionScorer.SEPARATED_FROM_GROUP), 0);
+		assertEquals(0.75, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.PASSENGER_IN_GROUP | 
+												    SatisfactionScorer.SEPARATED_FROM_GROUP | SatisfactionScorer.WINDOW_SEAT), 0);
+		assertEquals(0.25, satisfactionScorer.score(SatisfactionScorer.WINDOW_PREFERENCE | SatisfactionScorer.PASSENGER_IN_GROUP | 
+												    SatisfactionScorer.SEPARATED_FROM_GROUP), 0);
+	}
+	
+	@Test
+	public void testStoredArrangementsScoreAsAllocated() {
+		
+		for(String inputFile: new String[] {OVERSUBSCRIBED_FILE_PATH, LARGE_GROUPS_FILE_PATH}) {
+			
+			PassengerParser inputParser = new PassengerParser();
+			inputParser.parseInputFile(inputFile);
+			
+			SittingArrangement sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+																	  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(),
+																	  inputParser.getNumWindowsInPlane()).allocateSeats();
+			SeatMap seatMap = sittingArrangement.getSeatMap();
+			
+			byte[] passengerFlags = new byte[seatMap.getNumRowsOpened() * seatMap.getNumSeatsInRow()];
+			int[] passengerWeights = new int[passengerFlags.length];
+			int numPassengers = SatisfactionScorer.encodeArrangement(seatMap, passengerFlags, passengerWeights);
+			
+			double satisfaction = new DefaultSatisfactionScorer().scoreArrangement(passengerFlags, passengerWeights, numPassengers);
+			
+			assertEquals(sittingArrangement.getSatisfactionScore(), satisfaction / inputParser.getPassengerCount() * 100, 1e-9);
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPartialGroupSatisfaction() {
+		new DefaultSatisfactionScorer(1.5);
+	}
+
+}
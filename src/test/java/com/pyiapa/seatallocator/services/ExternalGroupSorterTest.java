@@ -0,0 +1,218 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.utilities.GroupConsumer;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ *
+ * Ensures that ExternalGroupSorter hands out groups ordered on disk in the same order as in memory.
+ *
+ * @author pyiapa
+ *
+ */
+public class ExternalGroupSorterTest {
+
+	private final static String LARGE_GROUPS_FILE_PATH = "src/test/resources/input/Input.LargeGroups";
+
+	@Rule
+	public TemporaryFolder spillFolder = new TemporaryFolder();
+
+	@Test
+	public void testInputFileMatchesInMemoryAllocation() throws IOException {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(LARGE_GROUPS_FILE_PATH);
+
+		final PassengerParser streamingParser = new PassengerParser();
+
+		try(final ExternalGroupSorter groupSorter = new ExternalGroupSorter(spillFolder.getRoot().toPath(), 2, 2)) {
+
+			streamingParser.parseInputFile(LARGE_GROUPS_FILE_PATH, new GroupConsumer() {
+				@Override
+				public void acceptGroup(List<Passenger> passengerGroup) {
+					groupSorter.addGroup(passengerGroup);
+				}
+			});
+			assertTrue(streamingParser.getPassengerGroups().isEmpty());
+			assertEquals(inputParser.getPassengerCount(), streamingParser.getPassengerCount());
+
+			assertEquals(allocateInMemory(readGroups(LARGE_GROUPS_FILE_PATH), streamingParser.getNumRows(),
+										  streamingParser.getNumSeatsInRow(), streamingParser.getPassengerCount()),
+						 allocateExternally(groupSorter, streamingParser.getNumRows(), streamingParser.getNumSeatsInRow(),
+								 			streamingParser.getPassengerCount()));
+		}
+	}
+
+	@Test
+	public void testManyRunsMatchInMemoryAllocation() throws IOException {
+
+		for(int seed = 0; seed < 5; seed++) {
+
+			List<List<Passenger>> passengerGroups = generateGroups(new Random(seed), 500);
+			int passengerCount = countPassengers(passengerGroups);
+
+			try(ExternalGroupSorter groupSorter = new ExternalGroupSorter(spillFolder.getRoot().toPath(), 7, 3)) {
+
+				for(List<Passenger> passengerGroup: generateGroups(new Random(seed), 500)) {
+					groupSorter.addGroup(passengerGroup);
+				}
+				assertEquals(71, groupSorter.getNumRuns());
+
+				assertEquals(allocateInMemory(passengerGroups, 40, 6, passengerCount),
+							 allocateExternally(groupSorter, 40, 6, passengerCount));
+
+				//runs were merged down to the merge width before the allocation took the groups
+				assertTrue(groupSorter.getNumRuns() <= 3);
+			}
+
+			assertEquals(0, spillFolder.getRoot().list().length);
+		}
+	}
+
+	@Test
+	public void testSingleRunStaysInMemory() throws IOException {
+
+		try(ExternalGroupSorter groupSorter = new ExternalGroupSorter(spillFolder.getRoot().toPath(), 100, 2)) {
+
+			List<List<Passenger>> passengerGroups = generateGroups(new Random(1), 50);
+			int passengerCount = countPassengers(passengerGroups);
+			for(List<Passenger> passengerGroup: generateGroups(new Random(1), 50)) {
+				groupSorter.addGroup(passengerGroup);
+			}
+
+			assertEquals(allocateInMemory(passengerGroups, 10, 5, passengerCount),
+						 allocateExternally(groupSorter, 10, 5, passengerCount));
+			assertEquals(0, groupSorter.getNumRuns());
+			assertEquals(0, spillFolder.getRoot().list().length);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidGroupsPerRun() {
+		new ExternalGroupSorter(spillFolder.getRoot().toPath(), 0, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingSpillDirectory() {
+		new ExternalGroupSorter(new File(spillFolder.getRoot(), "missing").toPath());
+	}
+
+	/*
+	 * Allocates the groups in memory and returns the rows of the plane followed by the satisfaction
+	 */
+	private static String allocateInMemory(List<List<Passenger>> passengerGroups, int numRows, int numSeatsInRow,
+										   int passengerCount) {
+
+		SeatAllocator seatAllocator = new SeatAllocator(passengerGroups, numRows, numSeatsInRow, passengerCount, 2);
+
+		List<List<Integer>> rows = new ArrayList<List<Integer>>();
+
+		String satisfaction = seatAllocator.allocateSeats(new RowConsumer() {
+			@Override
+			public void acceptRow(int rowNumber, List<Passenger> row) {
+				addRow(rows, rowNumber, row);
+			}
+		});
+
+		return rows + " " + satisfaction;
+	}
+
+	/*
+	 * Allocates the groups merged by the sorter and returns the rows of the plane followed by the satisfaction
+	 */
+	private static String allocateExternally(ExternalGroupSorter groupSorter, int numRows, int numSeatsInRow,
+											 int passengerCount) {
+
+		SeatAllocator seatAllocator = new SeatAllocator(new ArrayList<List<Passenger>>(), numRows, numSeatsInRow,
+														passengerCount, 2);
+
+		List<List<Integer>> rows = new ArrayList<List<Integer>>();
+
+		String satisfaction = seatAllocator.allocateSeats(groupSorter.merge(), new RowConsumer() {
+			@Override
+			public void acceptRow(int rowNumber, List<Passenger> row) {
+				addRow(rows, rowNumber, row);
+			}
+		});
+
+		return rows + " " + satisfaction;
+	}
+
+	/*
+	 * Records the IDs of the passengers of a row under its row number
+	 */
+	private static void addRow(List<List<Integer>> rows, int rowNumber, List<Passenger> row) {
+
+		while(rows.size() <= rowNumber) {
+			rows.add(null);
+		}
+
+		rows.set(rowNumber, new ArrayList<Integer>());
+		for(Passenger passenger: row) {
+			rows.get(rowNumber).add(passenger.getPassengerID());
+		}
+	}
+
+	/*
+	 * Parses the groups of an input file
+	 */
+	private static List<List<Passenger>> readGroups(String input) {
+
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(input);
+
+		return inputParser.getPassengerGroups();
+	}
+
+	/*
+	 * Generates groups of up to 8 passengers (some larger than a row) with window preferences and weights
+	 */
+	private static List<List<Passenger>> generateGroups(Random random, int numGroups) {
+
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		int passengerID = 1;
+
+		for(int group = 0; group < numGroups; group++) {
+
+			int groupSize = 1 + random.nextInt(8);
+			List<Passenger> passengerGroup = new ArrayList<Passenger>();
+
+			for(int passenger = 0; passenger < groupSize; passenger++) {
+				passengerGroup.add(new Passenger(passengerID++, random.nextInt(3) == 0, groupSize > 1,
+												 (random.nextInt(4) == 0)? 1 + random.nextInt(3):Passenger.DEFAULT_WEIGHT));
+			}
+
+			passengerGroups.add(passengerGroup);
+		}
+
+		return passengerGroups;
+	}
+
+	/*
+	 * Counts the passengers of the groups
+	 */
+	private static int countPassengers(List<List<Passenger>> passengerGroups) {
+
+		int passengerCount = 0;
+
+		for(List<Passenger> passengerGroup: passengerGroups) {
+			passengerCount += passengerGroup.size();
+		}
+
+		return passengerCount;
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * 
+ * Ensures that GroupQueue hands out groups in the order they are seated.
+ * 
+ * @author pyiapa
+ *
+ */
+public class GroupQueueTest {
+	
+	@Test
+	public void testSortedKeysKeepStableOrder() {
+		
+		GroupQueue groupQueue = new GroupQueue();
+		
+		//enough groups for the keys to be sorted in parallel
+		for(int seed = 0; seed < 3; seed++) {
+			
+			List<List<Passenger>> passengerGroups = generateGroups(new Random(seed), 20000);
+			List<List<Passenger>> expectedOrder = new ArrayList<List<Passenger>>(passengerGroups);
+			
+			//larger groups first, then groups with more window preferences, keeping the order of the rest
+			Collections.sort(expectedOrder, new Comparator<List<Passenger>>() {
+				@Override
+				public int compare(List<Passenger> group1, List<Passenger> group2) {
+					return (group1.size() != group2.size())? Integer.compare(group2.size(), group1.size()):
+						   Integer.compare(countWindowPreferences(group2), countWindowPreferences(group1));
+				}
+			});
+			
+			groupQueue.addGroups(passengerGroups);
+			
+			for(List<Passenger> passengerGroup: expectedOrder) {
+				assertSame(passengerGroup, groupQueue.peek());
+				assertSame(passengerGroup, groupQueue.poll());
+			}
+			assertTrue(groupQueue.isEmpty());
+		}
+	}
+	
+	@Test
+	public void testWeightedGroupsComeFirst() {
+		
+		List<Passenger> single = Arrays.asList(new Passenger(1, false, false));
+		List<Passenger> pair = Arrays.asList(new Passenger(2, false, true), new Passenger(3, false, true));
+		List<Passenger> weightedSingle = Arrays.asList(new Passenger(4, false, false, 3));
+		List<Passenger> windowSingle = Arrays.asList(new Passenger(5, true, false));
+		
+		GroupQueue groupQueue = new GroupQueue();
+		groupQueue.addGroups(Arrays.asList(single, pair, weightedSingle, windowSingle));
+		
+		assertSame(weightedSingle, groupQueue.poll());
+		assertSame(pair, groupQueue.poll());
+		assertSame(windowSingle, groupQueue.poll());
+		assertSame(single, groupQueue.poll());
+		assertTrue(groupQueue.isEmpty());
+		
+		//the queue is reused for groups without weights
+		groupQueue.addGroups(Arrays.asList(single, windowSingle, pair));
+		
+		assertSame(pair, groupQueue.poll());
+		assertSame(windowSingle, groupQueue.poll());
+		assertSame(single, groupQueue.poll());
+		assertTrue(groupQueue.isEmpty());
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testEmptyQueue() {
+		new GroupQueue().poll();
+	}
+	
+	/*
+	 * Generates groups of up to 6 passengers with window preferences
+	 */
+	private static List<List<Passenger>> generateGroups(Random random, int numGroups) {
+		
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		int passengerID = 1;
+		
+		for(int group = 0; group < numGroups; group++) {
+			
+			int groupSize = 1 + random.nextInt(6);
+			List<Passenger> passengerGroup = new ArrayList<Passenger>();
+			
+			for(int passenger = 0; passenger < groupSize; passenger++) {
+				passengerGroup.add(new Passenger(passengerID++, random.nextInt(3) == 0, groupSize > 1));
+			}
+			
+			passengerGroups.add(passengerGroup);
+		}
+		
+		return passengerGroups;
+	}
+	
+	/*
+	 * Counts the passengers of a group with window preferences
+	 */
+	private static int countWindowPreferences(List<Passenger> passengerGroup) {
+		
+		int windowPreferences = 0;
+		
+		for(Passenger passenger: passengerGroup) {
+			windowPreferences += passenger.hasWindowPreference()? 1:0;
+		}
+		
+		return windowPreferences;
+	}
+
+}
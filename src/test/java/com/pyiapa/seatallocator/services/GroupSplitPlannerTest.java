@@ -0,0 +1,55 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * 
+ * Ensures that GroupSplitPlanner cuts groups into row-width blocks and spreads window preferences.
+ * 
+ * @author pyiapa
+ *
+ */
+public class GroupSplitPlannerTest {
+	
+	private final static boolean WINDOW_PREFERENCE = true;
+	private final static boolean PASSENGER_IN_GROUP = true;
+	
+	@Test
+	public void testBlocksSpreadWindowPreferences() {
+		
+		List<Passenger> passengerGroup = new ArrayList<Passenger>();
+		
+		passengerGroup.add(new Passenger(1, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroup.add(new Passenger(4, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroup.add(new Passenger(5, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		for(int passengerID: new int[] {2, 3, 6, 7, 8, 9, 10}) {
+			passengerGroup.add(new Passenger(passengerID, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		
+		List<List<Passenger>> blocks = new GroupSplitPlanner(4, 2).planBlocks(passengerGroup);
+		
+		assertEquals("[[1, 4, 2, 3], [5, 6, 7, 8], [9, 10]]", blocks.toString());
+	}
+	
+	@Test
+	public void testMoreWindowPreferencesThanWindows() {
+		
+		List<Passenger> passengerGroup = new ArrayList<Passenger>();
+		
+		for(int passengerID = 1; passengerID <= 5; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		
+		List<List<Passenger>> blocks = new GroupSplitPlanner(2, 2).planBlocks(passengerGroup);
+		
+		assertEquals("[[1, 2], [3, 4], [5]]", blocks.toString());
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.NoShowSimulationReport;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ * 
+ * Ensures that NoShowSimulator reports the outcome of seeded no-show trials.
+ * 
+ * @author pyiapa
+ *
+ */
+public class NoShowSimulatorTest {
+	
+	private final static String OVERSUBSCRIBED_FILE_PATH = "src/test/resources/input/Input.Larger";
+	
+	@Test
+	public void testSameSeedGivesSameReport() {
+		
+		NoShowSimulator singleWorker = createSimulator(new ForkJoinPool(1));
+		NoShowSimulator manyWorkers = createSimulator(new ForkJoinPool(3));
+		singleWorker.setNoShowRates(0.1, 0.05);
+		manyWorkers.setNoShowRates(0.1, 0.05);
+		
+		NoShowSimulationReport singleWorkerReport = singleWorker.simulate(50, 42);
+		NoShowSimulationReport manyWorkersReport = manyWorkers.simulate(50, 42);
+		
+		for(int percentile = 0; percentile <= 100; percentile += 10) {
+			assertEquals(singleWorkerReport.getSatisfactionPercentile(percentile), 
+						 manyWorkersReport.getSatisfactionPercentile(percentile), 0);
+			assertEquals(singleWorkerReport.getSeatedPercentile(percentile), manyWorkersReport.getSeatedPercentile(percentile));
+			assertEquals(singleWorkerReport.getBumpedPercentile(percentile), manyWorkersReport.getBumpedPercentile(percentile));
+		}
+	}
+	
+	@Test
+	public void testNoNoShowsMatchesAllocation() {
+		
+		NoShowSimulator noShowSimulator = createSimulator(new ForkJoinPool(2));
+		noShowSimulator.setNoShowRates(0, 0);
+		
+		NoShowSimulationReport noShowSimulationReport = noShowSimulator.simulate(5, 7);
+		
+		//the 40 passengers of the manifest compete for 32 seats every time
+		assertEquals(5, noShowSimulationReport.getNumTrials());
+		assertEquals(78.75, noShowSimulationReport.getSatisfactionPercentile(0), 0.001);
+		assertEquals(78.75, noShowSimulationReport.getSatisfactionPercentile(100), 0.001);
+		assertEquals(32, noShowSimulationReport.getSeatedPercentile(50));
+		assertEquals(8, noShowSimulationReport.getBumpedPercentile(50));
+	}
+	
+	@Test
+	public void testNobodyShowsUp() {
+		
+		NoShowSimulator noShowSimulator = createSimulator(new ForkJoinPool(2));
+		noShowSimulator.setNoShowRates(1, 0);
+		
+		NoShowSimulationReport noShowSimulationReport = noShowSimulator.simulate(10, 1);
+		
+		assertEquals(0, noShowSimulationReport.getSeatedPercentile(100));
+		assertEquals(0, noShowSimulationReport.getBumpedPercentile(100));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidNoShowRate() {
+		createSimulator(ForkJoinPool.commonPool()).setNoShowRates(0.1, 1.5);
+	}
+	
+	/*
+	 * Creates a simulator for the over-subscribed manifest on its 8x4 plane
+	 */
+	private NoShowSimulator createSimulator(ForkJoinPool simulationPool) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		
+		return new NoShowSimulator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+								   inputParser.getNumSeatsInRow(), inputParser.getNumWindowsInPlane(), simulationPool);
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+
+/**
+ * 
+ * Ensures that RowPacker fills rows with the combination of groups that takes the most seats.
+ * 
+ * @author pyiapa
+ *
+ */
+public class RowPackerTest {
+	
+	private final static boolean WINDOW_PREFERENCE = true;
+	
+	//next passenger ID handed out by group()
+	private int nextPassengerID = 1;
+	
+	@Test
+	public void testRowsFilledExactly() {
+		
+		RowPacker rowPacker = new RowPacker(10, 2);
+		
+		//first-fit decreasing needs three rows for these groups, while two rows can hold them
+		for(int size: new int[] {5, 4, 3, 3, 3, 2}) {
+			rowPacker.addGroup(group(size, 0));
+		}
+		
+		assertEquals(10, seats(rowPacker.nextRow()));
+		assertEquals(10, seats(rowPacker.nextRow()));
+		assertFalse(rowPacker.hasGroups());
+	}
+	
+	@Test
+	public void testWindowSeatsGoToPassengersTravelingAlone() {
+		
+		RowPacker rowPacker = new RowPacker(4, 2);
+		
+		rowPacker.addGroup(group(3, 3));
+		rowPacker.addGroup(group(1, 1));
+		
+		List<List<Passenger>> row = rowPacker.nextRow();
+		
+		assertEquals(2, row.size());
+		assertEquals(1, row.get(0).size());
+		assertEquals(3, row.get(1).size());
+	}
+	
+	@Test
+	public void testPackingBeatsFirstFit() {
+		
+		int numRows = 2;
+		int numSeatsInRow = 10;
+		int numWindowsInPlane = 2;
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		List<List<Passenger>> packedGroups = new ArrayList<List<Passenger>>();
+		
+		for(int size: new int[] {5, 4, 3, 3, 3, 2}) {
+			passengerGroups.add(group(size, 0));
+		}
+		nextPassengerID = 1;
+		for(int size: new int[] {5, 4, 3, 3, 3, 2}) {
+			packedGroups.add(group(size, 0));
+		}
+		
+		SittingArrangement firstFit = new SeatAllocator(passengerGroups, numRows, numSeatsInRow, 20, 
+														numWindowsInPlane).allocateSeats();
+		
+		SeatAllocator seatAllocator = new SeatAllocator(packedGroups, numRows, numSeatsInRow, 20, numWindowsInPlane);
+		seatAllocator.setRowPacking(true);
+		SittingArrangement packed = seatAllocator.allocateSeats();
+		
+		assertEquals("90.0%", firstFit.getSatisfaction());
+		assertEquals("100.0%", packed.getSatisfaction());
+		assertEquals(0, packed.getOptimalityGap(), 1e-9);
+	}
+	
+	/*
+	 * Returns a new group of the given size, its first passengers wishing for a window seat
+	 */
+	private List<Passenger> group(int size, int windowPreferences) {
+		
+		List<Passenger> passengerGroup = new ArrayList<Passenger>();
+		
+		for(int passenger = 0; passenger < size; passenger++) {
+			passengerGroup.add(new Passenger(nextPassengerID++, passenger < windowPreferences? WINDOW_PREFERENCE:!WINDOW_PREFERENCE, 
+											 size > 1));
+		}
+		
+		return passengerGroup;
+	}
+	
+	/*
+	 * Returns the number of passengers of the groups of a row
+	 */
+	private static int seats(List<List<Passenger>> row) {
+		
+		int seats = 0;
+		
+		for(List<Passenger> passengerGroup: row) {
+			seats += passengerGroup.size();
+		}
+		
+		return seats;
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ * 
+ * Ensures that SatisfactionBound never underestimates the satisfaction of an arrangement and is
+ * reached where the greedy allocation is optimal.
+ * 
+ * @author pyiapa
+ *
+ */
+public class SatisfactionBoundTest {
+	
+	private final static double DELTA = 1e-9;
+	
+	private final static String[] SAMPLE_INPUTS = {"Input.Normal", "Input.Small", "Input.SmallWithMorePassengers",
+												   "Input.Large", "Input.Larger", "Input.LargeGroups",
+												   "Input.ManyWindows", "Input.NarrowPlane", "Input.WidePlane"};
+	
+	@Test
+	public void testBoundHoldsOnSampleInputs() {
+		
+		for(String sampleInput: SAMPLE_INPUTS) {
+			
+			PassengerParser inputParser = new PassengerParser();
+			inputParser.parseInputFile("src/test/resources/input/" + sampleInput);
+			
+			SittingArrangement sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), 
+																	  inputParser.getNumRows(), inputParser.getNumSeatsInRow(), 
+																	  inputParser.getPassengerCount(), 
+																	  inputParser.getNumWindowsInPlane()).allocateSeats();
+			
+			assertTrue(sampleInput, sittingArrangement.getSatisfactionScore() <= sittingArrangement.getSatisfactionBound() + DELTA);
+			assertEquals(sampleInput, sittingArrangement.getSatisfactionBound() - sittingArrangement.getSatisfactionScore(), 
+						 sittingArrangement.getOptimalityGap(), DELTA);
+		}
+	}
+	
+	@Test
+	public void testOptimalArrangementHasNoGap() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile("src/test/resources/input/Input.Normal");
+		
+		SittingArrangement sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), 
+																  inputParser.getNumRows(), inputParser.getNumSeatsInRow(), 
+																  inputParser.getPassengerCount(), 
+																  inputParser.getNumWindowsInPlane()).allocateSeats();
+		
+		assertEquals(100, sittingArrangement.getSatisfactionBound(), DELTA);
+		assertEquals(0, sittingArrangement.getOptimalityGap(), DELTA);
+	}
+	
+	@Test
+	public void testWindowSeatsAndCapacityLimitBound() {
+		
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>();
+		
+		//six passengers traveling alone that wish for a window seat, on a plane with four seats and two windows
+		for(int passengerID = 1; passengerID <= 6; passengerID++) {
+			List<Passenger> passengerGroup = new ArrayList<Passenger>();
+			passengerGroup.add(new Passenger(passengerID, true, false));
+			passengerGroups.add(passengerGroup);
+		}
+		
+		SatisfactionBound satisfactionBound = new SatisfactionBound(1, 4, 2, 0);
+		
+		assertEquals(2.0 / 6 * 100, satisfactionBound.computeBound(passengerGroups, 6), DELTA);
+		assertTrue(satisfactionBound.isReached(2));
+		assertFalse(satisfactionBound.isReached(1.5));
+		
+		//a group of three on a plane with two seats: the group can never sit together
+		passengerGroups.clear();
+		List<Passenger> passengerGroup = new ArrayList<Passenger>();
+		passengerGroup.add(new Passenger(1, true, true));
+		passengerGroup.add(new Passenger(2, false, true));
+		passengerGroup.add(new Passenger(3, false, true));
+		passengerGroups.add(passengerGroup);
+		
+		assertEquals(0.5 / 3 * 100, new SatisfactionBound(1, 2, 2, 0).computeBound(passengerGroups, 3), DELTA);
+		assertEquals(2.0 / 3 * 100, new SatisfactionBound(1, 2, 2, 1).computeBound(passengerGroups, 3), DELTA);
+	}
+
+}
@@ -2,16 +2,23 @@ package com.pyiapa.seatallocator.services;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.pyiapa.seatallocator.domain.AllocationTier;
 import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SeatMap;
 import com.pyiapa.seatallocator.domain.SittingArrangement;
 import com.pyiapa.seatallocator.services.SeatAllocator;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
 
 
 /**
@@ -39,6 +46,9 @@ public class SeatAllocatorTest {
 	private final static boolean WINDOW_PREFERENCE = true;
 	private final static boolean PASSENGER_IN_GROUP = true;
 	
+	private final static String OVERSUBSCRIBED_FILE_PATH = "src/test/resources/input/Input.Larger";
+	private final static String NORMAL_FILE_PATH = "src/test/resources/input/Input.Normal";
+	
 	@Before
 	public void setup() {
 		passengerGroups = new ArrayList<List<Passenger>>();
@@ -177,22 +187,22 @@ public class SeatAllocatorTest {
         assertEquals(6, seatConfiguration.get(0).get(2).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(0).get(2).hasWindowPreference());
         
-        assertEquals(9, seatConfiguration.get(1).get(0).getPassengerID());
+        assertEquals(15, seatConfiguration.get(1).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(1).get(0).hasWindowPreference());
         assertEquals(8, seatConfiguration.get(1).get(1).getPassengerID());
-        assertEquals(10, seatConfiguration.get(1).get(2).getPassengerID());
+        assertEquals(14, seatConfiguration.get(1).get(2).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(1).get(2).hasWindowPreference());
         
-        assertEquals(12, seatConfiguration.get(2).get(0).getPassengerID());
+        assertEquals(13, seatConfiguration.get(2).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(2).get(0).hasWindowPreference());
         assertEquals(11, seatConfiguration.get(2).get(1).getPassengerID());
-        assertEquals(13, seatConfiguration.get(2).get(2).getPassengerID());
+        assertEquals(12, seatConfiguration.get(2).get(2).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(2).get(2).hasWindowPreference());
         
-        assertEquals(14, seatConfiguration.get(3).get(0).getPassengerID());
+        assertEquals(10, seatConfiguration.get(3).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(3).get(0).hasWindowPreference());
         assertEquals(1, seatConfiguration.get(3).get(1).getPassengerID());
-        assertEquals(15, seatConfiguration.get(3).get(2).getPassengerID());
+        assertEquals(9, seatConfiguration.get(3).get(2).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(3).get(2).hasWindowPreference());
         
         assertEquals(2, seatConfiguration.get(4).get(0).getPassengerID());
@@ -589,11 +599,11 @@ public class SeatAllocatorTest {
 		assertEquals(6, seatConfiguration.get(0).get(0).getPassengerID());
         assertEquals(7, seatConfiguration.get(1).get(0).getPassengerID());
         assertEquals(8, seatConfiguration.get(2).get(0).getPassengerID());
-        assertEquals(4, seatConfiguration.get(3).get(0).getPassengerID());
+        assertEquals(2, seatConfiguration.get(3).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(3).get(0).hasWindowPreference());
         assertEquals(5, seatConfiguration.get(4).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(4).get(0).hasWindowPreference());
-        assertEquals(2, seatConfiguration.get(5).get(0).getPassengerID());
+        assertEquals(4, seatConfiguration.get(5).get(0).getPassengerID());
         assertEquals(WINDOW_PREFERENCE, seatConfiguration.get(5).get(0).hasWindowPreference());
         assertEquals(1, seatConfiguration.get(6).get(0).getPassengerID());
         assertEquals(3, seatConfiguration.get(7).get(0).getPassengerID());
@@ -602,6 +612,551 @@ public class SeatAllocatorTest {
         
 	}
 	
+	@Test
+	public void testStreamingModeDeliversSameRows() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		//rows delivered by the streaming mode, indexed by row number
+		final List<List<Passenger>> streamedRows = new ArrayList<List<Passenger>>();
+		
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		for(int currentRow = 0; currentRow < inputParser.getNumRows(); currentRow++) {
+			streamedRows.add(null);
+		}
+		
+		inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		
+		String satisfaction = seatAllocator.allocateSeats(new RowConsumer() {
+			@Override
+			public void acceptRow(int rowNumber, List<Passenger> row) {
+				
+				//every row is delivered exactly once
+				assertNull(streamedRows.get(rowNumber));
+				streamedRows.set(rowNumber, row);
+			}
+		});
+		
+		assertEquals(sittingArrangement.getSatisfaction(), satisfaction);
+		
+		seatConfiguration = sittingArrangement.getSeatConfiguration();
+		
+		for(int currentRow = 0; currentRow < seatConfiguration.size(); currentRow++) {
+			assertEquals(seatConfiguration.get(currentRow).toString(), streamedRows.get(currentRow).toString());
+		}
+	}
+	
+	@Test
+	public void testOffHeapRowStateMatchesHeapRowState() {
+		
+		int numRows = 3;
+		int numSeatsInRow = 2;
+		int numWindowsInPlane = 2;
+		int passengerCount = 0;
+		SittingArrangement offHeapArrangement;
+		
+		//enough groups to open thousands of virtual rows
+		for(int currentGroup = 0; currentGroup < 3000; currentGroup++) {
+			passengerGroup = new ArrayList<Passenger>();
+			passengerGroup.add(new Passenger(++passengerCount, currentGroup % 3 == 0, PASSENGER_IN_GROUP));
+			passengerGroup.add(new Passenger(++passengerCount, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+			passengerGroups.add(passengerGroup);
+		}
+		
+		seatAllocator = new SeatAllocator(new ArrayList<List<Passenger>>(passengerGroups), numRows, numSeatsInRow, 
+										  passengerCount, numWindowsInPlane);
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		seatAllocator = new SeatAllocator(new ArrayList<List<Passenger>>(passengerGroups), numRows, numSeatsInRow, 
+										  passengerCount, numWindowsInPlane);
+		seatAllocator.setOffHeapRowState(true);
+		offHeapArrangement = seatAllocator.allocateSeats();
+		
+		assertEquals(sittingArrangement.getSatisfaction(), offHeapArrangement.getSatisfaction());
+		assertEquals(sittingArrangement.getSeatConfiguration().toString(), offHeapArrangement.getSeatConfiguration().toString());
+	}
+	
+	@Test(timeout = 10000)
+	public void testSplittingLargeGroup() {
+		
+		int numRows = 10;
+		int numSeatsInRow = 4;
+		int passengerCount = 200000;
+		int numWindowsInPlane = 2;
+		
+		//a single tour group far larger than a row, with every third passenger wishing for a window seat
+		passengerGroup = new ArrayList<Passenger>();
+		for(int passengerID = 1; passengerID <= passengerCount; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, passengerID % 3 == 0, PASSENGER_IN_GROUP));
+		}
+		passengerGroups.add(passengerGroup);
+		
+		seatAllocator = new SeatAllocator(passengerGroups, numRows, numSeatsInRow, passengerCount, numWindowsInPlane);
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		//the 20 window seats of the plane go to the first separated passengers wishing for one, in their original order
+		assertEquals(".01%", sittingArrangement.getSatisfaction());
+		
+		seatConfiguration = sittingArrangement.getSeatConfiguration();
+		
+		assertEquals(numRows, seatConfiguration.size());
+		assertEquals(3, seatConfiguration.get(0).get(0).getPassengerID());
+		assertEquals(6, seatConfiguration.get(0).get(3).getPassengerID());
+		assertEquals(60, seatConfiguration.get(9).get(3).getPassengerID());
+	}
+	
+	@Test
+	public void testSplittingGroupIntoBlocks() {
+		
+		int numRows = 3;
+		int numSeatsInRow = 4;
+		int passengerCount = 10;
+		int numWindowsInPlane = 2;
+		
+		seatAllocator = new SeatAllocator(tourGroup(), numRows, numSeatsInRow, passengerCount, numWindowsInPlane);
+		seatAllocator.setGroupSplitting(true, 0.5);
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		//window seats give 0.75 and other seats 0.5
+		assertEquals("57.5%", sittingArrangement.getSatisfaction());
+		assertEquals("[[1, 3, 2, 4], [5, 6, 7, 8], [9, 10]]", sittingArrangement.getSeatConfiguration().toString());
+		
+		//with no share of the group satisfaction, passengers of the split group are rated as separated passengers
+		seatAllocator = new SeatAllocator(tourGroup(), numRows, numSeatsInRow, passengerCount, numWindowsInPlane);
+		seatAllocator.setGroupSplitting(true, 0);
+		
+		assertEquals("15.0%", seatAllocator.allocateSeats().getSatisfaction());
+	}
+	
+	@Test
+	public void testSplitGroupUsesEmptyPlaneRows() {
+		
+		//a group larger than a row follows a group that fills a row of the plane
+		passengerGroup = new ArrayList<Passenger>();
+		for(int passengerID = 1; passengerID <= 4; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		passengerGroups.add(passengerGroup);
+		
+		passengerGroup = new ArrayList<Passenger>();
+		for(int passengerID = 5; passengerID <= 7; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		passengerGroups.add(passengerGroup);
+		
+		seatAllocator = new SeatAllocator(passengerGroups, 5, 3, 7, 2);
+		seatAllocator.setGroupSplitting(true, 0.5);
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		//the blocks of the split group take the empty rows right after the first one, within the plane
+		assertEquals("[[5, 7, 6], [1, 2, 3], [4], [], []]", sittingArrangement.getSeatConfiguration().toString());
+		assertEquals(2, sittingArrangement.getRowOf(4));
+	}
+	
+	@Test
+	public void testSplitGroupsSeatEveryPassengerThatFits() {
+		
+		//groups larger than a row whose blocks find no run of empty rows left in the plane
+		for(String manifest: new String[] {"2 4\n1 2 3\n4 5 6 7 8", "3 4\n1 2 3\n4 5 6\n7 8 9 10 11 12", 
+										   "3 4\n1W 2\n3 4 5W 6 7\n8 9 10 11 12", "3 4\n1 2 3\n4 5 6\n7 8 9 10 11 12 13"}) {
+			
+			seatAllocator = parsedAllocator(manifest);
+			seatAllocator.setGroupSplitting(true, 0.5);
+			
+			assertEverySeatTaken(manifest, seatAllocator.allocateSeats());
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPartialGroupSatisfaction() {
+		seatAllocator = new SeatAllocator(tourGroup(), 3, 4, 10, 2);
+		seatAllocator.setGroupSplitting(true, 1.5);
+	}
+	
+	@Test
+	public void testRowAffinityUsesPartlyTakenRows() {
+		
+		//a couple and a group of six that does not fit in a row of five
+		passengerGroups = new ArrayList<List<Passenger>>();
+		passengerGroups.add(new ArrayList<Passenger>(Arrays.asList(new Passenger(1, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP), 
+																	 new Passenger(2, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP))));
+		passengerGroup = new ArrayList<Passenger>();
+		for(int passengerID = 3; passengerID <= 8; passengerID++) {
+			passengerGroup.add(new Passenger(passengerID, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		passengerGroups.add(passengerGroup);
+		
+		//the group is seated three and three in the row of the couple and the next one, each getting half
+		seatAllocator = new SeatAllocator(passengerGroups, 2, 5, 8, 2);
+		seatAllocator.setRowAffinity(true, 0.5);
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		assertEquals("[[1, 2, 3, 4, 5], [6, 7, 8]]", sittingArrangement.getSeatConfiguration().toString());
+		assertEquals("62.5%", sittingArrangement.getSatisfaction());
+		assertTrue(sittingArrangement.getSatisfactionBound() >= sittingArrangement.getSatisfactionScore());
+	}
+	
+	@Test
+	public void testRowAffinitySeatsEveryPassengerThatFits() {
+		
+		//groups larger than a row with no run of rows left in the plane that has room for their blocks
+		for(String manifest: new String[] {"2 4\n1 2 3\n4 5 6 7 8", "3 4\n1 2 3\n4 5 6\n7 8 9 10 11 12", 
+										   "3 4\n1W 2\n3 4 5W 6 7\n8 9 10 11 12", "3 4\n1 2 3\n4 5 6\n7 8 9 10 11 12 13"}) {
+			
+			seatAllocator = parsedAllocator(manifest);
+			seatAllocator.setRowAffinity(true, 0.5);
+			
+			assertEverySeatTaken(manifest, seatAllocator.allocateSeats());
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidAdjacentRowSatisfaction() {
+		seatAllocator = new SeatAllocator(tourGroup(), 3, 4, 10, 2);
+		seatAllocator.setRowAffinity(true, -0.5);
+	}
+	
+	@Test
+	public void testSeatLookups() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		SeatMap seatMap;
+		
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		seatMap = seatAllocator.allocateSeats().getSeatMap();
+		
+		//window passengers sit in the first and last seat of their row
+		assertEquals(2, seatMap.getRowOf(11));
+		assertEquals(0, seatMap.getSeatOf(11));
+		assertEquals(1, seatMap.getRowOf(12));
+		assertEquals(3, seatMap.getSeatOf(12));
+		assertTrue(seatMap.isWindowSeat(seatMap.getSeatOf(1)));
+		
+		assertEquals(0, seatMap.getRowOf(6));
+		assertEquals(2, seatMap.getSeatOf(6));
+		assertEquals(6, seatMap.getPassenger(0, 2).getPassengerID());
+		assertEquals(SeatMap.NOT_SEATED, seatMap.getRowOf(17));
+	}
+	
+	@Test
+	public void testArrangementQueries() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		int[] passengerIDs = {11, 12, 6, 17};
+		int[] rows = new int[passengerIDs.length];
+		int[] seatNumbers = new int[passengerIDs.length];
+		
+		//batched lookups agree with single lookups
+		assertEquals(3, sittingArrangement.findSeats(passengerIDs, rows, seatNumbers));
+		assertArrayEquals(new int[] {2, 1, 0, SeatMap.NOT_SEATED}, rows);
+		assertArrayEquals(new int[] {0, 3, 2, SeatMap.NOT_SEATED}, seatNumbers);
+		assertEquals(2, sittingArrangement.getRowOf(11));
+		assertEquals(3, sittingArrangement.getSeatOf(12));
+		
+		//row occupancy matches the passengers of each row
+		for(int row = 0; row < inputParser.getNumRows(); row++) {
+			
+			int windowPassengers = 0;
+			for(int seat = 0; seat < inputParser.getNumSeatsInRow(); seat++) {
+				Passenger passenger = sittingArrangement.getSeatMap().getPassenger(row, seat);
+				if(passenger != null && passenger.hasWindowPreference() && sittingArrangement.getSeatMap().isWindowSeat(seat)) {
+					windowPassengers++;
+				}
+			}
+			
+			assertEquals(inputParser.getNumSeatsInRow() - sittingArrangement.getSeatConfiguration().get(row).size(), 
+						 sittingArrangement.getAvailableSeats(row));
+			assertEquals(2 - windowPassengers, sittingArrangement.getAvailableWindowSeats(row));
+		}
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testQueriesNeedSeatMap() {
+		new SittingArrangement(new ArrayList<List<Passenger>>(), "0%").getRowOf(1);
+	}
+	
+	@Test
+	public void testReusedAllocatorMatchesFreshAllocator() {
+		
+		//inputs with the same plane, from the most passengers to the fewest so that rows of earlier runs are left over
+		String[] inputs = {"4 4\n1W 2 3\n4 5 6 7\n8\n9 10 11W\n12W\n13 14\n15 16 17 18 19\n20W 21 22\n",
+						   "4 4\n1W 2 3\n4 5 6 7\n8\n9 10 11W\n12W\n",
+						   "4 4\n1 2W\n"};
+		
+		SeatAllocator reusedAllocator = new SeatAllocator(4, 4, 2);
+		SittingArrangement reusedArrangement = null;
+		
+		for(String input: inputs) {
+			
+			PassengerParser inputParser = new PassengerParser();
+			inputParser.parseInput(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+			sittingArrangement = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+												   inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+												   inputParser.getNumWindowsInPlane()).allocateSeats();
+			
+			inputParser = new PassengerParser();
+			inputParser.parseInput(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+			SittingArrangement currentArrangement = reusedAllocator.allocateSeats(inputParser.getPassengerGroups(), 
+																				  inputParser.getPassengerCount());
+			
+			//the arrangement is filled in place by every run
+			assertTrue(reusedArrangement == null || reusedArrangement == currentArrangement);
+			reusedArrangement = currentArrangement;
+			
+			assertEquals(sittingArrangement.getSatisfaction(), reusedArrangement.getSatisfaction());
+			assertEquals(sittingArrangement.getSatisfactionBound(), reusedArrangement.getSatisfactionBound(), 1e-9);
+			assertEquals(sittingArrangement.getSeatConfiguration().toString(), reusedArrangement.getSeatConfiguration().toString());
+			assertEquals(sittingArrangement.getSeatMap().getRowOf(2), reusedArrangement.getSeatMap().getRowOf(2));
+			assertEquals(sittingArrangement.getSeatMap().getSeatOf(2), reusedArrangement.getSeatMap().getSeatOf(2));
+		}
+		
+		//passengers of earlier runs are no longer in the seat map
+		assertEquals(SeatMap.NOT_SEATED, reusedArrangement.getSeatMap().getRowOf(4));
+	}
+	
+	@Test
+	public void testDeadlineSearchesSmallPlaneExhaustively() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		sittingArrangement = seatAllocator.allocateSeats(10, TimeUnit.SECONDS);
+		
+		//the greedy allocation gets 78.75%, while the best rows for the groups reach the bound
+		assertEquals(AllocationTier.EXACT, sittingArrangement.getAllocationTier());
+		assertEquals("80.0%", sittingArrangement.getSatisfaction());
+		assertEquals(0, sittingArrangement.getOptimalityGap(), 1e-9);
+		assertTrue(sittingArrangement.getAllocationTimeNanos() >= 0);
+		
+		//every seat of the plane is taken, each passenger once
+		List<Integer> passengerIDs = new ArrayList<Integer>();
+		for(List<Passenger> row: sittingArrangement.getSeatConfiguration()) {
+			assertEquals(4, row.size());
+			for(Passenger passenger: row) {
+				assertFalse(passengerIDs.contains(passenger.getPassengerID()));
+				passengerIDs.add(passenger.getPassengerID());
+			}
+		}
+		assertEquals(32, passengerIDs.size());
+	}
+	
+	@Test
+	public void testDeadlineFallsBackToGreedy() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		//the greedy allocation already reaches the bound
+		inputParser.parseInputFile(NORMAL_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		sittingArrangement = seatAllocator.allocateSeats(10, TimeUnit.SECONDS);
+		
+		assertEquals(AllocationTier.GREEDY, sittingArrangement.getAllocationTier());
+		assertEquals("100.0%", sittingArrangement.getSatisfaction());
+		
+		//with no budget left there is only the greedy allocation
+		inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		sittingArrangement = seatAllocator.allocateSeats(0, TimeUnit.MILLISECONDS);
+		
+		assertEquals(AllocationTier.GREEDY, sittingArrangement.getAllocationTier());
+		assertEquals("78.75%", sittingArrangement.getSatisfaction());
+	}
+	
+	@Test
+	public void testDeadlineReportsPartialExhaustiveSearch() {
+		
+		//a small plane with more window requests than windows, whose exhaustive search takes far longer than the budget
+		seatAllocator = parsedAllocator("8 4\n1W 2W 3\n4W 5W 6W\n7W 8W\n9W 10W\n11W\n12W\n13W\n14 15W\n16W 17\n18W 19W 20\n" + 
+										"21W\n22W\n23 24W\n25W\n26W\n27W\n28W\n29W 30\n31W\n32W");
+		sittingArrangement = seatAllocator.allocateSeats(200, TimeUnit.MILLISECONDS);
+		
+		//the search is cut short, so its arrangement is not reported as the best one possible
+		AllocationTier allocationTier = sittingArrangement.getAllocationTier();
+		assertTrue(allocationTier == AllocationTier.GREEDY || allocationTier == AllocationTier.PARTIAL_EXACT);
+		assertTrue(sittingArrangement.getOptimalityGap() > 0);
+	}
+	
+	@Test
+	public void testDeadlineKeepsOffHeapRowState() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+										  inputParser.getNumWindowsInPlane());
+		seatAllocator.setOffHeapRowState(true);
+		sittingArrangement = seatAllocator.allocateSeats(10, TimeUnit.SECONDS);
+		
+		//the passengers are seated again in the rows found by the search, in the row store chosen for the allocator
+		assertEquals(AllocationTier.EXACT, sittingArrangement.getAllocationTier());
+		assertEquals("80.0%", sittingArrangement.getSatisfaction());
+		assertTrue(seatAllocator.isOffHeapRowState());
+	}
+	
+	@Test
+	public void testDeadlineNeverScoresBelowGreedy() {
+		
+		for(String inputFile: new String[] {OVERSUBSCRIBED_FILE_PATH, "src/test/resources/input/Input.ManyWindows", 
+										  "src/test/resources/input/Input.Large", "src/test/resources/input/Input.WidePlane"}) {
+			
+			PassengerParser inputParser = new PassengerParser();
+			inputParser.parseInputFile(inputFile);
+			SittingArrangement greedyArrangement = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+																	 inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+																	 inputParser.getNumWindowsInPlane()).allocateSeats();
+			
+			inputParser = new PassengerParser();
+			inputParser.parseInputFile(inputFile);
+			seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), 
+											  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(), 
+											  inputParser.getNumWindowsInPlane());
+			sittingArrangement = seatAllocator.allocateSeats(1, TimeUnit.SECONDS);
+			
+			assertTrue(inputFile, sittingArrangement.getSatisfactionScore() >= greedyArrangement.getSatisfactionScore() - 1e-9);
+		}
+	}
+	
+	@Test
+	public void testWeightedPassengersComeFirst() {
+		
+		passengerGroups = new ArrayList<List<Passenger>>();
+		
+		//a couple worth 1 per seat, and two passengers traveling alone worth 3 and 2
+		passengerGroup = new ArrayList<Passenger>();
+		passengerGroup.add(new Passenger(1, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroup.add(new Passenger(2, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroups.add(passengerGroup);
+		passengerGroups.add(new ArrayList<Passenger>(Arrays.asList(new Passenger(3, !WINDOW_PREFERENCE, !PASSENGER_IN_GROUP, 3))));
+		passengerGroups.add(new ArrayList<Passenger>(Arrays.asList(new Passenger(4, !WINDOW_PREFERENCE, !PASSENGER_IN_GROUP, 2))));
+		
+		//a single row of two seats goes to the passengers worth more, for 5 out of 7 weighted points
+		seatAllocator = new SeatAllocator(passengerGroups, 1, 2, 4, 2);
+		sittingArrangement = seatAllocator.allocateSeats();
+		seatConfiguration = sittingArrangement.getSeatConfiguration();
+		
+		assertEquals(1, seatConfiguration.size());
+		assertEquals("[3, 4]", seatConfiguration.get(0).toString());
+		assertEquals("71.43%", sittingArrangement.getSatisfaction());
+		assertTrue(sittingArrangement.getSatisfactionBound() >= sittingArrangement.getSatisfactionScore());
+	}
+	
+	@Test
+	public void testCustomSatisfactionScorer() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		
+		seatAllocator = new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(),
+										  inputParser.getNumSeatsInRow(), inputParser.getPassengerCount(),
+										  inputParser.getNumWindowsInPlane());
+		
+		//every seated passenger is satisfied
+		seatAllocator.setSatisfactionScorer(new SatisfactionScorer() {
+			@Override
+			public double score(int passengerFlags) {
+				return 1;
+			}
+			@Override
+			public double scoreArrangement(byte[] passengerFlags, int[] passengerWeights, int numPassengers) {
+				return numPassengers;
+			}
+		});
+		sittingArrangement = seatAllocator.allocateSeats();
+		
+		//32 of the 40 passengers get a seat, and the bound on the README rules does not apply
+		assertEquals("80.0%", sittingArrangement.getSatisfaction());
+		assertTrue(Double.isNaN(sittingArrangement.getSatisfactionBound()));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeTimeBudget() {
+		seatAllocator = new SeatAllocator(tourGroup(), 3, 4, 10, 2);
+		seatAllocator.allocateSeats(-1, TimeUnit.MILLISECONDS);
+	}
+	
+	/*
+	 * Returns an allocator for the passengers and plane of a manifest
+	 */
+	private SeatAllocator parsedAllocator(String manifest) {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInput(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)));
+		
+		return new SeatAllocator(inputParser.getPassengerGroups(), inputParser.getNumRows(), inputParser.getNumSeatsInRow(), 
+								 inputParser.getPassengerCount(), inputParser.getNumWindowsInPlane());
+	}
+	
+	/*
+	 * Asserts that an arrangement seats every passenger of a manifest, or fills every seat of the plane if there 
+	 * are more passengers than seats
+	 */
+	private void assertEverySeatTaken(String manifest, SittingArrangement sittingArrangement) {
+		
+		//passengers and seats of the manifest
+		String[] lines = manifest.split("\n");
+		int numPassengers = 0;
+		int numSeats = Integer.parseInt(lines[0].split(" ")[0]) * Integer.parseInt(lines[0].split(" ")[1]);
+		
+		//passengers seated in the plane
+		int numSeated = 0;
+		
+		for(int line = 1; line < lines.length; line++) {
+			numPassengers += lines[line].split(" ").length;
+		}
+		for(List<Passenger> row: sittingArrangement.getSeatConfiguration()) {
+			numSeated += row.size();
+		}
+		
+		assertEquals(manifest, Math.min(numPassengers, numSeats), numSeated);
+	}
+	
+	/*
+	 * Returns a tour group of 10 passengers (as returned by the PassengerParser) wrapped as the only group
+	 */
+	private List<List<Passenger>> tourGroup() {
+		
+		List<List<Passenger>> tourGroups = new ArrayList<List<Passenger>>();
+		
+		passengerGroup = new ArrayList<Passenger>();
+		passengerGroup.add(new Passenger(1, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroup.add(new Passenger(4, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		passengerGroup.add(new Passenger(5, WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		for(int passengerID: new int[] {2, 3, 6, 7, 8, 9, 10}) {
+			passengerGroup.add(new Passenger(passengerID, !WINDOW_PREFERENCE, PASSENGER_IN_GROUP));
+		}
+		tourGroups.add(passengerGroup);
+		
+		return tourGroups;
+	}
+	
 	@After
 	public void tearDown() {
 		passengerGroups = null;
@@ -0,0 +1,143 @@
+package com.pyiapa.seatallocator.services;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.pyiapa.seatallocator.domain.Departure;
+import com.pyiapa.seatallocator.domain.Passenger;
+import com.pyiapa.seatallocator.domain.SittingArrangement;
+import com.pyiapa.seatallocator.domain.WaitlistDistribution;
+import com.pyiapa.seatallocator.utilities.PassengerParser;
+
+/**
+ * 
+ * Ensures that WaitlistDistributor seats the passengers of an over-subscribed manifest on other
+ * departures, keeping every group on a single departure.
+ * 
+ * @author pyiapa
+ *
+ */
+public class WaitlistDistributorTest {
+	
+	private final static String OVERSUBSCRIBED_FILE_PATH = "src/test/resources/input/Input.Larger";
+	
+	@Test
+	public void testLeftoversFlyOnOtherDepartures() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		
+		//a single departure leaves 8 of the 40 passengers behind, while a second plane takes all of them
+		List<Departure> departures = Arrays.asList(new Departure(8, 4, 2), new Departure(4, 4, 2));
+		WaitlistDistribution waitlistDistribution = new WaitlistDistributor(departures, new ForkJoinPool(2))
+															.distribute(inputParser.getPassengerGroups(), 
+																		inputParser.getPassengerCount());
+		
+		assertTrue(waitlistDistribution.getUnassignedGroups().isEmpty());
+		assertEquals(2, waitlistDistribution.getSittingArrangements().size());
+		assertTrue(waitlistDistribution.getSatisfactionScore() > 78.75);
+		assertEquals(40, seatedPassengers(waitlistDistribution).size());
+	}
+	
+	@Test
+	public void testGroupsStayOnOneDeparture() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInputFile(OVERSUBSCRIBED_FILE_PATH);
+		
+		//38 seats for 40 passengers
+		List<Departure> departures = Arrays.asList(new Departure(4, 4, 2), new Departure(4, 4, 2), new Departure(2, 3, 2));
+		List<List<Passenger>> passengerGroups = new ArrayList<List<Passenger>>(inputParser.getPassengerGroups());
+		WaitlistDistribution waitlistDistribution = new WaitlistDistributor(departures)
+															.distribute(inputParser.getPassengerGroups(), 
+																		inputParser.getPassengerCount());
+		
+		//the departure of each passenger
+		List<Set<Integer>> departurePassengers = new ArrayList<Set<Integer>>();
+		for(SittingArrangement sittingArrangement: waitlistDistribution.getSittingArrangements()) {
+			Set<Integer> passengerIDs = new HashSet<Integer>();
+			for(List<Passenger> row: sittingArrangement.getSeatConfiguration()) {
+				for(Passenger passenger: row) {
+					passengerIDs.add(passenger.getPassengerID());
+				}
+			}
+			departurePassengers.add(passengerIDs);
+		}
+		
+		for(List<Passenger> passengerGroup: passengerGroups) {
+			
+			//departures that seat a passenger of the group
+			int numDepartures = 0;
+			for(Set<Integer> passengerIDs: departurePassengers) {
+				for(Passenger passenger: passengerGroup) {
+					if(passengerIDs.contains(passenger.getPassengerID())) {
+						numDepartures++;
+						break;
+					}
+				}
+			}
+			
+			assertTrue(numDepartures <= 1);
+		}
+		
+		assertTrue(seatedPassengers(waitlistDistribution).size() <= 38);
+		assertTrue(waitlistDistribution.getSatisfactionScore() <= 38.0 / 40 * 100);
+	}
+	
+	@Test
+	public void testEveryPassengerSeatedOrUnassigned() {
+		
+		PassengerParser inputParser = new PassengerParser();
+		inputParser.parseInput(new ByteArrayInputStream("9 9\n1 2\n3 4\n5 6\n7 8".getBytes(StandardCharsets.UTF_8)));
+		
+		//the seats of the departure would take three of the four pairs, but its rows only take two
+		List<Departure> departures = Arrays.asList(new Departure(2, 3, inputParser.getNumWindowsInPlane()));
+		WaitlistDistribution waitlistDistribution = new WaitlistDistributor(departures)
+															.distribute(inputParser.getPassengerGroups(), 
+																		inputParser.getPassengerCount());
+		
+		Set<Integer> passengerIDs = seatedPassengers(waitlistDistribution);
+		for(List<Passenger> unassignedGroup: waitlistDistribution.getUnassignedGroups()) {
+			for(Passenger passenger: unassignedGroup) {
+				assertTrue(passengerIDs.add(passenger.getPassengerID()));
+			}
+		}
+		
+		assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8)), passengerIDs);
+		assertEquals(4, seatedPassengers(waitlistDistribution).size());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoDepartures() {
+		new WaitlistDistributor(new ArrayList<Departure>());
+	}
+	
+	/*
+	 * Returns the IDs of the passengers seated on any departure, checking that nobody is seated twice
+	 */
+	private static Set<Integer> seatedPassengers(WaitlistDistribution waitlistDistribution) {
+		
+		Set<Integer> passengerIDs = new HashSet<Integer>();
+		
+		for(SittingArrangement sittingArrangement: waitlistDistribution.getSittingArrangements()) {
+			for(List<Passenger> row: sittingArrangement.getSeatConfiguration()) {
+				for(Passenger passenger: row) {
+					assertTrue(passengerIDs.add(passenger.getPassengerID()));
+				}
+			}
+		}
+		
+		return passengerIDs;
+	}
+
+}
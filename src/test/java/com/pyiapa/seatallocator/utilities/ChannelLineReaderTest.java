@@ -0,0 +1,57 @@
+package com.pyiapa.seatallocator.utilities;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+/**
+ * 
+ * Ensures that ChannelLineReader reads the lines of a channel through a small buffer.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ChannelLineReaderTest {
+	
+	@Test
+	public void testReadsLinesAcrossBuffers() {
+		
+		ChannelLineReader lineReader = createReader("4 4\r\n1W 2 3\n\n4 5 6 7", 2);
+		
+		assertEquals("4 4", lineReader.nextLine());
+		assertEquals("1W 2 3", lineReader.nextLine());
+		assertEquals("", lineReader.nextLine());
+		assertTrue(lineReader.hasNextLine());
+		assertEquals("4 5 6 7", lineReader.nextLine());
+		assertFalse(lineReader.hasNextLine());
+	}
+	
+	@Test
+	public void testNoLineAfterLastTerminator() {
+		
+		ChannelLineReader lineReader = createReader("8\n", 16);
+		
+		assertEquals("8", lineReader.nextLine());
+		assertFalse(lineReader.hasNextLine());
+		assertFalse(createReader("", 16).hasNextLine());
+	}
+	
+	@Test(expected = NoSuchElementException.class)
+	public void testReadPastEnd() {
+		createReader("", 1).nextLine();
+	}
+	
+	/*
+	 * Creates a reader of the given contents with a buffer of the given size
+	 */
+	private ChannelLineReader createReader(String contents, int bufferSize) {
+		return new ChannelLineReader(Channels.newChannel(new ByteArrayInputStream(contents.getBytes(StandardCharsets.US_ASCII))), 
+									 bufferSize);
+	}
+
+}
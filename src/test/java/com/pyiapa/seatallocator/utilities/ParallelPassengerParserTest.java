@@ -0,0 +1,214 @@
+package com.pyiapa.seatallocator.utilities;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.pyiapa.seatallocator.domain.Passenger;
+
+/**
+ * 
+ * Ensures that ParallelPassengerParser produces the same outcome as PassengerParser, on both
+ * valid and invalid inputs, including inputs large enough to be split into many chunks.
+ * 
+ * @author pyiapa
+ *
+ */
+public class ParallelPassengerParserTest {
+	
+	private final static String INPUT_DIRECTORY = "src/test/resources/input";
+	private final static int LARGE_INPUT_LINES = 200000;
+	
+	@Rule
+	public TemporaryFolder inputFolder = new TemporaryFolder();
+	
+	@Test
+	public void testSampleInputs() throws IOException {
+		
+		for(File inputFile: new File(INPUT_DIRECTORY).listFiles()) {
+			if(inputFile.getName().startsWith("Input.")) {
+				assertSameOutcome(inputFile.getPath());
+			}
+		}
+	}
+	
+	@Test
+	public void testLargeInput() throws IOException {
+		
+		String inputFile = writeLargeInput(0, null);
+		
+		assertSameOutcome(inputFile);
+		
+		ParallelPassengerParser inputParser = new ParallelPassengerParser();
+		inputParser.parseInputFile(inputFile);
+		assertEquals(LARGE_INPUT_LINES, inputParser.getPassengerGroups().size());
+	}
+	
+	@Test
+	public void testInvalidLineNumberInLargeInput() throws IOException {
+		
+		int invalidLine = LARGE_INPUT_LINES - 1234;
+		
+		try {
+			new ParallelPassengerParser().parseInputFile(writeLargeInput(invalidLine, "X"));
+			fail("Invalid passenger format was not reported");
+			
+		}catch(IllegalArgumentException e) {
+			assertEquals("Error while parsing passengers. Invalid passenger format. Line " + invalidLine, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testDuplicatePassengerLineNumberInLargeInput() throws IOException {
+		
+		int duplicateLine = LARGE_INPUT_LINES - 1234;
+		
+		try {
+			new ParallelPassengerParser().parseInputFile(writeLargeInput(duplicateLine, "1W"));
+			fail("Duplicate passenger was not reported");
+			
+		}catch(IllegalArgumentException e) {
+			assertEquals("Error while parsing passengers. Duplicate passenger ID 1. Line " + duplicateLine, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testDuplicatePassengerReportedBeforeLaterInvalidLine() throws IOException {
+		
+		Path inputFile = inputFolder.newFile().toPath();
+		StringBuilder input = new StringBuilder("10 3\n");
+		
+		//an early duplicate and an invalid line far enough to be in another chunk
+		for(int line = 2; line < LARGE_INPUT_LINES; line++) {
+			input.append((line == 3)? 2:line).append((line == LARGE_INPUT_LINES - 1)? "X\n":"\n");
+		}
+		Files.write(inputFile, input.toString().getBytes());
+		
+		assertSameOutcome(inputFile.toString());
+		
+		try {
+			new ParallelPassengerParser().parseInputFile(inputFile.toString());
+			fail("Duplicate passenger was not reported");
+			
+		}catch(IllegalArgumentException e) {
+			assertEquals("Error while parsing passengers. Duplicate passenger ID 2. Line 3", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testLineSeparators() throws IOException {
+		
+		//lines end where Scanner ends them: at a lone \r, \n or \r\n, mixed or not
+		String[] inputs = {"2 4\r1 2 3\r4 5\r", "2 4\r\n1 2 3\r\n4 5", "2 4\n1 2 3\r4 5\r\n", "2 4\r1 2 3\n4 5\r\n"};
+		
+		for(String input: inputs) {
+			
+			Path inputFile = inputFolder.newFile().toPath();
+			Files.write(inputFile, input.getBytes(StandardCharsets.UTF_8));
+			
+			assertSameOutcome(inputFile.toString());
+			
+			ParallelPassengerParser inputParser = new ParallelPassengerParser();
+			inputParser.parseInputFile(inputFile.toString());
+			assertEquals(2, inputParser.getNumRows());
+			assertEquals(2, inputParser.getPassengerGroups().size());
+			assertEquals(5, inputParser.getPassengerCount());
+		}
+	}
+	
+	@Test
+	public void testMissingFile() {
+		
+		try {
+			new ParallelPassengerParser().parseInputFile(INPUT_DIRECTORY + "/Input.DoesNotExist");
+			fail("Missing file was not reported");
+			
+		}catch(IllegalArgumentException e) {
+			assertEquals("Please provide Input File", e.getMessage());
+		}
+	}
+	
+	/*
+	 * Writes an input with windows line endings and a group per line. If an invalid line number is given
+	 * (counting the plane dimensions as line 1), that line ends with the given passenger.
+	 */
+	private String writeLargeInput(int invalidLine, String invalidPassenger) throws IOException {
+		
+		Path inputFile = inputFolder.newFile().toPath();
+		int passengerID = 1;
+		
+		try(PrintWriter input = new PrintWriter(Files.newBufferedWriter(inputFile))) {
+			
+			input.print("100 6\r\n");
+			
+			for(int line = 2; line < LARGE_INPUT_LINES + 2; line++) {
+				for(int passenger = 0; passenger <= line % 4; passenger++) {
+					input.print(passengerID++ + ((line % 7 == 0)? "W":"") + " ");
+				}
+				input.print((line == invalidLine)? invalidPassenger + "\r\n":passengerID++ + "\r\n");
+			}
+		}
+		
+		return inputFile.toString();
+	}
+	
+	/*
+	 * Parses an input with both parsers and compares the outcome
+	 */
+	private void assertSameOutcome(String inputFile) {
+		
+		PassengerParser sequentialParser = new PassengerParser();
+		ParallelPassengerParser parallelParser = new ParallelPassengerParser();
+		String sequentialError = null;
+		String parallelError = null;
+		
+		try {
+			sequentialParser.parseInputFile(inputFile);
+		}catch(IllegalArgumentException e) {
+			sequentialError = e.getMessage();
+		}
+		
+		try {
+			parallelParser.parseInputFile(inputFile);
+		}catch(IllegalArgumentException e) {
+			parallelError = e.getMessage();
+		}
+		
+		assertEquals(inputFile, sequentialError, parallelError);
+		
+		if(sequentialError == null) {
+			
+			List<List<Passenger>> sequentialGroups = sequentialParser.getPassengerGroups();
+			List<List<Passenger>> parallelGroups = parallelParser.getPassengerGroups();
+			
+			assertEquals(inputFile, sequentialParser.getNumRows(), parallelParser.getNumRows());
+			assertEquals(inputFile, sequentialParser.getNumSeatsInRow(), parallelParser.getNumSeatsInRow());
+			assertEquals(inputFile, sequentialParser.getPassengerCount(), parallelParser.getPassengerCount());
+			assertEquals(inputFile, sequentialGroups.size(), parallelGroups.size());
+			
+			for(int group = 0; group < sequentialGroups.size(); group++) {
+				assertEquals(inputFile, sequentialGroups.get(group).size(), parallelGroups.get(group).size());
+				
+				for(int passenger = 0; passenger < sequentialGroups.get(group).size(); passenger++) {
+					assertEquals(sequentialGroups.get(group).get(passenger).getPassengerID(), 
+							     parallelGroups.get(group).get(passenger).getPassengerID());
+					assertEquals(sequentialGroups.get(group).get(passenger).hasWindowPreference(), 
+						         parallelGroups.get(group).get(passenger).hasWindowPreference());
+					assertEquals(sequentialGroups.get(group).get(passenger).isPassengerInGroup(), 
+					             parallelGroups.get(group).get(passenger).isPassengerInGroup());
+				}
+			}
+		}
+	}
+
+}
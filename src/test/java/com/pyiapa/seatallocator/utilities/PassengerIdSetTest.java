@@ -0,0 +1,51 @@
+package com.pyiapa.seatallocator.utilities;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * 
+ * Ensures that PassengerIdSet keeps track of dense and sparse passenger IDs.
+ * 
+ * @author pyiapa
+ *
+ */
+public class PassengerIdSetTest {
+	
+	@Test
+	public void testDenseIDs() {
+		
+		PassengerIdSet passengerIDs = new PassengerIdSet();
+		
+		for(int passengerID = 0; passengerID < 200000; passengerID++) {
+			assertTrue(passengerIDs.add(passengerID));
+		}
+		
+		for(int passengerID = 0; passengerID < 200000; passengerID += 7) {
+			assertFalse(passengerIDs.add(passengerID));
+			assertTrue(passengerIDs.contains(passengerID));
+		}
+		
+		assertFalse(passengerIDs.contains(200000));
+		assertEquals(200000, passengerIDs.size());
+	}
+	
+	@Test
+	public void testSparseIDs() {
+		
+		PassengerIdSet passengerIDs = new PassengerIdSet();
+		
+		assertTrue(passengerIDs.add(Integer.MAX_VALUE));
+		assertTrue(passengerIDs.add(63));
+		assertTrue(passengerIDs.add(64));
+		assertFalse(passengerIDs.add(Integer.MAX_VALUE));
+		
+		assertTrue(passengerIDs.contains(Integer.MAX_VALUE));
+		assertFalse(passengerIDs.contains(Integer.MAX_VALUE - 1));
+		assertFalse(passengerIDs.contains(62));
+		assertFalse(passengerIDs.contains(-1));
+		assertEquals(3, passengerIDs.size());
+	}
+
+}
@@ -2,6 +2,11 @@ package com.pyiapa.seatallocator.utilities;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -10,6 +15,7 @@ import org.junit.rules.ExpectedException;
 
 
 
+import com.pyiapa.seatallocator.domain.Passenger;
 import com.pyiapa.seatallocator.utilities.PassengerParser;
 
 /**
@@ -30,6 +36,9 @@ public class PassengerParserTest {
 	private final static String DIMS_MISSING_FILE_PATH = "src/test/resources/input/Input.InvalidDimensionsMissing";
 	private final static String INVALID_PASSENGERS_MISSING_FILE_PATH = "src/test/resources/input/Input.InvalidPassengersMissing";
 	private final static String INVALID_PASSENGER_FORMAT_FILE_PATH = "src/test/resources/input/Input.InvalidPassengerFormat";
+	private final static String DUPLICATE_PASSENGER_FILE_PATH = "src/test/resources/input/Input.InvalidDuplicatePassenger";
+	private final static String LARGE_GROUPS_FILE_PATH = "src/test/resources/input/Input.LargeGroups";
+	private final static String WIDE_PLANE_FILE_PATH = "src/test/resources/input/Input.WidePlane";
 	private final static int NUM_ROWS = 4;
 	private final static int NUM_SEATS_PER_ROW = 4;
 	
@@ -131,6 +140,90 @@ public class PassengerParserTest {
 		
 	}
 	
+	@Test
+	public void testLargeGroupWindowPreferencesFirst() {
+		
+		//a tour group of 40 passengers, every fourth wishing for a window seat
+		StringBuilder tourGroup = new StringBuilder();
+		for(int passengerID = 1; passengerID <= 40; passengerID++) {
+			tourGroup.append(passengerID).append(passengerID % 4 == 0? "W ":" ");
+		}
+		
+		List<Passenger> passengerGroup = inputParser.parsePassengerGroup(tourGroup.toString().trim());
+		
+		assertEquals(40, passengerGroup.size());
+		assertEquals(40, passengerGroup.get(0).getPassengerID());
+		assertEquals(4, passengerGroup.get(9).getPassengerID());
+		assertEquals(1, passengerGroup.get(10).getPassengerID());
+		assertEquals(39, passengerGroup.get(39).getPassengerID());
+	}
+	
+	@Test
+	public void testChannelInputMatchesFileInput() throws IOException {
+		
+		for(String inputFile: new String[] {TEST_INPUT_FILE_PATH, LARGE_GROUPS_FILE_PATH, WIDE_PLANE_FILE_PATH}) {
+			
+			PassengerParser channelParser = new PassengerParser();
+			
+			//a buffer much smaller than a line, so that lines are read across many fills of the buffer
+			inputParser = new PassengerParser();
+			inputParser.parseInputFile(inputFile);
+			channelParser.parseInput(FileChannel.open(Paths.get(inputFile)), 3);
+			
+			assertEquals(inputParser.getNumRows(), channelParser.getNumRows());
+			assertEquals(inputParser.getNumSeatsInRow(), channelParser.getNumSeatsInRow());
+			assertEquals(inputParser.getPassengerCount(), channelParser.getPassengerCount());
+			assertEquals(inputParser.getPassengerGroups().toString(), channelParser.getPassengerGroups().toString());
+		}
+	}
+	
+	@Test
+	public void testChannelInputReportsLine() throws IOException {
+		
+		expectedEx.expect(IllegalArgumentException.class);
+		
+		expectedEx.expectMessage("Error while parsing passengers. Invalid passenger format. Line 5");
+		inputParser.parseInput(FileChannel.open(Paths.get(INVALID_PASSENGER_FORMAT_FILE_PATH)), 8);
+		
+	}
+	
+	@Test
+	public void testPassengerWeights() {
+		
+		List<Passenger> passengerGroup = inputParser.parsePassengerGroup("1W:3 2:2 3");
+		
+		assertEquals(3, passengerGroup.size());
+		assertEquals(1, passengerGroup.get(0).getPassengerID());
+		assertTrue(passengerGroup.get(0).hasWindowPreference());
+		assertEquals(3, passengerGroup.get(0).getWeight());
+		assertEquals(2, passengerGroup.get(1).getWeight());
+		assertEquals(Passenger.DEFAULT_WEIGHT, passengerGroup.get(2).getWeight());
+		
+		//weights start from 1
+		assertNull(inputParser.parsePassengerGroup("1:0"));
+		assertNull(inputParser.parsePassengerGroup("1:"));
+	}
+	
+	@Test
+	public void testDuplicatePassenger() {
+		
+		expectedEx.expect(IllegalArgumentException.class);
+		
+		expectedEx.expectMessage("Error while parsing passengers. Duplicate passenger ID 3. Line 5");
+		inputParser.parseInputFile(DUPLICATE_PASSENGER_FILE_PATH);
+		
+	}
+	
+	@Test
+	public void testInvalidPassengerFormatLine() {
+		
+		expectedEx.expect(IllegalArgumentException.class);
+		
+		expectedEx.expectMessage("Error while parsing passengers. Invalid passenger format. Line 5");
+		inputParser.parseInputFile(INVALID_PASSENGER_FORMAT_FILE_PATH);
+		
+	}
+	
 
 	
 	@After